@@ -19,6 +19,7 @@
  */
 package com.orientechnologies.orient.client.binary;
 
+import com.orientechnologies.common.concur.lock.OInterruptedException;
 import com.orientechnologies.common.concur.lock.OLockException;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.exception.OSystemException;
@@ -28,6 +29,7 @@ import com.orientechnologies.orient.client.remote.OStorageRemoteNodeSession;
 import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
 import com.orientechnologies.orient.client.remote.message.OError37Response;
 import com.orientechnologies.orient.core.OConstants;
+import com.orientechnologies.orient.core.compression.OCompressionFactory;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.serialization.OMemoryInputStream;
@@ -49,6 +51,15 @@ import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
 
 public class OChannelBinaryAsynchClient extends OChannelBinary {
   private         int    socketTimeout;                                               // IN MS
@@ -58,6 +69,17 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
   private         int    currentSessionId;
   private         byte   currentMessage;
 
+  // PIPELINING: THE SERVER ANSWERS THE REQUESTS IN THE SAME ORDER THEY ARE SENT
+  private volatile boolean   pipelined;
+  private          long      pipelinedRequestsSent;
+  private          long      pipelinedResponsesRead;
+  private final    Lock      pipelineLock = new ReentrantLock();
+  private final    Condition pipelineTurn = pipelineLock.newCondition();
+
+  // RESPONSES READ BY A BACKGROUND TASK, IN THE ORDER OF THE PIPELINE
+  private final Queue<Runnable> asyncResponseReaders = new ConcurrentLinkedQueue<Runnable>();
+  private final AtomicBoolean   asyncReading         = new AtomicBoolean();
+
   public OChannelBinaryAsynchClient(final String remoteHost, final int remotePort, final String iDatabaseName,
       final OContextConfiguration iConfig, final int iProtocolVersion) throws IOException {
     super(OSocketFactory.instance(iConfig).createSocket(), iConfig);
@@ -89,13 +111,29 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
 
         srvProtocolVersion = readShort();
 
+        // A SERVER OF A PREVIOUS VERSION WOULD SERVE AN UNKNOWN VERSION WITH THE LEGACY PROTOCOL
+        final short handshakeVersion =
+            srvProtocolVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_37 && srvProtocolVersion < iProtocolVersion ?
+                srvProtocolVersion :
+                (short) iProtocolVersion;
+
         writeByte(OChannelBinaryProtocol.REQUEST_HANDSHAKE);
-        writeShort((short) iProtocolVersion);
+        writeShort(handshakeVersion);
         writeString("Java Client");
         writeString(OConstants.getVersion());
         writeByte(OChannelBinaryProtocol.ENCODING_DEFAULT);
         writeByte(OChannelBinaryProtocol.ERROR_MESSAGE_JAVA);
+        if (handshakeVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_38)
+          writeString(iConfig.getValueAsString(OGlobalConfiguration.NETWORK_BINARY_COMPRESSION));
         flush();
+
+        if (handshakeVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_38) {
+          // THE SERVER ANSWERS WITH THE COMPRESSION ACCEPTED, EMPTY IF NONE
+          final String compression = readString();
+          if (compression != null && !compression.isEmpty())
+            enableCompression(OCompressionFactory.INSTANCE.getCompression(compression, null),
+                iConfig.getValueAsInteger(OGlobalConfiguration.NETWORK_BINARY_COMPRESSION_THRESHOLD));
+        }
       } catch (IOException e) {
         throw new ONetworkProtocolException(
             "Cannot read protocol version from remote server " + socket.getRemoteSocketAddress() + ": " + e);
@@ -219,6 +257,128 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
     releaseWriteLock();
   }
 
+  /**
+   * Ends a request sent on a channel shared by more requests and returns its position in the pipeline, that must be passed to
+   * {@link #beginPipelinedResponse(long)} to read the response. The caller must hold the write lock, that is released.
+   *
+   * @param sent false if the request has not been completely written, in this case the channel is closed because the next
+   *             requests cannot be read by the server
+   */
+  public long endPipelinedRequest(final boolean sent) throws IOException {
+    return endPipelinedRequest(sent, null, null);
+  }
+
+  /**
+   * Ends a request sent on a channel shared by more requests, like {@link #endPipelinedRequest(boolean)}, and schedules the reading
+   * of its response on the passed executor. The responses are read by one task at a time, in the order of the pipeline.
+   *
+   * @param sent           false if the request has not been completely written
+   * @param responseReader reads the response, it receives the position of the request in the pipeline and it must call {@link
+   *                       #beginPipelinedResponse(long)} and {@link #endPipelinedResponse(boolean)}. It is not called if the
+   *                       request has not been sent
+   * @param executor       executor of the task that reads the responses
+   */
+  public long endPipelinedRequest(final boolean sent, final LongConsumer responseReader, final Executor executor)
+      throws IOException {
+    try {
+      if (!sent) {
+        close();
+        throw new IOException("Request not completely sent, the channel has been closed");
+      }
+      try {
+        flush();
+      } catch (IOException e) {
+        close();
+        throw e;
+      }
+      final long position = pipelinedRequestsSent++;
+      if (responseReader != null)
+        // ENQUEUED UNDER THE WRITE LOCK TO KEEP THE ORDER OF THE PIPELINE
+        asyncResponseReaders.offer(() -> responseReader.accept(position));
+      return position;
+    } finally {
+      releaseWriteLock();
+      if (responseReader != null)
+        scheduleAsyncResponseReaders(executor);
+    }
+  }
+
+  private void scheduleAsyncResponseReaders(final Executor executor) {
+    if (asyncResponseReaders.isEmpty() || !asyncReading.compareAndSet(false, true))
+      return;
+
+    try {
+      executor.execute(this::readAsyncResponses);
+    } catch (RejectedExecutionException e) {
+      // THE CLIENT IS SHUTTING DOWN: THE READERS FAIL IMMEDIATELY ON THE CLOSED CHANNEL
+      close();
+      readAsyncResponses();
+    }
+  }
+
+  private void readAsyncResponses() {
+    do {
+      Runnable reader;
+      while ((reader = asyncResponseReaders.poll()) != null)
+        reader.run();
+      asyncReading.set(false);
+      // A READER COULD HAVE BEEN ENQUEUED AFTER THE QUEUE WAS DRAINED BUT BEFORE THE FLAG WAS RESET
+    } while (!asyncResponseReaders.isEmpty() && asyncReading.compareAndSet(false, true));
+  }
+
+  /**
+   * Waits until the responses of all the requests sent before the one in the passed position are read.
+   *
+   * @param position position in the pipeline returned by {@link #endPipelinedRequest(boolean)}
+   */
+  public void beginPipelinedResponse(final long position) throws IOException {
+    pipelineLock.lock();
+    try {
+      while (pipelinedResponsesRead != position) {
+        if (!isConnected())
+          throw new IOException("Channel is closed");
+        pipelineTurn.await();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      // THE RESPONSE WILL NOT BE READ: THE NEXT ONES CANNOT BE READ TOO
+      close();
+      throw OException.wrapException(new OInterruptedException("Interrupted while waiting for the response"), e);
+    } finally {
+      pipelineLock.unlock();
+    }
+  }
+
+  /**
+   * Lets the next request in the pipeline read its response.
+   *
+   * @param consistent false if the response has not been completely read, in this case the channel is closed and all the
+   * requests waiting for their response fail
+   */
+  public void endPipelinedResponse(final boolean consistent) {
+    if (!consistent)
+      close();
+
+    pipelineLock.lock();
+    try {
+      pipelinedResponsesRead++;
+      pipelineTurn.signalAll();
+    } finally {
+      pipelineLock.unlock();
+    }
+  }
+
+  /**
+   * @return true if the channel is shared by more requests, that wait for their response in the pipeline
+   */
+  public boolean isPipelined() {
+    return pipelined;
+  }
+
+  public void setPipelined(final boolean pipelined) {
+    this.pipelined = pipelined;
+  }
+
   @Override
   public void close() {
     try {
@@ -226,6 +386,14 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
     } catch (Exception e) {
       // IGNORE IT
     }
+
+    // WAKE UP THE REQUESTS WAITING FOR THEIR RESPONSE
+    pipelineLock.lock();
+    try {
+      pipelineTurn.signalAll();
+    } finally {
+      pipelineLock.unlock();
+    }
   }
 
   @Override
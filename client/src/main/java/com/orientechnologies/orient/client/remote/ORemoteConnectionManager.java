@@ -23,6 +23,7 @@ import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.exception.OAcquireTimeoutException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -57,12 +58,51 @@ public class ORemoteConnectionManager {
   }
 
   public OChannelBinaryAsynchClient acquire(String iServerURL, final OContextConfiguration clientConfiguration) {
+    return acquire(iServerURL, clientConfiguration, 0, true);
+  }
+
+  /**
+   * Acquires a channel without waiting, only if the pool keeps at least another available channel for the other requests. Used to
+   * reserve a channel for a long time, when the caller has a fallback on the channels acquired for each request.
+   *
+   * @return the channel, or null if the pool has not enough available channels
+   */
+  public OChannelBinaryAsynchClient tryAcquire(String iServerURL, final OContextConfiguration clientConfiguration) {
+    if (getAvailableConnections(normalizeURL(iServerURL)) < 2)
+      return null;
+
+    try {
+      return acquire(iServerURL, clientConfiguration, 0, false);
+    } catch (OAcquireTimeoutException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Acquires a channel that can be shared by up to <code>maxPipelinedRequests</code> requests, when all the channels of the pool
+   * are busy. The requests that share a channel must be sent and read with {@link OChannelBinaryAsynchClient#endPipelinedRequest(boolean)}
+   * and {@link OChannelBinaryAsynchClient#beginPipelinedResponse(long)}. The returned channel is always marked as pipelined, also
+   * when it is not shared.
+   */
+  public OChannelBinaryAsynchClient acquirePipelined(String iServerURL, final OContextConfiguration clientConfiguration) {
+    final int maxPipelinedRequests = clientConfiguration.getValueAsInteger(OGlobalConfiguration.CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS);
+    return acquire(iServerURL, clientConfiguration, Math.max(1, maxPipelinedRequests), true);
+  }
+
+  private static String normalizeURL(String iServerURL) {
     if (iServerURL.startsWith(OEngineRemote.PREFIX))
       iServerURL = iServerURL.substring(OEngineRemote.PREFIX.length());
 
     if (iServerURL.endsWith("/"))
       iServerURL = iServerURL.substring(0, iServerURL.length() - 1);
 
+    return iServerURL;
+  }
+
+  private OChannelBinaryAsynchClient acquire(String iServerURL, final OContextConfiguration clientConfiguration,
+      final int maxPipelinedRequests, final boolean wait) {
+    iServerURL = normalizeURL(iServerURL);
+
     long localTimeout = timeout;
 
     ORemoteConnectionPool pool = connections.get(iServerURL);
@@ -88,9 +128,16 @@ public class ORemoteConnectionManager {
       }
     }
 
+    if (!wait)
+      localTimeout = 0;
+
     try {
       // RETURN THE RESOURCE
-      OChannelBinaryAsynchClient ret = pool.acquire(iServerURL, localTimeout, clientConfiguration);
+      OChannelBinaryAsynchClient ret;
+      if (maxPipelinedRequests > 0)
+        ret = pool.acquirePipelined(iServerURL, localTimeout, clientConfiguration, maxPipelinedRequests);
+      else
+        ret = pool.acquire(iServerURL, localTimeout, clientConfiguration);
       return ret;
 
     } catch (RuntimeException e) {
@@ -109,7 +156,9 @@ public class ORemoteConnectionManager {
 
     final ORemoteConnectionPool pool = connections.get(conn.getServerURL());
     if (pool != null) {
-      if (!conn.isConnected()) {
+      if (conn.isPipelined()) {
+        pool.releasePipelined(conn, false);
+      } else if (!conn.isConnected()) {
         OLogManager.instance().debug(this, "Network connection pool is receiving a closed connection to reuse: discard it");
         remove(conn);
       } else {
@@ -126,6 +175,12 @@ public class ORemoteConnectionManager {
     if (pool == null)
       throw new IllegalStateException("Connection cannot be released because the pool doesn't exist anymore");
 
+    if (conn.isPipelined()) {
+      // THE OTHER REQUESTS ON THE SAME CHANNEL FAIL AND RELEASE IT
+      pool.releasePipelined(conn, true);
+      return;
+    }
+
     pool.getPool().remove(conn);
 
     try {
@@ -1,5 +1,6 @@
 package com.orientechnologies.orient.client.remote;
 
+import com.orientechnologies.common.concur.lock.OInterruptedException;
 import com.orientechnologies.common.concur.resource.OResourcePool;
 import com.orientechnologies.common.concur.resource.OResourcePoolListener;
 import com.orientechnologies.common.exception.OException;
@@ -9,6 +10,9 @@ import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 /**
  * Created by tglman on 01/10/15.
  */
@@ -16,6 +20,11 @@ public class ORemoteConnectionPool implements OResourcePoolListener<String, OCha
 
   private OResourcePool<String, OChannelBinaryAsynchClient> pool;
 
+  /**
+   * Channels taken from the pool that are shared by more requests, with the number of requests that are using them
+   */
+  private final Map<OChannelBinaryAsynchClient, Integer> pipelined = new IdentityHashMap<>();
+
   public ORemoteConnectionPool(int iMaxResources) {
     pool = new OResourcePool<>(iMaxResources, this);
   }
@@ -89,5 +98,82 @@ public class ORemoteConnectionPool implements OResourcePoolListener<String, OCha
       final OContextConfiguration clientConfiguration) {
     return pool.getResource(iServerURL, timeout, clientConfiguration);
   }
-  
+
+  /**
+   * Acquires a channel that can be shared with other requests: a channel of the pool is used as long as the pool has available
+   * channels, otherwise the request is sent on the shared channel with less requests waiting for their response.
+   *
+   * @param maxPipelinedRequests maximum number of requests that can use the same channel
+   */
+  public OChannelBinaryAsynchClient acquirePipelined(final String iServerURL, final long timeout,
+      final OContextConfiguration clientConfiguration, final int maxPipelinedRequests) {
+    final long deadline = System.currentTimeMillis() + timeout;
+    synchronized (pipelined) {
+      while (pool.getAvailableResources() == 0) {
+        OChannelBinaryAsynchClient lessUsed = null;
+        int lessUsedRequests = Integer.MAX_VALUE;
+        for (Map.Entry<OChannelBinaryAsynchClient, Integer> entry : pipelined.entrySet()) {
+          if (entry.getValue() < lessUsedRequests && entry.getKey().isConnected()) {
+            lessUsed = entry.getKey();
+            lessUsedRequests = entry.getValue();
+          }
+        }
+        if (lessUsed != null && lessUsedRequests < maxPipelinedRequests) {
+          pipelined.put(lessUsed, lessUsedRequests + 1);
+          return lessUsed;
+        }
+
+        final long wait = deadline - System.currentTimeMillis();
+        if (pipelined.isEmpty() || wait <= 0)
+          // NO SHARED CHANNEL WILL BE RELEASED: WAIT ON THE POOL
+          break;
+        try {
+          pipelined.wait(wait);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw OException.wrapException(new OInterruptedException("Interrupted while waiting for a network channel"), e);
+        }
+      }
+    }
+
+    final OChannelBinaryAsynchClient channel = pool.getResource(iServerURL, timeout, clientConfiguration);
+    synchronized (pipelined) {
+      channel.setPipelined(true);
+      pipelined.put(channel, 1);
+    }
+    return channel;
+  }
+
+  /**
+   * Releases a channel acquired with {@link #acquirePipelined(String, long, OContextConfiguration, int)}, it is returned to the
+   * pool when it is not used by any request.
+   *
+   * @param discard true if the channel cannot be used anymore, it is closed and removed from the pool
+   */
+  public void releasePipelined(final OChannelBinaryAsynchClient channel, final boolean discard) {
+    final boolean unused;
+    synchronized (pipelined) {
+      final Integer requests = pipelined.get(channel);
+      if (requests == null)
+        return;
+
+      if (discard)
+        channel.close();
+
+      unused = requests <= 1;
+      if (unused) {
+        pipelined.remove(channel);
+        channel.setPipelined(false);
+      } else
+        pipelined.put(channel, requests - 1);
+      pipelined.notifyAll();
+    }
+
+    if (unused) {
+      if (channel.isConnected())
+        pool.returnResource(channel);
+      else
+        pool.remove(channel);
+    }
+  }
 }
@@ -0,0 +1,175 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.client.remote;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.io.OIOException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
+import com.orientechnologies.orient.client.remote.message.OCloseQueryRequest;
+import com.orientechnologies.orient.client.remote.message.OCloseQueryResponse;
+import com.orientechnologies.orient.client.remote.message.OQueryNextPageRequest;
+import com.orientechnologies.orient.client.remote.message.OQueryResponse;
+import com.orientechnologies.orient.core.exception.ODatabaseException;
+
+import java.io.IOException;
+
+/**
+ * Streams the pages of a remote query on a channel reserved to it: up to <code>credits</code> pages are requested in advance, so
+ * the server produces the next pages while the client consumes the current one instead of waiting for a request after each
+ * page. A new page is requested only when a page is taken, so the pages sent in advance are never more than the credits, and the
+ * pages not read yet are held back by the flow control of the connection.
+ * <p>
+ * The pages are read by the thread of the database that executed the query, so the records are bound to it like the records of
+ * the other pages. The channel is returned to the pool after the last page, or after {@link #close()}. The result set of the stream
+ * is an active query of its database, so the stream is closed also when the database is closed without closing the result set.
+ *
+ * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#QUERY_REMOTE_RESULTSET_STREAM_PAGES
+ */
+public class ORemoteQueryStream {
+  private final OStorageRemote             storage;
+  private final OChannelBinaryAsynchClient network;
+  private final OStorageRemoteSession      session;
+  private final String                     queryId;
+  private final int                        recordsPerPage;
+  private final int                        credits;
+  private       int                        requested;
+  private       boolean                    ended;
+
+  public ORemoteQueryStream(final OStorageRemote storage, final OChannelBinaryAsynchClient network,
+      final OStorageRemoteSession session, final String queryId, final int recordsPerPage, final int credits) {
+    this.storage = storage;
+    this.network = network;
+    this.session = session;
+    this.queryId = queryId;
+    this.recordsPerPage = recordsPerPage;
+    this.credits = credits;
+  }
+
+  /**
+   * Requests the next pages until the credits are exhausted.
+   */
+  public void requestPages() {
+    try {
+      while (!ended && requested < credits) {
+        send(new OQueryNextPageRequest(queryId, recordsPerPage));
+        requested++;
+      }
+    } catch (IOException e) {
+      throw broken(e);
+    }
+  }
+
+  /**
+   * Reads the next page and requests a new page in its place.
+   *
+   * @throws ODatabaseException if the stream has already ended
+   */
+  public OQueryResponse nextPage() {
+    if (ended)
+      throw new ODatabaseException("The stream of the query " + queryId + " is closed");
+
+    final OQueryResponse response = new OQueryResponse();
+    try {
+      requested--;
+      read(response);
+    } catch (IOException e) {
+      throw broken(e);
+    } catch (RuntimeException e) {
+      // ERROR SENT BY THE SERVER, COMPLETELY READ: THE QUERY CANNOT CONTINUE
+      end(false);
+      throw e;
+    }
+
+    if (response.isHasNextPage())
+      requestPages();
+    else
+      end(false);
+    return response;
+  }
+
+  /**
+   * Stops the stream before the last page: the query is closed on the server after the pages already requested, that are
+   * discarded.
+   */
+  public void close() {
+    if (!ended)
+      end(true);
+  }
+
+  /**
+   * Reads the responses of the requests already sent and returns the channel to the pool.
+   */
+  private void end(final boolean closeQuery) {
+    ended = true;
+    try {
+      if (closeQuery)
+        send(new OCloseQueryRequest(queryId));
+
+      // AFTER THE LAST PAGE THE QUERY IS CLOSED ON THE SERVER: THE PAGES REQUESTED IN ADVANCE FAIL AND ARE DISCARDED
+      for (; requested > 0; requested--)
+        discard(new OQueryResponse());
+      if (closeQuery)
+        discard(new OCloseQueryResponse());
+    } catch (IOException e) {
+      OLogManager.instance().debug(this, "Error on ending the stream of the query %s", e, queryId);
+      storage.connectionManager.remove(network);
+      return;
+    }
+    storage.connectionManager.release(network);
+  }
+
+  private OException broken(final IOException e) {
+    ended = true;
+    storage.connectionManager.remove(network);
+    return OException.wrapException(new OIOException("Error on streaming the query " + queryId), e);
+  }
+
+  private void send(final OBinaryRequest<?> request) throws IOException {
+    try {
+      network.beginRequest(request.getCommand(), session);
+      request.write(network, session);
+    } finally {
+      network.endRequest();
+    }
+  }
+
+  private void read(final OBinaryResponse response) throws IOException {
+    try {
+      storage.beginResponse(network, session);
+      try {
+        response.read(network, session);
+      } catch (RuntimeException e) {
+        // THE REST OF THE RESPONSE CANNOT BE SKIPPED
+        throw new IOException("Error on reading a page of the query " + queryId, e);
+      }
+    } finally {
+      storage.endResponse(network);
+    }
+  }
+
+  private void discard(final OBinaryResponse response) throws IOException {
+    try {
+      read(response);
+    } catch (RuntimeException e) {
+      OLogManager.instance().debug(this, "Discarded response of the query %s", e, queryId);
+    }
+  }
+}
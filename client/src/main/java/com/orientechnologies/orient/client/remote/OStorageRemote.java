@@ -26,6 +26,7 @@ import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OIOException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.thread.OScheduledThreadPoolExecutorWithLogging;
+import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
 import com.orientechnologies.common.util.OCallable;
 import com.orientechnologies.common.util.OCommonConst;
 import com.orientechnologies.orient.client.ONotSendRequestException;
@@ -56,6 +57,7 @@ import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.security.OCredentialInterceptor;
 import com.orientechnologies.orient.core.security.OSecurityManager;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializerFactory;
+import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.query.OLiveQuery;
 import com.orientechnologies.orient.core.storage.*;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.ORecordSerializationContext;
@@ -80,8 +82,11 @@ import java.io.OutputStream;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.orientechnologies.orient.core.config.OGlobalConfiguration.CLIENT_CONNECTION_FETCH_HOST_LIST;
@@ -112,6 +117,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
   private final List<String>                   serverURLs              = new ArrayList<String>();
   private final Map<String, OCluster>          clusterMap              = new ConcurrentHashMap<String, OCluster>();
   private final ExecutorService                asynchExecutor;
+  private final ExecutorService                asyncResponseExecutor;
   private final ODocument                      clusterConfiguration    = new ODocument();
   private final AtomicInteger                  users                   = new AtomicInteger(0);
   private       OContextConfiguration          clientConfiguration;
@@ -152,6 +158,17 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
 
     asynchExecutor = new OScheduledThreadPoolExecutorWithLogging(1);
 
+    // AT MOST ONE READER OF RESPONSES FOR EACH CHANNEL
+    final int maxPool = clientConfiguration.getValueAsInteger(OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL);
+    final OThreadPoolExecutorWithLogging responseExecutor = new OThreadPoolExecutorWithLogging(maxPool, maxPool, 60,
+        TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), r -> {
+      final Thread thread = new Thread(r, "OrientDB async responses " + iURL);
+      thread.setDaemon(true);
+      return thread;
+    });
+    responseExecutor.allowCoreThreadTimeOut(true);
+    asyncResponseExecutor = responseExecutor;
+
     this.connectionManager = connectionManager;
     this.context = context;
   }
@@ -225,33 +242,165 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
 
   public <T extends OBinaryResponse> T networkOperationRetryTimeout(final OBinaryRequest<T> request, final String errorMessage,
       int retry, int timeout) {
+    // A CUSTOM TIMEOUT CANNOT BE SET ON A CHANNEL SHARED WITH OTHER REQUESTS
+    final boolean pipelined = timeout <= 0
+        && clientConfiguration.getValueAsInteger(OGlobalConfiguration.CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS) > 1;
+    return baseNetworkOperation((network, session) -> {
+      if (network.isPipelined())
+        return pipelinedNetworkOperation(network, session, request);
+      return exclusiveNetworkOperation(network, session, request, timeout);
+    }, errorMessage, retry, pipelined);
+  }
+
+  /**
+   * Sends the request on a channel not shared with other requests and reads its response.
+   */
+  private <T extends OBinaryResponse> T exclusiveNetworkOperation(final OChannelBinaryAsynchClient network,
+      final OStorageRemoteSession session, final OBinaryRequest<T> request, final int timeout) throws IOException {
+    try {
+      try {
+        network.beginRequest(request.getCommand(), session);
+        request.write(network, session);
+      } finally {
+        network.endRequest();
+      }
+    } catch (IOException e) {
+      throw new ONotSendRequestException("Cannot send request on this channel");
+    }
+
+    int prev = network.getSocketTimeout();
+    T response = request.createResponse();
+    try {
+      if (timeout > 0)
+        network.setSocketTimeout(timeout);
+      beginResponse(network, session);
+      response.read(network, session);
+    } finally {
+      endResponse(network);
+      if (timeout > 0)
+        network.setSocketTimeout(prev);
+    }
+    connectionManager.release(network);
+    return response;
+  }
+
+  /**
+   * Sends the request on a channel shared with other requests, then waits for the responses of the requests sent before it and
+   * reads its response.
+   */
+  private <T extends OBinaryResponse> T pipelinedNetworkOperation(final OChannelBinaryAsynchClient network,
+      final OStorageRemoteSession session, final OBinaryRequest<T> request) throws IOException {
+    final long position;
+    try {
+      network.acquireWriteLock();
+      boolean sent = false;
+      try {
+        network.beginRequest(request.getCommand(), session);
+        request.write(network, session);
+        sent = true;
+      } finally {
+        position = network.endPipelinedRequest(sent);
+      }
+    } catch (IOException e) {
+      throw new ONotSendRequestException("Cannot send request on this channel");
+    }
+
+    final T response = request.createResponse();
+    readPipelinedResponse(network, session, response, position);
+    connectionManager.release(network);
+    return response;
+  }
+
+  /**
+   * Waits for the responses of the requests sent before the one in the passed position of the pipeline and reads its response.
+   */
+  private void readPipelinedResponse(final OChannelBinaryAsynchClient network, final OStorageRemoteSession session,
+      final OBinaryResponse response, final long position) throws IOException {
+    boolean consistent = false;
+    try {
+      network.beginPipelinedResponse(position);
+      try {
+        beginResponse(network, session);
+      } catch (RuntimeException e) {
+        // THE ERROR SENT BY THE SERVER HAS BEEN COMPLETELY READ
+        consistent = true;
+        throw e;
+      } finally {
+        endResponse(network);
+      }
+      response.read(network, session);
+      consistent = true;
+    } finally {
+      network.endPipelinedResponse(consistent);
+    }
+  }
+
+  /**
+   * Sends the request without waiting for its response: the response is read in background and the returned future is completed
+   * with it, or with the error sent by the server. More requests can be sent on the same channel before their responses arrive,
+   * up to {@link OGlobalConfiguration#CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS} for each channel.
+   * <p>
+   * The future is completed by the thread that reads the responses, the dependent actions that take time should be executed with
+   * the <code>*Async</code> methods of {@link CompletableFuture}, otherwise they delay the next responses of the channel.
+   */
+  public <T extends OBinaryResponse> CompletableFuture<T> networkOperationAsync(final OBinaryRequest<T> request,
+      final String errorMessage) {
     return baseNetworkOperation((network, session) -> {
+      if (!network.isPipelined())
+        // THE DATABASE HAS JUST BEEN OPENED ON A CHANNEL NOT SHARED WITH OTHER REQUESTS
+        return CompletableFuture.completedFuture(exclusiveNetworkOperation(network, session, request, 0));
+
+      final CompletableFuture<T> future = new CompletableFuture<>();
       try {
+        network.acquireWriteLock();
+        boolean sent = false;
         try {
           network.beginRequest(request.getCommand(), session);
           request.write(network, session);
+          sent = true;
         } finally {
-          network.endRequest();
+          network.endPipelinedRequest(sent,
+              position -> readAsyncResponse(network, session, request, position, future, errorMessage), asyncResponseExecutor);
         }
       } catch (IOException e) {
         throw new ONotSendRequestException("Cannot send request on this channel");
       }
+      return future;
+    }, errorMessage, connectionRetry, true);
+  }
 
-      int prev = network.getSocketTimeout();
-      T response = request.createResponse();
-      try {
-        if (timeout > 0)
-          network.setSocketTimeout(timeout);
-        beginResponse(network, session);
-        response.read(network, session);
-      } finally {
-        endResponse(network);
-        if (timeout > 0)
-          network.setSocketTimeout(prev);
-      }
+  private <T extends OBinaryResponse> void readAsyncResponse(final OChannelBinaryAsynchClient network,
+      final OStorageRemoteSession session, final OBinaryRequest<T> request, final long position,
+      final CompletableFuture<T> future, final String errorMessage) {
+    final T response = request.createResponse();
+    try {
+      readPipelinedResponse(network, session, response, position);
+    } catch (IOException | OIOException e) {
+      connectionManager.remove(network);
+      future.completeExceptionally(OException.wrapException(new OIOException(e.getMessage()), e));
+      return;
+    } catch (OTokenException | OTokenSecurityException e) {
       connectionManager.release(network);
-      return response;
-    }, errorMessage, retry);
+      session.removeServerSession(network.getServerURL());
+      future.completeExceptionally(OException.wrapException(new OStorageException(errorMessage), e));
+      return;
+    } catch (OException e) {
+      connectionManager.release(network);
+      future.completeExceptionally(e);
+      return;
+    } catch (Exception e) {
+      connectionManager.release(network);
+      future.completeExceptionally(OException.wrapException(new OStorageException(errorMessage), e));
+      return;
+    } catch (Error e) {
+      // NOT RETHROWN, THE NEXT RESPONSES OF THE CHANNEL WOULD NOT BE READ ANYMORE
+      connectionManager.remove(network);
+      OLogManager.instance().error(this, "Error on reading an asynchronous response", e);
+      future.completeExceptionally(e);
+      return;
+    }
+    connectionManager.release(network);
+    future.complete(response);
   }
 
   public <T extends OBinaryResponse> T networkOperationNoRetry(final OBinaryRequest<T> request, final String errorMessage) {
@@ -263,6 +412,15 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
   }
 
   public <T> T baseNetworkOperation(final OStorageRemoteOperation<T> operation, final String errorMessage, int retry) {
+    return baseNetworkOperation(operation, errorMessage, retry, false);
+  }
+
+  /**
+   * @param pipelined true if the operation can be executed on a channel shared with other requests, see {@link
+   *                  OChannelBinaryAsynchClient#isPipelined()}
+   */
+  public <T> T baseNetworkOperation(final OStorageRemoteOperation<T> operation, final String errorMessage, int retry,
+      final boolean pipelined) {
     OStorageRemoteSession session = getCurrentSession();
     if (session.commandExecuting)
       throw new ODatabaseException(
@@ -277,7 +435,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
 
       do {
         try {
-          network = getNetwork(serverUrl);
+          network = pipelined ? getPipelinedNetwork(serverUrl) : getNetwork(serverUrl);
         } catch (OException e) {
           if (session.isStickToSession()) {
             throw e;
@@ -296,6 +454,12 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         // In case i do not have a token or i'm switching between server i've to execute a open operation.
         OStorageRemoteNodeSession nodeSession = session.getServerSession(network.getServerURL());
         if (nodeSession == null || !nodeSession.isValid()) {
+          if (network.isPipelined()) {
+            // THE DATABASE IS OPENED ON A CHANNEL NOT SHARED WITH OTHER REQUESTS
+            connectionManager.release(network);
+            network = null;
+            network = getNetwork(serverUrl);
+          }
           openRemoteDatabase(network);
           if (!network.tryLock())
             continue;
@@ -339,8 +503,8 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         serverUrl = null;
       } catch (IOException | OIOException e) {
         OLogManager.instance()
-            .info(this, "Caught Network I/O errors on %s, trying an automatic reconnection... (error: %s)", network.getServerURL(),
-                e.getMessage());
+            .info(this, "Caught Network I/O errors on %s, trying an automatic reconnection... (error: %s)",
+                network != null ? network.getServerURL() : serverUrl, e.getMessage());
         OLogManager.instance().debug(this, "I/O error stack: ", e);
         connectionManager.remove(network);
         if (--retry <= 0)
@@ -542,6 +706,8 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
       for (String url : serverURLs) {
         connectionManager.closePool(url);
       }
+      // THE PENDING ASYNCHRONOUS RESPONSES FAIL ON THE CLOSED CHANNELS
+      asyncResponseExecutor.shutdown();
       sbTreeCollectionManager.close();
 
       status = STATUS.CLOSED;
@@ -910,6 +1076,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         response.getQueryStats(), response.isHasNextPage());
     if (response.isHasNextPage()) {
       stickToSession();
+      rs.setStream(openQueryStream(response.getQueryId(), recordsPerPage));
     } else {
       db.queryClosed(response.getQueryId());
     }
@@ -928,12 +1095,63 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         response.getQueryStats(), response.isHasNextPage());
     if (response.isHasNextPage()) {
       stickToSession();
+      rs.setStream(openQueryStream(response.getQueryId(), recordsPerPage));
     } else {
       db.queryClosed(response.getQueryId());
     }
     return new ORemoteQueryResult(rs, response.isTxChanges(), response.isReloadMetadata());
   }
 
+  /**
+   * Executes a query without waiting for its result, see {@link #networkOperationAsync(OBinaryRequest, String)}. The whole result
+   * is sent in one response, so no query is left open on the server.
+   */
+  public CompletableFuture<List<OResult>> queryAsync(ODatabaseDocumentRemote db, String query, Object[] args) {
+    OQueryRequest request = new OQueryRequest("sql", query, args, OQueryRequest.QUERY, db.getSerializer(), Integer.MAX_VALUE);
+    return networkOperationAsync(request, "Error on executing command: " + query)
+        .thenApply(response -> Collections.unmodifiableList(response.getResult()));
+  }
+
+  public CompletableFuture<List<OResult>> queryAsync(ODatabaseDocumentRemote db, String query, Map args) {
+    OQueryRequest request = new OQueryRequest("sql", query, args, OQueryRequest.QUERY, db.getSerializer(), Integer.MAX_VALUE);
+    return networkOperationAsync(request, "Error on executing command: " + query)
+        .thenApply(response -> Collections.unmodifiableList(response.getResult()));
+  }
+
+  /**
+   * Opens the stream of the next pages of a query, see {@link OGlobalConfiguration#QUERY_REMOTE_RESULTSET_STREAM_PAGES}. The stream
+   * holds a channel of the pool till it is closed, so it is opened only if the pool has another free channel for the other
+   * requests.
+   *
+   * @return the stream, or null if the pages are requested one at a time
+   */
+  private ORemoteQueryStream openQueryStream(String queryId, int recordsPerPage) {
+    int credits = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_STREAM_PAGES.getValueAsInteger();
+    if (credits <= 0) {
+      return null;
+    }
+    OStorageRemoteSession session = getCurrentSession();
+    OChannelBinaryAsynchClient network = connectionManager
+        .tryAcquire(getNextAvailableServerURL(false, session), clientConfiguration);
+    if (network == null) {
+      // NO FREE CHANNEL TO RESERVE
+      return null;
+    }
+    if (!network.tryLock()) {
+      connectionManager.remove(network);
+      return null;
+    }
+    OStorageRemoteNodeSession nodeSession = session.getServerSession(network.getServerURL());
+    if (nodeSession == null || !nodeSession.isValid()) {
+      // THE QUERY HAS BEEN EXECUTED ON ANOTHER SERVER
+      connectionManager.release(network);
+      return null;
+    }
+    ORemoteQueryStream stream = new ORemoteQueryStream(this, network, session, queryId, recordsPerPage, credits);
+    stream.requestPages();
+    return stream;
+  }
+
   public ORemoteQueryResult command(ODatabaseDocumentRemote db, String query, Object[] args) {
     int recordsPerPage = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.getValueAsInteger();
     if (recordsPerPage <= 0) {
@@ -1010,13 +1228,28 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     networkOperation(request, "Error closing query: " + queryId);
   }
 
+  public void closeQuery(ODatabaseDocumentRemote database, ORemoteResultSet rs) {
+    if (rs.getStream() != null) {
+      // THE QUERY IS CLOSED AFTER THE PAGES ALREADY REQUESTED
+      unstickToSession();
+      rs.getStream().close();
+    } else {
+      closeQuery(database, rs.getQueryId());
+    }
+  }
+
   public void fetchNextPage(ODatabaseDocumentRemote database, ORemoteResultSet rs) {
     int recordsPerPage = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.getValueAsInteger();
     if (recordsPerPage <= 0) {
       recordsPerPage = 100;
     }
-    OQueryNextPageRequest request = new OQueryNextPageRequest(rs.getQueryId(), recordsPerPage);
-    OQueryResponse response = networkOperation(request, "Error on fetching next page for statment: " + rs.getQueryId());
+    OQueryResponse response;
+    if (rs.getStream() != null) {
+      response = rs.getStream().nextPage();
+    } else {
+      OQueryNextPageRequest request = new OQueryNextPageRequest(rs.getQueryId(), recordsPerPage);
+      response = networkOperation(request, "Error on fetching next page for statment: " + rs.getQueryId());
+    }
 
     rs.fetched(response.getResult(), response.isHasNextPage(), response.getExecutionPlan(), response.getQueryStats());
     if (!response.isHasNextPage()) {
@@ -1850,6 +2083,20 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     return network;
   }
 
+  /**
+   * Acquires a channel that can be shared with other requests when all the channels of the pool are busy, see {@link
+   * OGlobalConfiguration#CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS}.
+   */
+  public OChannelBinaryAsynchClient getPipelinedNetwork(final String iCurrentURL) {
+    try {
+      return connectionManager.acquirePipelined(iCurrentURL, clientConfiguration);
+    } catch (OIOException cause) {
+      throw cause;
+    } catch (Exception cause) {
+      throw OException.wrapException(new OStorageException("Cannot open a connection to remote server: " + iCurrentURL), cause);
+    }
+  }
+
   public void beginResponse(OChannelBinaryAsynchClient iNetwork, OStorageRemoteSession session) throws IOException {
     OStorageRemoteNodeSession nodeSession = session.getServerSession(iNetwork.getServerURL());
     byte[] newToken = iNetwork.beginResponse(nodeSession.getSessionId(), true);
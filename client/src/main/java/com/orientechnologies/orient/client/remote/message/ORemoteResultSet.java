@@ -1,5 +1,6 @@
 package com.orientechnologies.orient.client.remote.message;
 
+import com.orientechnologies.orient.client.remote.ORemoteQueryStream;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentRemote;
 import com.orientechnologies.orient.core.sql.executor.OExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OResult;
@@ -21,6 +22,7 @@ public class ORemoteResultSet implements OResultSet {
   private       Optional<OExecutionPlan> executionPlan;
   private       Map<String, Long>        queryStats;
   private       boolean                  hasNextPage;
+  private       ORemoteQueryStream       stream;
 
   public ORemoteResultSet(ODatabaseDocumentRemote db, String queryId, List<OResultInternal> currentPage,
       Optional<OExecutionPlan> executionPlan, Map<String, Long> queryStats, boolean hasNextPage) {
@@ -70,7 +72,7 @@ public class ORemoteResultSet implements OResultSet {
   public void close() {
     if (hasNextPage) {
       // CLOSES THE QUERY SERVER SIDE ONLY IF THERE IS ANOTHER PAGE. THE SERVER ALREADY AUTOMATICALLY CLOSES THE QUERY AFTER SENDING THE LAST PAGE
-      db.closeQuery(queryId);
+      db.closeQuery(this);
     }
   }
 
@@ -96,6 +98,17 @@ public class ORemoteResultSet implements OResultSet {
     return queryId;
   }
 
+  /**
+   * @return the stream of the next pages, or null if the pages are requested one at a time
+   */
+  public ORemoteQueryStream getStream() {
+    return stream;
+  }
+
+  public void setStream(ORemoteQueryStream stream) {
+    this.stream = stream;
+  }
+
   public void fetched(List<OResultInternal> result, boolean hasNextPage, Optional<OExecutionPlan> executionPlan,
       Map<String, Long> queryStats) {
     this.currentPage = result;
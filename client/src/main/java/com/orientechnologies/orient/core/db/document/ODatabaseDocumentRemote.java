@@ -87,6 +87,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -391,6 +392,34 @@ public class ODatabaseDocumentRemote extends ODatabaseDocumentAbstract {
     return result.getResult();
   }
 
+  /**
+   * Executes a query without waiting for its result. More asynchronous queries of the same or of other databases can share a
+   * network channel, up to {@link OGlobalConfiguration#CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS} for each channel.
+   * <p>
+   * The future is completed by a background thread with the whole result, read in one response: the records are not bound to this
+   * database and they are not added to the local cache. The dependent actions that take time should be executed with the
+   * <code>*Async</code> methods of {@link CompletableFuture}. Asynchronous queries cannot be executed in a transaction.
+   */
+  public CompletableFuture<List<OResult>> queryAsync(String query, Object... args) {
+    checkOpenness();
+    checkNoTransaction("query");
+    return storage.queryAsync(this, query, args);
+  }
+
+  /**
+   * Executes a query with named parameters without waiting for its result, see {@link #queryAsync(String, Object...)}.
+   */
+  public CompletableFuture<List<OResult>> queryAsync(String query, Map args) {
+    checkOpenness();
+    checkNoTransaction("query");
+    return storage.queryAsync(this, query, args);
+  }
+
+  private void checkNoTransaction(String operation) {
+    if (getTransaction().isActive())
+      throw new ODatabaseException("Cannot execute an asynchronous " + operation + " in a transaction");
+  }
+
   @Override
   public OResultSet indexQuery(String indexName, String query, Object... args) {
     checkOpenness();
@@ -463,6 +492,11 @@ public class ODatabaseDocumentRemote extends ODatabaseDocumentAbstract {
     queryClosed(queryId);
   }
 
+  public void closeQuery(ORemoteResultSet rs) {
+    storage.closeQuery(this, rs);
+    queryClosed(rs.getQueryId());
+  }
+
   public void fetchNextPage(ORemoteResultSet rs) {
     checkOpenness();
     checkAndSendTransaction();
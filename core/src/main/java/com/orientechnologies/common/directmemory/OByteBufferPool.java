@@ -19,9 +19,11 @@
  */
 package com.orientechnologies.common.directmemory;
 
+import com.orientechnologies.common.jna.ONative;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.sun.jna.Platform;
 
 import java.nio.ByteBuffer;
 import java.util.Map;
@@ -64,13 +66,20 @@ public final class OByteBufferPool implements OByteBufferPoolMXBean {
     }
 
     int bufferSize;
+    boolean directIO;
     if (contextConfiguration != null) {
       bufferSize = contextConfiguration.getValueAsInteger(OGlobalConfiguration.DISK_CACHE_PAGE_SIZE);
+      directIO = contextConfiguration.getValueAsBoolean(OGlobalConfiguration.STORAGE_DIRECT_IO);
     } else {
       bufferSize = OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger();
+      directIO = OGlobalConfiguration.STORAGE_DIRECT_IO.getValueAsBoolean();
     }
 
-    final OByteBufferPool newInstance = new OByteBufferPool(bufferSize * 1024);
+    //pages are passed to the direct IO API as is, so they should be aligned by the size of the OS page
+    final int align = directIO && Platform.isLinux() ? ONative.instance().getpagesize() : -1;
+
+    final OByteBufferPool newInstance = new OByteBufferPool(bufferSize * 1024, ODirectMemoryAllocator.instance(),
+        OGlobalConfiguration.DIRECT_MEMORY_POOL_LIMIT.getValueAsInteger(), align);
     if (INSTANCE_HOLDER.compareAndSet(null, newInstance)) {
       return newInstance;
     }
@@ -103,6 +112,11 @@ public final class OByteBufferPool implements OByteBufferPoolMXBean {
    */
   private final ODirectMemoryAllocator allocator;
 
+  /**
+   * Alignment of allocated pages, or -1 if pages are not aligned.
+   */
+  private final int align;
+
   /**
    * @param pageSize Size of single page (instance of <code>DirectByteBuffer</code>) returned by pool.
    */
@@ -110,6 +124,7 @@ public final class OByteBufferPool implements OByteBufferPoolMXBean {
     this.pageSize = pageSize;
     this.allocator = ODirectMemoryAllocator.instance();
     this.poolSize = OGlobalConfiguration.DIRECT_MEMORY_POOL_LIMIT.getValueAsInteger();
+    this.align = -1;
   }
 
   /**
@@ -118,9 +133,20 @@ public final class OByteBufferPool implements OByteBufferPoolMXBean {
    * @param poolSize  Size of the page pool
    */
   public OByteBufferPool(int pageSize, ODirectMemoryAllocator allocator, int poolSize) {
+    this(pageSize, allocator, poolSize, -1);
+  }
+
+  /**
+   * @param allocator Direct memory allocator to use.
+   * @param pageSize  Size of single page (instance of <code>DirectByteBuffer</code>) returned by pool.
+   * @param poolSize  Size of the page pool
+   * @param align     Alignment of allocated pages, values less or equal to 0 mean that pages are not aligned.
+   */
+  public OByteBufferPool(int pageSize, ODirectMemoryAllocator allocator, int poolSize, int align) {
     this.pageSize = pageSize;
     this.allocator = allocator;
     this.poolSize = poolSize;
+    this.align = align;
   }
 
   /**
@@ -140,7 +166,7 @@ public final class OByteBufferPool implements OByteBufferPoolMXBean {
     if (pointer != null) {
       pointersPoolSize.decrementAndGet();
     } else {
-      pointer = allocator.allocate(pageSize, -1);
+      pointer = allocator.allocate(pageSize, align);
     }
 
     if (clear) {
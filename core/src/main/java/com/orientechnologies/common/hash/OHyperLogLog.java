@@ -0,0 +1,108 @@
+/*
+  *
+  *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+  *  *
+  *  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  *  you may not use this file except in compliance with the License.
+  *  *  You may obtain a copy of the License at
+  *  *
+  *  *       http://www.apache.org/licenses/LICENSE-2.0
+  *  *
+  *  *  Unless required by applicable law or agreed to in writing, software
+  *  *  distributed under the License is distributed on an "AS IS" BASIS,
+  *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  *  *  See the License for the specific language governing permissions and
+  *  *  limitations under the License.
+  *  *
+  *  * For more information: http://orientdb.com
+  *
+  */
+
+package com.orientechnologies.common.hash;
+
+/**
+ * HyperLogLog sketch which estimates the number of distinct values added to it using a fixed amount of memory (one byte per
+ * register). The relative error of the estimation is about <code>1.04 / sqrt(2^precision)</code>.
+ * <p>
+ * This class is not thread safe.
+ */
+public class OHyperLogLog {
+  private final int    precision;
+  private final byte[] registers;
+
+  /**
+   * @param precision number of bits of the hash used to select the register, the sketch uses <code>2^precision</code> registers.
+   *                  Should be between 4 and 16.
+   */
+  public OHyperLogLog(int precision) {
+    if (precision < 4 || precision > 16) {
+      throw new IllegalArgumentException("Precision should be between 4 and 16, but was " + precision);
+    }
+
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  /**
+   * Adds a value to the sketch.
+   *
+   * @param hash hash code of the value, it does not need to be well distributed
+   */
+  public void add(long hash) {
+    final long mixed = mix(hash);
+    final int index = (int) (mixed >>> (64 - precision));
+    final int rank = Math.min(Long.numberOfLeadingZeros(mixed << precision), 64 - precision) + 1;
+
+    if (registers[index] < rank) {
+      registers[index] = (byte) rank;
+    }
+  }
+
+  /**
+   * @return estimated number of distinct values added to the sketch
+   */
+  public long estimate() {
+    final int m = registers.length;
+
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+
+    final double alpha;
+    if (m == 16) {
+      alpha = 0.673;
+    } else if (m == 32) {
+      alpha = 0.697;
+    } else if (m == 64) {
+      alpha = 0.709;
+    } else {
+      alpha = 0.7213 / (1 + 1.079 / m);
+    }
+
+    double estimate = alpha * m * m / sum;
+    if (estimate <= 2.5 * m && zeros > 0) {
+      //small range correction
+      estimate = m * Math.log((double) m / zeros);
+    }
+
+    return Math.round(estimate);
+  }
+
+  /**
+   * Finalization step of MurmurHash3, spreads the bits of the hash codes which are not well distributed (like the ones of
+   * integers).
+   */
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
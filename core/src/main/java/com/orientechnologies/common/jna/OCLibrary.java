@@ -68,6 +68,10 @@ public interface OCLibrary extends Library {
 
   long read(int fd, ByteBuffer buffer, long count) throws LastErrorException;
 
+  long pwrite(int fd, Pointer buffer, long count, long offset) throws LastErrorException;
+
+  long pread(int fd, Pointer buffer, long count, long offset) throws LastErrorException;
+
   int posix_memalign(PointerByReference memptr, NativeLong alignment, NativeLong size) throws LastErrorException;
 
   int fsync(int fd) throws LastErrorException;
@@ -62,6 +62,9 @@ public class ONative {
   public static final int O_DIRECT = 040000;
   public static final int O_SYNC   = 04000000;
 
+  public static final int FALLOC_FL_KEEP_SIZE  = 0x01;
+  public static final int FALLOC_FL_PUNCH_HOLE = 0x02;
+
   public static final int SEEK_SET = 0;
   public static final int SEEK_CUR = 1;
   public static final int SEEK_END = 2;
@@ -238,6 +241,10 @@ public class ONative {
     return C_LIBRARY.fallocate(fd, 0, offset, len);
   }
 
+  public int fallocate(int fd, int mode, long offset, long len) throws LastErrorException {
+    return C_LIBRARY.fallocate(fd, mode, offset, len);
+  }
+
   public long read(int fd, ByteBuffer buffer, int count) throws LastErrorException {
     return C_LIBRARY.read(fd, buffer, count);
   }
@@ -246,6 +253,14 @@ public class ONative {
     return C_LIBRARY.write(fd, buffer, count);
   }
 
+  public long pwrite(int fd, Pointer buffer, int count, long offset) throws LastErrorException {
+    return C_LIBRARY.pwrite(fd, buffer, count, offset);
+  }
+
+  public long pread(int fd, Pointer buffer, int count, long offset) throws LastErrorException {
+    return C_LIBRARY.pread(fd, buffer, count, offset);
+  }
+
   public void posix_memalign(PointerByReference memptr, NativeLong alignment, NativeLong size) throws LastErrorException {
     C_LIBRARY.posix_memalign(memptr, alignment, size);
   }
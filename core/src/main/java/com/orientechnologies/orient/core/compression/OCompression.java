@@ -43,6 +43,21 @@ public interface OCompression {
 
   byte[] uncompress(byte[] content, final int offset, final int length);
 
+  /**
+   * Uncompresses content received from an untrusted source, like the frames of the binary protocol. Implementations which are used
+   * for such content should check the length before the uncompressed content is allocated.
+   *
+   * @param maxLength Maximum length of the uncompressed content.
+   *
+   * @throws IllegalStateException if content is corrupted or if its uncompressed length exceeds the maximum one
+   */
+  default byte[] uncompress(final byte[] content, final int offset, final int length, final int maxLength) {
+    final byte[] result = uncompress(content, offset, length);
+    if (result.length > maxLength)
+      throw new IllegalStateException("Exception during data uncompression: uncompressed length exceeds " + maxLength);
+    return result;
+  }
+
   String name();
 
   OCompression configure(String iOptions);
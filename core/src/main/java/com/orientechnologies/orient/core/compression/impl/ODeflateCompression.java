@@ -0,0 +1,105 @@
+/*
+  *
+  *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+  *  *
+  *  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  *  you may not use this file except in compliance with the License.
+  *  *  You may obtain a copy of the License at
+  *  *
+  *  *       http://www.apache.org/licenses/LICENSE-2.0
+  *  *
+  *  *  Unless required by applicable law or agreed to in writing, software
+  *  *  distributed under the License is distributed on an "AS IS" BASIS,
+  *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  *  *  See the License for the specific language governing permissions and
+  *  *  limitations under the License.
+  *  *
+  *  * For more information: http://www.orientechnologies.com
+  *
+  */
+
+package com.orientechnologies.orient.core.compression.impl;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compression implementation that use the raw DEFLATE algorithm at the fastest level, without the headers of the ZIP and GZIP
+ * formats: suited to small contents like the frames of the binary protocol.
+ */
+public class ODeflateCompression extends OAbstractCompression {
+  public static final String              NAME     = "deflate";
+
+  public static final ODeflateCompression INSTANCE = new ODeflateCompression();
+
+  @Override
+  public byte[] compress(final byte[] content, final int offset, final int length) {
+    final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+    try {
+      deflater.setInput(content, offset, length);
+      deflater.finish();
+
+      byte[] result = new byte[length + (length >> 4) + 64];
+      int len = 0;
+      while (!deflater.finished()) {
+        if (len == result.length)
+          result = Arrays.copyOf(result, result.length << 1);
+        len += deflater.deflate(result, len, result.length - len);
+      }
+      return Arrays.copyOf(result, len);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  @Override
+  public byte[] uncompress(final byte[] content, final int offset, final int length) {
+    return uncompress(content, offset, length, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Stops to inflate the content as soon as the maximum length is exceeded, so a small content can not make it allocate more
+   * memory than the limit.
+   */
+  @Override
+  public byte[] uncompress(final byte[] content, final int offset, final int length, final int maxLength) {
+    final Inflater inflater = new Inflater(true);
+    try {
+      // THE EXTRA BYTE IS REQUIRED BY THE RAW FORMAT TO DETECT THE END OF THE DATA
+      final byte[] input = new byte[length + 1];
+      System.arraycopy(content, offset, input, 0, length);
+      inflater.setInput(input);
+
+      // THE EXTRA BYTE OF THE BUFFER TELLS THE END OF THE DATA FROM THE CONTENT LONGER THAN THE MAXIMUM LENGTH
+      final int capacity = maxLength < Integer.MAX_VALUE ? maxLength + 1 : maxLength;
+
+      byte[] result = new byte[Math.min(Math.max(length << 2, 1024), capacity)];
+      int len = 0;
+      while (!inflater.finished()) {
+        if (len == result.length) {
+          if (len == capacity)
+            throw new IllegalStateException("Exception during data uncompression: uncompressed length exceeds " + maxLength);
+          result = Arrays.copyOf(result, (int) Math.min((long) result.length << 1, capacity));
+        }
+        final int inflated = inflater.inflate(result, len, result.length - len);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+          throw new IllegalStateException("Exception during data uncompression: truncated content");
+        len += inflated;
+      }
+      if (len > maxLength)
+        throw new IllegalStateException("Exception during data uncompression: uncompressed length exceeds " + maxLength);
+      return Arrays.copyOf(result, len);
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Exception during data uncompression", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+}
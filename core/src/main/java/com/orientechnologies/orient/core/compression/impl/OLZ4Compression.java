@@ -0,0 +1,86 @@
+/*
+  *
+  *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+  *  *
+  *  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  *  you may not use this file except in compliance with the License.
+  *  *  You may obtain a copy of the License at
+  *  *
+  *  *       http://www.apache.org/licenses/LICENSE-2.0
+  *  *
+  *  *  Unless required by applicable law or agreed to in writing, software
+  *  *  distributed under the License is distributed on an "AS IS" BASIS,
+  *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  *  *  See the License for the specific language governing permissions and
+  *  *  limitations under the License.
+  *  *
+  *  * For more information: http://www.orientechnologies.com
+  *
+  */
+
+package com.orientechnologies.orient.core.compression.impl;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+
+import java.util.Arrays;
+
+/**
+ * Compression implementation that use the LZ4 algorithm, faster than DEFLATE with a lower ratio. The size of the original content
+ * is stored in the first 4 bytes of the compressed one.
+ */
+public class OLZ4Compression extends OAbstractCompression {
+  public static final String          NAME     = "lz4";
+
+  public static final OLZ4Compression INSTANCE = new OLZ4Compression();
+
+  private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+  @Override
+  public byte[] compress(final byte[] content, final int offset, final int length) {
+    final LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+
+    final byte[] result = new byte[OIntegerSerializer.INT_SIZE + compressor.maxCompressedLength(length)];
+    OIntegerSerializer.INSTANCE.serializeNative(length, result, 0);
+    final int len = compressor.compress(content, offset, length, result, OIntegerSerializer.INT_SIZE);
+    return Arrays.copyOf(result, OIntegerSerializer.INT_SIZE + len);
+  }
+
+  @Override
+  public byte[] uncompress(final byte[] content, final int offset, final int length) {
+    return uncompress(content, offset, length, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Checks the stored size of the original content against the maximum length before it is allocated, and never reads outside of
+   * the compressed content, so corrupted content is rejected.
+   */
+  @Override
+  public byte[] uncompress(final byte[] content, final int offset, final int length, final int maxLength) {
+    if (length < OIntegerSerializer.INT_SIZE)
+      throw new IllegalStateException("Exception during data uncompression: truncated content");
+
+    final int originalLength = OIntegerSerializer.INSTANCE.deserializeNative(content, offset);
+    if (originalLength < 0 || originalLength > maxLength)
+      throw new IllegalStateException("Exception during data uncompression: invalid original length " + originalLength);
+
+    final byte[] result = new byte[originalLength];
+    try {
+      final int len = LZ4_FACTORY.safeDecompressor()
+          .decompress(content, offset + OIntegerSerializer.INT_SIZE, length - OIntegerSerializer.INT_SIZE, result, 0,
+              originalLength);
+      if (len != originalLength)
+        throw new IllegalStateException("Exception during data uncompression: truncated content");
+    } catch (LZ4Exception e) {
+      throw new IllegalStateException("Exception during data uncompression", e);
+    }
+    return result;
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+}
@@ -202,6 +202,10 @@ public enum OGlobalConfiguration {// ENVIRONMENT
   STORAGE_COMPRESSION_METHOD("storage.compressionMethod", "Record compression method used in storage"
       + " Possible values : gzip, nothing. Default is 'nothing' that means no compression", String.class, "nothing"),
 
+  STORAGE_PAGE_COMPRESSION("storage.pageCompression", "Compress pages of data files using LZ4 before they are written to the disk. "
+      + "Space freed by compression is returned to the file system by punching holes in the files (Linux only). "
+      + "Pages of encrypted databases are not compressed. Can be set per database", Boolean.class, false),
+
   @Deprecated
   STORAGE_ENCRYPTION_METHOD("storage.encryptionMethod",
       "Record encryption method used in storage" + " Possible values : 'aes' and 'des'. Default is 'nothing' for no encryption",
@@ -228,6 +232,10 @@ public enum OGlobalConfiguration {// ENVIRONMENT
   STORAGE_CALL_FSYNC("storage.callFsync", "Call fsync during fuzzy checkpoints or WAL writes, true by default", Boolean.class,
       true),
 
+  STORAGE_DIRECT_IO("storage.directIO", "Use direct IO API on Linux OS to read and write pages of data files, so the disk cache "
+      + "is the only cache which keeps them in memory. Can be set per database. Falls back to buffered IO if the file system "
+      + "does not support it", Boolean.class, false),
+
   STORAGE_PRINT_WAL_PERFORMANCE_STATISTICS("storage.printWALPerformanceStatistics",
       "Periodically prints statistics about WAL performance", Boolean.class, false),
 
@@ -245,6 +253,11 @@ public enum OGlobalConfiguration {// ENVIRONMENT
   STORAGE_PESSIMISTIC_LOCKING("storage.pessimisticLock",
       "Set the approach of the pessimistic locking, valid options: none, modification, readwrite", String.class, "none"),
 
+  STORAGE_BACKUP_FUZZY("storage.backup.fuzzy",
+      "Indicates whether backups of paginated storage should be taken without freezing of write operations. "
+          + "Pages are copied while writes continue and WAL written during the copy is added to the backup and replayed on restore. "
+          + "Such backups can not be restored by versions which do not support them", Boolean.class, false),
+
   USE_WAL("storage.useWAL", "Whether WAL should be used in paginated storage", Boolean.class, true),
 
   USE_CHM_CACHE("storage.useCHMCache",
@@ -284,6 +297,13 @@ public enum OGlobalConfiguration {// ENVIRONMENT
 
   WAL_COMMIT_TIMEOUT("storage.wal.commitTimeout", "Maximum interval between WAL commits (in ms.)", Integer.class, 1000),
 
+  WAL_GROUP_COMMIT("storage.wal.groupCommit", "Makes every transaction commit durable. Concurrent commits wait for the same WAL "
+      + "fsync, so a single fsync is performed for the whole group of commits", Boolean.class, false),
+
+  WAL_GROUP_COMMIT_MAX_LATENCY("storage.wal.groupCommitMaxLatency", "Maximum interval (in microseconds) during which commits "
+      + "are collected into the single group before WAL fsync. Real interval adapts to the load and is decreased to zero if "
+      + "there are no concurrent commits", Integer.class, 1000),
+
   WAL_SHUTDOWN_TIMEOUT("storage.wal.shutdownTimeout", "Maximum wait interval between events, when the background flush thread"
       + "receives a shutdown command and when the background flush will be stopped (in ms.)", Integer.class, 10000),
 
@@ -312,6 +332,11 @@ public enum OGlobalConfiguration {// ENVIRONMENT
   DISK_CACHE_PAGE_SIZE("storage.diskCache.pageSize", "Size of page of disk buffer (in kilobytes). !!! NEVER CHANGE THIS VALUE !!!",
       Integer.class, 64),
 
+  DISK_CACHE_READ_AHEAD_PAGES("storage.diskCache.readAheadPages",
+      "Amount of pages which are loaded in background by single read, if sequential read of file is detected (for example during "
+          + "scan of cluster). Works only if storage.useCHMCache is set to true. Set to 0 to switch off read ahead", Integer.class,
+      16),
+
   DISK_CACHE_PRINT_CACHE_STATISTICS("storage.diskCache.printCacheStatistics",
       "Print information about write cache performance metrics", Boolean.class, false),
 
@@ -448,6 +473,28 @@ public enum OGlobalConfiguration {// ENVIRONMENT
 
   INDEX_CURSOR_PREFETCH_SIZE("index.cursor.prefetchSize", "Default prefetch size of index cursor", Integer.class, 10000),
 
+  INDEX_BULK_LOAD("index.bulkLoad", "Build unique indexes bottom-up from sorted entries during index creation and rebuild, "
+      + "instead of insertion of keys one by one", Boolean.class, true),
+
+  INDEX_BULK_LOAD_THRESHOLD("index.bulkLoadThreshold",
+      "Minimum amount of records in indexed clusters, starting from which index is built using bulk load", Integer.class, 100000),
+
+  INDEX_BULK_LOAD_FILL_FACTOR("index.bulkLoadFillFactor",
+      "Percent of page space which is filled by entries during bulk load of index, the rest is left for future inserts",
+      Integer.class, 90),
+
+  INDEX_BULK_LOAD_SORT_BUFFER_SIZE("index.bulkLoadSortBufferSize",
+      "Amount of index entries which are sorted in heap during bulk load of index, bigger amount of entries is sorted using "
+          + "temporary files", Integer.class, 500000),
+
+  INDEX_ONLINE_BUILD("index.onlineBuild",
+      "Build and rebuild indexes without blocking of writers. Changes which are done during the build are collected in side log "
+          + "and applied once all records are indexed", Boolean.class, false),
+
+  INDEX_ONLINE_BUILD_REPLAY_THRESHOLD("index.onlineBuildReplayThreshold",
+      "Amount of changes left in the side log of index which is built online, when the rest of changes is applied with writers "
+          + "blocked", Integer.class, 1000),
+
   // SBTREE
   SBTREE_MAX_DEPTH("sbtree.maxDepth",
       "Maximum depth of sbtree, which will be traversed during key look up until it will be treated as broken (64 by default)",
@@ -460,6 +507,10 @@ public enum OGlobalConfiguration {// ENVIRONMENT
       "Maximum size of value which can be put in an SBTree without creation link to a standalone page in bytes (40960 by default)",
       Integer.class, 40960),
 
+  SBTREE_KEY_LOCKS("sbtree.keyLocks",
+      "Allows transactions which change single key of the index to lock only the leaf page which contains this key, "
+          + "instead of the whole SBTree, if key can be put without split of the page", Boolean.class, false),
+
   SBTREEBONSAI_BUCKET_SIZE("sbtreebonsai.bucketSize",
       "Size of bucket in OSBTreeBonsai (in kB). Contract: bucketSize < storagePageSize, storagePageSize % bucketSize == 0",
       Integer.class, 2),
@@ -550,6 +601,30 @@ public enum OGlobalConfiguration {// ENVIRONMENT
   NETWORK_BINARY_DEBUG("network.binary.debug", "Debug mode: print all data incoming on the binary channel", Boolean.class, false,
       true),
 
+  NETWORK_BINARY_EVENT_LOOP_ENABLED("network.binary.eventLoop.enabled",
+      "Serves the binary connections with a bounded pool of worker threads, instead of a thread per connection. The idle connections wait for the next request on a selector. Not available with SSL sockets",
+      Boolean.class, false),
+
+  NETWORK_BINARY_EVENT_LOOP_WORKERS("network.binary.eventLoop.workers",
+      "Number of threads that execute the binary requests when the event loop is enabled", Integer.class,
+      Runtime.getRuntime().availableProcessors() << 2),
+
+  NETWORK_BINARY_EVENT_LOOP_STALL_TIMEOUT("network.binary.eventLoop.stallTimeout",
+      "Time in ms a worker of the event loop waits for the rest of a request before it gives its place to another worker, so a slow client does not hold one of the workers",
+      Integer.class, 100),
+
+  NETWORK_BINARY_EVENT_LOOP_MAX_STALLED_WORKERS("network.binary.eventLoop.maxStalledWorkers",
+      "Maximum number of workers of the event loop that wait at the same time for the rest of a request from a slow client. Each of them is replaced by a new worker in the pool, past this limit the connections of the slow clients are closed",
+      Integer.class, Runtime.getRuntime().availableProcessors() << 2),
+
+  NETWORK_BINARY_COMPRESSION("network.binary.compression",
+      "Compression of the binary protocol requested by the client during the handshake, as the name of a registered compression: 'lz4', 'deflate' or empty for none. Used only if the server supports it",
+      String.class, ""),
+
+  NETWORK_BINARY_COMPRESSION_THRESHOLD("network.binary.compression.threshold",
+      "Minimum size in bytes of a message to compress it, when the compression of the binary protocol is enabled. The smaller messages are sent as they are",
+      Integer.class, 1024),
+
   // HTTP
 
   /**
@@ -693,6 +768,11 @@ public enum OGlobalConfiguration {// ENVIRONMENT
       "The size of a remote ResultSet page, ie. the number of records"
           + "that are fetched together during remote query execution. This has to be set on the client.", Integer.class, 1000),
 
+  QUERY_REMOTE_RESULTSET_STREAM_PAGES("query.remoteResultSet.streamPages",
+      "Number of pages of a remote ResultSet that are requested in advance (the credits of the stream): the server produces the "
+          + "next pages while the client consumes the current one, the pages not consumed yet are kept by the client. "
+          + "0 means that each page is requested when it is needed. This has to be set on the client.", Integer.class, 0),
+
   QUERY_REMOTE_SEND_EXECUTION_PLAN("query.remoteResultSet.sendExecutionPlan",
       "Send the execution plan details or not. False by default", Boolean.class, false),
 
@@ -705,6 +785,16 @@ public enum OGlobalConfiguration {// ENVIRONMENT
       "Size of the queue that holds results on parallel execution. The queue is blocking, so in case the queue is full, the query threads will be in a wait state",
       Integer.class, 20000),
 
+  QUERY_PARALLEL_WORKERS("query.parallelWorkers",
+      "Maximum number of threads shared by all the parallel queries. When all of them are busy, the sub-plans of a query are executed on the thread of the query",
+      Integer.class, Runtime.getRuntime().availableProcessors()),
+
+  QUERY_SPILL_THRESHOLD("query.spillThreshold",
+      "Maximum number of results (ORDER BY without LIMIT), groups (GROUP BY) or non-RID values (DISTINCT) that a query step keeps in heap. "
+          + "When exceeded, results are written to temporary files and merged, aggregated or deduplicated back during the fetching. "
+          + "(Use -1 to keep everything in heap)",
+      Integer.class, -1),
+
   QUERY_SCAN_PREFETCH_PAGES("query.scanPrefetchPages",
       "Pages to prefetch during scan. Setting this value higher makes scans faster, because it reduces the number of I/O operations, though it consumes more memory. (Use 0 to disable)",
       Integer.class, 20),
@@ -714,6 +804,10 @@ public enum OGlobalConfiguration {// ENVIRONMENT
           + " A high value mean a faster execution, but also a lower concurrency level. Set to 0 to disable batch scanning. Disabling batch scanning is suggested for read-only databases only",
       Long.class, 1000),
 
+  QUERY_INDEX_MAX_SELECTIVITY("query.indexMaxSelectivity",
+      "Fraction of the records of a class above which a query scans the class instead of fetching the records through an index. "
+          + "It is used only for the indexes that were analyzed with the ANALYZE INDEX command", Float.class, 0.3),
+
   QUERY_SCAN_THRESHOLD_TIP("query.scanThresholdTip",
       "If the total number of records scanned in a query exceeds this setting, then a warning is given. (Use 0 to disable)",
       Long.class, 50000),
@@ -739,6 +833,14 @@ public enum OGlobalConfiguration {// ENVIRONMENT
   CLIENT_CHANNEL_MAX_POOL("client.channel.maxPool",
       "Maximum size of pool of network channels between client and server. A channel is a TCP/IP connection", Integer.class, 100),
 
+  /**
+   * Maximum number of requests that wait for their response on the same network channel, when all the channels of the pool are
+   * busy. With 1 each channel executes one request at a time.
+   */
+  CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS("client.channel.maxPipelinedRequests",
+      "Maximum number of requests that wait for their response on the same network channel, when all the channels of the pool are busy. With 1 each channel executes one request at a time",
+      Integer.class, 1),
+
   /**
    * Maximum time, where the client should wait for a connection from the pool, when all connections busy.
    */
@@ -417,7 +417,24 @@ public class OrientDBEmbedded implements OrientDBInternal {
       } else
         throw new ODatabaseException("Cannot create new storage '" + name + "' because it already exists");
     }
-    storage.restoreFromIncrementalBackup(path);
+    try {
+      storage.restoreFromIncrementalBackup(path);
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        OSharedContext context = sharedContexts.remove(name);
+        if (context != null) {
+          context.close();
+        }
+        storages.remove(name);
+      }
+      storage.delete();
+      ODatabaseRecordThreadLocal.instance().remove();
+      throw e;
+    }
+    //RELOAD THE SHARED CONTEXT SO IT HAS THE RESTORED SCHEMA AND INDEXES
+    embedded.activateOnCurrentThread();
+    embedded.getLocalCache().clear();
+    embedded.getSharedContext().reload(embedded);
     embedded.callOnCreateListeners();
     ODatabaseRecordThreadLocal.instance().remove();
   }
@@ -434,7 +451,12 @@ public class OrientDBEmbedded implements OrientDBInternal {
         storage = getOrInitStorage(name);
         storages.put(name, storage);
       }
-      storage.restore(in, options, callable, iListener);
+      if (storage instanceof OLocalPaginatedStorage) {
+        ((OLocalPaginatedStorage) storage)
+            .restore(in, options, callable, iListener, solveConfig(null).getConfigurations());
+      } else {
+        storage.restore(in, options, callable, iListener);
+      }
     } catch (Exception e) {
       OContextConfiguration configs = getConfigurations().getConfigurations();
       OLocalPaginatedStorage
@@ -28,6 +28,7 @@ import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -89,7 +90,8 @@ public class OCheckIndexTool extends ODatabaseTool {
   }
 
   private void checkIndex(OIndex index) {
-    List<String> fields = index.getDefinition().getFields();
+    List<String> fields = new ArrayList<>(index.getDefinition().getFields());
+    fields.addAll(index.getDefinition().getIncludedFields());
     String className = index.getDefinition().getClassName();
     OClass clazz = database.getMetadata().getSchema().getClass(className);
     int[] clusterIds = clazz.getPolymorphicClusterIds();
@@ -100,7 +100,8 @@ public class OEngineLocalPaginated extends OEngineAbstract {
 
     if (OGlobalConfiguration.USE_CHM_CACHE.getValueAsBoolean()) {
       readCache = new AsyncReadCache(OByteBufferPool.instance(null), diskCacheSize, pageSize,
-          OGlobalConfiguration.DISK_CACHE_PRINT_CACHE_STATISTICS.getValueAsBoolean());
+          OGlobalConfiguration.DISK_CACHE_PRINT_CACHE_STATISTICS.getValueAsBoolean(),
+          OGlobalConfiguration.DISK_CACHE_READ_AHEAD_PAGES.getValueAsInteger());
     } else {
       readCache = new O2QCache(diskCacheSize, pageSize, true, OGlobalConfiguration.DISK_CACHE_PINNED_PAGES.getValueAsInteger(),
           OGlobalConfiguration.DISK_CACHE_PRINT_CACHE_STATISTICS.getValueAsBoolean(),
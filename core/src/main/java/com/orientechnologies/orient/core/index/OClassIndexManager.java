@@ -115,7 +115,7 @@ public class OClassIndexManager {
       List<IndexChange> changes) {
     final OCompositeIndexDefinition indexDefinition = (OCompositeIndexDefinition) index.getDefinition();
 
-    final List<String> indexFields = indexDefinition.getFields();
+    final List<String> indexFields = indexDefinition.getKeyFields();
     final String multiValueField = indexDefinition.getMultiValueField();
 
     for (final String indexField : indexFields) {
@@ -266,7 +266,7 @@ public class OClassIndexManager {
 
     final String multiValueField = indexDefinition.getMultiValueField();
 
-    final List<String> indexFields = indexDefinition.getFields();
+    final List<String> indexFields = indexDefinition.getKeyFields();
     for (final String indexField : indexFields) {
       // REMOVE IT
       if (dirtyFields.contains(indexField)) {
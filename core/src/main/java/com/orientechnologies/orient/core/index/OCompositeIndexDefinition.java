@@ -40,6 +40,7 @@ public class OCompositeIndexDefinition extends OAbstractIndexDefinition {
   private       String                 className;
   private int               multiValueDefinitionIndex = -1;
   private OCompositeCollate collate                   = new OCompositeCollate(this);
+  private int               includedFieldsCount;
 
   public OCompositeIndexDefinition() {
     indexDefinitions = new ArrayList<OIndexDefinition>(5);
@@ -110,7 +111,7 @@ public class OCompositeIndexDefinition extends OAbstractIndexDefinition {
    */
   public List<String> getFields() {
     final List<String> fields = new LinkedList<String>();
-    for (final OIndexDefinition indexDefinition : indexDefinitions) {
+    for (final OIndexDefinition indexDefinition : getKeyDefinitions()) {
       fields.addAll(indexDefinition.getFields());
     }
     return Collections.unmodifiableList(fields);
@@ -121,12 +122,53 @@ public class OCompositeIndexDefinition extends OAbstractIndexDefinition {
    */
   public List<String> getFieldsToIndex() {
     final List<String> fields = new LinkedList<String>();
-    for (final OIndexDefinition indexDefinition : indexDefinitions) {
+    for (final OIndexDefinition indexDefinition : getKeyDefinitions()) {
       fields.addAll(indexDefinition.getFieldsToIndex());
     }
     return Collections.unmodifiableList(fields);
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<String> getIncludedFields() {
+    final List<String> fields = new LinkedList<String>();
+    for (final OIndexDefinition indexDefinition : indexDefinitions.subList(getKeyDefinitionsCount(), indexDefinitions.size())) {
+      fields.addAll(indexDefinition.getFields());
+    }
+    return Collections.unmodifiableList(fields);
+  }
+
+  /**
+   * @return Names of all fields stored in the composite key in the order of the key: indexed fields followed by included fields.
+   */
+  public List<String> getKeyFields() {
+    final List<String> fields = new ArrayList<String>(getFields());
+    fields.addAll(getIncludedFields());
+    return Collections.unmodifiableList(fields);
+  }
+
+  private List<OIndexDefinition> getKeyDefinitions() {
+    return indexDefinitions.subList(0, getKeyDefinitionsCount());
+  }
+
+  private int getKeyDefinitionsCount() {
+    return indexDefinitions.size() - includedFieldsCount;
+  }
+
+  /**
+   * Marks the last fields of the composite key as included fields.
+   *
+   * @param includedFieldsCount amount of the last fields which are included into the key only to be read from the index entries.
+   */
+  public void setIncludedFieldsCount(final int includedFieldsCount) {
+    if (includedFieldsCount < 0 || includedFieldsCount >= indexDefinitions.size())
+      throw new OIndexException("Composite key should contain at least one field which is not included field");
+
+    this.includedFieldsCount = includedFieldsCount;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -137,10 +179,13 @@ public class OCompositeIndexDefinition extends OAbstractIndexDefinition {
 
     compositeKeys.add(firstKey);
 
-    for (final OIndexDefinition indexDefinition : indexDefinitions) {
+    final int keyDefinitionsCount = getKeyDefinitionsCount();
+    for (int i = 0; i < indexDefinitions.size(); i++) {
+      final OIndexDefinition indexDefinition = indexDefinitions.get(i);
       final Object result = indexDefinition.getDocumentValueToIndex(iDocument);
 
-      if (result == null && isNullValuesIgnored())
+      //included fields are stored even if they are null, they are not used to look up the index
+      if (result == null && isNullValuesIgnored() && i < keyDefinitionsCount)
         return null;
 
       //for empty collections we add null key in index
@@ -179,7 +224,9 @@ public class OCompositeIndexDefinition extends OAbstractIndexDefinition {
 
     boolean containsCollection = false;
 
-    for (final OIndexDefinition indexDefinition : indexDefinitions) {
+    final int keyDefinitionsCount = getKeyDefinitionsCount();
+    for (int i = 0; i < indexDefinitions.size(); i++) {
+      final OIndexDefinition indexDefinition = indexDefinitions.get(i);
       if (currentParamIndex + 1 > params.size())
         break;
 
@@ -194,7 +241,7 @@ public class OCompositeIndexDefinition extends OAbstractIndexDefinition {
 
       final Object keyValue = indexDefinition.createValue(indexParams);
 
-      if (keyValue == null && isNullValuesIgnored())
+      if (keyValue == null && isNullValuesIgnored() && i < keyDefinitionsCount)
         return null;
 
       //for empty collections we add null key in index
@@ -221,7 +268,9 @@ public class OCompositeIndexDefinition extends OAbstractIndexDefinition {
     final OCompositeKey compositeKey = new OCompositeKey();
     int currentParamIndex = 0;
 
-    for (final OIndexDefinition indexDefinition : indexDefinitions) {
+    final int keyDefinitionsCount = getKeyDefinitionsCount();
+    for (int i = 0; i < indexDefinitions.size(); i++) {
+      final OIndexDefinition indexDefinition = indexDefinitions.get(i);
       if (currentParamIndex + 1 > params.size())
         break;
 
@@ -241,7 +290,7 @@ public class OCompositeIndexDefinition extends OAbstractIndexDefinition {
       else
         keyValue = indexDefinition.createValue(indexParams);
 
-      if (keyValue == null && isNullValuesIgnored())
+      if (keyValue == null && isNullValuesIgnored() && i < keyDefinitionsCount)
         return null;
 
       compositeKey.addKey(keyValue);
@@ -358,6 +407,8 @@ public class OCompositeIndexDefinition extends OAbstractIndexDefinition {
       return false;
     if (!indexDefinitions.equals(that.indexDefinitions))
       return false;
+    if (includedFieldsCount != that.includedFieldsCount)
+      return false;
 
     return true;
   }
@@ -406,6 +457,8 @@ public class OCompositeIndexDefinition extends OAbstractIndexDefinition {
     document.field("indexDefinitions", inds, OType.EMBEDDEDLIST);
     document.field("indClasses", indClasses, OType.EMBEDDEDLIST);
     document.field("nullValuesIgnored", isNullValuesIgnored());
+    if (includedFieldsCount > 0)
+      document.field("includedFieldsCount", includedFieldsCount);
   }
 
   /**
@@ -429,13 +482,15 @@ public class OCompositeIndexDefinition extends OAbstractIndexDefinition {
 
     if (multiValueDefinitionIndex == -1) {
       boolean first = true;
-      for (OType oType : getTypes()) {
-        if (first)
-          first = false;
-        else
-          ddl.append(", ");
-
-        ddl.append(oType.name());
+      for (final OIndexDefinition indexDefinition : getKeyDefinitions()) {
+        for (OType oType : indexDefinition.getTypes()) {
+          if (first)
+            first = false;
+          else
+            ddl.append(", ");
+
+          ddl.append(oType.name());
+        }
       }
     }
 
@@ -479,6 +534,9 @@ public class OCompositeIndexDefinition extends OAbstractIndexDefinition {
       }
 
       setNullValuesIgnored(!Boolean.FALSE.equals(document.<Boolean>field("nullValuesIgnored")));
+
+      final Integer includedFields = document.field("includedFieldsCount");
+      includedFieldsCount = includedFields == null ? 0 : includedFields;
     } catch (final ClassNotFoundException e) {
       throw OException.wrapException(new OIndexException("Error during composite index deserialization"), e);
     } catch (final NoSuchMethodException e) {
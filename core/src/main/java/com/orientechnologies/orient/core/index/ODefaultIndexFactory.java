@@ -106,6 +106,11 @@ public class ODefaultIndexFactory implements OIndexFactory {
 
     if (version < 0) {
       version = getLastVersion(algorithm);
+
+      if (CELL_BTREE_ALGORITHM.equals(algorithm) && (OClass.INDEX_TYPE.UNIQUE.toString().equals(indexType)
+          || OClass.INDEX_TYPE.DICTIONARY.toString().equals(indexType))) {
+        version = OCellBTreeIndexEngine.SINGLE_VALUE_VERSION;
+      }
     }
 
     return createSBTreeIndex(name, indexType, valueContainerAlgorithm, metadata,
@@ -27,6 +27,9 @@ import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.listener.OProgressListener;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
@@ -34,12 +37,15 @@ import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.exception.OConfigurationException;
 import com.orientechnologies.orient.core.exception.OInvalidIndexEngineIdException;
 import com.orientechnologies.orient.core.exception.OTooBigIndexKeyException;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.index.engine.OBaseIndexEngine;
 import com.orientechnologies.orient.core.intent.OIntentMassiveInsert;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
+import com.orientechnologies.orient.core.sql.executor.OQueryStats;
+import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
 import com.orientechnologies.orient.core.storage.OStorage;
 import com.orientechnologies.orient.core.storage.cache.OReadCache;
 import com.orientechnologies.orient.core.storage.cache.OWriteCache;
@@ -52,10 +58,13 @@ import com.orientechnologies.orient.core.tx.OTransactionIndexChangesPerKey;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -71,8 +80,9 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
 
-  protected static final String                    CONFIG_MAP_RID  = "mapRid";
-  private static final   String                    CONFIG_CLUSTERS = "clusters";
+  protected static final String                    CONFIG_MAP_RID             = "mapRid";
+  private static final   String                    CONFIG_CLUSTERS            = "clusters";
+  private static final   int                       MAX_SIDE_LOG_REPLAY_ROUNDS = 16;
   final                  String                    type;
   protected final        ODocument                 metadata;
   protected final        OAbstractPaginatedStorage storage;
@@ -91,6 +101,7 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
   private          String              algorithm;
   private volatile OIndexDefinition    indexDefinition;
   private volatile boolean             rebuilding       = false;
+  private volatile OIndexSideLog       sideLog;
   private          Map<String, String> engineProperties = new HashMap<>();
   final            int                 binaryFormatVersion;
 
@@ -413,6 +424,12 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
 
     final boolean intentInstalled = getDatabase().declareIntent(new OIntentMassiveInsert());
 
+    if (startOnlineBuild()) {
+      // records of transactions which applied their changes to the index before the switch to the online build mode should be
+      // visible for the build, changes of the rest of transactions are collected in the side log
+      waitForIndexWriters();
+    }
+
     acquireExclusiveLock();
     try {
       // DO NOT REORDER 2 assignments bellow
@@ -420,6 +437,9 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
       rebuilding = true;
       rebuildVersion.incrementAndGet();
 
+      // the statistics describe the content of the index before the rebuild, it has to be analyzed again
+      OQueryStats.get(getDatabase()).setIndexStatistics(name, null);
+
       try {
         if (indexId >= 0) {
           storage.deleteIndexEngine(indexId);
@@ -445,38 +465,239 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
         // IGNORE EXCEPTION: IF THE REBUILD WAS LAUNCHED IN CASE OF RID INVALID CLEAR ALWAYS GOES IN ERROR
       }
 
-      rebuilding = false;
+      // index stays invalid till the next successful rebuild
+      sideLog = null;
       throw OException.wrapException(new OIndexException("Error on rebuilding the index for clusters: " + clustersToIndex), e);
     } finally {
       releaseExclusiveLock();
     }
 
+    try {
+      documentIndexed = fillIndexAndSwitch(iProgressListener, true);
+    } finally {
+      if (intentInstalled)
+        getDatabase().declareIntent(null);
+    }
+
+    return documentIndexed;
+  }
+
+  /**
+   * Switches the index to the online build mode. Changes committed by transactions after this call are collected in the side log
+   * of the index instead of being applied to it, till {@link #buildOnline(OProgressListener)} replays them.
+   *
+   * @return <code>true</code> if the index supports online build and was switched to this mode.
+   */
+  public boolean startOnlineBuild() {
+    acquireExclusiveLock();
+    try {
+      if (!isOnlineBuildSupported())
+        return false;
+
+      rebuilding = true;
+      sideLog = new OIndexSideLog();
+      return true;
+    } finally {
+      releaseExclusiveLock();
+    }
+  }
+
+  /**
+   * Fills the index which was switched to the online build mode by {@link #startOnlineBuild()}. Writers are blocked only while the
+   * tail of the side log is replayed and the index is switched back to the normal mode.
+   *
+   * @return the number of entries indexed
+   */
+  public long buildOnline(final OProgressListener iProgressListener) {
+    if (sideLog == null)
+      throw new IllegalStateException("Index '" + name + "' is not in online build mode");
+
+    return fillIndexAndSwitch(iProgressListener, false);
+  }
+
+  private void waitForIndexWriters() {
+    final OAtomicOperationsManager atomicOperationsManager = storage.getAtomicOperationsManager();
+    try {
+      atomicOperationsManager.startAtomicOperation((String) null, false);
+      try {
+        // lock is held by transactions till the end of their atomic operations
+        acquireAtomicExclusiveLock(null);
+      } finally {
+        atomicOperationsManager.endAtomicOperation(false);
+      }
+    } catch (final IOException e) {
+      throw OException.wrapException(new OIndexException("Error on rebuilding the index for clusters: " + clustersToIndex), e);
+    }
+  }
+
+  private boolean isOnlineBuildSupported() {
+    return indexDefinition != null && indexDefinition.getClassName() != null && !clustersToIndex.isEmpty() && getDatabase()
+        .getConfiguration().getValueAsBoolean(OGlobalConfiguration.INDEX_ONLINE_BUILD);
+  }
+
+  private long fillIndexAndSwitch(final OProgressListener iProgressListener, final boolean rebuild) {
+    final OIndexSideLog log = sideLog;
+    final long documentIndexed;
+
     acquireSharedLock();
     try {
-      documentIndexed = fillIndex(iProgressListener, true);
+      documentIndexed = fillIndex(iProgressListener, rebuild);
+
+      if (log != null)
+        catchUpSideLog(log);
+      else
+        rebuilding = false;
     } catch (final Exception e) {
       OLogManager.instance().error(this, "Error during index rebuild", e);
-      try {
-        if (indexId >= 0)
-          storage.clearIndex(indexId);
-      } catch (Exception e2) {
-        OLogManager.instance().error(this, "Error during index rebuild", e2);
-        // IGNORE EXCEPTION: IF THE REBUILD WAS LAUNCHED IN CASE OF RID INVALID CLEAR ALWAYS GOES IN ERROR
-      }
+      clearAfterFailedBuild();
 
       throw OException.wrapException(new OIndexException("Error on rebuilding the index for clusters: " + clustersToIndex), e);
     } finally {
-      rebuilding = false;
+      releaseSharedLock();
+    }
 
-      if (intentInstalled)
-        getDatabase().declareIntent(null);
+    if (log == null)
+      return documentIndexed;
 
-      releaseSharedLock();
+    try {
+      switchFromSideLog(log);
+    } catch (final Exception e) {
+      OLogManager.instance().error(this, "Error during index rebuild", e);
+      clearAfterFailedBuild();
+
+      throw OException.wrapException(new OIndexException("Error on rebuilding the index for clusters: " + clustersToIndex), e);
     }
 
     return documentIndexed;
   }
 
+  /**
+   * Replays the rest of the side log and switches index back to the normal mode. Transactions lock index inside of storage before
+   * they apply their changes to it, so writers are blocked by the atomic operation which holds the same lock till the switch is
+   * completed. Exclusive lock of the index itself can not be used for that, because writer which waits for it already holds the
+   * lock of the index inside of the storage.
+   */
+  private void switchFromSideLog(final OIndexSideLog log) throws IOException {
+    final OAtomicOperationsManager atomicOperationsManager = storage.getAtomicOperationsManager();
+    atomicOperationsManager.startAtomicOperation((String) null, true);
+
+    boolean rollback = false;
+    try {
+      acquireAtomicExclusiveLock(null);
+
+      final int replayed = replaySideLog(log);
+      applyDeferredPuts(log, true);
+
+      sideLog = null;
+      rebuilding = false;
+
+      OLogManager.instance()
+          .debug(this, "%d changes of index '%s' are applied from side log while writers were blocked", replayed, name);
+    } catch (final RuntimeException e) {
+      rollback = true;
+      throw e;
+    } finally {
+      atomicOperationsManager.endAtomicOperation(rollback);
+    }
+  }
+
+  /**
+   * Clears the index which failed to be built. Index is kept in the rebuilding state, so it is not used by queries till the next
+   * successful rebuild, because it does not contain entries of all records.
+   */
+  private void clearAfterFailedBuild() {
+    sideLog = null;
+    rebuilding = true;
+
+    try {
+      if (indexId >= 0)
+        storage.clearIndex(indexId);
+    } catch (Exception e2) {
+      OLogManager.instance().error(this, "Error during index rebuild", e2);
+      // IGNORE EXCEPTION: IF THE REBUILD WAS LAUNCHED IN CASE OF RID INVALID CLEAR ALWAYS GOES IN ERROR
+    }
+  }
+
+  /**
+   * Replays side log while writers are not blocked, till amount of changes left in the log becomes small enough to be replayed
+   * with writers blocked, or till writers produce changes faster than they are replayed.
+   */
+  private void catchUpSideLog(final OIndexSideLog log) {
+    final int threshold = getDatabase().getConfiguration()
+        .getValueAsInteger(OGlobalConfiguration.INDEX_ONLINE_BUILD_REPLAY_THRESHOLD);
+
+    int rounds = 0;
+    while (log.size() > threshold && rounds < MAX_SIDE_LOG_REPLAY_ROUNDS) {
+      final int replayed = replaySideLog(log);
+      applyDeferredPuts(log, false);
+
+      OLogManager.instance().debug(this, "%d changes of index '%s' are applied from side log", replayed, name);
+      rounds++;
+
+      if (log.size() >= replayed)
+        break;
+    }
+  }
+
+  private int replaySideLog(final OIndexSideLog log) {
+    final List<OIndexSideLog.Entry> entries = log.drain();
+
+    for (final OIndexSideLog.Entry entry : entries) {
+      switch (entry.operation) {
+      case PUT:
+        if (isPutAllowed(entry.key, entry.value))
+          put(entry.key, entry.value);
+        else
+          // key may be released by one of the next changes
+          log.defer(entry.key, entry.value);
+        break;
+      case REMOVE:
+        if (entry.value != null)
+          removeIfMatches(entry.key, entry.value);
+        else
+          remove(entry.key);
+
+        log.removeDeferred(entry.key, entry.value);
+        break;
+      case CLEAR:
+        clear();
+        log.clearDeferred();
+        break;
+      }
+    }
+
+    return entries.size();
+  }
+
+  private void applyDeferredPuts(final OIndexSideLog log, final boolean last) {
+    for (final OIndexSideLog.Entry entry : log.getDeferred()) {
+      if (isPutAllowed(entry.key, entry.value)) {
+        put(entry.key, entry.value);
+        log.removeDeferred(entry.key, entry.value);
+      } else if (last) {
+        // violation of uniqueness is reported by the index itself
+        put(entry.key, entry.value);
+      }
+    }
+  }
+
+  /**
+   * Checks whether the value may be put into the index by the key without violation of index constraints. Used during replay of
+   * the side log of the index which is built online, because replay is performed inside of atomic operation which can not be
+   * continued once put is rejected by the index.
+   */
+  protected boolean isPutAllowed(final Object key, final OIdentifiable value) {
+    return true;
+  }
+
+  /**
+   * Removes the value from the index by the key, but only if the value is still associated with this key. Used during replay of
+   * the side log of the index which is built online, when the key may already be assigned to another record.
+   */
+  protected boolean removeIfMatches(final Object key, final OIdentifiable value) {
+    return remove(key, value);
+  }
+
   private long fillIndex(final OProgressListener iProgressListener, final boolean rebuild) {
     long documentIndexed = 0;
     try {
@@ -489,11 +710,24 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
       if (iProgressListener != null)
         iProgressListener.onBegin(this, documentTotal, rebuild);
 
-      // INDEX ALL CLUSTERS
-      for (final String clusterName : clustersToIndex) {
-        final long[] metrics = indexCluster(clusterName, iProgressListener, documentNum, documentIndexed, documentTotal);
-        documentNum = metrics[0];
-        documentIndexed = metrics[1];
+      boolean bulkLoaded = false;
+      final OBaseIndexEngine.Validator<Object, ORID> bulkLoadValidator = getBulkLoadValidator();
+      final OContextConfiguration configuration = getDatabase().getConfiguration();
+
+      if (bulkLoadValidator != null && configuration.getValueAsBoolean(OGlobalConfiguration.INDEX_BULK_LOAD)
+          && documentTotal >= configuration.getValueAsInteger(OGlobalConfiguration.INDEX_BULK_LOAD_THRESHOLD)) {
+        final BulkLoadIterator entries = new BulkLoadIterator(iProgressListener, documentTotal);
+        bulkLoaded = bulkLoad(entries, onlineBuildValidator(bulkLoadValidator));
+        documentIndexed = entries.documentIndexed;
+      }
+
+      if (!bulkLoaded) {
+        // INDEX ALL CLUSTERS
+        for (final String clusterName : clustersToIndex) {
+          final long[] metrics = indexCluster(clusterName, iProgressListener, documentNum, documentIndexed, documentTotal);
+          documentNum = metrics[0];
+          documentIndexed = metrics[1];
+        }
       }
 
       if (iProgressListener != null)
@@ -506,6 +740,42 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
     return documentIndexed;
   }
 
+  private boolean bulkLoad(final Iterator<ORawPair<Object, ORID>> entries, final OBaseIndexEngine.Validator<Object, ORID> validator) {
+    while (true)
+      try {
+        return storage.bulkLoadIndex(indexId, entries, validator);
+      } catch (OInvalidIndexEngineIdException ignore) {
+        doReloadIndexEngine();
+      }
+  }
+
+  private OBaseIndexEngine.Validator<Object, ORID> onlineBuildValidator(final OBaseIndexEngine.Validator<Object, ORID> validator) {
+    final OIndexSideLog log = sideLog;
+    if (log == null)
+      return validator;
+
+    return (key, oldValue, newValue) -> {
+      try {
+        return validator.validate(key, oldValue, newValue);
+      } catch (ORecordDuplicatedException e) {
+        if (!(log.isChanged(oldValue) || log.isChanged(newValue)))
+          throw e;
+
+        // one of the records was changed after the start of the build, conflict is resolved during replay of the side log
+        log.defer(key, newValue);
+        return OBaseIndexEngine.Validator.IGNORE;
+      }
+    };
+  }
+
+  /**
+   * @return Validator which is used to merge values of equal keys if index is filled by bulk load, or <code>null</code> if index
+   * does not support bulk load and should be filled by addition of entries one by one.
+   */
+  protected OBaseIndexEngine.Validator<Object, ORID> getBulkLoadValidator() {
+    return null;
+  }
+
   public boolean remove(Object key, final OIdentifiable value) {
     return remove(key);
   }
@@ -658,6 +928,12 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
   public void addTxOperation(IndexTxSnapshot snapshots, final OTransactionIndexChanges changes) {
     acquireSharedLock();
     try {
+      final OIndexSideLog log = sideLog;
+      if (log != null) {
+        appendToSideLog(log, changes);
+        return;
+      }
+
       if (changes.cleared)
         clearSnapshot(snapshots);
       final Map<Object, Object> snapshot = snapshots.indexSnapshot;
@@ -671,6 +947,46 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
     }
   }
 
+  private void appendToSideLog(final OIndexSideLog log, final OTransactionIndexChanges changes) {
+    final List<OIndexSideLog.Entry> entries = new ArrayList<>();
+    if (changes.cleared)
+      entries.add(new OIndexSideLog.Entry(OTransactionIndexChanges.OPERATION.CLEAR, null, null));
+
+    for (final OTransactionIndexChangesPerKey entry : changes.changesPerKey.values()) {
+      appendToSideLog(entries, entry);
+    }
+    appendToSideLog(entries, changes.nullKeyChanges);
+
+    final OIndexSideLog.Claims claims = log.check(entries, getSideLogConstraint());
+
+    // switch from the side log waits for the lock of the index which is held till the end of the atomic operation, so changes are
+    // appended before the switch, but only if transaction is not rolled back
+    final OAtomicOperation atomicOperation = OAtomicOperationsManager.getCurrentOperation();
+    if (atomicOperation != null)
+      atomicOperation.addCommitAction(() -> log.append(entries, claims));
+    else
+      log.append(entries, claims);
+  }
+
+  /**
+   * @return Constraint which is checked by writers while changes are collected in the side log of the index which is built
+   * online, or <code>null</code> if index does not have constraints.
+   */
+  OIndexSideLog.Constraint getSideLogConstraint() {
+    return null;
+  }
+
+  private void appendToSideLog(final List<OIndexSideLog.Entry> entries, final OTransactionIndexChangesPerKey entry) {
+    for (OTransactionIndexChangesPerKey.OTransactionIndexEntry op : interpretTxKeyChanges(entry)) {
+      if (op.operation == OTransactionIndexChanges.OPERATION.CLEAR)
+        // SHOULD NEVER BE THE CASE HANDLE BY cleared FLAG
+        continue;
+
+      final ORID value = op.value != null ? op.value.getIdentity().copy() : null;
+      entries.add(new OIndexSideLog.Entry(op.operation, entry.key, value));
+    }
+  }
+
   /**
    * Interprets transaction index changes for a certain key. Override it to customize index behaviour on interpreting index changes.
    * This may be viewed as an optimization, but in some cases this is a requirement. For example, if you put multiple values under
@@ -825,10 +1141,23 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
   private void populateIndex(ODocument doc, Object fieldValue) {
     if (fieldValue instanceof Collection) {
       for (final Object fieldValueItem : (Collection<?>) fieldValue) {
-        put(fieldValueItem, doc);
+        putDuringBuild(fieldValueItem, doc);
       }
     } else
-      put(fieldValue, doc);
+      putDuringBuild(fieldValue, doc);
+  }
+
+  private void putDuringBuild(final Object key, final ODocument doc) {
+    try {
+      put(key, doc);
+    } catch (ORecordDuplicatedException e) {
+      final OIndexSideLog log = sideLog;
+      if (log == null || !(log.isChanged(e.getRid()) || log.isChanged(doc.getIdentity())))
+        throw e;
+
+      // one of the records was changed after the start of the build, conflict is resolved during replay of the side log
+      log.defer(e.getKey(), doc.getIdentity());
+    }
   }
 
   public Object getCollatingValue(final Object key) {
@@ -904,6 +1233,22 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
     return engine.acquireAtomicExclusiveLock(key);
   }
 
+  @Override
+  public void acquireAtomicKeyLock(Object key) {
+    OBaseIndexEngine engine;
+
+    while (true) {
+      try {
+        engine = storage.getIndexEngine(indexId);
+        break;
+      } catch (OInvalidIndexEngineIdException ignore) {
+        doReloadIndexEngine();
+      }
+    }
+
+    engine.acquireAtomicKeyLock(getCollatingValue(key));
+  }
+
   protected static ODatabaseDocumentInternal getDatabase() {
     return ODatabaseRecordThreadLocal.instance().get();
   }
@@ -1010,6 +1355,90 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
       }
   }
 
+  /**
+   * Iterates over documents of indexed clusters and returns keys of the index with RIDs of documents in the same way as they are put
+   * into the index during index rebuild.
+   */
+  private final class BulkLoadIterator implements Iterator<ORawPair<Object, ORID>> {
+    private final OProgressListener progressListener;
+    private final long              documentTotal;
+    private final Iterator<String>  clusters = clustersToIndex.iterator();
+
+    private Iterator<ORecord> records = Collections.emptyIterator();
+    private Iterator<?>       keys    = Collections.emptyIterator();
+    private ORID              rid;
+
+    private long documentNum;
+    private long documentIndexed;
+
+    private BulkLoadIterator(final OProgressListener progressListener, final long documentTotal) {
+      this.progressListener = progressListener;
+      this.documentTotal = documentTotal;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!keys.hasNext()) {
+        if (!nextDocument()) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    @Override
+    public ORawPair<Object, ORID> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      return new ORawPair<>(getCollatingValue(keys.next()), rid);
+    }
+
+    private boolean nextDocument() {
+      while (!records.hasNext()) {
+        if (!clusters.hasNext()) {
+          return false;
+        }
+
+        records = getDatabase().browseCluster(clusters.next());
+      }
+
+      if (Thread.interrupted())
+        throw new OCommandExecutionException("The index rebuild has been interrupted");
+
+      final ORecord record = records.next();
+      if (record instanceof ODocument) {
+        final ODocument doc = (ODocument) record;
+
+        if (indexDefinition == null)
+          throw new OConfigurationException(
+              "Index '" + name + "' cannot be rebuilt because has no a valid definition (" + indexDefinition + ")");
+
+        final Object fieldValue = indexDefinition.getDocumentValueToIndex(doc);
+
+        if (fieldValue != null || !indexDefinition.isNullValuesIgnored()) {
+          rid = doc.getIdentity();
+
+          if (fieldValue instanceof Collection) {
+            keys = ((Collection<?>) fieldValue).iterator();
+          } else {
+            keys = Collections.singletonList(fieldValue).iterator();
+          }
+
+          ++documentIndexed;
+        }
+      }
+      documentNum++;
+
+      if (progressListener != null)
+        progressListener.onProgress(OIndexAbstract.this, documentNum, (float) (documentNum * 100.0 / documentTotal));
+
+      return true;
+    }
+  }
+
   IndexConfiguration indexConfigurationInstance(final ODocument document) {
     return new IndexConfiguration(document);
   }
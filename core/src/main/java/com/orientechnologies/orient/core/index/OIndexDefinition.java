@@ -23,6 +23,7 @@ import com.orientechnologies.orient.core.collate.OCollate;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -46,6 +47,14 @@ public interface OIndexDefinition extends OIndexCallback {
    */
   List<String> getFieldsToIndex();
 
+  /**
+   * @return Names of fields which are included into the key only to be read from the index entries, they are stored after the
+   *         fields returned by {@link #getFields()}. Such fields are not used to look up the index.
+   */
+  default List<String> getIncludedFields() {
+    return Collections.emptyList();
+  }
+
   /**
    * @return Name of the class which this index belongs to.
    */
@@ -132,4 +132,12 @@ public interface OIndexInternal<T> extends OIndex<T> {
    * key} and only some subset of this index was locked.
    */
   boolean acquireAtomicExclusiveLock(Object key);
+
+  /**
+   * Acquires locks in the active atomic operation running on the current thread which are needed to change the single {@code key}
+   * of this index. Index may lock only the part of itself which contains the key, otherwise it is locked entirely.
+   *
+   * @param key the index key to lock.
+   */
+  void acquireAtomicKeyLock(Object key);
 }
@@ -39,6 +39,7 @@ import com.orientechnologies.orient.core.metadata.schema.OClassImpl;
 import com.orientechnologies.orient.core.metadata.schema.OSchemaShared;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OQueryStats;
 import com.orientechnologies.orient.core.storage.OStorage;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 
@@ -126,6 +127,7 @@ public class OIndexManagerShared extends OIndexManagerAbstract {
     final String valueContainerAlgorithm = chooseContainerAlgorithm(type);
 
     final OIndexInternal<?> index;
+    OIndexAbstract<?> onlineBuild = null;
     acquireExclusiveLock();
     try {
 
@@ -163,7 +165,16 @@ public class OIndexManagerShared extends OIndexManagerAbstract {
       // decide which cluster to use ("index" - for automatic and "manindex" for manual)
       final String clusterName = indexDefinition.getClassName() != null ? defaultClusterName : manualClusterName;
 
-      index.create(iName, indexDefinition, clusterName, clustersToIndex, true, progressListener);
+      if (index instanceof OIndexAbstract && indexDefinition.getClassName() != null && !clustersToIndex.isEmpty() && database
+          .getConfiguration().getValueAsBoolean(OGlobalConfiguration.INDEX_ONLINE_BUILD)) {
+        // index is filled once it is registered, so writers are not blocked during the build
+        index.create(iName, indexDefinition, clusterName, clustersToIndex, false, progressListener);
+        if (((OIndexAbstract<?>) index).startOnlineBuild())
+          onlineBuild = (OIndexAbstract<?>) index;
+        else
+          index.rebuild(progressListener);
+      } else
+        index.create(iName, indexDefinition, clusterName, clustersToIndex, true, progressListener);
 
       addIndexInternal(index);
 
@@ -180,6 +191,16 @@ public class OIndexManagerShared extends OIndexManagerAbstract {
 
     notifyInvolvedClasses(database, clusterIdsToIndex);
 
+    if (onlineBuild != null) {
+      try {
+        onlineBuild.buildOnline(progressListener);
+      } catch (RuntimeException e) {
+        OLogManager.instance().error(this, "Exception during online build of index '%s', index will be removed", e, iName);
+        dropIndex(database, iName);
+        throw e;
+      }
+    }
+
     return preProcessBeforeReturn(database, index);
   }
 
@@ -248,6 +269,8 @@ public class OIndexManagerShared extends OIndexManagerAbstract {
         removeClassPropertyIndex(idx);
 
         idx.delete();
+        // A NEW INDEX WITH THE SAME NAME MUST NOT BE PLANNED WITH THE STATISTICS OF THE DROPPED ONE
+        OQueryStats.get(database).setIndexStatistics(iIndexName, null);
         setDirty();
         save();
 
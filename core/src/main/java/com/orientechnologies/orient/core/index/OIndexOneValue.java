@@ -22,6 +22,7 @@ package com.orientechnologies.orient.core.index;
 import com.orientechnologies.common.comparator.ODefaultComparator;
 import com.orientechnologies.common.listener.OProgressListener;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.exception.OInvalidIndexEngineIdException;
 import com.orientechnologies.orient.core.record.impl.ODocument;
@@ -43,6 +44,8 @@ import java.util.Set;
  * @author Luca Garulli
  */
 public abstract class OIndexOneValue extends OIndexAbstract<OIdentifiable> {
+  private static final int KEYS_BATCH_SIZE = 1024;
+
   public OIndexOneValue(String name, final String type, String algorithm, int version, OAbstractPaginatedStorage storage,
       String valueContainerAlgorithm, ODocument metadata, final int binaryFormatVersion) {
     super(name, type, algorithm, valueContainerAlgorithm, metadata, version, storage, binaryFormatVersion);
@@ -64,6 +67,15 @@ public abstract class OIndexOneValue extends OIndexAbstract<OIdentifiable> {
     }
   }
 
+  @Override
+  protected boolean removeIfMatches(final Object key, final OIdentifiable value) {
+    final OIdentifiable current = get(key);
+    if (current == null || !current.getIdentity().equals(value.getIdentity()))
+      return false;
+
+    return remove(key);
+  }
+
   public long count(Object iKey) {
     iKey = getCollatingValue(iKey);
 
@@ -88,7 +100,10 @@ public abstract class OIndexOneValue extends OIndexAbstract<OIdentifiable> {
 
   @Override
   public OIndexCursor iterateEntries(Collection<?> keys, boolean ascSortOrder) {
-    final List<Object> sortedKeys = new ArrayList<Object>(keys);
+    final List<Object> sortedKeys = new ArrayList<Object>(keys.size());
+    for (Object key : keys)
+      sortedKeys.add(getCollatingValue(key));
+
     final Comparator<Object> comparator;
 
     if (ascSortOrder)
@@ -99,21 +114,25 @@ public abstract class OIndexOneValue extends OIndexAbstract<OIdentifiable> {
     Collections.sort(sortedKeys, comparator);
 
     return new OIndexAbstractCursor() {
-      private Iterator<?> keysIterator = sortedKeys.iterator();
+      private int                                keysIndex;
+      private Iterator<ORawPair<Object, Object>> entriesIterator = Collections.emptyIterator();
 
       @Override
       public Map.Entry<Object, OIdentifiable> nextEntry() {
-        OIdentifiable result = null;
-        Object key = null;
-        while (keysIterator.hasNext() && result == null) {
-          key = keysIterator.next();
-          key = getCollatingValue(key);
+        while (!entriesIterator.hasNext()) {
+          if (keysIndex >= sortedKeys.size())
+            return null;
+
+          // keys are fetched by batches, every batch is looked up by single pass over index
+          final List<Object> batchKeys = sortedKeys.subList(keysIndex, Math.min(keysIndex + KEYS_BATCH_SIZE, sortedKeys.size()));
+          keysIndex += batchKeys.size();
 
+          List<ORawPair<Object, Object>> entries;
           acquireSharedLock();
           try {
             while (true)
               try {
-                result = (OIdentifiable) storage.getIndexValue(indexId, key);
+                entries = storage.getIndexValues(indexId, batchKeys);
                 break;
               } catch (OInvalidIndexEngineIdException ignore) {
                 doReloadIndexEngine();
@@ -121,13 +140,14 @@ public abstract class OIndexOneValue extends OIndexAbstract<OIdentifiable> {
           } finally {
             releaseSharedLock();
           }
-        }
 
-        if (result == null)
-          return null;
+          entries.sort((first, second) -> comparator.compare(first.getFirst(), second.getFirst()));
+          entriesIterator = entries.iterator();
+        }
 
-        final Object resultKey = key;
-        final OIdentifiable resultValue = result;
+        final ORawPair<Object, Object> entry = entriesIterator.next();
+        final Object resultKey = entry.getFirst();
+        final OIdentifiable resultValue = (OIdentifiable) entry.getSecond();
 
         return new Map.Entry<Object, OIdentifiable>() {
           @Override
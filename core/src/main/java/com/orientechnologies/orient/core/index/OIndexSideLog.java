@@ -0,0 +1,228 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.tx.OTransactionIndexChanges.OPERATION;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Side log of the index which is built online. Changes committed by transactions while the index is built are appended to the log
+ * in order of commit instead of being applied to the index, and are replayed once all records are indexed.
+ * <p>
+ * Log also keeps puts which could not be applied because of violation of uniqueness of the key. Such puts conflict with entries
+ * which are going to be removed by the changes from the log, so they are retried after the replay.
+ * <p>
+ * Constraints of the index can not be checked by the index itself while changes are collected in the log, so log tracks records
+ * which are assigned to the keys changed after the start of the build and checks changes of writers against them and against the
+ * index which is being built. Changes and assignments of keys are recorded only once transaction is committed, so changes of
+ * transactions which are rolled back are neither replayed nor checked by other writers.
+ */
+final class OIndexSideLog {
+  private List<Entry>             entries  = new ArrayList<>();
+  private final Set<ORID>         rids     = new HashSet<>();
+  private final Set<Entry>        deferred = new LinkedHashSet<>();
+  private final Map<Object, ORID> owners   = new HashMap<>();
+  private boolean                 cleared;
+
+  /**
+   * Constraint of the index which is checked by writers before their changes are appended to the log.
+   */
+  interface Constraint {
+    /**
+     * @return Key in the form in which it is stored inside of the index.
+     */
+    Object normalize(Object key);
+
+    /**
+     * @return Record which is assigned to the key inside of the index which is being built, or <code>null</code>.
+     */
+    ORID get(Object key);
+
+    /**
+     * Throws exception if the value can not be assigned to the key which is already assigned to another record.
+     */
+    void checkPut(Object key, ORID owner, ORID value);
+  }
+
+  /**
+   * Checks changes of the transaction against the constraint of the index before the transaction is committed. Records changed by
+   * the transaction are treated as changed after the start of the build even if the transaction is rolled back later.
+   *
+   * @return Keys which are assigned by the changes, they have to be passed to {@link #append(List, Claims)} once transaction is
+   * committed, or <code>null</code> if index does not have constraints.
+   */
+  synchronized Claims check(final List<Entry> changes, final Constraint constraint) {
+    for (final Entry entry : changes) {
+      if (entry.value != null) {
+        rids.add(entry.value);
+      }
+    }
+
+    if (constraint == null) {
+      return null;
+    }
+
+    final Map<Object, ORID> assigned = new HashMap<>();
+    boolean clear = false;
+
+    for (final Entry entry : changes) {
+      switch (entry.operation) {
+      case CLEAR:
+        assigned.clear();
+        clear = true;
+        break;
+      case PUT: {
+        final Object key = constraint.normalize(entry.key);
+        final ORID owner = owner(key, assigned, clear, constraint);
+        if (owner != null && !owner.equals(entry.value)) {
+          constraint.checkPut(key, owner, entry.value);
+        }
+
+        assigned.put(key, entry.value);
+        break;
+      }
+      case REMOVE: {
+        final Object key = constraint.normalize(entry.key);
+        if (entry.value == null || entry.value.equals(owner(key, assigned, clear, constraint))) {
+          assigned.put(key, null);
+        }
+        break;
+      }
+      }
+    }
+
+    return new Claims(assigned, clear);
+  }
+
+  private ORID owner(final Object key, final Map<Object, ORID> assigned, final boolean clear, final Constraint constraint) {
+    if (assigned.containsKey(key) || clear) {
+      return assigned.get(key);
+    }
+    if (owners.containsKey(key) || cleared) {
+      return owners.get(key);
+    }
+
+    return constraint.get(key);
+  }
+
+  /**
+   * Appends changes of the committed transaction to the log, together with the keys assigned by them.
+   */
+  synchronized void append(final List<Entry> changes, final Claims claims) {
+    entries.addAll(changes);
+
+    if (claims != null) {
+      if (claims.clear) {
+        owners.clear();
+        cleared = true;
+      }
+      owners.putAll(claims.assigned);
+    }
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return Changes which were appended to the log since the last call of this method.
+   */
+  synchronized List<Entry> drain() {
+    if (entries.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    final List<Entry> result = entries;
+    entries = new ArrayList<>();
+    return result;
+  }
+
+  /**
+   * @return <code>true</code> if record was changed after the start of the build, so its index entries are going to be fixed
+   * during the replay of the log.
+   */
+  synchronized boolean isChanged(final ORID rid) {
+    return rid != null && rids.contains(rid);
+  }
+
+  synchronized void defer(final Object key, final ORID value) {
+    deferred.add(new Entry(OPERATION.PUT, key, value));
+  }
+
+  synchronized void removeDeferred(final Object key, final ORID value) {
+    deferred.removeIf(entry -> Objects.equals(entry.key, key) && (value == null || value.equals(entry.value)));
+  }
+
+  synchronized void clearDeferred() {
+    deferred.clear();
+  }
+
+  synchronized List<Entry> getDeferred() {
+    return new ArrayList<>(deferred);
+  }
+
+  static final class Claims {
+    private final Map<Object, ORID> assigned;
+    private final boolean           clear;
+
+    private Claims(final Map<Object, ORID> assigned, final boolean clear) {
+      this.assigned = assigned;
+      this.clear = clear;
+    }
+  }
+
+  static final class Entry {
+    final OPERATION operation;
+    final Object    key;
+    final ORID      value;
+
+    Entry(final OPERATION operation, final Object key, final ORID value) {
+      this.operation = operation;
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o)
+        return true;
+      if (o == null || getClass() != o.getClass())
+        return false;
+
+      final Entry entry = (Entry) o;
+      return operation == entry.operation && Objects.equals(key, entry.key) && Objects.equals(value, entry.value);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(operation, key, value);
+    }
+  }
+}
@@ -81,6 +81,46 @@ public class OIndexUnique extends OIndexOneValue {
     }
   }
 
+  @Override
+  protected boolean isPutAllowed(final Object key, final OIdentifiable value) {
+    final OIdentifiable current = get(key);
+    if (current == null)
+      return true;
+
+    try {
+      uniqueValidator.validate(getCollatingValue(key), current.getIdentity(), value.getIdentity());
+      return true;
+    } catch (ORecordDuplicatedException e) {
+      return false;
+    }
+  }
+
+  @Override
+  protected OBaseIndexEngine.Validator<Object, ORID> getBulkLoadValidator() {
+    return uniqueValidator;
+  }
+
+  @Override
+  OIndexSideLog.Constraint getSideLogConstraint() {
+    return new OIndexSideLog.Constraint() {
+      @Override
+      public Object normalize(final Object key) {
+        return getCollatingValue(key);
+      }
+
+      @Override
+      public ORID get(final Object key) {
+        final OIdentifiable current = OIndexUnique.this.get(key);
+        return current != null ? current.getIdentity() : null;
+      }
+
+      @Override
+      public void checkPut(final Object key, final ORID owner, final ORID value) {
+        uniqueValidator.validate(key, owner, value);
+      }
+    };
+  }
+
   @Override
   public boolean canBeUsedInEqualityOperators() {
     return true;
@@ -1,6 +1,7 @@
 package com.orientechnologies.orient.core.index.engine;
 
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.orient.core.encryption.OEncryption;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.index.OIndexCursor;
@@ -10,7 +11,9 @@ import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -35,6 +38,24 @@ public interface OBaseIndexEngine {
 
   Object get(Object key);
 
+  /**
+   * Returns values of all passed in keys which are present in the index. Engine may sort keys and find all of them during single
+   * pass over its data, by default keys are looked up one by one.
+   *
+   * @return pairs of passed in keys and values, order of pairs is not defined.
+   */
+  default List<ORawPair<Object, Object>> getMany(Collection<?> keys) {
+    final List<ORawPair<Object, Object>> result = new ArrayList<>(keys.size());
+    for (final Object key : keys) {
+      final Object value = get(key);
+      if (value != null) {
+        result.add(new ORawPair<>(key, value));
+      }
+    }
+
+    return result;
+  }
+
   boolean remove(Object key) throws IOException;
 
   Object getFirstKey();
@@ -78,6 +99,17 @@ public interface OBaseIndexEngine {
    */
   boolean acquireAtomicExclusiveLock(Object key);
 
+  /**
+   * Acquires locks in the active atomic operation running on the current thread which are needed to change the single {@code key}
+   * of this index. Engine may lock only the part of itself which contains the key, by default the whole engine is locked
+   * exclusively.
+   *
+   * @param key the index key to lock.
+   */
+  default void acquireAtomicKeyLock(Object key) {
+    acquireAtomicExclusiveLock(key);
+  }
+
   String getIndexNameByKey(Object key);
 
   interface ValuesTransformer {
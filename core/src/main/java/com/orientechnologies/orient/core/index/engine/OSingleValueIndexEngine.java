@@ -1,9 +1,18 @@
 package com.orientechnologies.orient.core.index.engine;
 
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.orient.core.id.ORID;
 
+import java.util.Iterator;
+
 public interface OSingleValueIndexEngine extends OV1IndexEngine {
   ORID get(Object key);
 
   boolean validatedPut(Object key, ORID value, Validator<Object, ORID> validator);
+
+  /**
+   * Puts all passed in entries into the empty index by sorting them and building of index pages from bottom to top. Changes are not
+   * logged into WAL, so storage should make them durable by full checkpoint.
+   */
+  void bulkLoad(Iterator<ORawPair<Object, ORID>> entries, Validator<Object, ORID> validator);
 }
@@ -5,6 +5,12 @@ import com.orientechnologies.orient.core.index.engine.OV1IndexEngine;
 public interface OCellBTreeIndexEngine extends OV1IndexEngine {
   int VERSION = 3;
 
+  /**
+   * Version of single value indexes which store variable length keys in compressed buckets. Multi-value indexes do not use this
+   * format and are still created with {@link #VERSION}.
+   */
+  int SINGLE_VALUE_VERSION = 4;
+
   @Override
   default int getVersion() {
     return VERSION;
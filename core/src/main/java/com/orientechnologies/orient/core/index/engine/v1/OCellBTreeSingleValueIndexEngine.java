@@ -2,6 +2,7 @@ package com.orientechnologies.orient.core.index.engine.v1;
 
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.encryption.OEncryption;
 import com.orientechnologies.orient.core.id.ORID;
@@ -16,9 +17,7 @@ import com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.v1.OCe
 import com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.v3.OCellBTreeSingleValueV3;
 
 import java.io.IOException;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 public final class OCellBTreeSingleValueIndexEngine implements OSingleValueIndexEngine, OCellBTreeIndexEngine {
   private static final String DATA_FILE_EXTENSION        = ".cbt";
@@ -26,18 +25,27 @@ public final class OCellBTreeSingleValueIndexEngine implements OSingleValueIndex
 
   private final OCellBTreeSingleValue<Object> sbTree;
   private final String                          name;
+  private final int                             version;
 
   public OCellBTreeSingleValueIndexEngine(String name, OAbstractPaginatedStorage storage, int version) {
     this.name = name;
+    this.version = version;
     if (version < 3) {
       this.sbTree = new OCellBTreeSingleValueV1<>(name, DATA_FILE_EXTENSION, NULL_BUCKET_FILE_EXTENSION, storage);
     } else if (version == 3) {
       this.sbTree = new OCellBTreeSingleValueV3<>(name, DATA_FILE_EXTENSION, NULL_BUCKET_FILE_EXTENSION, storage);
+    } else if (version == 4) {
+      this.sbTree = new OCellBTreeSingleValueV3<>(name, DATA_FILE_EXTENSION, NULL_BUCKET_FILE_EXTENSION, storage, true);
     } else {
       throw new IllegalStateException("Invalid tree version " + version);
     }
   }
 
+  @Override
+  public int getVersion() {
+    return version;
+  }
+
   @Override
   public void init(String indexName, String indexType, OIndexDefinition indexDefinition, boolean isAutomatic, ODocument metadata) {
   }
@@ -121,6 +129,27 @@ public final class OCellBTreeSingleValueIndexEngine implements OSingleValueIndex
     return sbTree.get(key);
   }
 
+  @Override
+  public List<ORawPair<Object, Object>> getMany(Collection<?> keys) {
+    final List<Object> treeKeys = new ArrayList<>(keys.size());
+    final List<ORawPair<Object, Object>> result = new ArrayList<>(keys.size());
+    for (final Object key : keys) {
+      if (key != null) {
+        treeKeys.add(key);
+      } else {
+        final ORID value = sbTree.get(null);
+        if (value != null) {
+          result.add(new ORawPair<>(null, value));
+        }
+      }
+    }
+
+    for (final ORawPair<Object, ORID> entry : sbTree.getMany(treeKeys)) {
+      result.add(new ORawPair<>(entry.getFirst(), entry.getSecond()));
+    }
+    return result;
+  }
+
   @Override
   public OIndexCursor cursor(ValuesTransformer valuesTransformer) {
     final Object firstKey = sbTree.firstKey();
@@ -171,6 +200,15 @@ public final class OCellBTreeSingleValueIndexEngine implements OSingleValueIndex
     }
   }
 
+  @Override
+  public void bulkLoad(Iterator<ORawPair<Object, ORID>> entries, Validator<Object, ORID> validator) {
+    try {
+      sbTree.bulkLoad(entries, validator);
+    } catch (IOException e) {
+      throw OException.wrapException(new OIndexException("Error during bulk load of index " + name), e);
+    }
+  }
+
   @Override
   public Object getFirstKey() {
     return sbTree.firstKey();
@@ -241,6 +279,11 @@ public final class OCellBTreeSingleValueIndexEngine implements OSingleValueIndex
     return true;
   }
 
+  @Override
+  public void acquireAtomicKeyLock(Object key) {
+    sbTree.acquireAtomicKeyLock(key);
+  }
+
   @Override
   public String getIndexNameByKey(Object key) {
     return name;
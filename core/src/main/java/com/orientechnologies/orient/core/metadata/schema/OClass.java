@@ -315,6 +315,8 @@ public interface OClass extends Comparable<OClass> {
    * @param iType             Index type.
    * @param iProgressListener Progress listener.
    * @param metadata          Additional parameters which will be added in index configuration document as "metadata" field.
+   *                          {@link INDEX_TYPE#NOTUNIQUE} index accepts "include" parameter, the list of fields which are stored
+   *                          in the index entries to be read from the index, but are not used to look it up.
    * @param algorithm         Algorithm to use for indexing.
    * @param fields            Field names from which index will be created. @return Class index registered inside of given class ans associated with
    *                          database index.
@@ -35,6 +35,7 @@ import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.exception.OSchemaException;
 import com.orientechnologies.orient.core.exception.OSecurityAccessException;
 import com.orientechnologies.orient.core.exception.OSecurityException;
+import com.orientechnologies.orient.core.index.OCompositeIndexDefinition;
 import com.orientechnologies.orient.core.index.OIndex;
 import com.orientechnologies.orient.core.index.OIndexDefinition;
 import com.orientechnologies.orient.core.index.OIndexDefinitionFactory;
@@ -77,6 +78,7 @@ import java.util.TreeSet;
 public abstract class OClassImpl implements OClass {
   private static final   long                      serialVersionUID        = 1L;
   protected static final int                       NOT_EXISTENT_CLUSTER_ID = -1;
+  private static final   String                    INCLUDE_INDEX_METADATA  = "include";
   protected final        OSchemaShared             owner;
   protected final        Map<String, OProperty>    properties              = new HashMap<String, OProperty>();
   protected              int                       defaultClusterId        = NOT_EXISTENT_CLUSTER_ID;
@@ -1140,7 +1142,28 @@ public abstract class OClassImpl implements OClass {
     final String localName = this.name;
     final int[] localPolymorphicClusterIds = polymorphicClusterIds;
 
-    for (final String fieldToIndex : fields) {
+    final List<String> includedFields = extractIncludedFields(metadata);
+    if (!includedFields.isEmpty()) {
+      if (!INDEX_TYPE.NOTUNIQUE.name().equals(type))
+        throw new OIndexException(
+            "Index with name '" + name + "' cannot be created on class '" + localName + "' because only " + INDEX_TYPE.NOTUNIQUE
+                + " indexes can include fields");
+
+      for (final String includedField : includedFields) {
+        if (Arrays.asList(fields).contains(includedField))
+          throw new OIndexException(
+              "Index with name '" + name + "' cannot be created on class '" + localName + "' because the field '" + includedField
+                  + "' is both indexed and included");
+      }
+    }
+
+    final String[] indexFields = new String[fields.length + includedFields.size()];
+    System.arraycopy(fields, 0, indexFields, 0, fields.length);
+    for (int i = 0; i < includedFields.size(); i++) {
+      indexFields[fields.length + i] = includedFields.get(i);
+    }
+
+    for (final String fieldToIndex : indexFields) {
       final String fieldName = decodeClassName(OIndexDefinitionFactory.extractFieldName(fieldToIndex));
 
       if (!fieldName.equals("@rid") && !existsProperty(fieldName))
@@ -1150,12 +1173,44 @@ public abstract class OClassImpl implements OClass {
     }
 
     final OIndexDefinition indexDefinition = OIndexDefinitionFactory
-        .createIndexDefinition(this, Arrays.asList(fields), extractFieldTypes(fields), null, type, algorithm);
+        .createIndexDefinition(this, Arrays.asList(indexFields), extractFieldTypes(indexFields), null, type, algorithm);
+
+    if (!includedFields.isEmpty()) {
+      // included fields are stored as the last fields of the composite key
+      final OCompositeIndexDefinition compositeDefinition = (OCompositeIndexDefinition) indexDefinition;
+      if (compositeDefinition.getMultiValueDefinitionIndex() >= fields.length)
+        throw new OIndexException(
+            "Index with name '" + name + "' cannot be created on class '" + localName + "' because collections cannot be included");
+
+      compositeDefinition.setIncludedFieldsCount(includedFields.size());
+    }
 
     return getDatabase().getMetadata().getIndexManager()
         .createIndex(name, type, indexDefinition, localPolymorphicClusterIds, progressListener, metadata, algorithm);
   }
 
+  private static List<String> extractIncludedFields(final ODocument metadata) {
+    if (metadata == null)
+      return Collections.emptyList();
+
+    final Object include = metadata.field(INCLUDE_INDEX_METADATA);
+    if (include == null)
+      return Collections.emptyList();
+
+    if (include instanceof String)
+      return Collections.singletonList((String) include);
+
+    if (include instanceof Collection) {
+      final List<String> includedFields = new ArrayList<String>();
+      for (final Object field : (Collection<?>) include) {
+        includedFields.add(field.toString());
+      }
+      return includedFields;
+    }
+
+    throw new OIndexException("Fields included into index should be passed as list of field names but found: " + include);
+  }
+
   public boolean areIndexed(final String... fields) {
     return areIndexed(Arrays.asList(fields));
   }
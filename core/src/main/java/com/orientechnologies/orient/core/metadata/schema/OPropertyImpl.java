@@ -195,7 +195,8 @@ public abstract class OPropertyImpl implements OProperty {
       for (final OIndex<?> index : indexManager.getClassIndexes(owner.getName())) {
         final OIndexDefinition definition = index.getDefinition();
 
-        if (OCollections.indexOf(definition.getFields(), globalRef.getName(), new OCaseInsentiveComparator()) > -1) {
+        if (OCollections.indexOf(definition.getFields(), globalRef.getName(), new OCaseInsentiveComparator()) > -1
+            || OCollections.indexOf(definition.getIncludedFields(), globalRef.getName(), new OCaseInsentiveComparator()) > -1) {
           if (definition instanceof OPropertyIndexDefinition) {
             relatedIndexes.add(index);
           } else {
@@ -665,7 +666,8 @@ public abstract class OPropertyImpl implements OProperty {
       final List<OIndex<?>> indexList = new LinkedList<OIndex<?>>();
       for (final OIndex<?> index : indexes) {
         final OIndexDefinition indexDefinition = index.getDefinition();
-        if (indexDefinition.getFields().contains(globalRef.getName()))
+        if (indexDefinition.getFields().contains(globalRef.getName()) || indexDefinition.getIncludedFields()
+            .contains(globalRef.getName()))
           indexList.add(index);
       }
 
@@ -0,0 +1,121 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.orient.core.command.OCommandRequest;
+import com.orientechnologies.orient.core.command.OCommandRequestText;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.sql.executor.OIndexStatistics;
+import com.orientechnologies.orient.core.sql.executor.OQueryStats;
+
+import java.util.Map;
+
+/**
+ * SQL ANALYZE INDEX command: scans an index and calculates the statistics of its keys, that are used by the query planner to
+ * choose among the indexes (or a scan of the class). The statistics are kept in memory and they are not replicated to the other
+ * nodes of a cluster.
+ *
+ * @see OIndexStatistics
+ */
+@SuppressWarnings("unchecked")
+public class OCommandExecutorSQLAnalyzeIndex extends OCommandExecutorSQLAbstract {
+  public static final String KEYWORD_ANALYZE = "ANALYZE";
+  public static final String KEYWORD_INDEX   = "INDEX";
+
+  private String name;
+
+  public OCommandExecutorSQLAnalyzeIndex parse(final OCommandRequest iRequest) {
+    final OCommandRequestText textRequest = (OCommandRequestText) iRequest;
+
+    String queryText = textRequest.getText();
+    String originalQuery = queryText;
+    try {
+      queryText = preParse(queryText, iRequest);
+      textRequest.setText(queryText);
+      init((OCommandRequestText) iRequest);
+
+      final StringBuilder word = new StringBuilder();
+
+      int oldPos = 0;
+      int pos = nextWord(parserText, parserTextUpperCase, oldPos, word, true);
+      if (pos == -1 || !word.toString().equals(KEYWORD_ANALYZE))
+        throw new OCommandSQLParsingException("Keyword " + KEYWORD_ANALYZE + " not found. Use " + getSyntax(), parserText, oldPos);
+
+      oldPos = pos;
+      pos = nextWord(parserText, parserTextUpperCase, pos, word, true);
+      if (pos == -1 || !word.toString().equals(KEYWORD_INDEX))
+        throw new OCommandSQLParsingException("Keyword " + KEYWORD_INDEX + " not found. Use " + getSyntax(), parserText, oldPos);
+
+      oldPos = pos;
+      pos = nextWord(parserText, parserTextUpperCase, oldPos, word, false);
+      if (pos == -1)
+        throw new OCommandSQLParsingException("Expected index name", parserText, oldPos);
+
+      name = word.toString();
+
+    } finally {
+      textRequest.setText(originalQuery);
+    }
+
+    return this;
+  }
+
+  /**
+   * Execute the ANALYZE INDEX.
+   *
+   * @return the number of analyzed index entries
+   */
+  public Object execute(final Map<Object, Object> iArgs) {
+    if (name == null)
+      throw new OCommandExecutionException("Cannot execute the command because it has not been parsed yet");
+
+    final ODatabaseDocumentInternal database = getDatabase();
+    final OQueryStats queryStats = OQueryStats.get(database);
+    long totalAnalyzed = 0;
+    if (name.equals("*")) {
+      for (OIndex<?> idx : database.getMetadata().getIndexManager().getIndexes()) {
+        totalAnalyzed += analyze(idx, queryStats);
+      }
+    } else {
+      final OIndex<?> idx = database.getMetadata().getIndexManager().getIndex(name);
+      if (idx == null)
+        throw new OCommandExecutionException("Index '" + name + "' not found");
+
+      totalAnalyzed = analyze(idx, queryStats);
+    }
+
+    // THE CACHED EXECUTION PLANS WERE CHOSEN WITHOUT THE NEW STATISTICS
+    database.getSharedContext().getExecutionPlanCache().invalidate();
+    return totalAnalyzed;
+  }
+
+  private long analyze(final OIndex<?> idx, final OQueryStats queryStats) {
+    final OIndexStatistics statistics = OIndexStatistics.compute(idx);
+    queryStats.setIndexStatistics(idx.getName(), statistics);
+    return statistics.getEntries();
+  }
+
+  @Override
+  public String getSyntax() {
+    return "ANALYZE INDEX <index-name>|*";
+  }
+}
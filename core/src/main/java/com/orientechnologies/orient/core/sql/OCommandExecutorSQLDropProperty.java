@@ -173,7 +173,8 @@ public class OCommandExecutorSQLDropProperty extends OCommandExecutorSQLAbstract
 
     final ODatabaseDocument database = getDatabase();
     for (final OIndex<?> oIndex : database.getMetadata().getIndexManager().getClassIndexes(className)) {
-      if (OCollections.indexOf(oIndex.getDefinition().getFields(), fieldName, new OCaseInsentiveComparator()) > -1) {
+      if (OCollections.indexOf(oIndex.getDefinition().getFields(), fieldName, new OCaseInsentiveComparator()) > -1
+          || OCollections.indexOf(oIndex.getDefinition().getIncludedFields(), fieldName, new OCaseInsentiveComparator()) > -1) {
         result.add(oIndex);
       }
     }
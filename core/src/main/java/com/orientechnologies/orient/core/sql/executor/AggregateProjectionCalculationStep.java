@@ -2,6 +2,8 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.sql.parser.OExpression;
 import com.orientechnologies.orient.core.sql.parser.OGroupBy;
@@ -15,14 +17,25 @@ import java.util.*;
  */
 public class AggregateProjectionCalculationStep extends ProjectionCalculationStep {
 
+  /**
+   * number of partitions the groups are distributed to, when they do not fit the heap
+   */
+  private static final int PARTITIONS     = 16;
+  /**
+   * after this number of re-partitionings, groups are aggregated in heap regardless of the threshold
+   */
+  private static final int MAX_SPILL_LEVEL = 4;
+
   private final OGroupBy groupBy;
 
   //the key is the GROUP BY key, the value is the (partially) aggregated value
   private Map<List, OResultInternal> aggregateResults = new LinkedHashMap<>();
-  private List<OResultInternal>      finalResults     = null;
+  private Iterator<OResultInternal>  finalResults     = null;
+
+  //groups that did not fit the heap, still to be aggregated
+  private Deque<SpilledPartition> pendingPartitions = new ArrayDeque<>();
 
-  private int  nextItem = 0;
-  private long cost     = 0;
+  private long cost = 0;
 
   public AggregateProjectionCalculationStep(OProjection projection, OGroupBy groupBy, OCommandContext ctx,
       boolean profilingEnabled) {
@@ -41,21 +54,22 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
 
       @Override
       public boolean hasNext() {
-        if (localNext > nRecords || nextItem >= finalResults.size()) {
+        if (localNext > nRecords) {
           return false;
         }
-        return true;
+        while (!finalResults.hasNext() && !pendingPartitions.isEmpty()) {
+          aggregatePartition(pendingPartitions.pop(), ctx);
+        }
+        return finalResults.hasNext();
       }
 
       @Override
       public OResult next() {
-        if (localNext > nRecords || nextItem >= finalResults.size()) {
+        if (!hasNext()) {
           throw new IllegalStateException();
         }
-        OResult result = finalResults.get(nextItem);
-        nextItem++;
         localNext++;
-        return result;
+        return finalResults.next();
       }
 
       @Override
@@ -80,17 +94,77 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
       throw new OCommandExecutionException("Cannot execute an aggregation or a GROUP BY without a previous result");
     }
     OExecutionStepInternal prevStep = prev.get();
-    OResultSet lastRs = prevStep.syncPull(ctx, nRecords);
-    while (lastRs.hasNext()) {
-      aggregate(lastRs.next(), ctx);
-      if (!lastRs.hasNext()) {
-        lastRs = prevStep.syncPull(ctx, nRecords);
+    Iterator<OResult> rows = new Iterator<OResult>() {
+      OResultSet lastRs = prevStep.syncPull(ctx, nRecords);
+
+      @Override
+      public boolean hasNext() {
+        if (!lastRs.hasNext()) {
+          lastRs = prevStep.syncPull(ctx, nRecords);
+        }
+        return lastRs.hasNext();
+      }
+
+      @Override
+      public OResult next() {
+        return lastRs.next();
+      }
+    };
+    aggregationPass(rows, 0, ctx);
+  }
+
+  private void aggregatePartition(SpilledPartition partition, OCommandContext ctx) {
+    try {
+      aggregationPass(partition.file.read(ctx), partition.level, ctx);
+    } finally {
+      partition.file.close();
+    }
+  }
+
+  /**
+   * Aggregates all the rows. When the number of groups in heap reaches {@link OGlobalConfiguration#QUERY_SPILL_THRESHOLD}, rows
+   * that belong to new groups are written to hash partitions on disk, so that each group is aggregated either completely in heap or
+   * completely in a single partition; partitions are aggregated later, one at a time, with the same logic.
+   */
+  private void aggregationPass(Iterator<OResult> rows, int level, OCommandContext ctx) {
+    int spillThreshold = level < MAX_SPILL_LEVEL ? getSpillThreshold(ctx) : -1;
+    OResultSpillFile[] partitions = null;
+    aggregateResults = new LinkedHashMap<>();
+
+    while (rows.hasNext()) {
+      OResult next = rows.next();
+      List<Object> key = calculateKey(next, ctx);
+      if (spillThreshold > 0 && aggregateResults.size() >= spillThreshold && !aggregateResults.containsKey(key)) {
+        if (partitions == null) {
+          partitions = new OResultSpillFile[PARTITIONS];
+        }
+        int partition = partitionOf(key, level);
+        if (partitions[partition] == null) {
+          partitions[partition] = OResultSpillFile.create("groupby");
+        }
+        if (partitions[partition].write(next)) {
+          continue;
+        }
+        // this row can be kept only in heap, so from now on everything stays in heap
+        for (OResultSpillFile file : partitions) {
+          if (file != null) {
+            Iterator<OResult> spilled = file.read(ctx);
+            while (spilled.hasNext()) {
+              OResult row = spilled.next();
+              aggregate(row, calculateKey(row, ctx), ctx);
+            }
+            file.close();
+          }
+        }
+        partitions = null;
+        spillThreshold = -1;
       }
+      aggregate(next, key, ctx);
     }
-    finalResults = new ArrayList<>();
-    finalResults.addAll(aggregateResults.values());
-    aggregateResults.clear();
-    for (OResultInternal item : finalResults) {
+
+    List<OResultInternal> results = new ArrayList<>(aggregateResults.values());
+    aggregateResults = new LinkedHashMap<>();
+    for (OResultInternal item : results) {
       for (String name : item.getPropertyNames()) {
         Object prevVal = item.getProperty(name);
         if (prevVal instanceof AggregationContext) {
@@ -98,9 +172,34 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
         }
       }
     }
+    finalResults = results.iterator();
+
+    if (partitions != null) {
+      for (OResultSpillFile file : partitions) {
+        if (file != null) {
+          pendingPartitions.push(new SpilledPartition(file, level + 1));
+        }
+      }
+    }
+  }
+
+  private static int partitionOf(List<Object> key, int level) {
+    // a different seed per level, so that a partition that is still too big is split on re-partitioning
+    int hash = key.hashCode() ^ (level * 0x9E3779B9);
+    hash *= 0x85EBCA6B;
+    hash ^= hash >>> 13;
+    return Math.floorMod(hash, PARTITIONS);
+  }
+
+  private static int getSpillThreshold(OCommandContext ctx) {
+    ODatabase db = ctx.getDatabase();
+    if (db == null) {
+      return -1;
+    }
+    return db.getConfiguration().getValueAsInteger(OGlobalConfiguration.QUERY_SPILL_THRESHOLD);
   }
 
-  private void aggregate(OResult next, OCommandContext ctx) {
+  private List<Object> calculateKey(OResult next, OCommandContext ctx) {
     long begin = profilingEnabled ? System.nanoTime() : 0;
     try {
       List<Object> key = new ArrayList<>();
@@ -110,6 +209,17 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
           key.add(val);
         }
       }
+      return key;
+    } finally {
+      if (profilingEnabled) {
+        cost += (System.nanoTime() - begin);
+      }
+    }
+  }
+
+  private void aggregate(OResult next, List<Object> key, OCommandContext ctx) {
+    long begin = profilingEnabled ? System.nanoTime() : 0;
+    try {
       OResultInternal preAggr = aggregateResults.get(key);
       if (preAggr == null) {
         preAggr = new OResultInternal();
@@ -136,6 +246,14 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
     }
   }
 
+  @Override
+  public void close() {
+    while (!pendingPartitions.isEmpty()) {
+      pendingPartitions.pop().file.close();
+    }
+    super.close();
+  }
+
   @Override
   public String prettyPrint(int depth, int indent) {
     String spaces = OExecutionStepInternal.getIndent(depth, indent);
@@ -152,4 +270,20 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
   public long getCost() {
     return cost;
   }
+
+  @Override
+  public OExecutionStep copy(OCommandContext ctx) {
+    return new AggregateProjectionCalculationStep(projection.copy(), groupBy == null ? null : groupBy.copy(), ctx,
+        profilingEnabled);
+  }
+
+  private static class SpilledPartition {
+    private final OResultSpillFile file;
+    private final int              level;
+
+    SpilledPartition(OResultSpillFile file, int level) {
+      this.file = file;
+      this.level = level;
+    }
+  }
 }
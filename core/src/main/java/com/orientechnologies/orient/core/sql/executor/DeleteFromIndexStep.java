@@ -227,7 +227,7 @@ public class DeleteFromIndexStep extends AbstractExecutionStep {
   }
 
   private Collection toIndexKey(OIndexDefinition definition, Object rightValue) {
-    if (definition.getFields().size() == 1 && rightValue instanceof Collection) {
+    if (keyPartsCount(definition) == 1 && rightValue instanceof Collection) {
       rightValue = ((Collection) rightValue).iterator().next();
     }
     if (rightValue instanceof List) {
@@ -242,12 +242,12 @@ public class DeleteFromIndexStep extends AbstractExecutionStep {
   }
 
   private Object toBetweenIndexKey(OIndexDefinition definition, Object rightValue) {
-    if (definition.getFields().size() == 1 && rightValue instanceof Collection) {
+    if (keyPartsCount(definition) == 1 && rightValue instanceof Collection) {
       rightValue = ((Collection) rightValue).iterator().next();
     }
     rightValue = definition.createValue(rightValue);
 
-    if (definition.getFields().size() > 1 && !(rightValue instanceof Collection)) {
+    if (keyPartsCount(definition) > 1 && !(rightValue instanceof Collection)) {
       rightValue = Collections.singleton(rightValue);
     }
     return rightValue;
@@ -392,4 +392,9 @@ public class DeleteFromIndexStep extends AbstractExecutionStep {
   public long getCost() {
     return cost;
   }
+
+  private static int keyPartsCount(OIndexDefinition definition) {
+    //included fields are stored as the last parts of the key
+    return definition.getFields().size() + definition.getIncludedFields().size();
+  }
 }
@@ -2,9 +2,16 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.id.ORID;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -14,6 +21,9 @@ import java.util.Set;
  */
 public class DistinctExecutionStep extends AbstractExecutionStep {
 
+  private static final int PARTITIONS      = 16;
+  private static final int MAX_SPILL_LEVEL = 4;
+
   Set<OResult> pastItems = new HashSet<>();
   ORidSet      pastRids  = new ORidSet();
 
@@ -22,8 +32,29 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
 
   private long cost = 0;
 
+  /**
+   * if true, the order of the results does not matter, so items that do not fit the heap can be deduplicated later on disk
+   */
+  private final boolean            spillAllowed;
+  private       int                spillLevel        = 0;
+  private       OResultSpillFile[] partitions;
+  private final Deque<Partition>   pendingPartitions = new ArrayDeque<>();
+  private       Iterator<OResult>  partitionSource;
+  //values moved back from disk to heap, still to be checked
+  private       List<OResult>      deferred;
+
   public DistinctExecutionStep(OCommandContext ctx, boolean profilingEnabled) {
+    this(false, ctx, profilingEnabled);
+  }
+
+  /**
+   * @param spillAllowed true if the order of the results does not have to be preserved. In this case, when the non-RID values
+   *                     exceed {@link OGlobalConfiguration#QUERY_SPILL_THRESHOLD}, new values are written to hash partitions on disk
+   *                     and deduplicated after all the other values were returned
+   */
+  public DistinctExecutionStep(boolean spillAllowed, OCommandContext ctx, boolean profilingEnabled) {
     super(ctx, profilingEnabled);
+    this.spillAllowed = spillAllowed;
   }
 
   @Override
@@ -85,19 +116,15 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
       if (nextValue != null) {
         return;
       }
-      if (lastResult == null || !lastResult.hasNext()) {
-        lastResult = getPrev().get().syncPull(ctx, nRecords);
-      }
-      if (lastResult == null || !lastResult.hasNext()) {
+      OResult candidate = nextCandidate(nRecords);
+      if (candidate == null) {
         return;
       }
       long begin = profilingEnabled ? System.nanoTime() : 0;
       try {
-        nextValue = lastResult.next();
-        if (alreadyVisited(nextValue)) {
-          nextValue = null;
-        } else {
-          markAsVisited(nextValue);
+        if (!alreadyVisited(candidate) && !spill(candidate)) {
+          markAsVisited(candidate);
+          nextValue = candidate;
         }
       } finally {
         if (profilingEnabled) {
@@ -107,6 +134,109 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
     }
   }
 
+  /**
+   * @return the next value to be checked: first the values of the previous step, then the values that were moved back to heap,
+   * then the values of the spilled partitions, one partition at a time
+   */
+  private OResult nextCandidate(int nRecords) {
+    if (partitionSource == null) {
+      if (lastResult == null || !lastResult.hasNext()) {
+        lastResult = getPrev().get().syncPull(ctx, nRecords);
+      }
+      if (lastResult != null && lastResult.hasNext()) {
+        return lastResult.next();
+      }
+      partitionSource = new ArrayList<OResult>().iterator();
+      pushPartitions();
+    }
+    while (true) {
+      if (deferred != null && !deferred.isEmpty()) {
+        return deferred.remove(deferred.size() - 1);
+      }
+      if (partitionSource.hasNext()) {
+        return partitionSource.next();
+      }
+      pushPartitions();
+      if (pendingPartitions.isEmpty()) {
+        return null;
+      }
+      // values in a partition were never returned, so they have to be checked only against each other
+      Partition partition = pendingPartitions.pop();
+      pastItems = new HashSet<>();
+      spillLevel = partition.level;
+      partitionSource = partition.read();
+    }
+  }
+
+  private void pushPartitions() {
+    if (partitions != null) {
+      for (OResultSpillFile file : partitions) {
+        if (file != null) {
+          pendingPartitions.push(new Partition(file, spillLevel + 1));
+        }
+      }
+      partitions = null;
+    }
+  }
+
+  /**
+   * writes a value that was not returned yet to a partition on disk, if the values in heap exceed the threshold
+   *
+   * @return true if the value was written to disk and does not have to be returned now
+   */
+  private boolean spill(OResult value) {
+    if (!spillAllowed || spillLevel >= MAX_SPILL_LEVEL || isRid(value)) {
+      return false;
+    }
+    int threshold = getSpillThreshold();
+    if (threshold <= 0 || pastItems.size() < threshold) {
+      return false;
+    }
+    if (partitions == null) {
+      partitions = new OResultSpillFile[PARTITIONS];
+    }
+    int hash = value.hashCode() ^ (spillLevel * 0x9E3779B9);
+    hash *= 0x85EBCA6B;
+    hash ^= hash >>> 13;
+    int partition = Math.floorMod(hash, PARTITIONS);
+    if (partitions[partition] == null) {
+      partitions[partition] = OResultSpillFile.create("distinct");
+    }
+    if (partitions[partition].write(value)) {
+      return true;
+    }
+    // this value can be kept only in heap, so from now on everything stays in heap
+    deferred = new ArrayList<>();
+    for (OResultSpillFile file : partitions) {
+      if (file != null) {
+        Iterator<OResult> spilled = file.read(ctx);
+        while (spilled.hasNext()) {
+          deferred.add(spilled.next());
+        }
+        file.close();
+      }
+    }
+    partitions = null;
+    spillLevel = MAX_SPILL_LEVEL;
+    return false;
+  }
+
+  private int getSpillThreshold() {
+    ODatabase db = ctx.getDatabase();
+    if (db == null) {
+      return -1;
+    }
+    return db.getConfiguration().getValueAsInteger(OGlobalConfiguration.QUERY_SPILL_THRESHOLD);
+  }
+
+  private boolean isRid(OResult value) {
+    if (value.isElement()) {
+      ORID identity = value.getElement().get().getIdentity();
+      return identity.getClusterId() >= 0 && identity.getClusterPosition() >= 0;
+    }
+    return false;
+  }
+
   private void markAsVisited(OResult nextValue) {
     if (nextValue.isElement()) {
       ORID identity = nextValue.getElement().get().getIdentity();
@@ -139,6 +269,17 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
 
   @Override
   public void close() {
+    if (partitions != null) {
+      for (OResultSpillFile file : partitions) {
+        if (file != null) {
+          file.close();
+        }
+      }
+      partitions = null;
+    }
+    while (!pendingPartitions.isEmpty()) {
+      pendingPartitions.pop().file.close();
+    }
     prev.ifPresent(x -> x.close());
   }
 
@@ -155,4 +296,33 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
   public long getCost() {
     return cost;
   }
+
+  private class Partition {
+    private final OResultSpillFile file;
+    private final int              level;
+
+    Partition(OResultSpillFile file, int level) {
+      this.file = file;
+      this.level = level;
+    }
+
+    Iterator<OResult> read() {
+      Iterator<OResult> source = file.read(ctx);
+      return new Iterator<OResult>() {
+        @Override
+        public boolean hasNext() {
+          if (source.hasNext()) {
+            return true;
+          }
+          file.close();
+          return false;
+        }
+
+        @Override
+        public OResult next() {
+          return source.next();
+        }
+      };
+    }
+  }
 }
@@ -0,0 +1,255 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.ORecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Fetches the RIDs that match each index search descriptor, intersects them and loads only the records that match all of them.
+ * <p>
+ * The RIDs returned by each index are collected in a compressed bitmap ({@link ORidSet}), so that also large sets of RIDs can be
+ * intersected with little memory. The lookups on the same index are merged as a union (eg. for IN conditions), so the results
+ * never contain duplicates. Records are loaded in RID order.
+ */
+public class FetchFromIndexIntersectionStep extends AbstractExecutionStep {
+  private static final int FETCH_BATCH_SIZE = 1000;
+
+  private final List<IndexSearchDescriptor> descriptors;
+  private final int[]                       filterClusterIds;
+
+  // runtime
+
+  private long cost = 0;
+
+  private Iterator<ORID> ridIterator;
+
+  /**
+   * @param descriptors      the index lookups to intersect, the most selective one should be the first
+   * @param filterClusterIds only fetch records from these clusters. Pass null if no filtering is needed
+   * @param ctx              the execution context
+   * @param profilingEnabled enable profiling
+   */
+  public FetchFromIndexIntersectionStep(List<IndexSearchDescriptor> descriptors, int[] filterClusterIds, OCommandContext ctx,
+      boolean profilingEnabled) {
+    super(ctx, profilingEnabled);
+    this.descriptors = descriptors;
+    this.filterClusterIds = filterClusterIds;
+  }
+
+  @Override
+  public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
+    init(ctx);
+
+    return new OResultSet() {
+      int localCount = 0;
+
+      OResult nextItem = null;
+
+      @Override
+      public boolean hasNext() {
+        if (localCount >= nRecords) {
+          return false;
+        }
+        if (nextItem == null) {
+          fetchNextItem();
+        }
+        return nextItem != null;
+      }
+
+      @Override
+      public OResult next() {
+        if (!hasNext()) {
+          throw new IllegalStateException();
+        }
+        OResult result = nextItem;
+        nextItem = null;
+        localCount++;
+        ctx.setVariable("$current", result);
+        return result;
+      }
+
+      private void fetchNextItem() {
+        long begin = profilingEnabled ? System.nanoTime() : 0;
+        try {
+          while (ridIterator.hasNext()) {
+            ORID rid = ridIterator.next();
+            if (filterClusterIds != null && !matchesClusters(rid)) {
+              continue;
+            }
+            ORecord record = (ORecord) ctx.getDatabase().load(rid);
+            if (record == null) {
+              continue;
+            }
+            OResultInternal result = new OResultInternal();
+            result.setElement(record);
+            nextItem = result;
+            return;
+          }
+        } finally {
+          if (profilingEnabled) {
+            cost += (System.nanoTime() - begin);
+          }
+        }
+      }
+
+      @Override
+      public void close() {
+
+      }
+
+      @Override
+      public Optional<OExecutionPlan> getExecutionPlan() {
+        return Optional.empty();
+      }
+
+      @Override
+      public Map<String, Long> getQueryStats() {
+        return null;
+      }
+    };
+  }
+
+  private void init(OCommandContext ctx) {
+    if (ridIterator != null) {
+      return;
+    }
+    long begin = profilingEnabled ? System.nanoTime() : 0;
+    try {
+      ORidSet persistentRids = null;
+      //records created in the current transaction have temporary RIDs, that cannot be stored in the bitmap
+      Set<ORID> temporaryRids = null;
+      for (IndexSearchDescriptor desc : descriptors) {
+        ORidSet descPersistentRids = new ORidSet();
+        Set<ORID> descTemporaryRids = new HashSet<>();
+        fetchRids(desc, descPersistentRids, descTemporaryRids, ctx);
+
+        if (persistentRids == null) {
+          persistentRids = descPersistentRids;
+          temporaryRids = descTemporaryRids;
+        } else {
+          persistentRids.retainAll(descPersistentRids);
+          temporaryRids.retainAll(descTemporaryRids);
+        }
+        if (persistentRids.isEmpty() && temporaryRids.isEmpty()) {
+          break;
+        }
+      }
+
+      List<ORID> temporary = new ArrayList<>(temporaryRids);
+      Collections.sort(temporary);
+      Iterator<ORID> persistentIterator = persistentRids.iterator();
+      Iterator<ORID> temporaryIterator = temporary.iterator();
+      ridIterator = new Iterator<ORID>() {
+        @Override
+        public boolean hasNext() {
+          return persistentIterator.hasNext() || temporaryIterator.hasNext();
+        }
+
+        @Override
+        public ORID next() {
+          return persistentIterator.hasNext() ? persistentIterator.next() : temporaryIterator.next();
+        }
+      };
+    } finally {
+      if (profilingEnabled) {
+        cost += (System.nanoTime() - begin);
+      }
+    }
+  }
+
+  private void fetchRids(IndexSearchDescriptor desc, ORidSet persistentRids, Set<ORID> temporaryRids, OCommandContext ctx) {
+    FetchFromIndexStep fetchStep = new FetchFromIndexStep(desc.idx, desc.keyCondition, desc.additionalRangeCondition, ctx,
+        profilingEnabled);
+    try {
+      while (true) {
+        OResultSet entries = fetchStep.syncPull(ctx, FETCH_BATCH_SIZE);
+        if (!entries.hasNext()) {
+          return;
+        }
+        while (entries.hasNext()) {
+          Object rid = entries.next().getProperty("rid");
+          if (!(rid instanceof OIdentifiable)) {
+            continue;
+          }
+          ORID identity = ((OIdentifiable) rid).getIdentity();
+          if (identity.isPersistent()) {
+            persistentRids.add(identity);
+          } else {
+            temporaryRids.add(identity);
+          }
+        }
+      }
+    } finally {
+      fetchStep.close();
+    }
+  }
+
+  private boolean matchesClusters(ORID rid) {
+    for (int filterClusterId : filterClusterIds) {
+      if (rid.getClusterId() < 0 || filterClusterId == rid.getClusterId()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void reset() {
+    ridIterator = null;
+    cost = 0;
+  }
+
+  @Override
+  public String prettyPrint(int depth, int indent) {
+    String spaces = OExecutionStepInternal.getIndent(depth, indent);
+    String result = spaces + "+ FETCH FROM INDEX INTERSECTION";
+    if (profilingEnabled) {
+      result += " (" + getCostFormatted() + ")";
+    }
+    for (IndexSearchDescriptor desc : descriptors) {
+      String additional = desc.additionalRangeCondition == null ? "" : " and " + desc.additionalRangeCondition;
+      result += "\n" + spaces + "  " + desc.idx.getName() + ": " + desc.keyCondition + additional;
+    }
+    if (filterClusterIds != null) {
+      result += "\n";
+      result += spaces;
+      result += "  filtering clusters [";
+      result += Arrays.stream(filterClusterIds).boxed().map(x -> "" + x).collect(Collectors.joining(","));
+      result += "]";
+    }
+    return result;
+  }
+
+  @Override
+  public long getCost() {
+    return cost;
+  }
+
+  @Override
+  public boolean canBeCached() {
+    return true;
+  }
+
+  @Override
+  public OExecutionStep copy(OCommandContext ctx) {
+    List<IndexSearchDescriptor> descriptorsCopy = descriptors.stream().map(
+        x -> new IndexSearchDescriptor(x.idx, x.keyCondition == null ? null : x.keyCondition.copy(),
+            x.additionalRangeCondition == null ? null : x.additionalRangeCondition.copy(),
+            x.remainingCondition == null ? null : x.remainingCondition.copy())).collect(Collectors.toList());
+    return new FetchFromIndexIntersectionStep(descriptorsCopy, filterClusterIds, ctx, profilingEnabled);
+  }
+}
@@ -67,6 +67,8 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
   private long cost  = 0;
   private long count = 0;
 
+  private long estimatedEntries = -1;
+
   private boolean            inited      = false;
   private OIndexCursor       cursor;
   private List<OIndexCursor> nextCursors = new ArrayList<>();
@@ -218,6 +220,18 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
     }
   }
 
+  /**
+   * @param estimatedEntries number of index entries that the planner estimated for this lookup, or -1 if unknown. It is shown in
+   *                         the execution plan
+   */
+  public void setEstimatedEntries(long estimatedEntries) {
+    this.estimatedEntries = estimatedEntries;
+  }
+
+  public long getEstimatedEntries() {
+    return estimatedEntries;
+  }
+
   private void updateIndexStats() {
     //stats
     OQueryStats stats = OQueryStats.get((ODatabaseDocumentInternal) ctx.getDatabase());
@@ -393,16 +407,19 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
 
     OIndexDefinition indexDef = index.getDefinition();
 
+    //keys of IN condition are looked up all together, so index is able to find them in single pass
+    List<Object> inKeys = isInKeysLookup(indexDef, secondValueCombinations.size()) ? new ArrayList<>() : null;
+
     for (int i = 0; i < secondValueCombinations.size(); i++) {
 
       Object secondValue = secondValueCombinations.get(i).execute((OResult) null, ctx);
-      if (secondValue instanceof List && ((List) secondValue).size() == 1 && indexDef.getFields().size() == 1
+      if (secondValue instanceof List && ((List) secondValue).size() == 1 && keyPartsCount(indexDef) == 1
           && !(indexDef instanceof OIndexDefinitionMultiValue)) {
         secondValue = ((List) secondValue).get(0);
       }
       secondValue = unboxOResult(secondValue);
       Object thirdValue = thirdValueCombinations.get(i).execute((OResult) null, ctx);
-      if (thirdValue instanceof List && ((List) thirdValue).size() == 1 && indexDef.getFields().size() == 1
+      if (thirdValue instanceof List && ((List) thirdValue).size() == 1 && keyPartsCount(indexDef) == 1
           && !(indexDef instanceof OIndexDefinitionMultiValue)) {
         thirdValue = ((List) thirdValue).get(0);
       }
@@ -419,6 +436,10 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
 
         Object from = toBetweenIndexKey(indexDef, secondValue);
         Object to = toBetweenIndexKey(indexDef, thirdValue);
+        if (inKeys != null && from != null) {
+          inKeys.add(from);
+          continue;
+        }
         if (from == null && to == null) {
           //manage null value explicitly, as the index API does not seem to work correctly in this case
           cursor = getCursorForNullKey();
@@ -436,6 +457,9 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
       nextCursors.add(cursor);
 
     }
+    if (inKeys != null && inKeys.size() > 0) {
+      nextCursors.add(index.iterateEntries(inKeys, isOrderAsc()));
+    }
     if (nextCursors.size() > 0) {
       cursor = nextCursors.remove(0);
       fetchNextEntry();
@@ -623,6 +647,17 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
     return OType.convert(val, types[0].getDefaultJavaType());
   }
 
+  private boolean isInKeysLookup(OIndexDefinition indexDef, int keysCount) {
+    if (keysCount < 2 || additionalRangeCondition != null || !(condition instanceof OAndBlock)) {
+      return false;
+    }
+    if (keyPartsCount(indexDef) != 1 || indexDef instanceof OIndexDefinitionMultiValue) {
+      return false;
+    }
+    List<OBooleanExpression> subBlocks = ((OAndBlock) condition).getSubBlocks();
+    return subBlocks.size() == 1 && subBlocks.get(0) instanceof OInCondition;
+  }
+
   private boolean allEqualities(OAndBlock condition) {
     if (condition == null) {
       return false;
@@ -681,7 +716,7 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
   }
 
   private Collection toIndexKey(OIndexDefinition definition, Object rightValue) {
-    if (definition.getFields().size() == 1 && rightValue instanceof Collection) {
+    if (keyPartsCount(definition) == 1 && rightValue instanceof Collection) {
       rightValue = ((Collection) rightValue).iterator().next();
     }
     if (rightValue instanceof List) {
@@ -696,7 +731,7 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
   }
 
   private Object toBetweenIndexKey(OIndexDefinition definition, Object rightValue) {
-    if (definition.getFields().size() == 1 && rightValue instanceof Collection) {
+    if (keyPartsCount(definition) == 1 && rightValue instanceof Collection) {
       if (((Collection) rightValue).size() > 0) {
         rightValue = ((Collection) rightValue).iterator().next();
       } else {
@@ -706,7 +741,7 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
 
     rightValue = definition.createValue(rightValue);
 
-    if (definition.getFields().size() > 1 && !(rightValue instanceof Collection)) {
+    if (keyPartsCount(definition) > 1 && !(rightValue instanceof Collection)) {
       rightValue = Collections.singleton(rightValue);
     }
     return rightValue;
@@ -910,6 +945,9 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
     if (profilingEnabled) {
       result += " (" + getCostFormatted() + ")";
     }
+    if (estimatedEntries >= 0) {
+      result += " (estimated entries: " + estimatedEntries + ")";
+    }
     if (condition != null) {
       String additional = additionalRangeCondition == null ? "" : " and " + additionalRangeCondition;
       result += ("\n" + OExecutionStepInternal.getIndent(depth, indent) + "  " + condition + additional);
@@ -934,6 +972,7 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
       result.setProperty("additionalRangeCondition", additionalRangeCondition.serialize());
     }
     result.setProperty("orderAsc", orderAsc);
+    result.setProperty("estimatedEntries", estimatedEntries);
     return result;
   }
 
@@ -950,6 +989,9 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
         additionalRangeCondition.deserialize(fromResult.getProperty("additionalRangeCondition"));
       }
       orderAsc = fromResult.getProperty("orderAsc");
+      if (fromResult.getProperty("estimatedEntries") != null) {
+        estimatedEntries = ((Number) fromResult.getProperty("estimatedEntries")).longValue();
+      }
     } catch (Exception e) {
       throw OException.wrapException(new OCommandExecutionException(""), e);
     }
@@ -981,6 +1023,7 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
     FetchFromIndexStep result = new FetchFromIndexStep(indexName, this.condition == null ? null : this.condition.copy(),
         this.additionalRangeCondition == null ? null : this.additionalRangeCondition.copy(), this.orderAsc, ctx,
         this.profilingEnabled);
+    result.estimatedEntries = this.estimatedEntries;
     return result;
   }
 
@@ -993,4 +1036,8 @@ public class FetchFromIndexStep extends AbstractExecutionStep {
 
   }
 
+  private static int keyPartsCount(OIndexDefinition definition) {
+    //included fields are stored as the last parts of the key
+    return definition.getFields().size() + definition.getIncludedFields().size();
+  }
 }
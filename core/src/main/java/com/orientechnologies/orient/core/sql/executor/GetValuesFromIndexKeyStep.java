@@ -0,0 +1,203 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the results directly from the keys of the index entries, without loading the records. It can be used only when the
+ * index key contains all the fields needed by the query (covering index).
+ */
+public class GetValuesFromIndexKeyStep extends AbstractExecutionStep {
+
+  private final List<String> indexFields;
+  private final int[]        filterClusterIds;
+
+  // runtime
+
+  private long cost = 0;
+
+  private OResultSet prevResult = null;
+
+  /**
+   * @param ctx              the execution context
+   * @param indexFields      the names of the fields of the index key, in the same order they have in the key
+   * @param filterClusterIds only extract values from these clusters. Pass null if no filtering is needed
+   * @param profilingEnabled enable profiling
+   */
+  public GetValuesFromIndexKeyStep(OCommandContext ctx, List<String> indexFields, int[] filterClusterIds,
+      boolean profilingEnabled) {
+    super(ctx, profilingEnabled);
+    this.indexFields = indexFields;
+    this.filterClusterIds = filterClusterIds;
+  }
+
+  @Override
+  public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+
+    if (!prev.isPresent()) {
+      throw new IllegalStateException("filter step requires a previous step");
+    }
+    OExecutionStepInternal prevStep = prev.get();
+
+    return new OResultSet() {
+
+      public boolean finished = false;
+
+      OResult nextItem = null;
+      int fetched = 0;
+
+      @Override
+      public boolean hasNext() {
+
+        if (fetched >= nRecords || finished) {
+          return false;
+        }
+        if (nextItem == null) {
+          fetchNextItem();
+        }
+
+        if (nextItem != null) {
+          return true;
+        }
+
+        return false;
+      }
+
+      @Override
+      public OResult next() {
+        if (fetched >= nRecords || finished) {
+          throw new IllegalStateException();
+        }
+        if (nextItem == null) {
+          fetchNextItem();
+        }
+        if (nextItem == null) {
+          throw new IllegalStateException();
+        }
+        OResult result = nextItem;
+        nextItem = null;
+        fetched++;
+        ctx.setVariable("$current", result);
+        return result;
+      }
+
+      private void fetchNextItem() {
+        nextItem = null;
+        if (finished) {
+          return;
+        }
+        if (prevResult == null) {
+          prevResult = prevStep.syncPull(ctx, nRecords);
+          if (!prevResult.hasNext()) {
+            finished = true;
+            return;
+          }
+        }
+        while (!finished) {
+          while (!prevResult.hasNext()) {
+            prevResult = prevStep.syncPull(ctx, nRecords);
+            if (!prevResult.hasNext()) {
+              finished = true;
+              return;
+            }
+          }
+          OResult val = prevResult.next();
+          long begin = profilingEnabled ? System.nanoTime() : 0;
+
+          try {
+            Object rid = val.getProperty("rid");
+            if (!(rid instanceof OIdentifiable)) {
+              continue;
+            }
+            if (filterClusterIds != null && !matchesClusters(((OIdentifiable) rid).getIdentity())) {
+              continue;
+            }
+            nextItem = toResult(val.getProperty("key"));
+            break;
+          } finally {
+            if (profilingEnabled) {
+              cost += (System.nanoTime() - begin);
+            }
+          }
+        }
+      }
+
+      @Override
+      public void close() {
+
+      }
+
+      @Override
+      public Optional<OExecutionPlan> getExecutionPlan() {
+        return Optional.empty();
+      }
+
+      @Override
+      public Map<String, Long> getQueryStats() {
+        return null;
+      }
+    };
+  }
+
+  private boolean matchesClusters(ORID rid) {
+    for (int filterClusterId : filterClusterIds) {
+      if (rid.getClusterId() < 0 || filterClusterId == rid.getClusterId()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private OResult toResult(Object key) {
+    OResultInternal result = new OResultInternal();
+    if (indexFields.size() == 1) {
+      result.setProperty(indexFields.get(0), key);
+    } else if (key instanceof List) {
+      List<?> keyItems = (List<?>) key;
+      for (int i = 0; i < indexFields.size() && i < keyItems.size(); i++) {
+        result.setProperty(indexFields.get(i), keyItems.get(i));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public String prettyPrint(int depth, int indent) {
+    String spaces = OExecutionStepInternal.getIndent(depth, indent);
+    String result = spaces + "+ EXTRACT VALUES FROM INDEX KEY " + indexFields;
+    if (profilingEnabled) {
+      result += " (" + getCostFormatted() + ")";
+    }
+    if (filterClusterIds != null) {
+      result += "\n";
+      result += spaces;
+      result += "  filtering clusters [";
+      result += Arrays.stream(filterClusterIds).boxed().map(x -> "" + x).collect(Collectors.joining(","));
+      result += "]";
+    }
+    return result;
+  }
+
+  @Override
+  public long getCost() {
+    return cost;
+  }
+
+  @Override
+  public boolean canBeCached() {
+    return true;
+  }
+
+  @Override
+  public OExecutionStep copy(OCommandContext ctx) {
+    return new GetValuesFromIndexKeyStep(ctx, this.indexFields, this.filterClusterIds, this.profilingEnabled);
+  }
+}
@@ -7,6 +7,16 @@ import com.orientechnologies.orient.core.sql.parser.OAndBlock;
 import com.orientechnologies.orient.core.sql.parser.OBinaryCompareOperator;
 import com.orientechnologies.orient.core.sql.parser.OBinaryCondition;
 import com.orientechnologies.orient.core.sql.parser.OBooleanExpression;
+import com.orientechnologies.orient.core.sql.parser.OExpression;
+import com.orientechnologies.orient.core.sql.parser.OGeOperator;
+import com.orientechnologies.orient.core.sql.parser.OGtOperator;
+import com.orientechnologies.orient.core.sql.parser.OInCondition;
+import com.orientechnologies.orient.core.sql.parser.OLeOperator;
+import com.orientechnologies.orient.core.sql.parser.OLtOperator;
+import com.orientechnologies.orient.core.sql.parser.OMathExpression;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Created by luigidellaquila on 26/07/16.
@@ -41,13 +51,75 @@ public class IndexSearchDescriptor {
       range = op.isRangeOperator();
     }
 
-    long val = stats.getIndexStats(indexName, size, range, additionalRangeCondition != null);
+    long val = estimateEntries(ctx);
     if (val == -1) {
-      //TODO query the index!
+      val = stats.getIndexStats(indexName, size, range, additionalRangeCondition != null);
     }
     if (val >= 0) {
       return val > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) val;
     }
     return Integer.MAX_VALUE;
   }
+
+  /**
+   * estimates the number of index entries returned by the lookup, based on the statistics calculated by the last analysis of the
+   * index (see {@link OIndexStatistics})
+   *
+   * @param ctx the query context
+   *
+   * @return the estimated number of entries, or -1 if the index was never analyzed
+   */
+  public long estimateEntries(OCommandContext ctx) {
+    OIndexStatistics statistics = OQueryStats.get((ODatabaseDocumentInternal) ctx.getDatabase()).getIndexStatistics(idx.getName());
+    if (statistics == null) {
+      return -1;
+    }
+    long currentSize = idx.getSize();
+
+    List<OBooleanExpression> subBlocks = keyCondition.getSubBlocks();
+    OBooleanExpression lastOp = subBlocks.get(subBlocks.size() - 1);
+    if (lastOp instanceof OBinaryCondition && ((OBinaryCondition) lastOp).getOperator().isRangeOperator()) {
+      Object from = null;
+      Object to = null;
+      for (OBinaryCondition condition : new OBinaryCondition[] { (OBinaryCondition) lastOp, additionalRangeCondition }) {
+        if (condition == null) {
+          continue;
+        }
+        OBinaryCompareOperator op = condition.getOperator();
+        Object value = evaluate(condition.getRight(), ctx);
+        if (op instanceof OGtOperator || op instanceof OGeOperator) {
+          from = value;
+        } else if (op instanceof OLtOperator || op instanceof OLeOperator) {
+          to = value;
+        }
+      }
+      return statistics.estimateRange(currentSize, subBlocks.size() - 1, from, to);
+    }
+
+    long result = statistics.estimateEquality(currentSize, subBlocks.size());
+    //every value of an IN condition is a lookup on the index
+    for (OBooleanExpression subBlock : subBlocks) {
+      if (subBlock instanceof OInCondition && ((OInCondition) subBlock).getRightMathExpression() != null) {
+        Object values = evaluate(((OInCondition) subBlock).getRightMathExpression(), ctx);
+        if (values instanceof Collection) {
+          result *= Math.max(1, ((Collection) values).size());
+        }
+      }
+    }
+    return Math.min(result, currentSize);
+  }
+
+  private static Object evaluate(OExpression expression, OCommandContext ctx) {
+    if (expression == null || !expression.isEarlyCalculated(ctx)) {
+      return null;
+    }
+    return expression.execute((OResult) null, ctx);
+  }
+
+  private static Object evaluate(OMathExpression expression, OCommandContext ctx) {
+    if (!expression.isEarlyCalculated(ctx)) {
+      return null;
+    }
+    return expression.execute((OResult) null, ctx);
+  }
 }
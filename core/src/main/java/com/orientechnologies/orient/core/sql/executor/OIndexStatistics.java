@@ -0,0 +1,207 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.common.hash.OHyperLogLog;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexCursor;
+import com.orientechnologies.orient.core.index.OIndexDefinition;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics about the keys of an index, used by the query planner to estimate how many entries are returned by an index lookup:
+ * <ul>
+ * <li>the number of entries</li>
+ * <li>the estimated number of distinct values of each prefix of the key (eg. [a], [a, b], [a, b, c] for an index on [a, b,
+ * c])</li>
+ * <li>an equi-depth histogram of the first field of the key, only for indexes that support ordered iterations</li>
+ * </ul>
+ * The statistics are calculated scanning the whole index (see ANALYZE INDEX command), when the index grows or shrinks after that
+ * the estimations are scaled on the current size of the index.
+ *
+ * @see OQueryStats#getIndexStatistics(String)
+ */
+public class OIndexStatistics {
+  public static final int HISTOGRAM_BUCKETS = 64;
+
+  private static final int    DISTINCT_KEYS_PRECISION = 12;
+  /**
+   * selectivity used for the range conditions that cannot be estimated with the histogram
+   */
+  private static final double DEFAULT_RANGE_SELECTIVITY = 1.0 / 3;
+
+  private final long     entries;
+  private final long[]   distinctKeys;
+  private final Object[] histogramBounds;
+  private final OType    firstFieldType;
+  private final long     analyzedAt;
+
+  public OIndexStatistics(long entries, long[] distinctKeys, Object[] histogramBounds, OType firstFieldType) {
+    this.entries = entries;
+    this.distinctKeys = distinctKeys;
+    this.histogramBounds = histogramBounds;
+    this.firstFieldType = firstFieldType;
+    this.analyzedAt = System.currentTimeMillis();
+  }
+
+  /**
+   * Scans the whole index and calculates the statistics of its keys
+   *
+   * @param index the index to analyze
+   *
+   * @return the statistics of the index
+   */
+  public static OIndexStatistics compute(OIndex<?> index) {
+    OIndexDefinition definition = index.getDefinition();
+    int keyFields = definition == null ? 1 : Math.max(1, definition.getFields().size());
+    OType firstFieldType = definition == null || definition.getTypes().length == 0 ? null : definition.getTypes()[0];
+
+    OHyperLogLog[] sketches = new OHyperLogLog[keyFields];
+    for (int i = 0; i < keyFields; i++) {
+      sketches[i] = new OHyperLogLog(DISTINCT_KEYS_PRECISION);
+    }
+
+    boolean histogram = index.supportsOrderedIterations();
+    long bucketDepth = Math.max(1, index.getSize() / HISTOGRAM_BUCKETS);
+    List<Object> bounds = new ArrayList<>();
+    Object lastFirstField = null;
+
+    long entries = 0;
+    OIndexCursor cursor = index.cursor();
+    Map.Entry<Object, OIdentifiable> entry;
+    while ((entry = cursor.nextEntry()) != null) {
+      List<Object> key = keyItems(entry.getKey());
+      long hash = 0;
+      for (int i = 0; i < keyFields; i++) {
+        hash = 31 * hash + hashCode(i < key.size() ? key.get(i) : null);
+        sketches[i].add(hash);
+      }
+
+      lastFirstField = key.isEmpty() ? null : key.get(0);
+      if (histogram && entries % bucketDepth == 0) {
+        bounds.add(lastFirstField);
+      }
+      entries++;
+    }
+    if (histogram && entries > 0 && (entries - 1) % bucketDepth != 0) {
+      bounds.add(lastFirstField);
+    }
+
+    long[] distinctKeys = new long[keyFields];
+    for (int i = 0; i < keyFields; i++) {
+      //the estimation cannot be lower than the estimation of a shorter prefix or higher than the number of entries
+      distinctKeys[i] = Math.min(entries, Math.max(sketches[i].estimate(), i > 0 ? distinctKeys[i - 1] : 1));
+    }
+
+    return new OIndexStatistics(entries, distinctKeys, histogram && bounds.size() > 1 ? bounds.toArray() : null, firstFieldType);
+  }
+
+  private static List<Object> keyItems(Object key) {
+    if (key instanceof OCompositeKey) {
+      return ((OCompositeKey) key).getKeys();
+    }
+    return Collections.singletonList(key);
+  }
+
+  private static int hashCode(Object keyItem) {
+    if (keyItem instanceof byte[]) {
+      return Arrays.hashCode((byte[]) keyItem);
+    }
+    return keyItem == null ? 0 : keyItem.hashCode();
+  }
+
+  public long getEntries() {
+    return entries;
+  }
+
+  /**
+   * @param fields number of fields of the key prefix
+   *
+   * @return the estimated number of distinct values of the first <code>fields</code> fields of the key
+   */
+  public long getDistinctKeys(int fields) {
+    return distinctKeys[Math.min(fields, distinctKeys.length) - 1];
+  }
+
+  public long getAnalyzedAt() {
+    return analyzedAt;
+  }
+
+  /**
+   * @param currentSize the current number of entries of the index
+   * @param fields      number of fields of the key prefix that are compared for equality
+   *
+   * @return the estimated number of index entries that match an equality condition on the first <code>fields</code> fields of the
+   * key
+   */
+  public long estimateEquality(long currentSize, int fields) {
+    if (fields <= 0) {
+      return currentSize;
+    }
+    return Math.max(1, Math.round((double) currentSize / getDistinctKeys(fields)));
+  }
+
+  /**
+   * @param currentSize the current number of entries of the index
+   * @param fields      number of fields of the key prefix that are compared for equality, the range condition is applied to the next
+   *                    field
+   * @param from        lower bound of the range, or null if the range has no lower bound
+   * @param to          upper bound of the range, or null if the range has no upper bound
+   *
+   * @return the estimated number of index entries that match a range condition
+   */
+  public long estimateRange(long currentSize, int fields, Object from, Object to) {
+    long prefixRows = estimateEquality(currentSize, fields);
+    double selectivity = DEFAULT_RANGE_SELECTIVITY;
+    if (fields == 0 && histogramBounds != null) {
+      try {
+        double lower = from == null ? 0 : fractionBelow(from);
+        double upper = to == null ? 1 : fractionBelow(to);
+        //a range inside a single bucket matches at least half a bucket
+        selectivity = Math.max(upper - lower, 0.5 / (histogramBounds.length - 1));
+      } catch (RuntimeException e) {
+        //the bounds are not comparable with the keys, use the default
+        selectivity = DEFAULT_RANGE_SELECTIVITY;
+      }
+    }
+    return Math.max(1, Math.round(prefixRows * selectivity));
+  }
+
+  /**
+   * @return the estimated fraction of index entries that have the first field of the key lower than <code>value</code>
+   */
+  private double fractionBelow(Object value) {
+    if (firstFieldType != null) {
+      value = OType.convert(value, firstFieldType.getDefaultJavaType());
+    }
+    if (value == null) {
+      throw new IllegalArgumentException("Value cannot be compared with the index keys");
+    }
+
+    int buckets = histogramBounds.length - 1;
+    if (ODefaultComparator.INSTANCE.compare(value, histogramBounds[0]) <= 0) {
+      return 0;
+    }
+    if (ODefaultComparator.INSTANCE.compare(value, histogramBounds[buckets]) > 0) {
+      return 1;
+    }
+    int bucket = 0;
+    while (bucket < buckets && ODefaultComparator.INSTANCE.compare(value, histogramBounds[bucket + 1]) > 0) {
+      bucket++;
+    }
+    return (bucket + 0.5) / buckets;
+  }
+
+  @Override
+  public String toString() {
+    return "entries: " + entries + ", distinct keys: " + Arrays.toString(distinctKeys) + ", histogram buckets: " + (
+        histogramBounds == null ? 0 : histogramBounds.length - 1);
+  }
+}
@@ -16,6 +16,8 @@ public class OQueryStats {
 
   public Map<String, Long> stats = new ConcurrentHashMap<>();
 
+  private final Map<String, OIndexStatistics> indexStatistics = new ConcurrentHashMap<>();
+
   public static OQueryStats get(ODatabaseDocumentInternal db) {
     return db.getSharedContext().getQueryStats();
   }
@@ -34,6 +36,23 @@ public class OQueryStats {
     pushValue(key, value);
   }
 
+  /**
+   * @param indexName the name of the index
+   *
+   * @return the statistics calculated by the last analysis of the index, or null if the index was never analyzed
+   */
+  public OIndexStatistics getIndexStatistics(String indexName) {
+    return indexStatistics.get(indexName);
+  }
+
+  public void setIndexStatistics(String indexName, OIndexStatistics statistics) {
+    if (statistics == null) {
+      indexStatistics.remove(indexName);
+    } else {
+      indexStatistics.put(indexName, statistics);
+    }
+  }
+
   public long getAverageOutEdgeSpan(String vertexClass, String edgeClass) {
     String key = generateKey(vertexClass, "-", edgeClass, "->");
     Long val = stats.get(key);
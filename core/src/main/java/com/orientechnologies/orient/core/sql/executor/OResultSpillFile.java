@@ -0,0 +1,213 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.exception.OSerializationException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.result.binary.OResultSerializerNetwork;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Temporary file used by execution steps to move results out of the heap when they exceed the configured memory budget.
+ * <p>
+ * Results are appended in sequence and read back in the same order. Persistent records are stored by RID and loaded again when
+ * read, projections are stored with {@link OResultSerializerNetwork}. Results that cannot be stored this way (eg. dirty records or
+ * specialized results) are rejected by {@link #write(OResult)} and have to be kept in heap by the caller.
+ */
+public class OResultSpillFile implements AutoCloseable {
+  private static final byte PROJECTION = 0;
+  private static final byte RECORD     = 1;
+
+  private final File                     file;
+  private final OResultSerializerNetwork serializer = new OResultSerializerNetwork();
+  private       DataOutputStream         out;
+  private       DataInputStream          in;
+  private       long                     size;
+
+  private OResultSpillFile(File file) throws IOException {
+    this.file = file;
+    this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+  }
+
+  /**
+   * creates a new spill file in the OrientDB temporary directory
+   *
+   * @param prefix the prefix of the file name, used only to make the file recognizable
+   */
+  public static OResultSpillFile create(String prefix) {
+    try {
+      File dir = new File(Orient.getTempPath());
+      if (!dir.exists() && !dir.mkdirs() && !dir.exists()) {
+        throw new IOException("Cannot create directory " + dir);
+      }
+      File file = File.createTempFile(prefix, ".spill", dir);
+      return new OResultSpillFile(file);
+    } catch (IOException e) {
+      throw OException.wrapException(new OCommandExecutionException("Cannot create temporary file for query results"), e);
+    }
+  }
+
+  /**
+   * @return true if the result can be written to a spill file and read back without losing information
+   */
+  public static boolean canSpill(OResult item) {
+    if (item == null || item.getClass() != OResultInternal.class) {
+      return false;
+    }
+    OResultInternal result = (OResultInternal) item;
+    if (result.element == null) {
+      return true;
+    }
+    if (!result.content.isEmpty()) {
+      return false;
+    }
+    ORID rid = result.element.getIdentity();
+    if (rid == null || !rid.isPersistent()) {
+      return false;
+    }
+    ORecord record = result.element.getRecord();
+    return record != null && !record.isDirty();
+  }
+
+  /**
+   * appends a result to the file
+   *
+   * @return false if the result cannot be spilled (see {@link #canSpill(OResult)}), in this case nothing is written
+   */
+  public boolean write(OResult item) {
+    if (!canSpill(item)) {
+      return false;
+    }
+    BytesContainer bytes = new BytesContainer();
+    byte kind;
+    OResultInternal result = (OResultInternal) item;
+    try {
+      if (result.element == null) {
+        kind = PROJECTION;
+        serializer.serialize(result, bytes);
+      } else {
+        kind = RECORD;
+        OResultInternal metadata = new OResultInternal();
+        metadata.setProperty("rid", result.element.getIdentity());
+        for (String key : result.getMetadataKeys()) {
+          metadata.setMetadata(key, result.getMetadata(key));
+        }
+        serializer.serialize(metadata, bytes);
+      }
+    } catch (OSerializationException e) {
+      // values of this type can be kept only in heap
+      return false;
+    }
+    try {
+      out.writeByte(kind);
+      out.writeInt(bytes.offset);
+      out.write(bytes.bytes, 0, bytes.offset);
+    } catch (IOException e) {
+      throw OException.wrapException(new OCommandExecutionException("Cannot write query results to " + file), e);
+    }
+    size++;
+    return true;
+  }
+
+  /**
+   * @return the number of results written to the file
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * completes the writes and opens the file for reading. Records are loaded through the database of the context passed as
+   * parameter.
+   */
+  public Iterator<OResult> read(OCommandContext ctx) {
+    try {
+      if (out != null) {
+        out.close();
+        out = null;
+      }
+      if (in != null) {
+        in.close();
+      }
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+    } catch (IOException e) {
+      throw OException.wrapException(new OCommandExecutionException("Cannot read query results from " + file), e);
+    }
+    return new Iterator<OResult>() {
+      long read = 0;
+
+      @Override
+      public boolean hasNext() {
+        return read < size;
+      }
+
+      @Override
+      public OResult next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        try {
+          byte kind = in.readByte();
+          byte[] bytes = new byte[in.readInt()];
+          in.readFully(bytes);
+          read++;
+          OResultInternal result = serializer.deserialize(new BytesContainer(bytes));
+          if (kind == PROJECTION) {
+            return result;
+          }
+          ORID rid = result.getProperty("rid");
+          OIdentifiable record = (OIdentifiable) ctx.getDatabase().load(rid);
+          OResultInternal loaded = new OResultInternal(record != null ? record : new ORecordId(rid));
+          for (String key : result.getMetadataKeys()) {
+            loaded.setMetadata(key, result.getMetadata(key));
+          }
+          return loaded;
+        } catch (EOFException e) {
+          throw OException.wrapException(new OCommandExecutionException("Unexpected end of file " + file), e);
+        } catch (IOException e) {
+          throw OException.wrapException(new OCommandExecutionException("Cannot read query results from " + file), e);
+        }
+      }
+    };
+  }
+
+  /**
+   * closes and deletes the file
+   */
+  @Override
+  public void close() {
+    try {
+      if (out != null) {
+        out.close();
+        out = null;
+      }
+      if (in != null) {
+        in.close();
+        in = null;
+      }
+    } catch (IOException e) {
+      OLogManager.instance().warn(this, "Error on closing temporary file " + file, e);
+    }
+    if (file.exists() && !file.delete()) {
+      OLogManager.instance().warn(this, "Cannot delete temporary file %s", file);
+    }
+  }
+}
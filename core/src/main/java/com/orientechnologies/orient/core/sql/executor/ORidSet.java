@@ -2,45 +2,58 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.orient.core.id.ORID;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Special implementation of Java Set&lt;ORID&gt; to efficiently handle memory and performance.
  * It does not store actual RIDs, but it only keeps track that a RID was stored, so the iterator will return new instances.
+ * <p>
+ * RIDs are split in chunks of 65536 positions, identified by cluster id and high bits of the cluster position packed in a long.
+ * Each chunk is stored in a compressed bitmap container (as in Roaring bitmaps): a sorted array of the low 16 bits of the positions
+ * while the chunk is sparse, a plain bitmap of 1024 longs when it becomes dense.
  *
  * @author Luigi Dell'Aquila
  */
 public class ORidSet implements Set<ORID> {
 
-  protected static int INITIAL_BLOCK_SIZE = 4096;
+  /**
+   * maximum number of entries of an array container, beyond this size a bitmap container is smaller
+   */
+  protected static final int ARRAY_CONTAINER_MAX_SIZE = 4096;
+  protected static final int CHUNK_BITS               = 16;
+  protected static final int CHUNK_MASK               = (1 << CHUNK_BITS) - 1;
 
   /*
-   * cluster / offset / bitmask
-   * eg. inserting #12:0 you will have content[12][0][0] = 1
-   * eg. inserting #12:(63*maxArraySize + 1) you will have content[12][1][0] = 1
-   *
+   * chunk key / container
+   * eg. inserting #12:70000 you will have content[(12 << 48) | 1] containing 4464 (70000 & 0xFFFF)
    */
-  protected long[][][] content = new long[8][][];
+  protected TreeMap<Long, Container> content = new TreeMap<>();
 
   long size = 0;
 
-  protected int maxArraySize;
+  private long      lastChunkKey = -1;
+  private Container lastChunk;
 
-  /**
-   * instantiates an ORidSet with a bucket size of Integer.MAX_VALUE / 10
-   */
   public ORidSet() {
-    this(Integer.MAX_VALUE / 10);
   }
 
   /**
-   *
-   * @param bucketSize 
+   * @param bucketSize not used anymore, containers are allocated per chunk of 65536 positions
    */
+  @Deprecated
   public ORidSet(int bucketSize) {
-    maxArraySize = bucketSize;
+    this();
+  }
+
+  static long chunkKey(int cluster, long position) {
+    return ((long) cluster << 48) | (position >>> CHUNK_BITS);
   }
 
   @Override public int size() {
@@ -59,39 +72,25 @@ public class ORidSet implements Set<ORID> {
       throw new IllegalArgumentException();
     }
     ORID identifiable = ((ORID) o);
-    if (identifiable == null) {
-      throw new IllegalArgumentException();
-    }
     int cluster = identifiable.getClusterId();
     long position = identifiable.getClusterPosition();
     if (cluster < 0 || position < 0) {
       return false;
     }
-    long positionByte = (position / 63);
-    int positionBit = (int) (position % 63);
-    int block = (int) (positionByte / maxArraySize);
-    int blockPositionByteInt = (int) (positionByte % maxArraySize);
+    Container chunk = getChunk(chunkKey(cluster, position));
+    return chunk != null && chunk.contains((int) (position & CHUNK_MASK));
+  }
 
-    if (content.length <= cluster) {
-      return false;
-    }
-    if (content[cluster] == null) {
-      return false;
-    }
-    if (content[cluster].length <= block) {
-      return false;
+  private Container getChunk(long key) {
+    if (key == lastChunkKey) {
+      return lastChunk;
     }
-    if (content[cluster][block] == null) {
-      return false;
-    }
-    if (content[cluster][block].length <= blockPositionByteInt) {
-      return false;
+    Container chunk = content.get(key);
+    if (chunk != null) {
+      lastChunkKey = key;
+      lastChunk = chunk;
     }
-
-    long currentMask = 1L << positionBit;
-    long existed = content[cluster][block][blockPositionByteInt] & currentMask;
-
-    return existed > 0L;
+    return chunk;
   }
 
   @Override public Iterator<ORID> iterator() {
@@ -99,11 +98,24 @@ public class ORidSet implements Set<ORID> {
   }
 
   @Override public Object[] toArray() {
-    return new Object[0];
+    Object[] result = new Object[size()];
+    int i = 0;
+    for (ORID rid : this) {
+      result[i++] = rid;
+    }
+    return result;
   }
 
   @Override public <T> T[] toArray(T[] a) {
-    return null;
+    T[] result = a.length >= size() ? a : (T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size());
+    int i = 0;
+    for (ORID rid : this) {
+      result[i++] = (T) rid;
+    }
+    if (result.length > i) {
+      result[i] = null;
+    }
+    return result;
   }
 
   @Override public boolean add(ORID identifiable) {
@@ -115,73 +127,23 @@ public class ORidSet implements Set<ORID> {
     if (cluster < 0 || position < 0) {
       throw new IllegalArgumentException("negative RID");//TODO
     }
-    long positionByte = (position / 63);
-    int positionBit = (int) (position % 63);
-    int block = (int) (positionByte / maxArraySize);
-    int blockPositionByteInt = (int) (positionByte % maxArraySize);
-
-    if (content.length <= cluster) {
-      long[][][] oldContent = content;
-      content = new long[cluster + 1][][];
-      System.arraycopy(oldContent, 0, content, 0, oldContent.length);
-    }
-    if (content[cluster] == null) {
-      content[cluster] = createClusterArray(block, blockPositionByteInt);
-    }
-
-    if (content[cluster].length <= block) {
-      content[cluster] = expandClusterBlocks(content[cluster], block, blockPositionByteInt);
-    }
-    if (content[cluster][block] == null) {
-      content[cluster][block] = expandClusterArray(new long[INITIAL_BLOCK_SIZE], blockPositionByteInt);
+    long key = chunkKey(cluster, position);
+    Container chunk = getChunk(key);
+    if (chunk == null) {
+      chunk = new ArrayContainer();
     }
-    if (content[cluster][block].length <= blockPositionByteInt) {
-      content[cluster][block] = expandClusterArray(content[cluster][block], blockPositionByteInt);
-    }
-
-    long original = content[cluster][block][blockPositionByteInt];
-    long currentMask = 1L << positionBit;
-    long existed = content[cluster][block][blockPositionByteInt] & currentMask;
-    content[cluster][block][blockPositionByteInt] = original | currentMask;
-    if (existed == 0L) {
-      size++;
-    }
-    return existed == 0L;
-  }
-
-  private static long[][] expandClusterBlocks(long[][] longs, int block, int blockPositionByteInt) {
-    long[][] result = new long[block + 1][];
-    System.arraycopy(longs, 0, result, 0, longs.length);
-    result[block] = expandClusterArray(new long[INITIAL_BLOCK_SIZE], blockPositionByteInt);
-    return result;
-  }
-
-  private static long[][] createClusterArray(int block, int positionByteInt) {
-    int currentSize = INITIAL_BLOCK_SIZE;
-    while (currentSize <= positionByteInt) {
-      currentSize *= 2;
-      if (currentSize < 0) {
-        currentSize = positionByteInt + 1;
-        break;
-      }
+    int low = (int) (position & CHUNK_MASK);
+    if (chunk.contains(low)) {
+      return false;
     }
-    long[][] result = new long[block + 1][];
-    result[block] = new long[currentSize];
-    return result;
-  }
-
-  private static long[] expandClusterArray(long[] original, int positionByteInt) {
-    int currentSize = original.length;
-    while (currentSize <= positionByteInt) {
-      currentSize *= 2;
-      if (currentSize < 0) {
-        currentSize = positionByteInt + 1;
-        break;
-      }
+    Container newChunk = chunk.add(low);
+    if (newChunk != chunk || !content.containsKey(key)) {
+      content.put(key, newChunk);
     }
-    long[] result = new long[currentSize];
-    System.arraycopy(original, 0, result, 0, original.length);
-    return result;
+    lastChunkKey = key;
+    lastChunk = newChunk;
+    size++;
+    return true;
   }
 
   @Override public boolean remove(Object o) {
@@ -189,42 +151,23 @@ public class ORidSet implements Set<ORID> {
       throw new IllegalArgumentException();
     }
     ORID identifiable = ((ORID) o);
-    if (identifiable == null) {
-      throw new IllegalArgumentException();
-    }
     int cluster = identifiable.getClusterId();
     long position = identifiable.getClusterPosition();
     if (cluster < 0 || position < 0) {
       throw new IllegalArgumentException("negative RID");//TODO
     }
-    long positionByte = (position / 63);
-    int positionBit = (int) (position % 63);
-    int block = (int) (positionByte / maxArraySize);
-    int blockPositionByteInt = (int) (positionByte % maxArraySize);
-
-    if (content.length <= cluster) {
+    long key = chunkKey(cluster, position);
+    Container chunk = getChunk(key);
+    if (chunk == null || !chunk.remove((int) (position & CHUNK_MASK))) {
       return false;
     }
-    if (content[cluster] == null) {
-      return false;
+    size--;
+    if (chunk.cardinality() == 0) {
+      content.remove(key);
+      lastChunkKey = -1;
+      lastChunk = null;
     }
-    if (content[cluster].length <= block) {
-      return false;
-    }
-    if (content[cluster][block].length <= blockPositionByteInt) {
-      return false;
-    }
-
-    long original = content[cluster][block][blockPositionByteInt];
-    long currentMask = 1L << positionBit;
-    long existed = content[cluster][block][blockPositionByteInt] & currentMask;
-    currentMask = ~currentMask;
-    content[cluster][block][blockPositionByteInt] = original & currentMask;
-    if (existed > 0) {
-      size--;
-    }
-    return existed == 0L;
-
+    return true;
   }
 
   @Override public boolean containsAll(Collection<?> c) {
@@ -239,27 +182,227 @@ public class ORidSet implements Set<ORID> {
   @Override public boolean addAll(Collection<? extends ORID> c) {
     boolean added = false;
     for (ORID o : c) {
-      added = added && add(o);
+      added |= add(o);
     }
     return added;
   }
 
+  /**
+   * Keeps only the RIDs contained in the given collection. When it is an ORidSet, the intersection is calculated chunk by chunk
+   * without creating the RIDs.
+   */
   @Override public boolean retainAll(Collection<?> c) {
-    throw new UnsupportedOperationException();
+    if (!(c instanceof ORidSet)) {
+      List<ORID> toRemove = new ArrayList<>();
+      for (ORID rid : this) {
+        if (!c.contains(rid)) {
+          toRemove.add(rid);
+        }
+      }
+      return removeAll(toRemove);
+    }
+    ORidSet other = (ORidSet) c;
+    boolean changed = false;
+    Iterator<Map.Entry<Long, Container>> iterator = content.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Long, Container> entry = iterator.next();
+      Container chunk = entry.getValue();
+      Container otherChunk = other.content.get(entry.getKey());
+      Container intersection = otherChunk == null ? null : chunk.and(otherChunk);
+      if (intersection == null || intersection.cardinality() == 0) {
+        size -= chunk.cardinality();
+        iterator.remove();
+        changed = true;
+      } else if (intersection.cardinality() != chunk.cardinality()) {
+        size -= chunk.cardinality() - intersection.cardinality();
+        entry.setValue(intersection);
+        changed = true;
+      }
+    }
+    lastChunkKey = -1;
+    lastChunk = null;
+    return changed;
   }
 
   @Override public boolean removeAll(Collection<?> c) {
+    boolean removed = false;
     for (Object o : c) {
-      remove(o);
+      removed |= remove(o);
     }
-    return true;
+    return removed;
   }
 
   @Override public void clear() {
-    content = new long[8][][];
+    content = new TreeMap<>();
+    lastChunkKey = -1;
+    lastChunk = null;
     size = 0;
   }
 
-}
+  Iterator<Map.Entry<Long, Container>> chunks() {
+    return content.entrySet().iterator();
+  }
+
+  /**
+   * set of the low 16 bits of the positions that belong to a chunk
+   */
+  abstract static class Container {
+    abstract boolean contains(int low);
+
+    /**
+     * @return the container that contains the new value, it can be a new one if the representation had to change
+     */
+    abstract Container add(int low);
+
+    abstract boolean remove(int low);
+
+    abstract int cardinality();
+
+    /**
+     * @return the first value greater or equal to the given one, -1 if there is none
+     */
+    abstract int next(int from);
+
+    /**
+     * @return a new container with the values contained both in this container and in the given one
+     */
+    Container and(Container other) {
+      Container result = new ArrayContainer();
+      for (int low = next(0); low >= 0; low = next(low + 1)) {
+        if (other.contains(low)) {
+          result = result.add(low);
+        }
+      }
+      return result;
+    }
+  }
+
+  static class ArrayContainer extends Container {
+    private char[] values = new char[4];
+    private int    size   = 0;
 
+    @Override boolean contains(int low) {
+      return Arrays.binarySearch(values, 0, size, (char) low) >= 0;
+    }
 
+    @Override Container add(int low) {
+      int pos = Arrays.binarySearch(values, 0, size, (char) low);
+      if (pos >= 0) {
+        return this;
+      }
+      if (size >= ARRAY_CONTAINER_MAX_SIZE) {
+        BitmapContainer bitmap = new BitmapContainer();
+        for (int i = 0; i < size; i++) {
+          bitmap.add(values[i]);
+        }
+        bitmap.add(low);
+        return bitmap;
+      }
+      pos = -pos - 1;
+      if (size == values.length) {
+        values = Arrays.copyOf(values, Math.min(values.length * 2, ARRAY_CONTAINER_MAX_SIZE));
+      }
+      System.arraycopy(values, pos, values, pos + 1, size - pos);
+      values[pos] = (char) low;
+      size++;
+      return this;
+    }
+
+    @Override boolean remove(int low) {
+      int pos = Arrays.binarySearch(values, 0, size, (char) low);
+      if (pos < 0) {
+        return false;
+      }
+      System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+      size--;
+      return true;
+    }
+
+    @Override int cardinality() {
+      return size;
+    }
+
+    @Override int next(int from) {
+      if (from > CHUNK_MASK) {
+        return -1;
+      }
+      int pos = Arrays.binarySearch(values, 0, size, (char) from);
+      if (pos < 0) {
+        pos = -pos - 1;
+      }
+      return pos < size ? values[pos] : -1;
+    }
+  }
+
+  static class BitmapContainer extends Container {
+    private final long[] bits = new long[(CHUNK_MASK + 1) / 64];
+    private       int    cardinality;
+
+    @Override boolean contains(int low) {
+      return (bits[low >>> 6] & (1L << low)) != 0;
+    }
+
+    @Override Container add(int low) {
+      long word = bits[low >>> 6];
+      long mask = 1L << low;
+      if ((word & mask) == 0) {
+        bits[low >>> 6] = word | mask;
+        cardinality++;
+      }
+      return this;
+    }
+
+    @Override boolean remove(int low) {
+      long word = bits[low >>> 6];
+      long mask = 1L << low;
+      if ((word & mask) == 0) {
+        return false;
+      }
+      bits[low >>> 6] = word & ~mask;
+      cardinality--;
+      return true;
+    }
+
+    @Override int cardinality() {
+      return cardinality;
+    }
+
+    @Override Container and(Container other) {
+      if (!(other instanceof BitmapContainer)) {
+        //the array is smaller, check its values
+        return other.and(this);
+      }
+      BitmapContainer result = new BitmapContainer();
+      long[] otherBits = ((BitmapContainer) other).bits;
+      for (int i = 0; i < bits.length; i++) {
+        result.bits[i] = bits[i] & otherBits[i];
+        result.cardinality += Long.bitCount(result.bits[i]);
+      }
+      if (result.cardinality > ARRAY_CONTAINER_MAX_SIZE) {
+        return result;
+      }
+      Container array = new ArrayContainer();
+      for (int low = result.next(0); low >= 0; low = result.next(low + 1)) {
+        array = array.add(low);
+      }
+      return array;
+    }
+
+    @Override int next(int from) {
+      if (from > CHUNK_MASK) {
+        return -1;
+      }
+      int wordIndex = from >>> 6;
+      long word = bits[wordIndex] & (-1L << from);
+      while (true) {
+        if (word != 0) {
+          return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+        }
+        if (++wordIndex == bits.length) {
+          return -1;
+        }
+        word = bits[wordIndex];
+      }
+    }
+  }
+}
@@ -4,81 +4,57 @@ import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
 
 import java.util.Iterator;
+import java.util.Map;
 
 /**
  * Created by luigidellaquila on 25/10/16.
  */
 public class ORidSetIterator implements Iterator<ORID> {
 
-  private ORidSet set;
-  int  currentCluster = -1;
-  long currentId      = -1;
+  private final Iterator<Map.Entry<Long, ORidSet.Container>> chunks;
+
+  private long              currentChunkKey = -1;
+  private ORidSet.Container currentChunk;
+  private int               nextLow         = -1;
 
   ORidSetIterator(ORidSet set) {
-    this.set = set;
-    fetchNext();
+    this.chunks = set.chunks();
+    fetchNext(0);
   }
 
   @Override public boolean hasNext() {
-    return currentCluster >= 0;
+    return nextLow >= 0;
   }
 
   @Override public ORID next() {
     if (!hasNext()) {
       throw new IllegalStateException();
     }
-    ORecordId result = new ORecordId(currentCluster, currentId);
-    currentId++;
-    fetchNext();
+    int cluster = (int) (currentChunkKey >>> 48);
+    long position = ((currentChunkKey & ((1L << 48) - 1)) << ORidSet.CHUNK_BITS) | nextLow;
+    ORecordId result = new ORecordId(cluster, position);
+    fetchNext(nextLow + 1);
     return result;
   }
 
-  private void fetchNext() {
-    if (currentCluster < 0) {
-      currentCluster = 0;
-      currentId = 0;
-    }
-
-    long currentArrayPos = currentId / 63;
-    long currentBit = currentId % 63;
-    int block = (int) (currentArrayPos / set.maxArraySize);
-    int blockPositionByteInt = (int) (currentArrayPos % set.maxArraySize);
-
-    while (currentCluster < set.content.length) {
-      while (set.content[currentCluster] != null && block < set.content[currentCluster].length) {
-        while (set.content[currentCluster][block] != null && blockPositionByteInt < set.content[currentCluster][block].length) {
-          if (currentBit == 0 && set.content[currentCluster][block][blockPositionByteInt] == 0L) {
-            blockPositionByteInt++;
-            currentArrayPos++;
-            continue;
-          }
-          if (set.contains(new ORecordId(currentCluster, currentArrayPos * 63 + currentBit))) {
-            currentId = currentArrayPos * 63 + currentBit;
-            return;
-          } else {
-            currentBit++;
-            if (currentBit > 63) {
-              currentBit = 0;
-              blockPositionByteInt++;
-              currentArrayPos++;
-            }
-          }
+  private void fetchNext(int from) {
+    while (true) {
+      if (currentChunk != null) {
+        nextLow = currentChunk.next(from);
+        if (nextLow >= 0) {
+          return;
         }
-        if (set.content[currentCluster][block] == null && set.content[currentCluster].length >= block) {
-          currentArrayPos += set.maxArraySize;
-        }
-        block++;
-        blockPositionByteInt = 0;
-        currentBit = 0;
       }
-      block = 0;
-      currentBit = 0;
-      currentArrayPos = 0;
-      blockPositionByteInt = 0;
-      currentCluster++;
+      if (!chunks.hasNext()) {
+        currentChunk = null;
+        nextLow = -1;
+        return;
+      }
+      Map.Entry<Long, ORidSet.Container> entry = chunks.next();
+      currentChunkKey = entry.getKey();
+      currentChunk = entry.getValue();
+      from = 0;
     }
-
-    currentCluster = -1;
   }
 
 }
@@ -3,6 +3,9 @@ package com.orientechnologies.orient.core.sql.executor;
 import com.orientechnologies.common.util.OPair;
 import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.collate.OCollate;
+import com.orientechnologies.orient.core.collate.ODefaultCollate;
 import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseInternal;
@@ -11,13 +14,17 @@ import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OCompositeCollate;
+import com.orientechnologies.orient.core.index.OCompositeIndexDefinition;
 import com.orientechnologies.orient.core.index.OIndexDefinition;
+import com.orientechnologies.orient.core.index.OIndexDefinitionMultiValue;
 import com.orientechnologies.orient.core.metadata.OMetadataInternal;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OProperty;
 import com.orientechnologies.orient.core.metadata.schema.OSchema;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.metadata.schema.OView;
+import com.orientechnologies.orient.core.metadata.security.OSecurityShared;
 import com.orientechnologies.orient.core.sql.OCommandExecutorSQLAbstract;
 import com.orientechnologies.orient.core.sql.parser.*;
 
@@ -29,6 +36,11 @@ import java.util.stream.Collectors;
  */
 public class OSelectExecutionPlanner {
 
+  /**
+   * cost of reading an index entry, compared to the cost of loading a record
+   */
+  private static final double INDEX_ENTRY_READ_COST = 0.1;
+
   QueryPlanningInfo info;
   OSelectStatement  statement;
 
@@ -561,6 +573,9 @@ public class OSelectExecutionPlanner {
     }
 
     for (OIndex<?> classIndex : clazz.getClassIndexes()) {
+      if (classIndex.isRebuilding()) {
+        continue;
+      }
       List<String> fields = classIndex.getDefinition().getFields();
       if (fields.size() == 1 && fields.get(0).equals(binaryCondition.getLeft().getDefaultAlias().getStringValue())) {
         OBinaryCondition indexCond = new OBinaryCondition(-1);
@@ -644,7 +659,8 @@ public class OSelectExecutionPlanner {
   private static void handleDistinct(OSelectExecutionPlan result, QueryPlanningInfo info, OCommandContext ctx,
       boolean profilingEnabled) {
     if (info.distinct) {
-      result.chain(new DistinctExecutionStep(ctx, profilingEnabled));
+      // ORDER BY is calculated before DISTINCT, so values can be deduplicated out of order only if there is no ORDER BY
+      result.chain(new DistinctExecutionStep(info.orderBy == null, ctx, profilingEnabled));
     }
   }
 
@@ -1778,7 +1794,8 @@ public class OSelectExecutionPlanner {
       }
     }
 
-    for (OIndex idx : clazz.getIndexes().stream().filter(i -> i.supportsOrderedIterations()).filter(i -> i.getDefinition() != null)
+    for (OIndex idx : clazz.getIndexes().stream().filter(i -> !i.isRebuilding()).filter(i -> i.supportsOrderedIterations())
+        .filter(i -> i.getDefinition() != null)
         .collect(Collectors.toList())) {
       List<String> indexFields = idx.getDefinition().getFields();
       if (indexFields.size() < info.orderBy.getItems().size()) {
@@ -1963,6 +1980,9 @@ public class OSelectExecutionPlanner {
     if (indexSearchDescriptors.size() != info.flattenedWhereClause.size()) {
       return null; //some blocks could not be managed with an index
     }
+    if (isClassScanCheaper(indexSearchDescriptors, c, info, ctx)) {
+      return null;
+    }
 
     List<OExecutionStepInternal> result = null;
     List<IndexSearchDescriptor> optimumIndexSearchDescriptors = commonFactor(indexSearchDescriptors);
@@ -1971,21 +1991,34 @@ public class OSelectExecutionPlanner {
       IndexSearchDescriptor desc = indexSearchDescriptors.get(0);
       result = new ArrayList<>();
       Boolean orderAsc = getOrderDirection(info);
-      result.add(
-          new FetchFromIndexStep(desc.idx, desc.keyCondition, desc.additionalRangeCondition, !Boolean.FALSE.equals(orderAsc), ctx,
-              profilingEnabled));
       int[] filterClusterIds = null;
       if (filterClusters != null) {
         filterClusterIds = filterClusters.stream().map(name -> ctx.getDatabase().getClusterIdByName(name)).mapToInt(i -> i)
             .toArray();
       }
-      result.add(new GetValueFromIndexEntryStep(ctx, filterClusterIds, profilingEnabled));
-      if (requiresMultipleIndexLookups(desc.keyCondition)) {
-        result.add(new DistinctExecutionStep(ctx, profilingEnabled));
-      }
-      if (orderAsc != null && info.orderBy != null && fullySorted(info.orderBy, desc.keyCondition, desc.idx)
-          && info.serverToClusters.size() == 1) {
-        info.orderApplied = true;
+      List<String> coveredFields = findCoveredIndexFields(desc, c, info, ctx);
+      boolean sortedByIndex = orderAsc != null && info.orderBy != null && fullySorted(info.orderBy, desc.keyCondition, desc.idx)
+          && info.serverToClusters.size() == 1;
+      List<IndexSearchDescriptor> intersection =
+          coveredFields == null && !sortedByIndex ? findIndexIntersection(desc, indexes, c, ctx) : null;
+      if (intersection != null) {
+        result.add(new FetchFromIndexIntersectionStep(intersection, filterClusterIds, ctx, profilingEnabled));
+      } else {
+        FetchFromIndexStep fetchStep = new FetchFromIndexStep(desc.idx, desc.keyCondition, desc.additionalRangeCondition,
+            !Boolean.FALSE.equals(orderAsc), ctx, profilingEnabled);
+        fetchStep.setEstimatedEntries(desc.estimateEntries(ctx));
+        result.add(fetchStep);
+        if (coveredFields != null) {
+          result.add(new GetValuesFromIndexKeyStep(ctx, coveredFields, filterClusterIds, profilingEnabled));
+        } else {
+          result.add(new GetValueFromIndexEntryStep(ctx, filterClusterIds, profilingEnabled));
+        }
+        if (requiresMultipleIndexLookups(desc.keyCondition)) {
+          result.add(new DistinctExecutionStep(ctx, profilingEnabled));
+        }
+        if (sortedByIndex) {
+          info.orderApplied = true;
+        }
       }
       if (desc.remainingCondition != null && !desc.remainingCondition.isEmpty()) {
         if ((info.perRecordLetClause != null && refersToLet(Collections.singletonList(desc.remainingCondition)))) {
@@ -2010,6 +2043,186 @@ public class OSelectExecutionPlanner {
     return result;
   }
 
+  /**
+   * finds other indexes that can be intersected with the one chosen for a block of the where clause, so that the records that do
+   * not match the remaining conditions are not loaded at all. An index is added to the intersection only if all the indexes were
+   * analyzed (see {@link OIndexStatistics}) and reading its entries is estimated to be cheaper than loading the records that it
+   * filters out
+   *
+   * @param desc    the index search descriptor chosen for the block
+   * @param indexes the indexes of the target class
+   * @param clazz   the target class
+   * @param ctx     the query context
+   *
+   * @return the index search descriptors to intersect, the most selective first, or null if the intersection is not convenient
+   */
+  private List<IndexSearchDescriptor> findIndexIntersection(IndexSearchDescriptor desc, Set<OIndex<?>> indexes, OClass clazz,
+      OCommandContext ctx) {
+    if (!(desc.remainingCondition instanceof OAndBlock) || ((OAndBlock) desc.remainingCondition).getSubBlocks().isEmpty()) {
+      return null;
+    }
+    long records = desc.estimateEntries(ctx);
+    if (records < 0) {
+      return null;
+    }
+    long classRecords = clazz.count(true);
+    if (classRecords == 0) {
+      return null;
+    }
+
+    List<OPair<Long, IndexSearchDescriptor>> candidates = new ArrayList<>();
+    for (OBooleanExpression condition : ((OAndBlock) desc.remainingCondition).getSubBlocks()) {
+      OAndBlock block = new OAndBlock(-1);
+      block.getSubBlocks().add(condition.copy());
+      IndexSearchDescriptor candidate = findBestIndexFor(ctx, indexes, block, clazz);
+      if (candidate == null || candidate.idx.getName().equals(desc.idx.getName()) || (candidate.remainingCondition != null
+          && !candidate.remainingCondition.isEmpty())) {
+        continue;
+      }
+      long entries = candidate.estimateEntries(ctx);
+      if (entries >= 0) {
+        candidates.add(new OPair<>(entries, candidate));
+      }
+    }
+    Collections.sort(candidates);
+
+    List<IndexSearchDescriptor> result = new ArrayList<>();
+    result.add(desc);
+    Set<String> usedIndexes = new HashSet<>();
+    usedIndexes.add(desc.idx.getName());
+    for (OPair<Long, IndexSearchDescriptor> candidate : candidates) {
+      if (!usedIndexes.add(candidate.value.idx.getName())) {
+        continue;
+      }
+      double selectivity = (double) candidate.key / classRecords;
+      //the conditions are assumed to be independent
+      if (candidate.key * INDEX_ENTRY_READ_COST < records * (1 - selectivity)) {
+        result.add(candidate.value);
+        records = (long) Math.ceil(records * selectivity);
+      }
+    }
+    return result.size() > 1 ? result : null;
+  }
+
+  /**
+   * checks if scanning the whole class is cheaper than fetching the records through the indexes, ie. if the indexes are estimated
+   * to return more than {@link OGlobalConfiguration#QUERY_INDEX_MAX_SELECTIVITY} of the records of the class. The estimation needs
+   * the statistics of the indexes (see {@link OIndexStatistics}), indexes that were never analyzed are always preferred to a scan
+   *
+   * @param descriptors the index search descriptors, one for each block of the flattened where clause
+   * @param clazz       the target class
+   * @param info        the query planning info
+   * @param ctx         the query context
+   *
+   * @return true if the class should be scanned instead of using the indexes
+   */
+  private boolean isClassScanCheaper(List<IndexSearchDescriptor> descriptors, OClass clazz, QueryPlanningInfo info,
+      OCommandContext ctx) {
+    if (info.orderBy != null) {
+      return false; //the index could avoid the sort
+    }
+    long indexEntries = 0;
+    for (IndexSearchDescriptor desc : descriptors) {
+      long estimate = desc.estimateEntries(ctx);
+      if (estimate < 0) {
+        return false;
+      }
+      if (descriptors.size() == 1 && findCoveredIndexFields(desc, clazz, info, ctx) != null) {
+        return false; //no records are loaded
+      }
+      indexEntries += estimate;
+    }
+    float maxSelectivity = ctx.getDatabase().getConfiguration().getValueAsFloat(OGlobalConfiguration.QUERY_INDEX_MAX_SELECTIVITY);
+    return indexEntries > clazz.count(true) * maxSelectivity;
+  }
+
+  /**
+   * checks if the index key contains all the fields needed by the query (ie. the query needs only the projected fields and the
+   * conditions which are not evaluated by the index compare the fields with constant values), so that the results can be built from
+   * the index entries without loading the records. The index key contains also the fields included in the index
+   *
+   * @param desc  the index search descriptor
+   * @param clazz the target class
+   * @param info  the query planning info
+   * @param ctx   the query context
+   *
+   * @return the fields of the index key, or null if the index does not cover the query
+   */
+  private List<String> findCoveredIndexFields(IndexSearchDescriptor desc, OClass clazz, QueryPlanningInfo info,
+      OCommandContext ctx) {
+    if (info.projection == null || info.projection.getItems() == null || info.expand || info.unwind != null
+        || info.lockRecord != null || info.perRecordLetClause != null || info.groupBy != null
+        || info.preAggregateProjection != null || info.aggregateProjection != null) {
+      return null;
+    }
+    //results built from the keys cannot be deduplicated by identity
+    if (requiresMultipleIndexLookups(desc.keyCondition)) {
+      return null;
+    }
+    //record level security is checked when records are loaded
+    if (clazz.isSubClassOf(OSecurityShared.RESTRICTED_CLASSNAME)) {
+      return null;
+    }
+    OIndex<?> index = desc.idx;
+    OIndexDefinition definition = index.getDefinition();
+    if (definition == null || definition instanceof OIndexDefinitionMultiValue || index.getType().toUpperCase(Locale.ENGLISH)
+        .contains("FULLTEXT") || "LUCENE".equalsIgnoreCase(index.getAlgorithm())) {
+      return null;
+    }
+    if (definition instanceof OCompositeIndexDefinition
+        && ((OCompositeIndexDefinition) definition).getMultiValueDefinitionIndex() != -1) {
+      return null;
+    }
+    //keys contain the collated values, which may differ from the values of the fields
+    OCollate collate = definition.getCollate();
+    List<OCollate> collates =
+        collate instanceof OCompositeCollate ? ((OCompositeCollate) collate).getCollates() : Collections.singletonList(collate);
+    for (OCollate fieldCollate : collates) {
+      if (fieldCollate != null && !ODefaultCollate.NAME.equals(fieldCollate.getName())) {
+        return null;
+      }
+    }
+
+    List<String> indexFields = new ArrayList<>(definition.getFields());
+    indexFields.addAll(definition.getIncludedFields());
+    for (OProjectionItem item : info.projection.getItems()) {
+      if (item.isAll() || item.getNestedProjection() != null || item.getExpression() == null || !item.getExpression()
+          .isBaseIdentifier()) {
+        return null;
+      }
+      if (!indexFields.contains(item.getExpression().getDefaultAlias().getStringValue())) {
+        return null;
+      }
+    }
+    if (desc.remainingCondition != null && !desc.remainingCondition.isEmpty() && !isEvaluatedOnFields(desc.remainingCondition,
+        indexFields, ctx)) {
+      return null;
+    }
+    return indexFields;
+  }
+
+  /**
+   * checks if the condition is a conjunction of comparisons of the given fields with values that do not depend on the record
+   */
+  private boolean isEvaluatedOnFields(OBooleanExpression condition, List<String> fields, OCommandContext ctx) {
+    List<OAndBlock> flattened = condition.flatten();
+    if (flattened.size() != 1) {
+      return false;
+    }
+    for (OBooleanExpression exp : flattened.get(0).getSubBlocks()) {
+      if (!(exp instanceof OBinaryCondition)) {
+        return false;
+      }
+      OBinaryCondition binaryCondition = (OBinaryCondition) exp;
+      OExpression left = binaryCondition.getLeft();
+      if (!left.isBaseIdentifier() || !fields.contains(left.getDefaultAlias().getStringValue()) || !binaryCondition.getRight()
+          .isEarlyCalculated(ctx)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private static OSchema getSchemaFromContext(OCommandContext ctx) {
     return ((OMetadataInternal) ctx.getDatabase().getMetadata()).getImmutableSchemaSnapshot();
   }
@@ -2111,7 +2324,10 @@ public class OSelectExecutionPlanner {
     List<OInternalExecutionPlan> subPlans = new ArrayList<>();
     for (IndexSearchDescriptor desc : indexSearchDescriptors) {
       OSelectExecutionPlan subPlan = new OSelectExecutionPlan(ctx);
-      subPlan.chain(new FetchFromIndexStep(desc.idx, desc.keyCondition, desc.additionalRangeCondition, ctx, profilingEnabled));
+      FetchFromIndexStep fetchStep = new FetchFromIndexStep(desc.idx, desc.keyCondition, desc.additionalRangeCondition, ctx,
+          profilingEnabled);
+      fetchStep.setEstimatedEntries(desc.estimateEntries(ctx));
+      subPlan.chain(fetchStep);
       int[] filterClusterIds = null;
       if (filterClusters != null) {
         filterClusterIds = filterClusters.stream().map(name -> ctx.getDatabase().getClusterIdByName(name)).mapToInt(i -> i)
@@ -2163,11 +2379,12 @@ public class OSelectExecutionPlanner {
    */
   private IndexSearchDescriptor findBestIndexFor(OCommandContext ctx, Set<OIndex<?>> indexes, OAndBlock block, OClass clazz) {
     //get all valid index descriptors
-    List<IndexSearchDescriptor> descriptors = indexes.stream().filter(x -> x.getInternal().canBeUsedInEqualityOperators())
+    List<IndexSearchDescriptor> descriptors = indexes.stream().filter(x -> !x.isRebuilding())
+        .filter(x -> x.getInternal().canBeUsedInEqualityOperators())
         .map(index -> buildIndexSearchDescriptor(ctx, index, block, clazz)).filter(Objects::nonNull)
         .filter(x -> x.keyCondition != null).filter(x -> x.keyCondition.getSubBlocks().size() > 0).collect(Collectors.toList());
 
-    List<IndexSearchDescriptor> fullTextIndexDescriptors = indexes.stream()
+    List<IndexSearchDescriptor> fullTextIndexDescriptors = indexes.stream().filter(idx -> !idx.isRebuilding())
         .filter(idx->idx.getType().equalsIgnoreCase("FULLTEXT") || idx.getType().equalsIgnoreCase(OClass.INDEX_TYPE.FULLTEXT_HASH_INDEX.name()) )
         .filter(idx->!idx.getAlgorithm().equalsIgnoreCase("LUCENE"))
         .map(idx -> buildIndexSearchDescriptorForFulltext(ctx, idx, block, clazz)).filter(Objects::nonNull)
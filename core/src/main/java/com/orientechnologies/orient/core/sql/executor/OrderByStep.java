@@ -2,6 +2,8 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.sql.parser.OOrderBy;
 
 import java.util.*;
@@ -15,8 +17,8 @@ public class OrderByStep extends AbstractExecutionStep {
 
   private long cost = 0;
 
-  List<OResult> cachedResult = null;
-  int           nextElement  = 0;
+  Iterator<OResult>      sortedResult = null;
+  List<OResultSpillFile> runs         = null;
 
   public OrderByStep(OOrderBy orderBy, OCommandContext ctx, boolean profilingEnabled) {
     this(orderBy, null, ctx, profilingEnabled);
@@ -33,24 +35,27 @@ public class OrderByStep extends AbstractExecutionStep {
 
   @Override
   public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
-    if (cachedResult == null) {
-      cachedResult = new ArrayList<>();
+    if (sortedResult == null) {
+      sortedResult = Collections.emptyIterator();
       prev.ifPresent(p -> init(p, ctx));
     }
 
     return new OResultSet() {
       int currentBatchReturned = 0;
-      int offset = nextElement;
 
       @Override
       public boolean hasNext() {
         if (currentBatchReturned >= nRecords) {
           return false;
         }
-        if (cachedResult.size() <= nextElement) {
-          return false;
+        long begin = profilingEnabled ? System.nanoTime() : 0;
+        try {
+          return sortedResult.hasNext();
+        } finally {
+          if (profilingEnabled) {
+            cost += (System.nanoTime() - begin);
+          }
         }
-        return true;
       }
 
       @Override
@@ -60,11 +65,10 @@ public class OrderByStep extends AbstractExecutionStep {
           if (currentBatchReturned >= nRecords) {
             throw new IllegalStateException();
           }
-          if (cachedResult.size() <= nextElement) {
+          if (!sortedResult.hasNext()) {
             throw new IllegalStateException();
           }
-          OResult result = cachedResult.get(offset + currentBatchReturned);
-          nextElement++;
+          OResult result = sortedResult.next();
           currentBatchReturned++;
           return result;
         } finally {
@@ -92,8 +96,21 @@ public class OrderByStep extends AbstractExecutionStep {
   }
 
   private void init(OExecutionStepInternal p, OCommandContext ctx) {
+    if (maxResults != null) {
+      sortedResult = topN(p, ctx);
+    } else {
+      sortedResult = fullSort(p, ctx);
+    }
+  }
 
-    boolean sorted = true;
+  /**
+   * keeps only the first maxResults items in a bounded heap, whose head is the item that would be discarded first. Items that
+   * arrive later lose ties, so the result is the same as a stable sort followed by a truncation.
+   */
+  private Iterator<OResult> topN(OExecutionStepInternal p, OCommandContext ctx) {
+    Comparator<SortItem> comparator = sortItemComparator(ctx);
+    PriorityQueue<SortItem> heap = new PriorityQueue<>(Math.min(maxResults, 1024) + 1, comparator.reversed());
+    long sequence = 0;
     do {
       OResultSet lastBatch = p.syncPull(ctx, 100);
       if (!lastBatch.hasNext()) {
@@ -106,13 +123,12 @@ public class OrderByStep extends AbstractExecutionStep {
         OResult item = lastBatch.next();
         long begin = profilingEnabled ? System.nanoTime() : 0;
         try {
-          cachedResult.add(item);
-          sorted = false;
-          //compact, only at twice as the buffer, to avoid to do it at each add
-          if (this.maxResults != null && maxResults * 2 < cachedResult.size()) {
-            cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
-            cachedResult = new ArrayList<>(cachedResult.subList(0, maxResults));
-            sorted = true;
+          SortItem sortItem = new SortItem(item, sequence++);
+          if (heap.size() < maxResults) {
+            heap.add(sortItem);
+          } else if (maxResults > 0 && comparator.compare(sortItem, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(sortItem);
           }
         } finally {
           if (profilingEnabled) {
@@ -123,31 +139,171 @@ public class OrderByStep extends AbstractExecutionStep {
       if (timedOut) {
         break;
       }
-      long begin = profilingEnabled ? System.nanoTime() : 0;
-      try {
-        //compact at each batch, if needed
-        if (!sorted && this.maxResults != null && maxResults < cachedResult.size()) {
-          cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
-          cachedResult = new ArrayList<>(cachedResult.subList(0, maxResults));
-          sorted = true;
+    } while (true);
+
+    long begin = profilingEnabled ? System.nanoTime() : 0;
+    try {
+      List<SortItem> sorted = new ArrayList<>(heap);
+      sorted.sort(comparator);
+      List<OResult> result = new ArrayList<>(sorted.size());
+      for (SortItem item : sorted) {
+        result.add(item.result);
+      }
+      return result.iterator();
+    } finally {
+      if (profilingEnabled) {
+        cost += (System.nanoTime() - begin);
+      }
+    }
+  }
+
+  /**
+   * sorts all the items in heap or, if they exceed {@link OGlobalConfiguration#QUERY_SPILL_THRESHOLD}, writes sorted runs to
+   * temporary files and merges them while the result is consumed.
+   */
+  private Iterator<OResult> fullSort(OExecutionStepInternal p, OCommandContext ctx) {
+    int spillThreshold = getSpillThreshold(ctx);
+    List<OResult> buffer = new ArrayList<>();
+    do {
+      OResultSet lastBatch = p.syncPull(ctx, 100);
+      if (!lastBatch.hasNext()) {
+        break;
+      }
+      while (lastBatch.hasNext()) {
+        if (this.timedOut) {
+          break;
         }
-      } finally {
-        if (profilingEnabled) {
-          cost += (System.nanoTime() - begin);
+        OResult item = lastBatch.next();
+        long begin = profilingEnabled ? System.nanoTime() : 0;
+        try {
+          buffer.add(item);
+          if (spillThreshold > 0 && buffer.size() >= spillThreshold) {
+            buffer = spill(buffer, ctx);
+            if (buffer.size() >= spillThreshold) {
+              // some results cannot be written to disk, keep everything in heap from now on
+              spillThreshold = -1;
+            }
+          }
+        } finally {
+          if (profilingEnabled) {
+            cost += (System.nanoTime() - begin);
+          }
         }
       }
+      if (timedOut) {
+        break;
+      }
     } while (true);
+
     long begin = profilingEnabled ? System.nanoTime() : 0;
     try {
-      if (!sorted) {
-        cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
+      buffer.sort((a, b) -> orderBy.compare(a, b, ctx));
+      if (runs == null) {
+        return buffer.iterator();
       }
+      List<Iterator<OResult>> sources = new ArrayList<>();
+      for (OResultSpillFile run : runs) {
+        sources.add(run.read(ctx));
+      }
+      sources.add(buffer.iterator());
+      return merge(sources, ctx);
     } finally {
       if (profilingEnabled) {
         cost += (System.nanoTime() - begin);
       }
     }
+  }
+
+  /**
+   * sorts the buffer and writes it to a new run file
+   *
+   * @return the items that could not be written to disk, still sorted
+   */
+  private List<OResult> spill(List<OResult> buffer, OCommandContext ctx) {
+    buffer.sort((a, b) -> orderBy.compare(a, b, ctx));
+    OResultSpillFile run = OResultSpillFile.create("orderby");
+    if (runs == null) {
+      runs = new ArrayList<>();
+    }
+    runs.add(run);
+    List<OResult> retained = new ArrayList<>();
+    for (OResult item : buffer) {
+      if (!run.write(item)) {
+        retained.add(item);
+      }
+    }
+    return retained;
+  }
+
+  /**
+   * k-way merge of sorted sources. Ties are resolved in favour of the source that comes first, so the merge is stable.
+   */
+  private Iterator<OResult> merge(List<Iterator<OResult>> sources, OCommandContext ctx) {
+    Comparator<SortItem> comparator = sortItemComparator(ctx);
+    PriorityQueue<SortItem> heads = new PriorityQueue<>(sources.size(), comparator);
+    for (int i = 0; i < sources.size(); i++) {
+      if (sources.get(i).hasNext()) {
+        heads.add(new SortItem(sources.get(i).next(), i));
+      }
+    }
+    return new Iterator<OResult>() {
+      @Override
+      public boolean hasNext() {
+        return !heads.isEmpty();
+      }
+
+      @Override
+      public OResult next() {
+        SortItem head = heads.poll();
+        if (head == null) {
+          throw new NoSuchElementException();
+        }
+        Iterator<OResult> source = sources.get((int) head.sequence);
+        if (source.hasNext()) {
+          heads.add(new SortItem(source.next(), head.sequence));
+        }
+        return head.result;
+      }
+    };
+  }
+
+  private Comparator<SortItem> sortItemComparator(OCommandContext ctx) {
+    return (a, b) -> {
+      int result = orderBy.compare(a.result, b.result, ctx);
+      if (result != 0) {
+        return result;
+      }
+      return Long.compare(a.sequence, b.sequence);
+    };
+  }
+
+  private static int getSpillThreshold(OCommandContext ctx) {
+    ODatabase db = ctx.getDatabase();
+    if (db == null) {
+      return -1;
+    }
+    return db.getConfiguration().getValueAsInteger(OGlobalConfiguration.QUERY_SPILL_THRESHOLD);
+  }
 
+  @Override
+  public void close() {
+    if (runs != null) {
+      for (OResultSpillFile run : runs) {
+        run.close();
+      }
+      runs = null;
+    }
+    super.close();
+  }
+
+  private static class SortItem {
+    private final OResult result;
+    private final long    sequence;
+
+    SortItem(OResult result, long sequence) {
+      this.result = result;
+      this.sequence = sequence;
+    }
   }
 
   @Override
@@ -1,22 +1,81 @@
 package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
+import com.orientechnologies.common.util.OUncaughtExceptionHandler;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabase;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.OExecutionThreadLocal;
+import com.orientechnologies.orient.core.exception.OCommandInterruptedException;
 
+import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
+ * Executes a list of sub-plans and returns the union of their results.
+ * <p>
+ * If {@link OGlobalConfiguration#QUERY_PARALLEL_AUTO} is enabled, no transaction is active and all the sub-plans can be copied,
+ * every sub-plan is executed on a bounded number of worker threads (one database instance per worker) and results are merged
+ * through a blocking queue of {@link OGlobalConfiguration#QUERY_PARALLEL_RESULT_QUEUE_SIZE} elements, so that fast branches wait
+ * for the consumer instead of filling the heap. Otherwise sub-plans are executed one after the other on the current thread.
+ * <p>
+ * Worker threads are shared by all the parallel queries and are never waited for: if none of them is free, for example because
+ * parallel queries are nested, sub-plans are executed on the current thread.
+ *
  * @author Luigi Dell'Aquila (l.dellaquila-(at)-orientdb.com)
  */
 public class ParallelExecStep extends AbstractExecutionStep {
+  private static final OResult END_OF_WORKER = new OResultInternal();
+  private static final int     BRANCH_BATCH  = 100;
+  private static final long    POLL_MILLIS   = 100;
+
+  private static final OThreadPoolExecutorWithLogging executor;
+
+  static {
+    final int threads = Math.max(OGlobalConfiguration.QUERY_PARALLEL_WORKERS.getValueAsInteger(), 1);
+    // tasks are not queued, so they are rejected when all the threads are busy
+    executor = new OThreadPoolExecutorWithLogging(threads, threads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+        new ParallelQueryThreadFactory());
+    executor.allowCoreThreadTimeOut(true);
+  }
+
   private final List<OInternalExecutionPlan> subExecutionPlans;
 
   int current = 0;
   private OResultSet currentResultSet = null;
 
+  private Boolean                            parallel;
+  private BlockingQueue<OResult>             resultQueue;
+  private List<Future<?>>                    workers;
+  private int                                finishedWorkers;
+  private OResult                            pending;
+  private AtomicLongArray                    branchResults;
+  private AtomicLongArray                    branchCosts;
+  private final AtomicReference<RuntimeException> failure   = new AtomicReference<>();
+  private volatile boolean                   cancelled;
+  private long                               cost      = 0;
+
   public ParallelExecStep(List<OInternalExecutionPlan> subExecuitonPlans, OCommandContext ctx, boolean profilingEnabled) {
     super(ctx, profilingEnabled);
     this.subExecutionPlans = subExecuitonPlans;
@@ -25,6 +84,12 @@ public class ParallelExecStep extends AbstractExecutionStep {
   @Override
   public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
     getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
+    if (parallel == null) {
+      parallel = canRunInParallel(ctx) && startWorkers(ctx);
+    }
+    if (parallel) {
+      return parallelPull(ctx, nRecords);
+    }
     return new OResultSet() {
       int localCount = 0;
 
@@ -74,6 +139,316 @@ public class ParallelExecStep extends AbstractExecutionStep {
     };
   }
 
+  private OResultSet parallelPull(OCommandContext ctx, int nRecords) {
+    return new OResultSet() {
+      int localCount = 0;
+
+      @Override
+      public boolean hasNext() {
+        if (localCount >= nRecords) {
+          return false;
+        }
+        if (pending == null) {
+          pending = takeFromWorkers(ctx);
+        }
+        return pending != null;
+      }
+
+      @Override
+      public OResult next() {
+        if (!hasNext()) {
+          throw new IllegalStateException();
+        }
+        OResult result = pending;
+        pending = null;
+        localCount++;
+        return result;
+      }
+
+      @Override
+      public void close() {
+
+      }
+
+      @Override
+      public Optional<OExecutionPlan> getExecutionPlan() {
+        return Optional.empty();
+      }
+
+      @Override
+      public Map<String, Long> getQueryStats() {
+        return null;
+      }
+    };
+  }
+
+  /**
+   * Parallel execution needs a private copy of each sub-plan bound to a private database instance, so it is possible only for plans
+   * that can be copied and outside transactions (records created in current transaction are not visible to other database
+   * instances)
+   */
+  private boolean canRunInParallel(OCommandContext ctx) {
+    if (subExecutionPlans.size() < 2) {
+      return false;
+    }
+    ODatabase db = ctx.getDatabase();
+    if (!(db instanceof ODatabaseDocumentInternal)) {
+      return false;
+    }
+    ODatabaseDocumentInternal database = (ODatabaseDocumentInternal) db;
+    if (database.getStorage().isRemote() || database.getTransaction().isActive()) {
+      return false;
+    }
+    if (!database.getConfiguration().getValueAsBoolean(OGlobalConfiguration.QUERY_PARALLEL_AUTO)) {
+      return false;
+    }
+    for (OInternalExecutionPlan plan : subExecutionPlans) {
+      if (!plan.canBeCached()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return false if none of the worker threads is free, so sub-plans have to be executed on the current thread
+   */
+  private boolean startWorkers(OCommandContext ctx) {
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    int queueSize = db.getConfiguration().getValueAsInteger(OGlobalConfiguration.QUERY_PARALLEL_RESULT_QUEUE_SIZE);
+    resultQueue = new ArrayBlockingQueue<>(Math.max(queueSize, 1));
+    branchResults = new AtomicLongArray(subExecutionPlans.size());
+    branchCosts = new AtomicLongArray(subExecutionPlans.size());
+
+    Map<Object, Object> inputParameters = ctx.getInputParameters();
+    Map<String, Object> variables = ctx.getVariables();
+    AtomicInteger nextBranch = new AtomicInteger();
+
+    int nWorkers = Math.min(subExecutionPlans.size(), Runtime.getRuntime().availableProcessors());
+    workers = new ArrayList<>(nWorkers);
+    for (int i = 0; i < nWorkers; i++) {
+      // copy() has to be called on the thread that owns the database, it activates the original instance again when done
+      ODatabaseDocumentInternal localDb = db.copy();
+      try {
+        workers.add(executor.submit(() -> runBranches(localDb, nextBranch, inputParameters, variables)));
+      } catch (RejectedExecutionException e) {
+        // branches are shared, so the workers which are already started execute all of them
+        localDb.activateOnCurrentThread();
+        localDb.close();
+        db.activateOnCurrentThread();
+        break;
+      } catch (RuntimeException e) {
+        localDb.activateOnCurrentThread();
+        localDb.close();
+        db.activateOnCurrentThread();
+        cancelWorkers();
+        throw e;
+      }
+    }
+    if (workers.isEmpty()) {
+      workers = null;
+      resultQueue = null;
+      branchResults = null;
+      branchCosts = null;
+      return false;
+    }
+    OLogManager.instance()
+        .debug(this, "Executing %d sub-plans in parallel with %d workers", subExecutionPlans.size(), workers.size());
+    return true;
+  }
+
+  private void runBranches(ODatabaseDocumentInternal localDb, AtomicInteger nextBranch, Map<Object, Object> inputParameters,
+      Map<String, Object> variables) {
+    try {
+      localDb.activateOnCurrentThread();
+      int branch;
+      while (!cancelled && (branch = nextBranch.getAndIncrement()) < subExecutionPlans.size()) {
+        OBasicCommandContext branchCtx = new OBasicCommandContext();
+        branchCtx.setDatabase(localDb);
+        branchCtx.setInputParameters(inputParameters);
+        for (Map.Entry<String, Object> variable : variables.entrySet()) {
+          branchCtx.setVariable(variable.getKey(), variable.getValue());
+        }
+        runBranch(branch, subExecutionPlans.get(branch).copy(branchCtx));
+      }
+    } catch (RuntimeException e) {
+      failure.compareAndSet(null, e);
+    } finally {
+      try {
+        localDb.activateOnCurrentThread();
+        localDb.close();
+      } catch (RuntimeException e) {
+        OLogManager.instance().error(this, "Error on closing database used by parallel query", e);
+      } finally {
+        ODatabaseRecordThreadLocal.instance().remove();
+        enqueue(END_OF_WORKER);
+      }
+    }
+  }
+
+  private void runBranch(int branch, OInternalExecutionPlan plan) {
+    try {
+      while (!cancelled) {
+        long begin = profilingEnabled ? System.nanoTime() : 0;
+        OResultSet block = plan.fetchNext(BRANCH_BATCH);
+        if (!block.hasNext()) {
+          return;
+        }
+        while (block.hasNext() && !cancelled) {
+          OResult item = block.next();
+          if (profilingEnabled) {
+            long elapsed = System.nanoTime() - begin;
+            addCost(elapsed);
+            branchCosts.addAndGet(branch, elapsed);
+          }
+          if (!enqueue(item)) {
+            return;
+          }
+          branchResults.incrementAndGet(branch);
+          begin = profilingEnabled ? System.nanoTime() : 0;
+        }
+      }
+    } finally {
+      plan.close();
+    }
+  }
+
+  private synchronized void addCost(long nanos) {
+    cost += nanos;
+  }
+
+  /**
+   * puts an item in the result queue, waiting for the consumer if the queue is full
+   *
+   * @return false if the execution was cancelled before the item could be added
+   */
+  private boolean enqueue(OResult item) {
+    try {
+      while (!cancelled) {
+        if (resultQueue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+      }
+    } catch (InterruptedException ignore) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  private OResult takeFromWorkers(OCommandContext ctx) {
+    try {
+      while (true) {
+        RuntimeException error = failure.get();
+        if (error != null) {
+          cancelWorkers();
+          throw error;
+        }
+        if (timedOut) {
+          cancelWorkers();
+          return null;
+        }
+        if (OExecutionThreadLocal.isInterruptCurrentOperation()) {
+          cancelWorkers();
+          throw new OCommandInterruptedException("The command has been interrupted");
+        }
+        if (finishedWorkers >= workers.size() && resultQueue.isEmpty()) {
+          return null;
+        }
+        OResult item = resultQueue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (item == END_OF_WORKER) {
+          finishedWorkers++;
+        } else if (item != null) {
+          return bindToDatabase(ctx, item);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      cancelWorkers();
+      throw OException.wrapException(new OCommandInterruptedException("The command has been interrupted"), e);
+    }
+  }
+
+  /**
+   * records are loaded by the database instances of the workers, which are closed as soon as their branches are completed, so the
+   * records are moved to the local cache of the database of the query before they are returned
+   */
+  private OResult bindToDatabase(OCommandContext ctx, OResult item) {
+    if (item instanceof OResultInternal) {
+      ((OResultInternal) item).bindToCache((ODatabaseDocumentInternal) ctx.getDatabase());
+    }
+    return item;
+  }
+
+  /**
+   * stops all the workers and waits for them to release their database instances. Workers are never interrupted, because
+   * interrupting a thread that is doing I/O closes the underlying file channels.
+   */
+  private void cancelWorkers() {
+    if (workers == null) {
+      return;
+    }
+    cancelled = true;
+    resultQueue.clear();
+    for (Future<?> worker : workers) {
+      try {
+        worker.get();
+      } catch (InterruptedException ignore) {
+        Thread.currentThread().interrupt();
+        break;
+      } catch (ExecutionException e) {
+        OLogManager.instance().error(this, "Error on executing parallel query", e);
+      }
+    }
+    resultQueue.clear();
+    pending = null;
+  }
+
+  @Override
+  public void sendTimeout() {
+    super.sendTimeout();
+    cancelled = true;
+  }
+
+  @Override
+  public void close() {
+    cancelWorkers();
+    super.close();
+  }
+
+  @Override
+  public long getCost() {
+    return cost;
+  }
+
+  /**
+   * @return the number of results produced by each sub-plan, or null if the sub-plans were not executed in parallel
+   */
+  public long[] getBranchResultCounts() {
+    if (branchResults == null) {
+      return null;
+    }
+    long[] result = new long[branchResults.length()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = branchResults.get(i);
+    }
+    return result;
+  }
+
+  /**
+   * @return the nanoseconds spent by each sub-plan to produce its results, or null if the sub-plans were not executed in parallel.
+   * The costs are collected only when profiling is enabled
+   */
+  public long[] getBranchCosts() {
+    if (branchCosts == null) {
+      return null;
+    }
+    long[] result = new long[branchCosts.length()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = branchCosts.get(i);
+    }
+    return result;
+  }
+
   void fetchNext(OCommandContext ctx, int nRecords) {
     do {
       if (current >= subExecutionPlans.size()) {
@@ -97,6 +472,9 @@ public class ParallelExecStep extends AbstractExecutionStep {
     for (int i = 0; i < subExecutionPlans.size(); i++) {
       OInternalExecutionPlan currentPlan = subExecutionPlans.get(subExecutionPlans.size() - 1 - i);
       String partial = currentPlan.prettyPrint(0, indent);
+      if (branchResults != null) {
+        partial = branchStats(subExecutionPlans.size() - 1 - i) + "\n" + partial;
+      }
 
       String[] partials = partial.split("\n");
       blockSizes[subExecutionPlans.size() - 1 - i] = partials.length + 2;
@@ -177,9 +555,21 @@ public class ParallelExecStep extends AbstractExecutionStep {
     return false;
   }
 
+  private String branchStats(int branch) {
+    String result = "BRANCH " + branch + ": " + branchResults.get(branch) + " results";
+    if (profilingEnabled) {
+      result += " (" + new DecimalFormat().format(branchCosts.get(branch) / 1000) + "μs)";
+    }
+    return result;
+  }
+
   private String head(int depth, int indent, int nItems) {
     String ind = OExecutionStepInternal.getIndent(depth, indent);
-    return ind + "+ PARALLEL";
+    String result = ind + "+ PARALLEL";
+    if (profilingEnabled) {
+      result += " (" + getCostFormatted() + ")";
+    }
+    return result;
   }
 
   private String foot(int[] blockSizes) {
@@ -221,4 +611,17 @@ public class ParallelExecStep extends AbstractExecutionStep {
     return new ParallelExecStep(subExecutionPlans.stream().map(x -> x.copy(ctx)).collect(Collectors.toList()), ctx,
         profilingEnabled);
   }
+
+  private static final class ParallelQueryThreadFactory implements ThreadFactory {
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r);
+      thread.setDaemon(true);
+      thread.setName("OrientDB Parallel Query Worker " + counter.incrementAndGet());
+      thread.setUncaughtExceptionHandler(new OUncaughtExceptionHandler());
+      return thread;
+    }
+  }
 }
@@ -87,7 +87,8 @@ public class ODropPropertyStatement extends ODDLStatement {
   private List<OIndex<?>> relatedIndexes(final String fieldName, ODatabase database) {
     final List<OIndex<?>> result = new ArrayList<OIndex<?>>();
     for (final OIndex<?> oIndex : database.getMetadata().getIndexManager().getClassIndexes(className.getStringValue())) {
-      if (OCollections.indexOf(oIndex.getDefinition().getFields(), fieldName, new OCaseInsentiveComparator()) > -1) {
+      if (OCollections.indexOf(oIndex.getDefinition().getFields(), fieldName, new OCaseInsentiveComparator()) > -1
+          || OCollections.indexOf(oIndex.getDefinition().getIncludedFields(), fieldName, new OCaseInsentiveComparator()) > -1) {
         result.add(oIndex);
       }
     }
@@ -4,9 +4,13 @@ import com.orientechnologies.common.concur.lock.OInterruptedException;
 import com.orientechnologies.common.directmemory.OByteBufferPool;
 import com.orientechnologies.common.directmemory.OPointer;
 import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
 import com.orientechnologies.common.types.OModifiableBoolean;
 import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.common.util.OUncaughtExceptionHandler;
 import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.storage.OStorageAbstract;
 import com.orientechnologies.orient.core.storage.cache.OAbstractWriteCache;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntryImpl;
@@ -22,8 +26,13 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
@@ -39,11 +48,37 @@ import java.util.concurrent.locks.ReentrantLock;
  * which cause loading of additional pages from write cache to disk cache.
  * Window TinyLFU policy is used as cache eviction policy because it prevents usage of ghost entries and
  * as result considerably decrease usage of heap memory.
+ * <p>
+ * If sequential read of file is detected, next pages of the file are loaded in background by single vectored read, so they are
+ * already in cache when they are requested.
  */
 public final class AsyncReadCache implements OReadCache {
   private static final int NCPU                   = Runtime.getRuntime().availableProcessors();
   private static final int WRITE_BUFFER_MAX_BATCH = 128 * ceilingPowerOfTwo(NCPU);
 
+  /**
+   * Amount of consequent reads of next page of file after which read ahead is started.
+   */
+  private static final int SEQUENTIAL_READS_THRESHOLD = 2;
+
+  private static final int  READ_AHEAD_STRIPES     = 1024;
+  private static final int  READ_AHEAD_BLOCK_BITS  = 6;
+  private static final long STAMP_VERSION          = 1L << 20;
+  private static final long STAMP_IN_PROGRESS_MASK = STAMP_VERSION - 1;
+
+  /**
+   * Executor which loads pages in background when sequential read of file is detected. Read ahead is only an optimization, so
+   * tasks which do not fit into the queue are dropped.
+   */
+  private static final OThreadPoolExecutorWithLogging readAheadExecutor;
+
+  static {
+    final int readAheadThreads = Math.min(4, NCPU);
+    readAheadExecutor = new OThreadPoolExecutorWithLogging(readAheadThreads, readAheadThreads, 60L, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(16 * readAheadThreads), new ReadAheadThreadFactory(), new ThreadPoolExecutor.DiscardPolicy());
+    readAheadExecutor.allowCoreThreadTimeOut(true);
+  }
+
   private final ConcurrentHashMap<PageKey, OCacheEntry> data;
   private final Lock                                    evictionLock = new ReentrantLock();
 
@@ -59,6 +94,8 @@ public final class AsyncReadCache implements OReadCache {
   private final LongAdder requests = new LongAdder();
   private final LongAdder hits     = new LongAdder();
 
+  private final LongAdder pagesReadAhead = new LongAdder();
+
   /**
    * Status which indicates whether flush of buffers should be performed or may be delayed.
    */
@@ -68,12 +105,37 @@ public final class AsyncReadCache implements OReadCache {
 
   private final OByteBufferPool bufferPool;
 
+  /**
+   * Amount of pages loaded by single read ahead, or <code>0</code> if read ahead is switched off.
+   */
+  private final int readAheadPages;
+
+  private final ConcurrentHashMap<Long, ReadAheadState> readAheadStates = new ConcurrentHashMap<>();
+
+  /**
+   * Pages which are read ahead are loaded without holding of any lock, so before they are added to the cache we check that they
+   * were not changed, allocated, truncated or removed since the start of the read. Every stripe contains amount of such
+   * operations which are in progress in low bits and amount of all started operations in high bits. File operations use stripe
+   * of the file, changes of pages use stripe of the block of pages.
+   */
+  private final AtomicLongArray readAheadStamps = new AtomicLongArray(READ_AHEAD_STRIPES);
+
   public AsyncReadCache(final OByteBufferPool bufferPool, final long maxCacheSizeInBytes, final int pageSize,
       final boolean trackHitRate) {
+    this(bufferPool, maxCacheSizeInBytes, pageSize, trackHitRate, 0);
+  }
+
+  /**
+   * @param readAheadPages amount of pages which are loaded in background when sequential read of file is detected, values less than
+   *                       <code>2</code> switch read ahead off
+   */
+  public AsyncReadCache(final OByteBufferPool bufferPool, final long maxCacheSizeInBytes, final int pageSize,
+      final boolean trackHitRate, final int readAheadPages) {
     evictionLock.lock();
     try {
       this.pageSize = pageSize;
       this.bufferPool = bufferPool;
+      this.readAheadPages = readAheadPages > 1 ? readAheadPages : 0;
 
       this.trackHitRate = trackHitRate;
       this.maxCacheSize = (int) (maxCacheSizeInBytes / pageSize);
@@ -112,9 +174,141 @@ public final class AsyncReadCache implements OReadCache {
   @Override
   public final OCacheEntry loadForRead(final long fileId, final long pageIndex, final boolean checkPinnedPages,
       final OWriteCache writeCache, final int pageCount, final boolean verifyChecksums) {
+    if (readAheadPages > 0) {
+      readAheadIfSequential(OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId), (int) pageIndex, writeCache,
+          verifyChecksums);
+    }
+
     return doLoad(fileId, (int) pageIndex, writeCache, verifyChecksums);
   }
 
+  /**
+   * Tracks which page of the file was read last and schedules load of next {@link #readAheadPages} pages if file is read
+   * sequentially. Next read ahead is scheduled when half of the pages which were read ahead is consumed, so reader does not wait
+   * for them. State is updated without synchronization, because in the worst case read ahead is skipped or done twice.
+   */
+  private void readAheadIfSequential(final long fileId, final int pageIndex, final OWriteCache writeCache,
+      final boolean verifyChecksums) {
+    ReadAheadState state = readAheadStates.get(fileId);
+    if (state == null) {
+      state = new ReadAheadState();
+      final ReadAheadState oldState = readAheadStates.putIfAbsent(fileId, state);
+      if (oldState != null) {
+        state = oldState;
+      }
+    }
+
+    final int lastPage = state.lastPage;
+    if (pageIndex == lastPage) {
+      return;
+    }
+
+    state.lastPage = pageIndex;
+    if (pageIndex != lastPage + 1) {
+      state.sequentialReads = 0;
+      state.readAheadTill = 0;
+      return;
+    }
+
+    if (++state.sequentialReads < SEQUENTIAL_READS_THRESHOLD || pageIndex + readAheadPages / 2 < state.readAheadTill) {
+      return;
+    }
+
+    final int startPage = Math.max(pageIndex + 1, state.readAheadTill);
+    state.readAheadTill = startPage + readAheadPages;
+
+    readAheadExecutor.execute(() -> readAhead(fileId, startPage, writeCache, verifyChecksums));
+  }
+
+  private void readAhead(final long fileId, final int startPage, final OWriteCache writeCache, final boolean verifyChecksums) {
+    final int endPage = startPage + readAheadPages;
+
+    int firstPage = startPage;
+    while (firstPage < endPage && data.containsKey(new PageKey(fileId, firstPage))) {
+      firstPage++;
+    }
+
+    if (firstPage == endPage) {
+      return;
+    }
+
+    final int fileStripe = fileStripe(fileId);
+    final long fileStamp = readAheadStamps.get(fileStripe);
+    final long[] blockStamps = new long[endPage - firstPage];
+
+    if ((fileStamp & STAMP_IN_PROGRESS_MASK) != 0) {
+      return;
+    }
+
+    for (int i = 0; i < blockStamps.length; i++) {
+      blockStamps[i] = readAheadStamps.get(blockStripe(fileId, firstPage + i));
+      if ((blockStamps[i] & STAMP_IN_PROGRESS_MASK) != 0) {
+        return;
+      }
+    }
+
+    final OCachePointer[] pointers;
+    try {
+      pointers = writeCache.load(fileId, firstPage, blockStamps.length, new OModifiableBoolean(), verifyChecksums);
+    } catch (final IOException | RuntimeException e) {
+      //file may be closed or deleted after read ahead was scheduled, page will be loaded by reader itself
+      OLogManager.instance().debug(this, "Error during read ahead of pages of file %d", e, fileId);
+      return;
+    }
+
+    int processed = 0;
+    try {
+      for (final OCachePointer pointer : pointers) {
+        final int pageIndex = (int) pointer.getPageIndex();
+        final long blockStamp = blockStamps[pageIndex - firstPage];
+        final boolean[] added = new boolean[1];
+
+        processed++;
+        final OCacheEntry cacheEntry = data.compute(new PageKey(fileId, pageIndex), (page, entry) -> {
+          if (entry != null || readAheadStamps.get(fileStripe) != fileStamp
+              || readAheadStamps.get(blockStripe(fileId, pageIndex)) != blockStamp) {
+            return entry;
+          }
+
+          cacheSize.incrementAndGet();
+          added[0] = true;
+          return new OCacheEntryImpl(fileId, pageIndex, pointer);
+        });
+
+        if (added[0]) {
+          pagesReadAhead.increment();
+          afterAdd(cacheEntry);
+        } else {
+          pointer.decrementReadersReferrer();
+        }
+      }
+    } finally {
+      for (int i = processed; i < pointers.length; i++) {
+        pointers[i].decrementReadersReferrer();
+      }
+    }
+  }
+
+  private void startFileOperation(final long fileId) {
+    readAheadStamps.addAndGet(fileStripe(fileId), STAMP_VERSION + 1);
+  }
+
+  private void endFileOperation(final long fileId) {
+    readAheadStamps.decrementAndGet(fileStripe(fileId));
+  }
+
+  private static int fileStripe(final long fileId) {
+    return stripe(fileId);
+  }
+
+  private static int blockStripe(final long fileId, final int pageIndex) {
+    return stripe(fileId * 31 + (pageIndex >>> READ_AHEAD_BLOCK_BITS));
+  }
+
+  private static int stripe(final long value) {
+    return (int) ((value * 0x9E3779B97F4A7C15L) >>> 32) & (READ_AHEAD_STRIPES - 1);
+  }
+
   private OCacheEntry doLoad(final long extFileId, final int pageIndex, final OWriteCache writeCache,
       final boolean verifyChecksums) {
     final long fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), extFileId);
@@ -233,6 +427,7 @@ public final class AsyncReadCache implements OReadCache {
 
     final PageKey pageKey = new PageKey(cacheEntry.getFileId(), (int) cacheEntry.getPageIndex());
     data.compute(pageKey, (page, entry) -> {
+      readAheadStamps.addAndGet(blockStripe(page.getFileId(), page.getPageIndex()), STAMP_VERSION);
       writeCache.store(cacheEntry.getFileId(), cacheEntry.getPageIndex(), cacheEntry.getCachePointer());
       return entry;//may be absent if page in pinned pages, in such case we use map as virtual lock
     });
@@ -263,8 +458,15 @@ public final class AsyncReadCache implements OReadCache {
   public final OCacheEntry allocateNewPage(long fileId, final OWriteCache writeCache, final OLogSequenceNumber startLSN)
       throws IOException {
     fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
-    final int newPageIndex = writeCache.allocateNewPage(fileId);
-    final OCacheEntry cacheEntry = addNewPagePointerToTheCache(fileId, newPageIndex);
+
+    final OCacheEntry cacheEntry;
+    startFileOperation(fileId);
+    try {
+      final int newPageIndex = writeCache.allocateNewPage(fileId);
+      cacheEntry = addNewPagePointerToTheCache(fileId, newPageIndex);
+    } finally {
+      endFileOperation(fileId);
+    }
 
     if (cacheEntry != null) {
       cacheEntry.acquireExclusiveLock();
@@ -388,6 +590,10 @@ public final class AsyncReadCache implements OReadCache {
   public final void clear() {
     evictionLock.lock();
     try {
+      for (int i = 0; i < READ_AHEAD_STRIPES; i++) {
+        readAheadStamps.addAndGet(i, STAMP_VERSION);
+      }
+
       emptyBuffers();
 
       for (final OCacheEntry entry : data.values()) {
@@ -401,6 +607,7 @@ public final class AsyncReadCache implements OReadCache {
 
       data.clear();
       cacheSize.set(0);
+      readAheadStates.clear();
     } finally {
       evictionLock.unlock();
     }
@@ -410,27 +617,42 @@ public final class AsyncReadCache implements OReadCache {
   public final void truncateFile(long fileId, final OWriteCache writeCache) throws IOException {
     fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
 
-    final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
-    writeCache.truncateFile(fileId);
+    startFileOperation(fileId);
+    try {
+      final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
+      writeCache.truncateFile(fileId);
 
-    clearFile(fileId, filledUpTo, writeCache);
+      clearFile(fileId, filledUpTo, writeCache);
+    } finally {
+      endFileOperation(fileId);
+    }
   }
 
   @Override
   public final void closeFile(long fileId, final boolean flush, final OWriteCache writeCache) {
     fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
-    final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
+    startFileOperation(fileId);
+    try {
+      final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
 
-    clearFile(fileId, filledUpTo, writeCache);
-    writeCache.close(fileId, flush);
+      clearFile(fileId, filledUpTo, writeCache);
+      writeCache.close(fileId, flush);
+    } finally {
+      endFileOperation(fileId);
+    }
   }
 
   public final void deleteFile(long fileId, final OWriteCache writeCache) throws IOException {
     fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
-    final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
+    startFileOperation(fileId);
+    try {
+      final int filledUpTo = (int) writeCache.getFilledUpTo(fileId);
 
-    clearFile(fileId, filledUpTo, writeCache);
-    writeCache.deleteFile(fileId);
+      clearFile(fileId, filledUpTo, writeCache);
+      writeCache.deleteFile(fileId);
+    } finally {
+      endFileOperation(fileId);
+    }
   }
 
   @Override
@@ -442,10 +664,19 @@ public final class AsyncReadCache implements OReadCache {
     }
 
     for (final ORawPair<Long, Integer> entry : filledUpTo) {
-      clearFile(entry.getFirst(), entry.getSecond(), writeCache);
+      startFileOperation(entry.getFirst());
     }
+    try {
+      for (final ORawPair<Long, Integer> entry : filledUpTo) {
+        clearFile(entry.getFirst(), entry.getSecond(), writeCache);
+      }
 
-    writeCache.delete();
+      writeCache.delete();
+    } finally {
+      for (final ORawPair<Long, Integer> entry : filledUpTo) {
+        endFileOperation(entry.getFirst());
+      }
+    }
   }
 
   @Override
@@ -457,10 +688,19 @@ public final class AsyncReadCache implements OReadCache {
     }
 
     for (final ORawPair<Long, Integer> entry : filledUpTo) {
-      clearFile(entry.getFirst(), entry.getSecond(), writeCache);
+      startFileOperation(entry.getFirst());
     }
+    try {
+      for (final ORawPair<Long, Integer> entry : filledUpTo) {
+        clearFile(entry.getFirst(), entry.getSecond(), writeCache);
+      }
 
-    writeCache.close();
+      writeCache.close();
+    } finally {
+      for (final ORawPair<Long, Integer> entry : filledUpTo) {
+        endFileOperation(entry.getFirst());
+      }
+    }
   }
 
   @Override
@@ -474,6 +714,8 @@ public final class AsyncReadCache implements OReadCache {
   }
 
   private void clearFile(final long fileId, final int filledUpTo, final OWriteCache writeCache) {
+    readAheadStates.remove(fileId);
+
     evictionLock.lock();
     try {
       emptyBuffers();
@@ -531,6 +773,10 @@ public final class AsyncReadCache implements OReadCache {
     return (int) ((hits.sum() * 100) / reqSum);
   }
 
+  long pagesReadAhead() {
+    return pagesReadAhead.sum();
+  }
+
   private enum DrainStatus {
     IDLE {
       @Override
@@ -552,6 +798,29 @@ public final class AsyncReadCache implements OReadCache {
     abstract boolean shouldBeDrained(boolean readBufferOverflow);
   }
 
+  /**
+   * Position of the last read of file, it is used to detect sequential reads.
+   */
+  private static final class ReadAheadState {
+    private int lastPage = -1;
+    private int sequentialReads;
+    private int readAheadTill;
+  }
+
+  private static final class ReadAheadThreadFactory implements ThreadFactory {
+    private ReadAheadThreadFactory() {
+    }
+
+    @Override
+    public final Thread newThread(final Runnable r) {
+      final Thread thread = new Thread(OStorageAbstract.storageThreadGroup, r);
+      thread.setDaemon(true);
+      thread.setName("OrientDB Read Cache Read Ahead Task");
+      thread.setUncaughtExceptionHandler(new OUncaughtExceptionHandler());
+      return thread;
+    }
+  }
+
   @SuppressWarnings("SameParameterValue")
   private static int ceilingPowerOfTwo(final int x) {
     // From Hacker's Delight, Chapter 3, Harry S. Warren Jr.
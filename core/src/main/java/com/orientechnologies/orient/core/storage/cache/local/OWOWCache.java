@@ -53,6 +53,8 @@ import com.orientechnologies.orient.core.storage.impl.local.OLowDiskSpaceListene
 import com.orientechnologies.orient.core.storage.impl.local.OPageIsBrokenListener;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
 
 import javax.crypto.*;
 import javax.crypto.spec.IvParameterSpec;
@@ -157,6 +159,25 @@ public final class OWOWCache extends OAbstractWriteCache implements OWriteCache,
 
   private static final int PAGE_OFFSET_TO_CHECKSUM_FROM = OLongSerializer.LONG_SIZE + OIntegerSerializer.INT_SIZE;
 
+  /**
+   * Marks pages which are stored compressed. Such pages contain length of compressed data after magic number followed by the LZ4
+   * compressed content of the page, including its own magic number and checksum.
+   *
+   * @see OGlobalConfiguration#STORAGE_PAGE_COMPRESSION
+   */
+  private static final long MAGIC_NUMBER_COMPRESSED = 0x4C5A34C0L;
+
+  private static final int COMPRESSED_LENGTH_OFFSET = MAGIC_NUMBER_OFFSET + OLongSerializer.LONG_SIZE;
+
+  private static final int COMPRESSED_DATA_OFFSET = COMPRESSED_LENGTH_OFFSET + OIntegerSerializer.INT_SIZE;
+
+  /**
+   * Compressed pages are written by blocks of this size, the rest of the page is deallocated on the disk.
+   */
+  private static final int COMPRESSED_PAGE_ALIGNMENT = 4 * 1024;
+
+  private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
   private static final int CHUNK_SIZE = 32 * 1024 * 1024;
 
   /**
@@ -396,6 +417,20 @@ public final class OWOWCache extends OAbstractWriteCache implements OWriteCache,
 
   private final boolean callFsync;
 
+  /**
+   * Whether data files should be accessed using direct IO API.
+   *
+   * @see OGlobalConfiguration#STORAGE_DIRECT_IO
+   */
+  private final boolean directIO;
+
+  /**
+   * Whether pages should be compressed before they are written to the disk.
+   *
+   * @see OGlobalConfiguration#STORAGE_PAGE_COMPRESSION
+   */
+  private final boolean pageCompression;
+
   private final boolean printCacheStatistics;
   private final int     statisticsPrintInterval;
 
@@ -425,6 +460,17 @@ public final class OWOWCache extends OAbstractWriteCache implements OWriteCache,
       final String storageName, final OBinarySerializer<String> stringSerializer,
       final OClosableLinkedContainer<Long, OFileClassic> files, final int id, final OChecksumMode checksumMode, byte[] iv,
       byte[] aesKey, final boolean callFsync, final boolean printCacheStatistics, final int statisticsPrintInterval) {
+    this(pageSize, bufferPool, writeAheadLog, pagesFlushInterval, shutdownTimeout, exclusiveWriteCacheMaxSize, storagePath,
+        storageName, stringSerializer, files, id, checksumMode, iv, aesKey, callFsync, printCacheStatistics, statisticsPrintInterval,
+        false, false);
+  }
+
+  public OWOWCache(final int pageSize, final OByteBufferPool bufferPool, final OWriteAheadLog writeAheadLog,
+      final long pagesFlushInterval, final int shutdownTimeout, final long exclusiveWriteCacheMaxSize, final Path storagePath,
+      final String storageName, final OBinarySerializer<String> stringSerializer,
+      final OClosableLinkedContainer<Long, OFileClassic> files, final int id, final OChecksumMode checksumMode, byte[] iv,
+      byte[] aesKey, final boolean callFsync, final boolean printCacheStatistics, final int statisticsPrintInterval,
+      final boolean directIO, final boolean pageCompression) {
 
     if (aesKey != null && aesKey.length != 16 && aesKey.length != 24 && aesKey.length != 32) {
       throw new OInvalidStorageEncryptionKeyException("Invalid length of the encryption key, provided size is " + aesKey.length);
@@ -439,6 +485,9 @@ public final class OWOWCache extends OAbstractWriteCache implements OWriteCache,
     this.iv = iv;
     this.aesKey = aesKey;
     this.callFsync = callFsync;
+    this.directIO = directIO;
+    //encrypted data can not be compressed
+    this.pageCompression = pageCompression && aesKey == null;
 
     this.printCacheStatistics = printCacheStatistics;
     this.statisticsPrintInterval = statisticsPrintInterval;
@@ -1576,17 +1625,29 @@ public final class OWOWCache extends OAbstractWriteCache implements OWriteCache,
         boolean magicNumberIncorrect = false;
 
         final byte[] data = new byte[pageSize];
+        final boolean decompressed;
 
         final OPointer pointer = bufferPool.acquireDirect(true);
         try {
           final ByteBuffer byteBuffer = pointer.getNativeByteBuffer();
           fileClassic.read(pos, byteBuffer, true);
+          decompressed = decompressPage(byteBuffer);
           byteBuffer.rewind();
           byteBuffer.get(data);
         } finally {
           bufferPool.release(pointer);
         }
 
+        if (!decompressed) {
+          if (commandOutputListener != null) {
+            commandOutputListener
+                .onMessage("Error: Page " + (pos / pageSize) + " in file '" + fileName + "' can not be decompressed!\n");
+          }
+          fileIsCorrect = false;
+          errors.add(new OPageDataVerificationError(true, false, pos / pageSize, fileName));
+          continue;
+        }
+
         final long magicNumber = OLongSerializer.INSTANCE.deserializeNative(data, MAGIC_NUMBER_OFFSET);
 
         if (magicNumber != MAGIC_NUMBER_WITH_CHECKSUM && magicNumber != MAGIC_NUMBER_WITHOUT_CHECKSUM
@@ -1818,7 +1879,7 @@ public final class OWOWCache extends OAbstractWriteCache implements OWriteCache,
 
   private OFileClassic createFileInstance(final String fileName, final int fileId) {
     final String internalFileName = createInternalFileName(fileName, fileId);
-    return new OFileClassic(storagePath.resolve(internalFileName));
+    return new OFileClassic(storagePath.resolve(internalFileName), directIO);
   }
 
   private static String createInternalFileName(final String fileName, final int fileId) {
@@ -1887,7 +1948,7 @@ public final class OWOWCache extends OAbstractWriteCache implements OWriteCache,
 
         if (files.get(externalId) == null) {
           final Path path = storagePath.resolve(idFileNameMap.get((nameIdEntry.getValue())));
-          final OFileClassic fileClassic = new OFileClassic(path);
+          final OFileClassic fileClassic = new OFileClassic(path, directIO);
 
           if (fileClassic.exists()) {
             fileClassic.open();
@@ -1959,7 +2020,7 @@ public final class OWOWCache extends OAbstractWriteCache implements OWriteCache,
         final long externalId = composeFileId(id, nameIdEntry.getValue());
 
         if (files.get(externalId) == null) {
-          final OFileClassic fileClassic = new OFileClassic(storagePath.resolve(nameIdEntry.getKey()));
+          final OFileClassic fileClassic = new OFileClassic(storagePath.resolve(nameIdEntry.getKey()), directIO);
 
           if (fileClassic.exists()) {
             fileClassic.open();
@@ -2161,6 +2222,10 @@ public final class OWOWCache extends OAbstractWriteCache implements OWriteCache,
               final ByteBuffer buffer = pointer.getNativeByteBuffer();
               assert buffer.position() == 0;
               fileClassic.read(firstPageStartPosition, buffer, false);
+              if (!decompressPage(buffer)) {
+                bufferPool.release(pointer);
+                throw pageCanNotBeDecompressed(fileId, startPageIndex);
+              }
 
               if (verifyChecksums && (checksumMode == OChecksumMode.StoreAndVerify || checksumMode == OChecksumMode.StoreAndThrow
                   || checksumMode == OChecksumMode.StoreAndSwitchReadOnlyMode)) {
@@ -2186,6 +2251,14 @@ public final class OWOWCache extends OAbstractWriteCache implements OWriteCache,
             }
 
             fileClassic.read(firstPageStartPosition, buffers, false);
+            for (int i = 0; i < buffers.length; i++) {
+              if (!decompressPage(buffers[i])) {
+                for (final OPointer pointer : pointers) {
+                  bufferPool.release(pointer);
+                }
+                throw pageCanNotBeDecompressed(fileId, startPageIndex + i);
+              }
+            }
 
             if (verifyChecksums && (checksumMode == OChecksumMode.StoreAndVerify || checksumMode == OChecksumMode.StoreAndThrow
                 || checksumMode == OChecksumMode.StoreAndSwitchReadOnlyMode)) {
@@ -2254,6 +2327,112 @@ public final class OWOWCache extends OAbstractWriteCache implements OWriteCache,
     }
   }
 
+  private void writePage(final OFileClassic file, final long pageIndex, final ByteBuffer buffer) throws IOException {
+    final int length = compressPage(buffer);
+
+    buffer.position(0);
+    buffer.limit(length);
+    try {
+      file.write(pageIndex * pageSize, buffer);
+    } finally {
+      buffer.limit(buffer.capacity());
+    }
+
+    if (length < pageSize) {
+      file.punchHole(pageIndex * pageSize + length, pageSize - length);
+    }
+  }
+
+  /**
+   * Compresses page in place if compression is enabled and saves at least single disk block.
+   *
+   * @return Amount of bytes of the page which should be written to the disk.
+   */
+  private int compressPage(final ByteBuffer buffer) {
+    final int maxCompressedLength = pageSize - COMPRESSED_PAGE_ALIGNMENT - COMPRESSED_DATA_OFFSET;
+    if (!pageCompression || maxCompressedLength <= 0) {
+      return pageSize;
+    }
+
+    final OPointer pointer = bufferPool.acquireDirect(false);
+    try {
+      final ByteBuffer compressed = pointer.getNativeByteBuffer();
+
+      final int compressedLength;
+      try {
+        compressedLength = LZ4_FACTORY.fastCompressor().compress(buffer, 0, pageSize, compressed, 0, maxCompressedLength);
+      } catch (final LZ4Exception e) {
+        //page is not compressed enough to save any space
+        return pageSize;
+      }
+
+      buffer.putLong(MAGIC_NUMBER_OFFSET, MAGIC_NUMBER_COMPRESSED);
+      buffer.putInt(COMPRESSED_LENGTH_OFFSET, compressedLength);
+
+      compressed.position(0);
+      compressed.limit(compressedLength);
+      buffer.position(COMPRESSED_DATA_OFFSET);
+      buffer.put(compressed);
+      compressed.limit(compressed.capacity());
+
+      final int length = COMPRESSED_DATA_OFFSET + compressedLength;
+      return (length + COMPRESSED_PAGE_ALIGNMENT - 1) / COMPRESSED_PAGE_ALIGNMENT * COMPRESSED_PAGE_ALIGNMENT;
+    } finally {
+      bufferPool.release(pointer);
+    }
+  }
+
+  /**
+   * Restores content of the page if it was compressed before it was written to the disk. Pages are decompressed independently of
+   * the current compression settings, so compression may be switched on and off for existing databases.
+   *
+   * @return <code>false</code> if the page is compressed but it can not be decompressed, content of the buffer is undefined then
+   */
+  private boolean decompressPage(final ByteBuffer buffer) {
+    assert buffer.order() == ByteOrder.nativeOrder();
+
+    if (buffer.getLong(MAGIC_NUMBER_OFFSET) != MAGIC_NUMBER_COMPRESSED) {
+      return true;
+    }
+
+    final int compressedLength = buffer.getInt(COMPRESSED_LENGTH_OFFSET);
+    if (compressedLength > 0 && compressedLength <= pageSize - COMPRESSED_DATA_OFFSET) {
+      final OPointer pointer = bufferPool.acquireDirect(false);
+      try {
+        final ByteBuffer compressed = pointer.getNativeByteBuffer();
+
+        buffer.position(COMPRESSED_DATA_OFFSET);
+        buffer.limit(COMPRESSED_DATA_OFFSET + compressedLength);
+        compressed.position(0);
+        compressed.put(buffer);
+        buffer.limit(buffer.capacity());
+
+        if (LZ4_FACTORY.safeDecompressor().decompress(compressed, 0, compressedLength, buffer, 0, pageSize) == pageSize) {
+          return true;
+        }
+      } catch (final LZ4Exception e) {
+        //broken page is reported by the caller
+      } finally {
+        buffer.limit(buffer.capacity());
+        bufferPool.release(pointer);
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Content of the page which can not be decompressed is lost, so the page is reported as broken and it is never returned to the
+   * caller, whatever the checksum mode is.
+   */
+  private OStorageException pageCanNotBeDecompressed(final long fileId, final long pageIndex) {
+    final String message = "Compressed page `" + pageIndex + "` of `" + fileNameById(fileId) + "` can not be decompressed.";
+    dumpStackTrace(message);
+    callPageIsBrokenListeners(fileNameById(fileId), pageIndex);
+
+    return new OStorageException(message);
+  }
+
   private void doEncryptionDecryption(final int intId, final int pageIndex, final int mode, final ByteBuffer buffer,
       final long updateCounter) {
     try {
@@ -2414,8 +2593,7 @@ public final class OWOWCache extends OAbstractWriteCache implements OWriteCache,
       final OFileClassic fileClassic = entry.get();
 
       addMagicChecksumAndEncryption(fileId, (int) pageIndex, buffer);
-      buffer.position(0);
-      fileClassic.write(pageIndex * pageSize, buffer);
+      writePage(fileClassic, pageIndex, buffer);
     } finally {
       files.release(entry);
     }
@@ -3153,7 +3331,14 @@ public final class OWOWCache extends OAbstractWriteCache implements OWriteCache,
     final OClosableEntry<Long, OFileClassic> fileEntry = files.acquire(firstFileId);
     try {
       final OFileClassic file = fileEntry.get();
-      file.write(firstPageIndex * pageSize, buffers);
+      if (pageCompression) {
+        //compressed pages have different sizes so they can not be written by single call
+        for (int i = 0; i < buffers.length; i++) {
+          writePage(file, firstPageIndex + i, buffers[i]);
+        }
+      } else {
+        file.write(firstPageIndex * pageSize, buffers);
+      }
     } finally {
       files.release(fileEntry);
     }
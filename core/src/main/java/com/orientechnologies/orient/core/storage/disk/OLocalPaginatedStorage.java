@@ -91,6 +91,11 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
       OClusterBasedStorageConfiguration.TREE_NULL_FILE_EXTENSION, OCellBTreeMultiValueIndexEngine.DATA_FILE_EXTENSION,
       OCellBTreeMultiValueIndexEngine.M_CONTAINER_EXTENSION };
 
+  /**
+   * Name of the backup option which overrides {@link OGlobalConfiguration#STORAGE_BACKUP_FUZZY}
+   */
+  public static final String BACKUP_OPTION_FUZZY = "fuzzy";
+
   private static final int ONE_KB = 1024;
 
   private static final OThreadPoolExecutorWithLogging segmentAdderExecutor;
@@ -212,6 +217,15 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
       if (out == null)
         throw new IllegalArgumentException("Backup output is null");
 
+      if (writeAheadLog != null && isFuzzyBackupRequested(options)) {
+        final OutputStream bo = bufferSize > 0 ? new BufferedOutputStream(out, bufferSize) : out;
+        try {
+          return fuzzyBackup(bo, callable, iOutput, compressionLevel);
+        } finally {
+          bo.close();
+        }
+      }
+
       freeze(false);
       try {
         if (callable != null)
@@ -266,27 +280,29 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
   @Override
   public final void restore(final InputStream in, final Map<String, Object> options, final Callable<Object> callable,
       final OCommandOutputListener iListener) {
+    restore(in, options, callable, iListener,
+        configuration != null ? configuration.getContextConfiguration() : new OContextConfiguration());
+  }
+
+  /**
+   * Restores the backup and opens the storage with the passed in context configuration if it is closed.
+   */
+  public final void restore(final InputStream in, final Map<String, Object> options, final Callable<Object> callable,
+      final OCommandOutputListener iListener, final OContextConfiguration contextConfiguration) {
     try {
+      final BufferedInputStream bin = new BufferedInputStream(in);
+      if (isFuzzyBackup(bin)) {
+        restoreFuzzyBackup(bin, callable, contextConfiguration);
+        return;
+      }
+
       if (!isClosed())
         close(true, false);
       try {
         stateLock.acquireWriteLock();
-        final File dbDir = new File(OIOUtils.getPathFromDatabaseName(OSystemVariableResolver.resolveSystemVariables(url)));
-        final File[] storageFiles = dbDir.listFiles();
-        if (storageFiles != null) {
-          // TRY TO DELETE ALL THE FILES
-          for (final File f : storageFiles) {
-            // DELETE ONLY THE SUPPORTED FILES
-            for (final String ext : ALL_FILE_EXTENSIONS)
-              if (f.getPath().endsWith(ext)) {
-                //noinspection ResultOfMethodCallIgnored
-                f.delete();
-                break;
-              }
-          }
-        }
+        deleteStorageFiles();
 
-        OZIPCompressionUtil.uncompressDirectory(in, storagePath.toString(), iListener);
+        OZIPCompressionUtil.uncompressDirectory(bin, storagePath.toString(), iListener);
 
         final Path cacheStateFile = storagePath.resolve(O2QCache.CACHE_STATE_FILE);
         if (Files.exists(cacheStateFile)) {
@@ -316,7 +332,7 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
         stateLock.releaseWriteLock();
       }
 
-      open(null, null, new OContextConfiguration());
+      open(null, null, contextConfiguration);
     } catch (final RuntimeException e) {
       throw logAndPrepareForRethrow(e);
     } catch (final Error e) {
@@ -326,6 +342,61 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
     }
   }
 
+  private static boolean isFuzzyBackupRequested(final Map<String, Object> options) {
+    if (options != null) {
+      final Object fuzzy = options.get(BACKUP_OPTION_FUZZY);
+      if (fuzzy != null) {
+        return Boolean.parseBoolean(fuzzy.toString());
+      }
+    }
+
+    return OGlobalConfiguration.STORAGE_BACKUP_FUZZY.getValueAsBoolean();
+  }
+
+  /**
+   * Restores backup created by {@link #fuzzyBackup(OutputStream, Callable, OCommandOutputListener, int)}. Pages are restored
+   * through the disk cache, so closed storage is created first.
+   */
+  private void restoreFuzzyBackup(final InputStream in, final Callable<Object> callable,
+      final OContextConfiguration contextConfiguration) {
+    if (isClosed()) {
+      stateLock.acquireWriteLock();
+      try {
+        deleteStorageFiles();
+      } finally {
+        stateLock.releaseWriteLock();
+      }
+
+      create(contextConfiguration);
+    }
+
+    restoreFullIncrementalBackup(in);
+
+    if (callable != null)
+      try {
+        callable.call();
+      } catch (final Exception e) {
+        OLogManager.instance().error(this, "Error on calling callback on database restore", e);
+      }
+  }
+
+  private void deleteStorageFiles() {
+    final File dbDir = new File(OIOUtils.getPathFromDatabaseName(OSystemVariableResolver.resolveSystemVariables(url)));
+    final File[] storageFiles = dbDir.listFiles();
+    if (storageFiles != null) {
+      // TRY TO DELETE ALL THE FILES
+      for (final File f : storageFiles) {
+        // DELETE ONLY THE SUPPORTED FILES
+        for (final String ext : ALL_FILE_EXTENSIONS)
+          if (f.getPath().endsWith(ext)) {
+            //noinspection ResultOfMethodCallIgnored
+            f.delete();
+            break;
+          }
+      }
+    }
+  }
+
   @Override
   protected OLogSequenceNumber copyWALToIncrementalBackup(final ZipOutputStream zipOutputStream, final long startSegment)
       throws IOException {
@@ -559,6 +630,11 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
     return true;
   }
 
+  @Override
+  public boolean supportIncremental() {
+    return writeAheadLog != null;
+  }
+
   @Override
   protected void initIv() throws IOException {
     try (final RandomAccessFile ivFile = new RandomAccessFile(storagePath.resolve(IV_NAME).toAbsolutePath().toFile(), "rw")) {
@@ -639,7 +715,9 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
           contextConfiguration.getValueAsBoolean(OGlobalConfiguration.WAL_ALLOW_DIRECT_IO),
           contextConfiguration.getValueAsBoolean(OGlobalConfiguration.STORAGE_CALL_FSYNC),
           contextConfiguration.getValueAsBoolean(OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_STATISTICS),
-          contextConfiguration.getValueAsInteger(OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_INTERVAL));
+          contextConfiguration.getValueAsInteger(OGlobalConfiguration.STORAGE_PRINT_WAL_PERFORMANCE_INTERVAL),
+          contextConfiguration.getValueAsBoolean(OGlobalConfiguration.WAL_GROUP_COMMIT),
+          contextConfiguration.getValueAsInteger(OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_LATENCY));
 
       diskWriteAheadLog.addLowDiskSpaceListener(this);
       writeAheadLog = diskWriteAheadLog;
@@ -679,7 +757,8 @@ public class OLocalPaginatedStorage extends OAbstractPaginatedStorage {
         OStringSerializer.INSTANCE, files, getId(),
         contextConfiguration.getValueAsEnum(OGlobalConfiguration.STORAGE_CHECKSUM_MODE, OChecksumMode.class), iv, aesKey,
         contextConfiguration.getValueAsBoolean(OGlobalConfiguration.STORAGE_CALL_FSYNC), printCacheStatistics,
-        statisticsPrintInterval);
+        statisticsPrintInterval, contextConfiguration.getValueAsBoolean(OGlobalConfiguration.STORAGE_DIRECT_IO),
+        contextConfiguration.getValueAsBoolean(OGlobalConfiguration.STORAGE_PAGE_COMPRESSION));
 
     wowCache.addLowDiskSpaceListener(this);
     wowCache.loadRegisteredFiles();
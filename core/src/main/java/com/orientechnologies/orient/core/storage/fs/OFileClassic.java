@@ -20,6 +20,8 @@
 package com.orientechnologies.orient.core.storage.fs;
 
 import com.orientechnologies.common.collection.closabledictionary.OClosableItem;
+import com.orientechnologies.common.directmemory.ODirectMemoryAllocator;
+import com.orientechnologies.common.directmemory.OPointer;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OIOException;
 import com.orientechnologies.common.io.OIOUtils;
@@ -32,6 +34,7 @@ import com.sun.jna.Native;
 import com.sun.jna.Platform;
 import com.sun.jna.Pointer;
 
+import java.io.EOFException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -77,6 +80,28 @@ public final class OFileClassic implements OClosableItem {
   private AllocationMode allocationMode;
   private int            fd;
 
+  /**
+   * Whether file system supports deallocation of file regions.
+   *
+   * @see #punchHole(long, int)
+   */
+  private boolean holePunchingSupported = true;
+
+  /**
+   * Whether pages of the file should be read and written using direct IO API (Linux only).
+   */
+  private final boolean directIO;
+
+  /**
+   * Descriptor of the file opened in direct IO mode, or 0 if direct IO is not used.
+   */
+  private int directFd;
+
+  /**
+   * Size of the block to which offsets, lengths and memory addresses should be aligned in direct IO mode.
+   */
+  private int directIOBlockSize;
+
   /**
    * Map which calculates which files are opened and how many users they have
    */
@@ -93,7 +118,19 @@ public final class OFileClassic implements OClosableItem {
   private final boolean trackFileOpen = OGlobalConfiguration.STORAGE_TRACK_FILE_ACCESS.getValueAsBoolean();
 
   public OFileClassic(final Path osFile) {
+    this(osFile, false);
+  }
+
+  /**
+   * @param osFile   Path to the file
+   * @param directIO Whether pages of the file should bypass OS page cache. Used only on Linux, if file system does not support
+   *                 direct IO, buffered IO is used instead.
+   *
+   * @see OGlobalConfiguration#STORAGE_DIRECT_IO
+   */
+  public OFileClassic(final Path osFile, final boolean directIO) {
     this.osFile = osFile;
+    this.directIO = directIO;
   }
 
   public long allocateSpace(final int size) throws IOException {
@@ -191,6 +228,46 @@ public final class OFileClassic implements OClosableItem {
     return size;
   }
 
+  /**
+   * Deallocates disk space occupied by the given region of the file, the region is read back as zeros and the size of the file is
+   * not changed. Works only on Linux file systems which support hole punching, otherwise call is ignored.
+   *
+   * @param offset Offset of the region from the start of the data part of the file
+   * @param length Length of the region
+   */
+  public void punchHole(final long offset, final int length) {
+    acquireWriteLock();
+    try {
+      if (allocationMode != AllocationMode.DESCRIPTOR || !holePunchingSupported) {
+        return;
+      }
+
+      assert fd > 0;
+      try {
+        ONative.instance().fallocate(fd, ONative.FALLOC_FL_PUNCH_HOLE | ONative.FALLOC_FL_KEEP_SIZE, offset + HEADER_SIZE, length);
+      } catch (final LastErrorException e) {
+        OLogManager.instance()
+            .debug(this, "Can not punch hole (error %d) in file %s, disk space will not be deallocated", e.getErrorCode(),
+                osFile.toAbsolutePath().toString());
+        holePunchingSupported = false;
+      }
+    } finally {
+      releaseWriteLock();
+    }
+  }
+
+  /**
+   * @return <code>true</code> if pages of the file are read and written using direct IO API.
+   */
+  boolean isDirectIOUsed() {
+    acquireReadLock();
+    try {
+      return directFd > 0;
+    } finally {
+      releaseReadLock();
+    }
+  }
+
   public void read(long offset, final byte[] iData, final int iLength, final int iArrayOffset) throws IOException {
     int attempts = 0;
 
@@ -223,7 +300,7 @@ public final class OFileClassic implements OClosableItem {
         acquireReadLock();
         try {
           offset = checkRegions(offset, buffer.limit());
-          readByteBuffer(buffer, channel, offset, throwOnEof);
+          readBuffer(buffer, offset, throwOnEof);
 
           break;
 
@@ -243,17 +320,33 @@ public final class OFileClassic implements OClosableItem {
 
     while (true) {
       try {
-        acquireWriteLock();
+        if (directIO) {
+          acquireReadLock();
+        } else {
+          acquireWriteLock();
+        }
         try {
           offset += HEADER_SIZE;
 
-          //noinspection resource
-          channel.position(offset);
-          readByteBuffers(buffers, channel, buffers.length * buffers[0].limit(), throwOnEof);
+          if (directIO) {
+            //positional reads do not change state of the file so read lock is enough
+            for (final ByteBuffer buffer : buffers) {
+              readBuffer(buffer, offset, throwOnEof);
+              offset += buffer.limit();
+            }
+          } else {
+            //noinspection resource
+            channel.position(offset);
+            readByteBuffers(buffers, channel, buffers.length * buffers[0].limit(), throwOnEof);
+          }
           break;
 
         } finally {
-          releaseWriteLock();
+          if (directIO) {
+            releaseReadLock();
+          } else {
+            releaseWriteLock();
+          }
           attempts++;
         }
       } catch (final IOException e) {
@@ -272,7 +365,7 @@ public final class OFileClassic implements OClosableItem {
         try {
           offset += HEADER_SIZE;
 
-          writeByteBuffer(buffer, channel, offset);
+          writeBuffer(buffer, offset);
           setDirty();
 
           break;
@@ -295,9 +388,17 @@ public final class OFileClassic implements OClosableItem {
         acquireWriteLock();
         try {
           offset += HEADER_SIZE;
-          //noinspection resource
-          channel.position(offset);
-          writeByteBuffers(buffers, channel, buffers.length * buffers[0].limit());
+
+          if (directFd > 0) {
+            for (final ByteBuffer buffer : buffers) {
+              writeBuffer(buffer, offset);
+              offset += buffer.limit();
+            }
+          } else {
+            //noinspection resource
+            channel.position(offset);
+            writeByteBuffers(buffers, channel, buffers.length * buffers[0].limit());
+          }
 
           setDirty();
 
@@ -532,6 +633,7 @@ public final class OFileClassic implements OClosableItem {
       version = OFileClassic.CURRENT_VERSION;
 
       initAllocationMode();
+      initDirectIO();
     } finally {
       releaseWriteLock();
     }
@@ -561,6 +663,73 @@ public final class OFileClassic implements OClosableItem {
     }
   }
 
+  private void initDirectIO() {
+    if (!directIO || directFd > 0) {
+      return;
+    }
+
+    if (!Platform.isLinux()) {
+      OLogManager.instance()
+          .debug(this, "Direct IO is supported only on Linux, buffered IO will be used for file %s", osFile.toAbsolutePath());
+      return;
+    }
+
+    final int directFd;
+    try {
+      directFd = ONative.instance().open(osFile.toAbsolutePath().toString(), ONative.O_RDWR | ONative.O_DIRECT);
+    } catch (final LastErrorException e) {
+      OLogManager.instance().warnNoDb(this,
+          "File %s can not be opened using direct IO (error code %d), buffered IO will be used", osFile.toAbsolutePath(),
+          e.getErrorCode());
+      return;
+    }
+
+    final int blockSize = detectDirectIOBlockSize(directFd);
+    if (blockSize < 0) {
+      OLogManager.instance().warnNoDb(this, "Alignment required by direct IO for file %s does not fit size of the file header, "
+          + "buffered IO will be used", osFile.toAbsolutePath());
+      try {
+        ONative.instance().close(directFd);
+      } catch (final LastErrorException e) {
+        OLogManager.instance()
+            .warnNoDb(this, "Can not close Linux descriptor of file %s, error %d", osFile.toAbsolutePath().toString(),
+                e.getErrorCode());
+      }
+
+      return;
+    }
+
+    this.directFd = directFd;
+    this.directIOBlockSize = blockSize;
+  }
+
+  /**
+   * Pages start right after the file header, so direct IO may be used only if its alignment divides size of the header. Instead
+   * of relying on file system block size, which is usually bigger than the real restriction, we try to read the tail of the
+   * header with the smallest alignment possible.
+   *
+   * @return Block size to align requests to, or -1 if direct IO can not be used for this file.
+   */
+  private int detectDirectIOBlockSize(final int directFd) {
+    final int pageSize = ONative.instance().getpagesize();
+    for (int blockSize = 512; blockSize <= HEADER_SIZE; blockSize <<= 1) {
+      final OPointer pointer = ODirectMemoryAllocator.instance().allocate(blockSize, pageSize);
+      try {
+        final long read = ONative.instance()
+            .pread(directFd, Native.getDirectBufferPointer(pointer.getNativeByteBuffer()), blockSize, HEADER_SIZE - blockSize);
+        if (read == blockSize) {
+          return blockSize;
+        }
+      } catch (final LastErrorException e) {
+        //alignment is not accepted, try bigger one
+      } finally {
+        ODirectMemoryAllocator.instance().deallocate(pointer);
+      }
+    }
+
+    return -1;
+  }
+
   /**
    * ALWAYS ADD THE HEADER SIZE BECAUSE ON THIS TYPE IS ALWAYS NEEDED
    */
@@ -589,7 +758,89 @@ public final class OFileClassic implements OClosableItem {
 
   private void writeBuffer(final ByteBuffer buffer, final long offset) throws IOException {
     buffer.rewind();
-    writeByteBuffer(buffer, channel, offset);
+
+    if (directFd > 0 && isDirectIOAligned(offset, buffer.limit())) {
+      if (buffer.isDirect() && Pointer.nativeValue(Native.getDirectBufferPointer(buffer)) % directIOBlockSize == 0) {
+        pwriteFully(Pointer.nativeValue(Native.getDirectBufferPointer(buffer)), buffer.limit(), offset);
+      } else {
+        final OPointer pointer = ODirectMemoryAllocator.instance().allocate(buffer.limit(), directIOBlockSize);
+        try {
+          final ByteBuffer alignedBuffer = pointer.getNativeByteBuffer();
+          alignedBuffer.position(0);
+          alignedBuffer.put(buffer);
+
+          pwriteFully(Pointer.nativeValue(Native.getDirectBufferPointer(alignedBuffer)), alignedBuffer.limit(), offset);
+        } finally {
+          ODirectMemoryAllocator.instance().deallocate(pointer);
+        }
+      }
+
+      buffer.position(buffer.limit());
+    } else {
+      writeByteBuffer(buffer, channel, offset);
+    }
+  }
+
+  private void readBuffer(final ByteBuffer buffer, final long offset, final boolean throwOnEof) throws IOException {
+    if (directFd > 0 && isDirectIOAligned(offset, buffer.limit())) {
+      if (buffer.isDirect() && Pointer.nativeValue(Native.getDirectBufferPointer(buffer)) % directIOBlockSize == 0) {
+        preadFully(Pointer.nativeValue(Native.getDirectBufferPointer(buffer)), buffer.limit(), offset, throwOnEof);
+      } else {
+        final OPointer pointer = ODirectMemoryAllocator.instance().allocate(buffer.limit(), directIOBlockSize);
+        try {
+          final ByteBuffer alignedBuffer = pointer.getNativeByteBuffer();
+          preadFully(Pointer.nativeValue(Native.getDirectBufferPointer(alignedBuffer)), alignedBuffer.limit(), offset, throwOnEof);
+
+          alignedBuffer.position(0);
+          buffer.position(0);
+          buffer.put(alignedBuffer);
+        } finally {
+          ODirectMemoryAllocator.instance().deallocate(pointer);
+        }
+      }
+
+      buffer.position(buffer.limit());
+    } else {
+      readByteBuffer(buffer, channel, offset, throwOnEof);
+    }
+  }
+
+  private boolean isDirectIOAligned(final long offset, final int length) {
+    return length > 0 && offset % directIOBlockSize == 0 && length % directIOBlockSize == 0;
+  }
+
+  private void pwriteFully(final long address, final int length, final long offset) throws IOException {
+    int written = 0;
+    while (written < length) {
+      try {
+        written += ONative.instance().pwrite(directFd, new Pointer(address + written), length - written, offset + written);
+      } catch (final LastErrorException e) {
+        throw new IOException("Can not write data to file " + osFile + " using direct IO, error code " + e.getErrorCode(), e);
+      }
+    }
+  }
+
+  private void preadFully(final long address, final int length, final long offset, final boolean throwOnEof) throws IOException {
+    int read = 0;
+    while (read < length) {
+      final long r;
+      try {
+        r = ONative.instance().pread(directFd, new Pointer(address + read), length - read, offset + read);
+      } catch (final LastErrorException e) {
+        throw new IOException("Can not read data from file " + osFile + " using direct IO, error code " + e.getErrorCode(), e);
+      }
+
+      if (r == 0) {
+        if (throwOnEof) {
+          throw new EOFException("End of file is reached");
+        }
+
+        new Pointer(address + read).setMemory(0, length - read, (byte) 0);
+        return;
+      }
+
+      read += r;
+    }
   }
 
   @SuppressWarnings("SameParameterValue")
@@ -633,6 +884,7 @@ public final class OFileClassic implements OClosableItem {
       }
 
       initAllocationMode();
+      initDirectIO();
     } catch (final IOException e) {
       throw OException.wrapException(new OIOException("Error during file open"), e);
     } finally {
@@ -729,6 +981,7 @@ public final class OFileClassic implements OClosableItem {
           }
 
           closeFD();
+          closeDirectFD();
         } finally {
           releaseWriteLock();
           attempts++;
@@ -764,6 +1017,20 @@ public final class OFileClassic implements OClosableItem {
     }
   }
 
+  private void closeDirectFD() {
+    if (directFd > 0) {
+      try {
+        ONative.instance().close(directFd);
+      } catch (final LastErrorException e) {
+        OLogManager.instance()
+            .warnNoDb(this, "Can not close Linux descriptor of file %s, error %d", osFile.toAbsolutePath().toString(),
+                e.getErrorCode());
+      }
+
+      directFd = 0;
+    }
+  }
+
   /**
    * Deletes the file.
    */
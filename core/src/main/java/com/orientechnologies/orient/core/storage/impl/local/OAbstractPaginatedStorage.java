@@ -22,8 +22,10 @@ package com.orientechnologies.orient.core.storage.impl.local;
 
 import com.orientechnologies.common.concur.ONeedRetryException;
 import com.orientechnologies.common.concur.lock.*;
+import com.orientechnologies.common.exception.OErrorCode;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.exception.OHighLevelException;
+import com.orientechnologies.common.io.OFileUtils;
 import com.orientechnologies.common.io.OIOException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.profiler.AtomicLongOProfilerHookValue;
@@ -36,6 +38,7 @@ import com.orientechnologies.common.types.OModifiableBoolean;
 import com.orientechnologies.common.util.OCallable;
 import com.orientechnologies.common.util.OCommonConst;
 import com.orientechnologies.common.util.OPair;
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.common.util.OUncaughtExceptionHandler;
 import com.orientechnologies.orient.core.OConstants;
 import com.orientechnologies.orient.core.Orient;
@@ -79,6 +82,7 @@ import com.orientechnologies.orient.core.serialization.serializer.binary.impl.in
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
 import com.orientechnologies.orient.core.storage.*;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.cache.OCachePointer;
 import com.orientechnologies.orient.core.storage.cache.OPageDataVerificationError;
 import com.orientechnologies.orient.core.storage.cache.OReadCache;
 import com.orientechnologies.orient.core.storage.cache.OWriteCache;
@@ -108,6 +112,7 @@ import com.orientechnologies.orient.core.tx.OTransactionIndexChanges;
 import com.orientechnologies.orient.core.tx.OTransactionInternal;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -118,7 +123,9 @@ import java.util.concurrent.atomic.*;
 import java.util.concurrent.locks.Lock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 /**
@@ -152,8 +159,9 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   private final List<OCluster>        clusters   = new ArrayList<>();
 
   private volatile ThreadLocal<OStorageTransaction> transaction;
-  private final    AtomicBoolean                    checkpointInProgress = new AtomicBoolean();
-  private final    AtomicBoolean                    walVacuumInProgress  = new AtomicBoolean();
+  private final    AtomicBoolean                    checkpointInProgress        = new AtomicBoolean();
+  private final    AtomicBoolean                    walVacuumInProgress         = new AtomicBoolean();
+  private final    AtomicBoolean                    incrementalBackupInProgress = new AtomicBoolean();
 
   /**
    * Error which happened inside of storage or during data processing related to this storage.
@@ -2012,6 +2020,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       }
 
       final List<ORecordOperation> result = new ArrayList<>(8);
+      OLogSequenceNumber commitLsn = null;
       stateLock.acquireReadLock();
       try {
         if (modificationLock) {
@@ -2117,7 +2126,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
             if (rollback) {
               rollback(transaction);
             } else {
-              endStorageTx(transaction, recordOperations);
+              commitLsn = endStorageTx(transaction, recordOperations);
             }
 
             this.transaction.set(null);
@@ -2150,6 +2159,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         }
       }
 
+      //wait for WAL fsync outside of locks, so concurrent commits may share it
+      final OWriteAheadLog writeAheadLog = this.writeAheadLog;
+      if (commitLsn != null && writeAheadLog != null) {
+        writeAheadLog.syncCommit(commitLsn);
+      }
+
       if (OLogManager.instance().isDebugEnabled()) {
         OLogManager.instance()
             .debug(this, "%d Committed transaction %d on database '%s' (result=%s)", Thread.currentThread().getId(),
@@ -2647,6 +2662,46 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     return engine.get(key);
   }
 
+  /**
+   * Returns values of all passed in keys which are present in the index, see {@link OBaseIndexEngine#getMany(Collection)}.
+   */
+  public List<ORawPair<Object, Object>> getIndexValues(int indexId, final Collection<?> keys)
+      throws OInvalidIndexEngineIdException {
+    indexId = extractInternalId(indexId);
+
+    try {
+      if (transaction.get() != null) {
+        return doGetIndexValues(indexId, keys);
+      }
+
+      checkOpenness();
+
+      stateLock.acquireReadLock();
+      try {
+        checkOpenness();
+        return doGetIndexValues(indexId, keys);
+      } finally {
+        stateLock.releaseReadLock();
+      }
+    } catch (final OInvalidIndexEngineIdException ie) {
+      throw logAndPrepareForRethrow(ie);
+    } catch (final RuntimeException ee) {
+      throw logAndPrepareForRethrow(ee);
+    } catch (final Error ee) {
+      throw logAndPrepareForRethrow(ee);
+    } catch (final Throwable t) {
+      throw logAndPrepareForRethrow(t);
+    }
+  }
+
+  private List<ORawPair<Object, Object>> doGetIndexValues(final int indexId, final Collection<?> keys)
+      throws OInvalidIndexEngineIdException {
+    checkIndexId(indexId);
+
+    final OBaseIndexEngine engine = indexEngines.get(indexId);
+    return engine.getMany(keys);
+  }
+
   public OBaseIndexEngine getIndexEngine(int indexId) throws OInvalidIndexEngineIdException {
     indexId = extractInternalId(indexId);
 
@@ -2991,6 +3046,65 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
+  /**
+   * Loads entries into the empty index bypassing of WAL, index pages are built from bottom to top from sorted entries. Only the
+   * fact that index was changed outside of transaction is logged, so index will be rebuilt if storage is crashed before the full
+   * checkpoint which is performed once entries are loaded.
+   *
+   * @return <code>false</code> if index does not support bulk load or there is active transaction or atomic operation, entries are
+   * not consumed in such case and should be put into the index one by one.
+   */
+  public boolean bulkLoadIndex(int indexId, final Iterator<ORawPair<Object, ORID>> entries,
+      final OBaseIndexEngine.Validator<Object, ORID> validator) throws OInvalidIndexEngineIdException {
+    indexId = extractInternalId(indexId);
+
+    try {
+      if (transaction.get() != null || OAtomicOperationsManager.getCurrentOperation() != null) {
+        return false;
+      }
+
+      checkOpenness();
+
+      stateLock.acquireReadLock();
+      try {
+        checkOpenness();
+
+        checkLowDiskSpaceRequestsAndReadOnlyConditions();
+
+        checkIndexId(indexId);
+
+        final OBaseIndexEngine engine = indexEngines.get(indexId);
+        if (!(engine instanceof OSingleValueIndexEngine)) {
+          return false;
+        }
+
+        makeStorageDirty();
+
+        if (writeAheadLog != null) {
+          writeAheadLog.log(new ONonTxOperationPerformedWALRecord());
+        }
+
+        ((OSingleValueIndexEngine) engine).bulkLoad(entries, validator);
+      } finally {
+        stateLock.releaseReadLock();
+      }
+
+      synch();
+      return true;
+    } catch (final IOException e) {
+      throw logAndPrepareForRethrow(
+          OException.wrapException(new OStorageException("Cannot load entries into the index with id " + indexId), e));
+    } catch (final OInvalidIndexEngineIdException ie) {
+      throw logAndPrepareForRethrow(ie);
+    } catch (final RuntimeException ee) {
+      throw logAndPrepareForRethrow(ee);
+    } catch (final Error ee) {
+      throw logAndPrepareForRethrow(ee);
+    } catch (final Throwable t) {
+      throw logAndPrepareForRethrow(t);
+    }
+  }
+
   public Object getIndexFirstKey(int indexId) throws OInvalidIndexEngineIdException {
     indexId = extractInternalId(indexId);
 
@@ -4479,13 +4593,15 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
-  private void endStorageTx(final OTransactionInternal txi, final Collection<ORecordOperation> recordOperations)
+  private OLogSequenceNumber endStorageTx(final OTransactionInternal txi, final Collection<ORecordOperation> recordOperations)
       throws IOException {
-    atomicOperationsManager.endAtomicOperation(false);
+    final OLogSequenceNumber lsn = atomicOperationsManager.endAtomicOperation(false);
     assert OAtomicOperationsManager.getCurrentOperation() == null;
 
     OTransactionAbstract.updateCacheFromEntries(txi.getDatabase(), recordOperations, true);
     txCommit.incrementAndGet();
+
+    return lsn;
   }
 
   private void startStorageTx(final OTransactionInternal clientTx) throws IOException {
@@ -5316,11 +5432,72 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     return false;
   }
 
-  @SuppressWarnings("CanBeFinal")
+  /**
+   * Adds the next backup to the chain of incremental backups stored in the passed in directory. The first backup of the chain
+   * contains all the pages of the storage, the next ones only the pages which were changed after the end of the previous backup.
+   * <p>
+   * Writes are allowed during the whole backup. Atomic operations are frozen only for the time needed to find the LSN from which
+   * the backup starts, and every backup contains the WAL written while its pages were copied, so pages which were changed during
+   * the copy are fixed by the restore.
+   *
+   * @return name of the created backup file
+   */
   @Override
   public String incrementalBackup(final String backupDirectory, final OCallable<Void, Void> started)
       throws UnsupportedOperationException {
-    throw new UnsupportedOperationException("Incremental backup is supported only in enterprise version");
+    if (!supportIncremental()) {
+      throw new UnsupportedOperationException("Incremental backup is not supported by storage '" + name + "'");
+    }
+
+    try {
+      checkOpenness();
+
+      final File directory = new File(backupDirectory);
+      if (!directory.exists() && !directory.mkdirs()) {
+        throw new OStorageException("Cannot create directory '" + directory + "' for incremental backup");
+      }
+
+      final File[] backups = OIncrementalBackupMetadata.listBackupFiles(directory);
+      OLogSequenceNumber fromLsn = null;
+      if (backups.length > 0) {
+        final File lastBackup = backups[backups.length - 1];
+        final OIncrementalBackupMetadata lastMetadata = OIncrementalBackupMetadata.readBackupFile(lastBackup);
+
+        if (!lastMetadata.getUuid().equals(getUuid().toString())) {
+          throw new OStorageException(
+              "Directory '" + directory + "' contains incremental backups of another database, backup of storage '" + name
+                  + "' can not be added to them");
+        }
+
+        fromLsn = lastMetadata.getEndLsn();
+        if (fromLsn == null) {
+          throw new OStorageException("Incremental backup " + lastBackup + " is broken, position of its end is absent");
+        }
+      }
+
+      final String fileName = OIncrementalBackupMetadata.backupFileName(backups.length, fromLsn == null);
+      final File backupFile = new File(directory, fileName);
+
+      boolean completed = false;
+      try {
+        try (final OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(backupFile))) {
+          doIncrementalBackup(outputStream, fromLsn, started, Deflater.DEFAULT_COMPRESSION);
+        }
+        completed = true;
+      } finally {
+        if (!completed && backupFile.exists() && !backupFile.delete()) {
+          OLogManager.instance().warn(this, "Cannot delete incomplete incremental backup %s", backupFile);
+        }
+      }
+
+      return fileName;
+    } catch (final RuntimeException e) {
+      throw logAndPrepareForRethrow(e);
+    } catch (final Error e) {
+      throw logAndPrepareForRethrow(e);
+    } catch (final Throwable t) {
+      throw logAndPrepareForRethrow(t);
+    }
   }
 
   @Override
@@ -5328,20 +5505,517 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     return false;
   }
 
+  /**
+   * Writes a full backup, in the same format of the first backup of an incremental backup chain, to the passed in stream. Stream
+   * is not closed by this method.
+   */
   @Override
   public void fullIncrementalBackup(final OutputStream stream) throws UnsupportedOperationException {
-    throw new UnsupportedOperationException("Incremental backup is supported only in enterprise version");
+    if (!supportIncremental()) {
+      throw new UnsupportedOperationException("Incremental backup is not supported by storage '" + name + "'");
+    }
+
+    try {
+      checkOpenness();
+      doIncrementalBackup(stream, null, null, Deflater.DEFAULT_COMPRESSION);
+    } catch (final RuntimeException e) {
+      throw logAndPrepareForRethrow(e);
+    } catch (final Error e) {
+      throw logAndPrepareForRethrow(e);
+    } catch (final Throwable t) {
+      throw logAndPrepareForRethrow(t);
+    }
   }
 
-  @SuppressWarnings("CanBeFinal")
+  /**
+   * Replaces content of the storage with the content of the chain of incremental backups stored in passed in directory.
+   */
   @Override
   public void restoreFromIncrementalBackup(final String filePath) {
-    throw new UnsupportedOperationException("Incremental backup is supported only in enterprise version");
+    if (!supportIncremental()) {
+      throw new UnsupportedOperationException("Incremental backup is not supported by storage '" + name + "'");
+    }
+
+    try {
+      final File[] backups = OIncrementalBackupMetadata.listBackupFiles(new File(filePath));
+      if (backups.length == 0) {
+        throw new OStorageException("There are no incremental backups in directory '" + filePath + "'");
+      }
+
+      // check the whole chain before the content of the storage is removed
+      OIncrementalBackupMetadata previous = null;
+      for (final File backup : backups) {
+        final OIncrementalBackupMetadata backupMetadata = OIncrementalBackupMetadata.readBackupFile(backup);
+        checkIncrementalBackupChain(backupMetadata, previous);
+        previous = backupMetadata;
+      }
+
+      stateLock.acquireWriteLock();
+      try {
+        checkOpenness();
+
+        final OContextConfiguration contextConfiguration = prepareIncrementalRestore();
+
+        OIncrementalBackupMetadata metadata = null;
+        for (final File backup : backups) {
+          OLogManager.instance().info(this, "Restore of incremental backup %s is started", backup);
+          try (final InputStream inputStream = new BufferedInputStream(new FileInputStream(backup))) {
+            metadata = restoreIncrementalBackup(inputStream, metadata, contextConfiguration);
+          }
+        }
+
+        completeIncrementalRestore(contextConfiguration, metadata);
+      } finally {
+        stateLock.releaseWriteLock();
+      }
+    } catch (final RuntimeException e) {
+      throw logAndPrepareForRethrow(e);
+    } catch (final Error e) {
+      throw logAndPrepareForRethrow(e);
+    } catch (final Throwable t) {
+      throw logAndPrepareForRethrow(t);
+    }
   }
 
+  /**
+   * Replaces content of the storage with the content of the backup created by {@link #fullIncrementalBackup(OutputStream)}.
+   */
   @Override
   public void restoreFullIncrementalBackup(final InputStream stream) throws UnsupportedOperationException {
-    throw new UnsupportedOperationException("Incremental backup is supported only in enterprise version");
+    if (!supportIncremental()) {
+      throw new UnsupportedOperationException("Incremental backup is not supported by storage '" + name + "'");
+    }
+
+    try {
+      stateLock.acquireWriteLock();
+      try {
+        checkOpenness();
+
+        final OContextConfiguration contextConfiguration = prepareIncrementalRestore();
+        final OIncrementalBackupMetadata metadata = restoreIncrementalBackup(stream, null, contextConfiguration);
+        completeIncrementalRestore(contextConfiguration, metadata);
+      } finally {
+        stateLock.releaseWriteLock();
+      }
+    } catch (final RuntimeException e) {
+      throw logAndPrepareForRethrow(e);
+    } catch (final Error e) {
+      throw logAndPrepareForRethrow(e);
+    } catch (final Throwable t) {
+      throw logAndPrepareForRethrow(t);
+    }
+  }
+
+  /**
+   * Writes a full backup without freezing of write operations, in the same format of {@link #fullIncrementalBackup(OutputStream)}.
+   * Such backup is recognized by {@link #isFuzzyBackup(BufferedInputStream)} and is restored by
+   * {@link #restoreFullIncrementalBackup(InputStream)}. Lucene indexes are not contained in the backup, they are rebuilt after
+   * restore.
+   *
+   * @return names of the storage files contained in the backup
+   */
+  protected final List<String> fuzzyBackup(final OutputStream stream, final Callable<Object> callable,
+      final OCommandOutputListener listener, final int compressionLevel) throws IOException {
+    final OIncrementalBackupMetadata metadata = doIncrementalBackup(stream, null, iArgument -> {
+      if (callable != null) {
+        try {
+          callable.call();
+        } catch (final Exception e) {
+          OLogManager.instance().error(this, "Error on callback invocation during backup", e);
+        }
+      }
+      return null;
+    }, compressionLevel);
+
+    if (listener != null) {
+      listener.onMessage("\nBackup of " + metadata.getFiles().size() + " files completed, WAL was copied till LSN " + metadata
+          .getEndLsn());
+    }
+
+    return new ArrayList<>(metadata.getFiles().keySet());
+  }
+
+  /**
+   * Checks whether the stream contains a backup created by {@link #fuzzyBackup(OutputStream, Callable, OCommandOutputListener,
+   * int)} or by {@link #fullIncrementalBackup(OutputStream)}, content of the stream is not consumed.
+   */
+  protected static boolean isFuzzyBackup(final BufferedInputStream stream) throws IOException {
+    stream.mark(64 * 1024);
+    try {
+      // stream is not closed on purpose, only the header of the first entry is read
+      @SuppressWarnings("resource")
+      final ZipInputStream zipInputStream = new ZipInputStream(stream);
+      final ZipEntry entry = zipInputStream.getNextEntry();
+      return entry != null && entry.getName().equals(OIncrementalBackupMetadata.METADATA_ENTRY);
+    } finally {
+      stream.reset();
+    }
+  }
+
+  private OIncrementalBackupMetadata doIncrementalBackup(final OutputStream stream, final OLogSequenceNumber fromLsn,
+      final OCallable<Void, Void> started, final int compressionLevel) throws IOException {
+    if (!incrementalBackupInProgress.compareAndSet(false, true)) {
+      throw new OBackupInProgressException("Incremental backup of storage '" + name + "' is already in progress", name,
+          OErrorCode.BACKUP_IN_PROGRESS);
+    }
+
+    try {
+      final OLogSequenceNumber startLsn;
+      final Map<String, Long> files;
+
+      stateLock.acquireReadLock();
+      try {
+        checkOpenness();
+
+        // wait till running atomic operations are completed, so no operation is half way in WAL at the start of the backup
+        final long freezeId = atomicOperationsManager.freezeAtomicOperations(null, null);
+        try {
+          startLsn = writeAheadLog.end();
+          if (startLsn != null) {
+            writeAheadLog.addCutTillLimit(startLsn);
+          }
+
+          files = new TreeMap<>(writeCache.files());
+        } finally {
+          atomicOperationsManager.releaseAtomicOperations(freezeId);
+        }
+      } finally {
+        stateLock.releaseReadLock();
+      }
+
+      try {
+        if (started != null) {
+          started.call(null);
+        }
+
+        final ZipOutputStream zipOutputStream = new ZipOutputStream(stream);
+        zipOutputStream.setLevel(compressionLevel);
+        final DataOutputStream dataOutputStream = new DataOutputStream(zipOutputStream);
+
+        final OIncrementalBackupMetadata metadata = new OIncrementalBackupMetadata(getUuid().toString(), fromLsn, startLsn,
+            writeCache.pageSize(), getIv(), files);
+        zipOutputStream.putNextEntry(new ZipEntry(OIncrementalBackupMetadata.METADATA_ENTRY));
+        metadata.write(dataOutputStream);
+        dataOutputStream.flush();
+        zipOutputStream.closeEntry();
+
+        for (final Map.Entry<String, Long> file : files.entrySet()) {
+          copyChangedPagesToIncrementalBackup(zipOutputStream, file.getKey(), file.getValue(), fromLsn);
+        }
+
+        final OLogSequenceNumber endLsn;
+        stateLock.acquireReadLock();
+        try {
+          checkOpenness();
+          endLsn = copyWALToIncrementalBackup(zipOutputStream, startLsn == null ? 0 : startLsn.getSegment());
+        } finally {
+          stateLock.releaseReadLock();
+        }
+
+        zipOutputStream.putNextEntry(new ZipEntry(OIncrementalBackupMetadata.END_ENTRY));
+        OIncrementalBackupMetadata.writeLsn(dataOutputStream, endLsn);
+        dataOutputStream.flush();
+        zipOutputStream.closeEntry();
+
+        zipOutputStream.finish();
+
+        metadata.setEndLsn(endLsn);
+        return metadata;
+      } finally {
+        if (startLsn != null) {
+          writeAheadLog.removeCutTillLimit(startLsn);
+        }
+      }
+    } finally {
+      incrementalBackupInProgress.set(false);
+    }
+  }
+
+  /**
+   * Copies pages of the file with LSN bigger than <code>fromLsn</code>, all pages are copied if <code>fromLsn</code> is
+   * <code>null</code>. Pages are read through the write cache, which returns the changed pages not flushed yet, so there is no need
+   * to flush the cache before the backup. Pages are not loaded in the read cache, so the backup does not evict the pages used by
+   * the other operations.
+   */
+  private void copyChangedPagesToIncrementalBackup(final ZipOutputStream zipOutputStream, final String fileName, final long fileId,
+      final OLogSequenceNumber fromLsn) throws IOException {
+    final DataOutputStream dataOutputStream = new DataOutputStream(zipOutputStream);
+    final byte[] data = new byte[writeCache.pageSize()];
+    boolean entryStarted = false;
+
+    // files are deleted under exclusive lock, so file can not disappear while its pages are copied
+    stateLock.acquireReadLock();
+    try {
+      checkOpenness();
+
+      if (!writeCache.exists(fileId)) {
+        // file was deleted after the start of backup, deletion will be restored from WAL
+        return;
+      }
+
+      final long filledUpTo = writeCache.getFilledUpTo(fileId);
+      for (long pageIndex = 0; pageIndex < filledUpTo; pageIndex++) {
+        final OCachePointer[] pointers = writeCache.load(fileId, pageIndex, 1, new OModifiableBoolean(), true);
+        if (pointers.length == 0) {
+          continue;
+        }
+
+        final OCachePointer pointer = pointers[0];
+        pointer.acquireSharedLock();
+        try {
+          final ByteBuffer buffer = pointer.getBufferDuplicate();
+          if (fromLsn != null && ODurablePage.getLogSequenceNumberFromPage(buffer).compareTo(fromLsn) <= 0) {
+            continue;
+          }
+
+          ODurablePage.getPageData(buffer, data, 0, data.length);
+        } finally {
+          pointer.releaseSharedLock();
+          pointer.decrementReadersReferrer();
+        }
+
+        if (!entryStarted) {
+          zipOutputStream.putNextEntry(new ZipEntry(OIncrementalBackupMetadata.PAGES_ENTRY_PREFIX + fileName));
+          entryStarted = true;
+        }
+
+        dataOutputStream.writeLong(pageIndex);
+        dataOutputStream.write(data);
+      }
+    } finally {
+      stateLock.releaseReadLock();
+    }
+
+    if (entryStarted) {
+      dataOutputStream.flush();
+      zipOutputStream.closeEntry();
+    }
+  }
+
+  /**
+   * Removes all the data of the storage, components of the storage are loaded again by
+   * {@link #completeIncrementalRestore(OContextConfiguration, OIncrementalBackupMetadata)}.
+   */
+  private OContextConfiguration prepareIncrementalRestore() throws IOException {
+    final OContextConfiguration contextConfiguration = configuration.getContextConfiguration();
+
+    ((OClusterBasedStorageConfiguration) configuration).close();
+    sbTreeCollectionManager.close();
+
+    // we delete all files inside cache system so we only clear cluster metadata
+    clusters.clear();
+    clusterMap.clear();
+
+    for (final OBaseIndexEngine engine : indexEngines) {
+      if (engine != null && !(engine instanceof OSBTreeIndexEngine || engine instanceof OHashTableIndexEngine
+          || engine instanceof OCellBTreeSingleValueIndexEngine || engine instanceof OCellBTreeMultiValueIndexEngine)) {
+        engine.close();
+      }
+    }
+
+    indexEngines.clear();
+    indexEngineNameMap.clear();
+
+    for (final long fileId : writeCache.files().values()) {
+      readCache.deleteFile(fileId, writeCache);
+    }
+
+    return contextConfiguration;
+  }
+
+  /**
+   * Applies single backup of the chain: restores the files and pages contained in the backup and then replays the WAL contained in
+   * it.
+   *
+   * @param previous metadata of the previous backup of the chain or <code>null</code> if it is the first one
+   *
+   * @return metadata of the restored backup
+   */
+  private OIncrementalBackupMetadata restoreIncrementalBackup(final InputStream stream, final OIncrementalBackupMetadata previous,
+      final OContextConfiguration contextConfiguration) throws IOException {
+    final ZipInputStream zipInputStream = new ZipInputStream(stream);
+    final DataInputStream dataInputStream = new DataInputStream(zipInputStream);
+
+    OIncrementalBackupMetadata metadata = null;
+    File walDirectory = null;
+    try {
+      ZipEntry entry;
+      while ((entry = zipInputStream.getNextEntry()) != null) {
+        final String entryName = entry.getName();
+
+        if (entryName.equals(OIncrementalBackupMetadata.METADATA_ENTRY)) {
+          metadata = OIncrementalBackupMetadata.read(dataInputStream);
+          checkIncrementalBackupChain(metadata, previous);
+          restoreIncrementalBackupFiles(metadata);
+        } else if (metadata == null) {
+          throw new OStorageException("Incremental backup is broken, backup metadata should be placed before entry " + entryName);
+        } else if (entryName.startsWith(OIncrementalBackupMetadata.PAGES_ENTRY_PREFIX)) {
+          restoreIncrementalBackupPages(entryName.substring(OIncrementalBackupMetadata.PAGES_ENTRY_PREFIX.length()),
+              metadata.getPageSize(), dataInputStream);
+        } else if (entryName.endsWith(OWriteAheadLog.WAL_SEGMENT_EXTENSION)) {
+          if (walDirectory == null) {
+            walDirectory = createWalTempDirectory();
+          }
+
+          // WAL segments are prefixed by the name of the storage which could be different in backup
+          addFileToDirectory(name + entryName.substring(entryName.indexOf('.')), zipInputStream, walDirectory);
+        } else if (entryName.equals(OIncrementalBackupMetadata.END_ENTRY)) {
+          metadata.setEndLsn(OIncrementalBackupMetadata.readLsn(dataInputStream));
+        } else {
+          OLogManager.instance().warn(this, "Unknown entry %s of incremental backup will be skipped", entryName);
+        }
+
+        zipInputStream.closeEntry();
+      }
+
+      if (metadata == null || metadata.getEndLsn() == null) {
+        throw new OStorageException("Incremental backup is not complete and can not be restored");
+      }
+
+      if (walDirectory != null) {
+        final OWriteAheadLog restoreLog = createWalFromIBUFiles(walDirectory, contextConfiguration, Locale.getDefault(),
+            metadata.getIv());
+        try {
+          final List<OWriteableWALRecord> firstRecord;
+          if (metadata.getStartLsn() == null) {
+            final OLogSequenceNumber begin = restoreLog.begin();
+            firstRecord = begin == null ? Collections.emptyList() : restoreLog.read(begin, 1);
+          } else {
+            firstRecord = restoreLog.next(metadata.getStartLsn(), 1);
+          }
+
+          if (!firstRecord.isEmpty()) {
+            restoreFrom(firstRecord.get(0).getLsn(), restoreLog);
+          }
+        } finally {
+          restoreLog.close();
+        }
+      }
+    } finally {
+      if (walDirectory != null) {
+        OFileUtils.deleteRecursively(walDirectory);
+      }
+    }
+
+    return metadata;
+  }
+
+  private void checkIncrementalBackupChain(final OIncrementalBackupMetadata metadata, final OIncrementalBackupMetadata previous) {
+    if (previous == null) {
+      if (!metadata.isFull()) {
+        throw new OStorageException("Chain of incremental backups should start from full backup");
+      }
+    } else if (metadata.isFull() || !metadata.getUuid().equals(previous.getUuid()) || !metadata.getFromLsn()
+        .equals(previous.getEndLsn())) {
+      throw new OStorageException("Incremental backup which starts from LSN " + metadata.getFromLsn()
+          + " is not the continuation of the previous backup which ends at LSN " + previous.getEndLsn());
+    }
+
+    if (metadata.getPageSize() != writeCache.pageSize()) {
+      throw new OStorageException(
+          "Incremental backup is created with page size " + metadata.getPageSize() + " but page size of storage '" + name
+              + "' is " + writeCache.pageSize());
+    }
+  }
+
+  /**
+   * Makes set of files of the storage equal to the set of files which existed at the start of the backup.
+   */
+  private void restoreIncrementalBackupFiles(final OIncrementalBackupMetadata metadata) throws IOException {
+    final Map<String, Long> backupFiles = metadata.getFiles();
+
+    for (final Map.Entry<String, Long> file : writeCache.files().entrySet()) {
+      final Long backupFileId = backupFiles.get(file.getKey());
+      if (backupFileId == null || !writeCache.fileIdsAreEqual(backupFileId, file.getValue())) {
+        readCache.deleteFile(file.getValue(), writeCache);
+      }
+    }
+
+    for (final Map.Entry<String, Long> file : backupFiles.entrySet()) {
+      if (!writeCache.exists(file.getKey())) {
+        readCache.addFile(file.getKey(), file.getValue(), writeCache);
+      }
+    }
+  }
+
+  private void restoreIncrementalBackupPages(final String fileName, final int pageSize, final DataInputStream dataInputStream)
+      throws IOException {
+    final long fileId = writeCache.fileIdByName(fileName);
+    if (fileId < 0) {
+      throw new OStorageException("Incremental backup is broken, file " + fileName + " is absent in backup metadata");
+    }
+
+    final byte[] data = new byte[pageSize];
+    while (true) {
+      final long pageIndex;
+      try {
+        pageIndex = dataInputStream.readLong();
+      } catch (final EOFException ignore) {
+        break;
+      }
+
+      dataInputStream.readFully(data);
+
+      OCacheEntry cacheEntry = readCache.loadForWrite(fileId, pageIndex, true, writeCache, 1, false, null);
+      if (cacheEntry == null) {
+        do {
+          if (cacheEntry != null) {
+            readCache.releaseFromWrite(cacheEntry, writeCache);
+          }
+
+          cacheEntry = readCache.allocateNewPage(fileId, writeCache, null);
+        } while (cacheEntry.getPageIndex() != pageIndex);
+      }
+
+      try {
+        final ByteBuffer buffer = cacheEntry.getCachePointer().getBuffer();
+        buffer.position(0);
+        buffer.put(data);
+      } finally {
+        readCache.releaseFromWrite(cacheEntry, writeCache);
+      }
+    }
+  }
+
+  /**
+   * Moves WAL of the storage after the last LSN of the restored backups, so LSNs of restored pages are never bigger than LSNs of
+   * new operations, and loads storage components from restored data.
+   */
+  private void completeIncrementalRestore(final OContextConfiguration contextConfiguration,
+      final OIncrementalBackupMetadata metadata) throws IOException {
+    final OLogSequenceNumber walEnd = writeAheadLog.end();
+    if (walEnd == null || walEnd.getSegment() <= metadata.getEndLsn().getSegment()) {
+      writeAheadLog.moveLsnAfter(metadata.getEndLsn());
+    }
+
+    makeFullCheckpoint();
+
+    configuration = new OClusterBasedStorageConfiguration(this);
+    ((OClusterBasedStorageConfiguration) configuration).load(contextConfiguration);
+    uuid = UUID.fromString(configuration.getUuid());
+
+    componentsFactory = new OCurrentStorageComponentsFactory(configuration);
+
+    openClusters();
+    openIndexes();
+
+    // Lucene indexes are kept outside of the storage files, so they are not part of the backup. Storage is marked the same way
+    // as after crash recovery, so such indexes are rebuilt by the index manager once database is opened.
+    for (final String engineName : configuration.indexEngines()) {
+      final OStorageConfiguration.IndexEngineData engineData = configuration.getIndexEngine(engineName);
+      if (engineData != null && "LUCENE".equalsIgnoreCase(engineData.getAlgorithm())) {
+        wereDataRestoredAfterOpen = true;
+        wereNonTxOperationsPerformedInPreviousOpen = true;
+        break;
+      }
+    }
+
+    final String cs = configuration.getConflictStrategy();
+    if (cs != null) {
+      setConflictStrategy(Orient.instance().getRecordConflictStrategy().getStrategy(cs));
+    }
+
+    OLogManager.instance().info(this, "Storage '%s' is restored from incremental backup till LSN %s", name, metadata.getEndLsn());
   }
 
   private boolean checkFuzzyCheckPointIsComplete(final OLogSequenceNumber lastCheckPoint) throws IOException {
@@ -5785,6 +6459,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
       final OIndexInternal<?> index = changes.getAssociatedIndex();
 
+      if (!changes.cleared && changes.changesPerKey.size() == 1 && changes.nullKeyChanges.entries.isEmpty()) {
+        // only single key is changed, so index may lock only the part of itself which contains this key
+        index.acquireAtomicKeyLock(changes.changesPerKey.firstKey());
+        continue;
+      }
+
       final List<Object> orderedIndexNames = new ArrayList<>(changes.changesPerKey.keySet());
       if (orderedIndexNames.size() > 1) {
         orderedIndexNames.sort((o1, o2) -> {
@@ -0,0 +1,236 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.impl.local;
+
+import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Describes a single file of an incremental backup chain.
+ * <p>
+ * Every backup file is a zip archive which contains, in this order:
+ * <ol>
+ * <li>{@link #METADATA_ENTRY}, the content of this class</li>
+ * <li>one {@link #PAGES_ENTRY_PREFIX} entry for each storage file which has pages changed after {@link #getFromLsn()}, as a
+ * sequence of page index and page content</li>
+ * <li>the WAL segments which contain all the operations performed from {@link #getStartLsn()} till the end of the backup</li>
+ * <li>{@link #END_ENTRY}, the LSN of the last operation contained in the backup, which is the starting point of the next
+ * backup of the chain</li>
+ * </ol>
+ * The first backup of the chain is a full backup and contains all the pages of the storage.
+ */
+final class OIncrementalBackupMetadata {
+  static final String EXTENSION          = ".ibu";
+  static final String METADATA_ENTRY     = "backup.metadata";
+  static final String END_ENTRY          = "backup.end";
+  static final String PAGES_ENTRY_PREFIX = "pages/";
+
+  private static final int VERSION = 1;
+
+  private final String             uuid;
+  private final OLogSequenceNumber fromLsn;
+  private final OLogSequenceNumber startLsn;
+  private final int                pageSize;
+  private final byte[]             iv;
+  private final Map<String, Long>  files;
+  private       OLogSequenceNumber endLsn;
+
+  OIncrementalBackupMetadata(final String uuid, final OLogSequenceNumber fromLsn, final OLogSequenceNumber startLsn,
+      final int pageSize, final byte[] iv, final Map<String, Long> files) {
+    this.uuid = uuid;
+    this.fromLsn = fromLsn;
+    this.startLsn = startLsn;
+    this.pageSize = pageSize;
+    this.iv = iv;
+    this.files = files;
+  }
+
+  String getUuid() {
+    return uuid;
+  }
+
+  boolean isFull() {
+    return fromLsn == null;
+  }
+
+  /**
+   * @return LSN of the end of the previous backup of the chain, only pages with bigger LSN are contained in this backup, or
+   * <code>null</code> for a full backup
+   */
+  OLogSequenceNumber getFromLsn() {
+    return fromLsn;
+  }
+
+  /**
+   * @return LSN of the last operation completed before the copy of pages started, or <code>null</code> if WAL was empty
+   */
+  OLogSequenceNumber getStartLsn() {
+    return startLsn;
+  }
+
+  int getPageSize() {
+    return pageSize;
+  }
+
+  byte[] getIv() {
+    return iv;
+  }
+
+  /**
+   * @return names and ids of the files of the storage at the moment the backup was started
+   */
+  Map<String, Long> getFiles() {
+    return files;
+  }
+
+  OLogSequenceNumber getEndLsn() {
+    return endLsn;
+  }
+
+  void setEndLsn(final OLogSequenceNumber endLsn) {
+    this.endLsn = endLsn;
+  }
+
+  void write(final DataOutput out) throws IOException {
+    out.writeInt(VERSION);
+    out.writeUTF(uuid);
+    writeLsn(out, fromLsn);
+    writeLsn(out, startLsn);
+    out.writeInt(pageSize);
+    if (iv == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(iv.length);
+      out.write(iv);
+    }
+
+    out.writeInt(files.size());
+    for (final Map.Entry<String, Long> file : files.entrySet()) {
+      out.writeUTF(file.getKey());
+      out.writeLong(file.getValue());
+    }
+  }
+
+  static OIncrementalBackupMetadata read(final DataInput in) throws IOException {
+    final int version = in.readInt();
+    if (version != VERSION) {
+      throw new OStorageException("Unsupported version of incremental backup " + version);
+    }
+
+    final String uuid = in.readUTF();
+    final OLogSequenceNumber fromLsn = readLsn(in);
+    final OLogSequenceNumber startLsn = readLsn(in);
+    final int pageSize = in.readInt();
+
+    final int ivLength = in.readInt();
+    byte[] iv = null;
+    if (ivLength >= 0) {
+      iv = new byte[ivLength];
+      in.readFully(iv);
+    }
+
+    final int filesCount = in.readInt();
+    final Map<String, Long> files = new LinkedHashMap<>(filesCount);
+    for (int i = 0; i < filesCount; i++) {
+      final String fileName = in.readUTF();
+      files.put(fileName, in.readLong());
+    }
+
+    return new OIncrementalBackupMetadata(uuid, fromLsn, startLsn, pageSize, iv, files);
+  }
+
+  static void writeLsn(final DataOutput out, final OLogSequenceNumber lsn) throws IOException {
+    if (lsn == null) {
+      out.writeLong(-1);
+      out.writeLong(-1);
+    } else {
+      out.writeLong(lsn.getSegment());
+      out.writeLong(lsn.getPosition());
+    }
+  }
+
+  static OLogSequenceNumber readLsn(final DataInput in) throws IOException {
+    final long segment = in.readLong();
+    final long position = in.readLong();
+    if (segment < 0) {
+      return null;
+    }
+
+    return new OLogSequenceNumber(segment, position);
+  }
+
+  /**
+   * @return the files of the backup chain stored in the given directory, in the order in which they have to be restored
+   */
+  static File[] listBackupFiles(final File directory) {
+    final File[] files = directory.listFiles((dir, name) -> name.toLowerCase().endsWith(EXTENSION));
+    if (files == null) {
+      return new File[0];
+    }
+
+    Arrays.sort(files);
+    return files;
+  }
+
+  /**
+   * @return name of the file of the backup with the given position in the chain, names sort in the same order as the chain
+   */
+  static String backupFileName(final int index, final boolean full) {
+    final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss");
+    return String.format("%010d-%s%s%s", index, dateFormat.format(new Date()), full ? "-full" : "", EXTENSION);
+  }
+
+  /**
+   * Reads metadata and end LSN of an already completed backup file.
+   */
+  static OIncrementalBackupMetadata readBackupFile(final File file) throws IOException {
+    try (final ZipFile zipFile = new ZipFile(file)) {
+      final ZipEntry metadataEntry = zipFile.getEntry(METADATA_ENTRY);
+      final ZipEntry endEntry = zipFile.getEntry(END_ENTRY);
+      if (metadataEntry == null || endEntry == null) {
+        throw new OStorageException("File " + file + " is not a complete incremental backup");
+      }
+
+      final OIncrementalBackupMetadata metadata;
+      try (final InputStream in = zipFile.getInputStream(metadataEntry)) {
+        metadata = read(new DataInputStream(in));
+      }
+      try (final InputStream in = zipFile.getInputStream(endEntry)) {
+        metadata.setEndLsn(readLsn(new DataInputStream(in)));
+      }
+
+      return metadata;
+    }
+  }
+}
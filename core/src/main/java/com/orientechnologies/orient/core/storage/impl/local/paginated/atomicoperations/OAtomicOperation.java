@@ -35,13 +35,16 @@ import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OUpdat
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Note: all atomic operations methods are designed in context that all operations on single files will be wrapped in shared lock.
@@ -59,7 +62,9 @@ public final class OAtomicOperation {
   private boolean rollback;
 
   private final Set<String>            lockedObjects        = new HashSet<>();
+  private final Set<String>            sharedLockedObjects  = new HashSet<>();
   private final Map<Long, FileChanges> fileChanges          = new HashMap<>();
+  private final Map<PageCounter, Long> counterDeltas        = new TreeMap<>();
   private final Map<String, Long>      newFileNamesId       = new HashMap<>();
   private final Set<Long>              deletedFiles         = new HashSet<>();
   private final Map<String, Long>      deletedFileNameIdMap = new HashMap<>();
@@ -69,6 +74,8 @@ public final class OAtomicOperation {
 
   private final Map<String, OAtomicOperationMetadata<?>> metadata = new LinkedHashMap<>();
 
+  private final List<Runnable> commitActions = new ArrayList<>();
+
   public OAtomicOperation(final OLogSequenceNumber startLSN, final OOperationUnitId operationUnitId, final OReadCache readCache,
       final OWriteCache writeCache, final int storageId) {
     this.storageId = storageId;
@@ -195,6 +202,20 @@ public final class OAtomicOperation {
     return metadata.get(key);
   }
 
+  /**
+   * Registers action which is performed once changes of this operation are committed, while components are still locked by the
+   * operation. Actions are dropped if operation is rolled back.
+   */
+  public void addCommitAction(final Runnable action) {
+    commitActions.add(action);
+  }
+
+  void runCommitActions() {
+    for (final Runnable action : commitActions) {
+      action.run();
+    }
+  }
+
   /**
    * @return All keys and associated metadata contained inside of atomic operation
    */
@@ -404,8 +425,70 @@ public final class OAtomicOperation {
     fileChanges.truncate = true;
   }
 
+  /**
+   * Adds delta to the <code>long</code> counter which is stored inside of the page. Unlike changes done through {@link
+   * #loadPageForWrite(long, long, boolean, int, boolean)}, delta is applied to the state of the page which is committed at the
+   * moment of commit of this operation, so counter may be changed by several operations concurrently. Commits of such operations
+   * are serialized by the locks returned by {@link #counterLockNames()}.
+   */
+  public void addCounterDelta(long fileId, final long pageIndex, final int pageOffset, final long delta) {
+    fileId = checkFileIdCompatibility(fileId, storageId);
+
+    counterDeltas.merge(new PageCounter(fileId, pageIndex, pageOffset), delta, Long::sum);
+  }
+
+  /**
+   * @return Sum of deltas which were added to the counter by {@link #addCounterDelta(long, long, int, long)} inside of this
+   * operation.
+   */
+  public long getCounterDelta(long fileId, final long pageIndex, final int pageOffset) {
+    fileId = checkFileIdCompatibility(fileId, storageId);
+
+    final Long delta = counterDeltas.get(new PageCounter(fileId, pageIndex, pageOffset));
+    return delta == null ? 0 : delta;
+  }
+
+  /**
+   * @return Names of locks which should be held during commit of operation to serialize changes of counters of the same page, in
+   * the order in which they should be acquired.
+   */
+  List<String> counterLockNames() {
+    final List<String> lockNames = new ArrayList<>();
+
+    for (final PageCounter counter : counterDeltas.keySet()) {
+      final String lockName = "counter:" + counter.fileId + ":" + counter.pageIndex;
+      if (lockNames.isEmpty() || !lockNames.get(lockNames.size() - 1).equals(lockName)) {
+        lockNames.add(lockName);
+      }
+    }
+
+    return lockNames;
+  }
+
+  private void applyCounterDeltas() throws IOException {
+    for (final Map.Entry<PageCounter, Long> counterDelta : counterDeltas.entrySet()) {
+      final PageCounter counter = counterDelta.getKey();
+
+      final OCacheEntry cacheEntry = loadPageForWrite(counter.fileId, counter.pageIndex, false, 1, true);
+      if (cacheEntry == null) {
+        throw new OStorageException(
+            "Page " + counter.pageIndex + " of file with id " + counter.fileId + " which contains counter is absent");
+      }
+
+      try {
+        final OCounterPage counterPage = new OCounterPage(cacheEntry);
+        counterPage.add(counter.pageOffset, counterDelta.getValue());
+      } finally {
+        releasePageFromWrite(cacheEntry);
+      }
+    }
+  }
+
   OLogSequenceNumber commitChanges(final OWriteAheadLog writeAheadLog) throws IOException {
     OLogSequenceNumber txEndLsn = null;
+
+    applyCounterDeltas();
+
     if (writeAheadLog != null) {
       final OLogSequenceNumber startLSN = writeAheadLog.end();
 
@@ -579,7 +662,11 @@ public final class OAtomicOperation {
     lockedObjects.add(lockedObject);
   }
 
-  boolean containsInLockedObjects(final String objectToLock) {
+  boolean removeLockedObject(final String lockedObject) {
+    return lockedObjects.remove(lockedObject);
+  }
+
+  public boolean containsInLockedObjects(final String objectToLock) {
     return lockedObjects.contains(objectToLock);
   }
 
@@ -587,6 +674,26 @@ public final class OAtomicOperation {
     return lockedObjects;
   }
 
+  void addSharedLockedObject(final String lockedObject) {
+    sharedLockedObjects.add(lockedObject);
+  }
+
+  /**
+   * @return <code>true</code> if component with given lock name is locked in shared mode till the end of this operation, so only
+   * the parts of component which are locked separately may be changed by this operation.
+   */
+  public boolean containsInSharedLockedObjects(final String objectToLock) {
+    return sharedLockedObjects.contains(objectToLock);
+  }
+
+  boolean removeSharedLockedObject(final String lockedObject) {
+    return sharedLockedObjects.remove(lockedObject);
+  }
+
+  Iterable<String> sharedLockedObjects() {
+    return sharedLockedObjects;
+  }
+
   @Override
   public boolean equals(final Object o) {
     if (this == o) {
@@ -606,6 +713,62 @@ public final class OAtomicOperation {
     return operationUnitId.hashCode();
   }
 
+  private static final class PageCounter implements Comparable<PageCounter> {
+    private final long fileId;
+    private final long pageIndex;
+    private final int  pageOffset;
+
+    private PageCounter(final long fileId, final long pageIndex, final int pageOffset) {
+      this.fileId = fileId;
+      this.pageIndex = pageIndex;
+      this.pageOffset = pageOffset;
+    }
+
+    @Override
+    public int compareTo(final PageCounter other) {
+      if (fileId != other.fileId) {
+        return Long.compare(fileId, other.fileId);
+      }
+
+      if (pageIndex != other.pageIndex) {
+        return Long.compare(pageIndex, other.pageIndex);
+      }
+
+      return Integer.compare(pageOffset, other.pageOffset);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+
+      final PageCounter that = (PageCounter) o;
+      return fileId == that.fileId && pageIndex == that.pageIndex && pageOffset == that.pageOffset;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = Long.hashCode(fileId);
+      result = 31 * result + Long.hashCode(pageIndex);
+      result = 31 * result + pageOffset;
+      return result;
+    }
+  }
+
+  private static final class OCounterPage extends ODurablePage {
+    private OCounterPage(final OCacheEntry cacheEntry) {
+      super(cacheEntry);
+    }
+
+    private void add(final int pageOffset, final long delta) {
+      setLongValue(pageOffset, getLongValue(pageOffset) + delta);
+    }
+  }
+
   private static final class FileChanges {
     private final Map<Long, OCacheEntryChanges> pageChangesMap  = new HashMap<>();
     private       long                          maxNewPageIndex = -2;
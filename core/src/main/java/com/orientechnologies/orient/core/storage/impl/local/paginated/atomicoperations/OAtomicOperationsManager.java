@@ -44,8 +44,11 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -101,6 +104,11 @@ public class OAtomicOperationsManager implements OAtomicOperationsMangerMXBean {
 
   private final Map<OOperationUnitId, OPair<String, StackTraceElement[]>> activeAtomicOperations = new ConcurrentHashMap<>();
 
+  /**
+   * Versions of the components which read their data without locks, see {@link #getComponentVersion(ODurableComponent)}.
+   */
+  private final ConcurrentMap<String, AtomicLong> componentVersions = new ConcurrentHashMap<>();
+
   public OAtomicOperationsManager(OAbstractPaginatedStorage storage) {
     this.storage = storage;
     this.writeAheadLog = storage.getWALInstance();
@@ -147,7 +155,7 @@ public class OAtomicOperationsManager implements OAtomicOperationsMangerMXBean {
       operation.incrementCounter();
 
       if (lockName != null) {
-        acquireExclusiveLockTillOperationComplete(operation, lockName);
+        lockComponent(operation, lockName);
       }
 
       return operation;
@@ -192,20 +200,13 @@ public class OAtomicOperationsManager implements OAtomicOperationsMangerMXBean {
     }
 
     if (lockName != null) {
-      acquireExclusiveLockTillOperationComplete(operation, lockName);
+      lockComponent(operation, lockName);
     }
 
     try {
       storage.checkReadOnlyConditions();
     } catch (RuntimeException | Error e) {
-      final Iterator<String> lockedObjectIterator = operation.lockedObjects().iterator();
-
-      while (lockedObjectIterator.hasNext()) {
-        final String lockedObject = lockedObjectIterator.next();
-        lockedObjectIterator.remove();
-
-        lockManager.releaseLock(this, lockedObject, OOneEntryPerKeyLockManager.LOCK.EXCLUSIVE);
-      }
+      releaseLocks(operation);
 
       throw e;
     }
@@ -385,7 +386,20 @@ public class OAtomicOperationsManager implements OAtomicOperationsMangerMXBean {
           final boolean useWal = useWal();
 
           if (!operation.isRollback()) {
-            lsn = operation.commitChanges(useWal ? writeAheadLog : null);
+            for (final String counterLockName : operation.counterLockNames()) {
+              acquireExclusiveLockTillOperationComplete(operation, counterLockName);
+            }
+
+            final List<AtomicLong> changedVersions = startComponentsChange(operation);
+            try {
+              lsn = operation.commitChanges(useWal ? writeAheadLog : null);
+            } finally {
+              for (final AtomicLong version : changedVersions) {
+                version.incrementAndGet();
+              }
+            }
+
+            operation.runCommitActions();
           } else {
             lsn = null;
           }
@@ -394,14 +408,7 @@ public class OAtomicOperationsManager implements OAtomicOperationsMangerMXBean {
             activeAtomicOperations.remove(operation.getOperationUnitId());
           }
         } finally {
-          final Iterator<String> lockedObjectIterator = operation.lockedObjects().iterator();
-
-          while (lockedObjectIterator.hasNext()) {
-            final String lockedObject = lockedObjectIterator.next();
-            lockedObjectIterator.remove();
-
-            lockManager.releaseLock(this, lockedObject, OOneEntryPerKeyLockManager.LOCK.EXCLUSIVE);
-          }
+          releaseLocks(operation);
 
           currentOperation.set(null);
         }
@@ -425,20 +432,93 @@ public class OAtomicOperationsManager implements OAtomicOperationsMangerMXBean {
     return lsn;
   }
 
+  /**
+   * Increments the versions of the components locked by the operation, which become odd till the changes of the operation are
+   * applied to the pages of the components.
+   *
+   * @return the incremented versions, they have to be incremented again once the changes are applied
+   */
+  private List<AtomicLong> startComponentsChange(final OAtomicOperation operation) {
+    if (componentVersions.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    final List<AtomicLong> changedVersions = new ArrayList<>();
+    for (final String lockedObject : operation.lockedObjects()) {
+      final AtomicLong version = componentVersions.get(lockedObject);
+      if (version != null) {
+        version.incrementAndGet();
+        changedVersions.add(version);
+      }
+    }
+
+    return changedVersions;
+  }
+
+  /**
+   * Returns the version of the component, which allows to read the data of the component without acquiring {@link
+   * #acquireReadLock(ODurableComponent)}. The version is incremented before and after the changes of each atomic operation which
+   * holds the exclusive lock of the component are applied to its pages, so it is odd while the pages are changed.
+   * <p>
+   * To read data without locks, the component reads the version, reads its pages if the version is even and then checks that the
+   * version did not change. If the version was odd or changed, the pages may be only partially updated and the data have to be
+   * read again under the read lock.
+   * <p>
+   * This works only for the components which always modify their data holding the exclusive lock till the atomic operation is
+   * completed.
+   */
+  public AtomicLong getComponentVersion(final ODurableComponent durableComponent) {
+    return componentVersions.computeIfAbsent(durableComponent.getLockName(), lockName -> new AtomicLong());
+  }
+
+  /**
+   * Removes the version of the deleted component returned by {@link #getComponentVersion(ODurableComponent)}, unless it was
+   * replaced in the meantime by the version of a new component with the same name.
+   */
+  public void removeComponentVersion(final ODurableComponent durableComponent, final AtomicLong version) {
+    componentVersions.remove(durableComponent.getLockName(), version);
+  }
+
   public void ensureThatComponentsUnlocked() {
     final OAtomicOperation operation = currentOperation.get();
     if (operation != null) {
-      final Iterator<String> lockedObjectIterator = operation.lockedObjects().iterator();
+      releaseLocks(operation);
+    }
+  }
 
-      while (lockedObjectIterator.hasNext()) {
-        final String lockedObject = lockedObjectIterator.next();
-        lockedObjectIterator.remove();
+  private void releaseLocks(final OAtomicOperation operation) {
+    final Iterator<String> lockedObjectIterator = operation.lockedObjects().iterator();
 
-        lockManager.releaseLock(this, lockedObject, OOneEntryPerKeyLockManager.LOCK.EXCLUSIVE);
-      }
+    while (lockedObjectIterator.hasNext()) {
+      final String lockedObject = lockedObjectIterator.next();
+      lockedObjectIterator.remove();
+
+      lockManager.releaseLock(this, lockedObject, OOneEntryPerKeyLockManager.LOCK.EXCLUSIVE);
+    }
+
+    final Iterator<String> sharedLockedObjectIterator = operation.sharedLockedObjects().iterator();
+
+    while (sharedLockedObjectIterator.hasNext()) {
+      final String lockedObject = sharedLockedObjectIterator.next();
+      sharedLockedObjectIterator.remove();
+
+      lockManager.releaseLock(this, lockedObject, OOneEntryPerKeyLockManager.LOCK.SHARED);
     }
   }
 
+  /**
+   * Locks component which participates in atomic operation. If component is already locked in shared mode by {@link
+   * #acquireSharedLockTillOperationComplete(ODurableComponent)} it is not locked again, component itself guarantees that only parts
+   * of it which are locked separately are changed.
+   */
+  private void lockComponent(final OAtomicOperation operation, final String lockName) {
+    if (operation.containsInSharedLockedObjects(lockName)) {
+      return;
+    }
+
+    acquireExclusiveLockTillOperationComplete(operation, lockName);
+  }
+
   /**
    * Acquires exclusive lock with the given lock name in the given atomic operation.
    *
@@ -450,6 +530,10 @@ public class OAtomicOperationsManager implements OAtomicOperationsMangerMXBean {
       return;
     }
 
+    if (operation.containsInSharedLockedObjects(lockName)) {
+      throw new IllegalStateException("Lock '" + lockName + "' is already held in shared mode and can not be upgraded");
+    }
+
     lockManager.acquireLock(lockName, OOneEntryPerKeyLockManager.LOCK.EXCLUSIVE);
     operation.addLockedObject(lockName);
   }
@@ -463,6 +547,58 @@ public class OAtomicOperationsManager implements OAtomicOperationsMangerMXBean {
     acquireExclusiveLockTillOperationComplete(operation, durableComponent.getLockName());
   }
 
+  /**
+   * Acquires shared lock in the active atomic operation running on the current thread for the {@code durableComponent}. Shared lock
+   * is used by components which allow concurrent changes of their independent parts, such parts should be locked exclusively by
+   * {@link #acquireExclusiveLockTillOperationComplete(OAtomicOperation, String)}. Lock can not be upgraded to exclusive one later.
+   *
+   * @return <code>true</code> if lock was acquired, <code>false</code> if component is already locked by current atomic operation
+   * in shared or exclusive mode.
+   */
+  public boolean acquireSharedLockTillOperationComplete(ODurableComponent durableComponent) {
+    final OAtomicOperation operation = currentOperation.get();
+    assert operation != null;
+
+    final String lockName = durableComponent.getLockName();
+    if (operation.containsInLockedObjects(lockName) || operation.containsInSharedLockedObjects(lockName)) {
+      return false;
+    }
+
+    lockManager.acquireLock(lockName, OOneEntryPerKeyLockManager.LOCK.SHARED);
+    operation.addSharedLockedObject(lockName);
+    return true;
+  }
+
+  /**
+   * Releases lock which was acquired in the active atomic operation before the end of this operation. May be used only if nothing
+   * was changed under protection of this lock.
+   */
+  public void releaseLockBeforeOperationComplete(OAtomicOperation operation, String lockName) {
+    if (operation.removeLockedObject(lockName)) {
+      lockManager.releaseLock(this, lockName, OOneEntryPerKeyLockManager.LOCK.EXCLUSIVE);
+    } else if (operation.removeSharedLockedObject(lockName)) {
+      lockManager.releaseLock(this, lockName, OOneEntryPerKeyLockManager.LOCK.SHARED);
+    }
+  }
+
+  /**
+   * Acquires exclusive lock for the {@code durableComponent} outside of atomic operation. It is used when component is changed
+   * directly in the cache without logging of changes to WAL, so neither readers nor atomic operations may access it till lock is
+   * released by {@link #releaseExclusiveLock(ODurableComponent)}.
+   */
+  public void acquireExclusiveLock(ODurableComponent durableComponent) {
+    assert durableComponent.getLockName() != null;
+    assert currentOperation.get() == null;
+
+    lockManager.acquireLock(durableComponent.getLockName(), OOneEntryPerKeyLockManager.LOCK.EXCLUSIVE);
+  }
+
+  public void releaseExclusiveLock(ODurableComponent durableComponent) {
+    assert durableComponent.getLockName() != null;
+
+    lockManager.releaseLock(this, durableComponent.getLockName(), OOneEntryPerKeyLockManager.LOCK.EXCLUSIVE);
+  }
+
   public void acquireReadLock(ODurableComponent durableComponent) {
     assert durableComponent.getLockName() != null;
 
@@ -49,6 +49,10 @@ public class OMemoryWriteAheadLog extends OAbstractWriteAheadLog {
   public void flush() {
   }
 
+  @Override
+  public void syncCommit(OLogSequenceNumber lsn) {
+  }
+
   @Override
   public OLogSequenceNumber logAtomicOperationStartRecord(boolean isRollbackSupported, OOperationUnitId unitId) throws IOException {
     return log(new OAtomicUnitStartRecord(isRollbackSupported, unitId));
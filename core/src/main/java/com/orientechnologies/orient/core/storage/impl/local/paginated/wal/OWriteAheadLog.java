@@ -57,6 +57,14 @@ public interface OWriteAheadLog {
 
   void flush();
 
+  /**
+   * Waits till record with given LSN is written and fsynced to the disk if group commit is enabled, otherwise does nothing. Records
+   * of concurrent callers are fsynced together.
+   *
+   * @param lsn LSN of the last record of committed transaction.
+   */
+  void syncCommit(OLogSequenceNumber lsn);
+
   OLogSequenceNumber logAtomicOperationStartRecord(boolean isRollbackSupported, OOperationUnitId unitId) throws IOException;
 
   OLogSequenceNumber logAtomicOperationEndRecord(OOperationUnitId operationUnitId, boolean rollback, OLogSequenceNumber startLsn,
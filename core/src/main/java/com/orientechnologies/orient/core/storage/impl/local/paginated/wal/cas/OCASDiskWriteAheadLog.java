@@ -208,11 +208,42 @@ public final class OCASDiskWriteAheadLog implements OWriteAheadLog {
 
   private volatile boolean stopWrite = false;
 
+  /**
+   * Minimum interval (in nanoseconds) during which commits are collected into the group, once concurrent commits are detected.
+   */
+  private static final long MIN_GROUP_COMMIT_WINDOW = 10_000;
+
+  private final boolean groupCommit;
+  private final long    groupCommitMaxLatency;
+
+  //modified only by commit thread
+  private volatile long groupCommitWindow = 0;
+
+  private final AtomicReference<GroupCommitTicket> groupCommitTicket = new AtomicReference<>();
+
+  private final OGroupCommitHistogram commitsPerSyncHistogram = new OGroupCommitHistogram();
+  private final OGroupCommitHistogram commitWaitTimeHistogram = new OGroupCommitHistogram();
+
   public OCASDiskWriteAheadLog(final String storageName, final Path storagePath, final Path walPath, final int maxPagesCacheSize,
       final int bufferSize, byte[] aesKey, byte[] iv, long segmentsInterval, final long maxSegmentSize, final int commitDelay,
       final boolean filterWALFiles, final Locale locale, final long walSizeHardLimit, final long freeSpaceLimit,
       final int fsyncInterval, boolean allowDirectIO, boolean callFsync, boolean printPerformanceStatistic,
       int statisticPrintInterval) throws IOException {
+    this(storageName, storagePath, walPath, maxPagesCacheSize, bufferSize, aesKey, iv, segmentsInterval, maxSegmentSize,
+        commitDelay, filterWALFiles, locale, walSizeHardLimit, freeSpaceLimit, fsyncInterval, allowDirectIO, callFsync,
+        printPerformanceStatistic, statisticPrintInterval, false, 0);
+  }
+
+  /**
+   * @param groupCommit           If <code>true</code> {@link #syncCommit(OLogSequenceNumber)} waits till records of committed
+   *                              transaction are fsynced, concurrent commits share the same fsync.
+   * @param groupCommitMaxLatency Maximum interval in microseconds during which commits are collected into the single group.
+   */
+  public OCASDiskWriteAheadLog(final String storageName, final Path storagePath, final Path walPath, final int maxPagesCacheSize,
+      final int bufferSize, byte[] aesKey, byte[] iv, long segmentsInterval, final long maxSegmentSize, final int commitDelay,
+      final boolean filterWALFiles, final Locale locale, final long walSizeHardLimit, final long freeSpaceLimit,
+      final int fsyncInterval, boolean allowDirectIO, boolean callFsync, boolean printPerformanceStatistic,
+      int statisticPrintInterval, boolean groupCommit, int groupCommitMaxLatency) throws IOException {
 
     if (aesKey != null && aesKey.length != 16 && aesKey.length != 24 && aesKey.length != 32) {
       throw new OInvalidStorageEncryptionKeyException("Invalid length of the encryption key, provided size is " + aesKey.length);
@@ -232,6 +263,9 @@ public final class OCASDiskWriteAheadLog implements OWriteAheadLog {
     this.printPerformanceStatistic = printPerformanceStatistic;
     this.statisticPrintInterval = statisticPrintInterval;
 
+    this.groupCommit = groupCommit;
+    this.groupCommitMaxLatency = Math.max(0, groupCommitMaxLatency) * 1_000L;
+
     this.fsyncInterval = fsyncInterval;
     this.walSizeHardLimit = walSizeHardLimit;
     this.freeSpaceLimit = freeSpaceLimit;
@@ -1372,6 +1406,72 @@ public final class OCASDiskWriteAheadLog implements OWriteAheadLog {
     waitTillWriteWillBeFinished();
   }
 
+  @Override
+  public void syncCommit(final OLogSequenceNumber lsn) {
+    if (!groupCommit || lsn == null) {
+      return;
+    }
+
+    final OLogSequenceNumber flushedLSN = this.flushedLSN;
+    if (flushedLSN != null && flushedLSN.compareTo(lsn) >= 0) {
+      return;
+    }
+
+    final long startTs = System.nanoTime();
+    try {
+      while (true) {
+        final GroupCommitTicket ticket = groupCommitTicket.get();
+        if (ticket == null) {
+          final GroupCommitTicket newTicket = new GroupCommitTicket();
+          if (groupCommitTicket.compareAndSet(null, newTicket)) {
+            commitExecutor.schedule(new GroupCommitTask(newTicket), groupCommitWindow, TimeUnit.NANOSECONDS);
+            waitForGroupCommit(newTicket);
+            return;
+          }
+        } else if (ticket.join()) {
+          waitForGroupCommit(ticket);
+          return;
+        }
+      }
+    } finally {
+      commitWaitTimeHistogram.record((System.nanoTime() - startTs) / 1_000);
+    }
+  }
+
+  private void waitForGroupCommit(final GroupCommitTicket ticket) {
+    try {
+      ticket.written.await();
+
+      final Throwable error = ticket.error;
+      if (error != null) {
+        throw OException.wrapException(new OStorageException("Error during group commit of WAL for storage " + storageName), error);
+      }
+
+      final Future<?> syncFuture = ticket.syncFuture;
+      if (syncFuture != null) {
+        syncFuture.get();
+      }
+    } catch (final InterruptedException e) {
+      throw OException.wrapException(new OStorageException("WAL group commit for storage " + storageName + " was interrupted"), e);
+    } catch (final ExecutionException e) {
+      throw OException.wrapException(new OStorageException("Error during WAL fsync for storage " + storageName), e);
+    }
+  }
+
+  /**
+   * @return Histogram of amount of transaction commits which were made durable by a single WAL fsync when group commit is enabled.
+   */
+  public OGroupCommitHistogram getCommitsPerSyncHistogram() {
+    return commitsPerSyncHistogram;
+  }
+
+  /**
+   * @return Histogram of time (in microseconds) which committers spent waiting for WAL fsync when group commit is enabled.
+   */
+  public OGroupCommitHistogram getCommitWaitTimeHistogram() {
+    return commitWaitTimeHistogram;
+  }
+
   public void close() throws IOException {
     close(true);
   }
@@ -2287,6 +2387,12 @@ public final class OCASDiskWriteAheadLog implements OWriteAheadLog {
         OCASDiskWriteAheadLog.this.threadsWaitingSum.add(-threadsWaitingSum);
         OCASDiskWriteAheadLog.this.threadsWaitingCount.add(-threadsWaitingCount);
 
+        if (groupCommit) {
+          OLogManager.instance()
+              .infoNoDb(this, "WAL group commit stat:%s: commits per fsync {%s}, commit wait time in us. {%s}", storageName,
+                  commitsPerSyncHistogram, commitWaitTimeHistogram);
+        }
+
         reportTs = ts;
       }
 
@@ -2294,6 +2400,76 @@ public final class OCASDiskWriteAheadLog implements OWriteAheadLog {
 
   }
 
+  /**
+   * Group of commits which wait for the same WAL fsync. Amount of commits is set to -1 once group is closed, after that new
+   * commits can not join it.
+   */
+  private static final class GroupCommitTicket {
+    private final AtomicInteger  commits = new AtomicInteger(1);
+    private final CountDownLatch written = new CountDownLatch(1);
+
+    private volatile Future<?> syncFuture;
+    private volatile Throwable error;
+
+    private boolean join() {
+      while (true) {
+        final int commits = this.commits.get();
+        if (commits < 0) {
+          return false;
+        }
+
+        if (this.commits.compareAndSet(commits, commits + 1)) {
+          return true;
+        }
+      }
+    }
+
+    private int close() {
+      return commits.getAndSet(-1);
+    }
+  }
+
+  /**
+   * Closes group of commits, writes all records logged so far and triggers fsync of WAL. Batch window of the next group is doubled
+   * if there were concurrent commits in current group, and is halved otherwise, so single threaded load is not delayed.
+   */
+  private final class GroupCommitTask implements Runnable {
+    private final GroupCommitTicket ticket;
+
+    private GroupCommitTask(final GroupCommitTicket ticket) {
+      this.ticket = ticket;
+    }
+
+    @Override
+    public void run() {
+      try {
+        groupCommitTicket.compareAndSet(ticket, null);
+
+        final int commits = ticket.close();
+        commitsPerSyncHistogram.record(commits);
+
+        final long window = groupCommitWindow;
+        if (commits > 1) {
+          groupCommitWindow = Math.min(groupCommitMaxLatency, Math.max(MIN_GROUP_COMMIT_WINDOW, window * 2));
+        } else if (window > MIN_GROUP_COMMIT_WINDOW) {
+          groupCommitWindow = window / 2;
+        } else {
+          groupCommitWindow = 0;
+        }
+
+        if (!stopWrite) {
+          new RecordsWriter(true, true, false).run();
+        }
+
+        ticket.syncFuture = writeFuture;
+      } catch (final RuntimeException | Error e) {
+        ticket.error = e;
+      } finally {
+        ticket.written.countDown();
+      }
+    }
+  }
+
   private static final class WrittenUpTo {
     private final OLogSequenceNumber lsn;
     private final long               position;
@@ -0,0 +1,58 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated.wal.cas;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of values with buckets which boundaries are powers of two. Bucket <code>i</code> contains values in range
+ * <code>[2^(i-1), 2^i)</code>, the first bucket contains values which are less than 1. Used to gather statistics of group commit
+ * of WAL.
+ *
+ * @see OCASDiskWriteAheadLog#getCommitsPerSyncHistogram()
+ * @see OCASDiskWriteAheadLog#getCommitWaitTimeHistogram()
+ */
+public final class OGroupCommitHistogram {
+  private static final int BUCKETS = 32;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  void record(final long value) {
+    final int bucket = value <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+    counts.incrementAndGet(bucket);
+  }
+
+  /**
+   * @return Snapshot of amount of values in each bucket.
+   */
+  public long[] getCounts() {
+    final long[] result = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      result[i] = counts.get(i);
+    }
+
+    return result;
+  }
+
+  /**
+   * @return Upper boundary (exclusive) of values which are stored in bucket with given index.
+   */
+  public static long bucketUpperBound(final int bucket) {
+    return 1L << bucket;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < BUCKETS; i++) {
+      final long count = counts.get(i);
+      if (count > 0) {
+        if (builder.length() > 0) {
+          builder.append(", ");
+        }
+
+        builder.append("<").append(bucketUpperBound(i)).append(": ").append(count);
+      }
+    }
+
+    return builder.toString();
+  }
+}
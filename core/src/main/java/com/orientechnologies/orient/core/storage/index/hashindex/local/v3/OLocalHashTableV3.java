@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implementation of hash index which is based on <a href="http://en.wikipedia.org/wiki/Extendible_hashing">extendible hashing
@@ -110,6 +111,13 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
 
   private OHashTableDirectory directory;
 
+  /**
+   * Version of the pages of the hash table, used to perform point lookups without locks, see {@link
+   * OAtomicOperationsManager#getComponentVersion(com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurableComponent)}.
+   * It is removed once the hash table is deleted and registered again if the hash table is created again.
+   */
+  private volatile AtomicLong componentVersion;
+
   public OLocalHashTableV3(final String name, final String metadataConfigurationFileExtension, final String treeStateFileExtension,
       final String bucketFileExtension, final String nullBucketFileExtension,
       final OAbstractPaginatedStorage abstractPaginatedStorage) {
@@ -118,6 +126,7 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
     this.metadataConfigurationFileExtension = metadataConfigurationFileExtension;
     this.treeStateFileExtension = treeStateFileExtension;
     this.nullBucketFileExtension = nullBucketFileExtension;
+    this.componentVersion = atomicOperationsManager.getComponentVersion(this);
   }
 
   @Override
@@ -141,6 +150,8 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
 
         this.directory = new OHashTableDirectory(treeStateFileExtension, getName(), getFullName(), storage);
 
+        atomicOperation.addCommitAction(() -> componentVersion = atomicOperationsManager.getComponentVersion(this));
+
         fileStateId = addFile(atomicOperation, getName() + metadataConfigurationFileExtension);
 
         directory.create(atomicOperation);
@@ -180,65 +191,81 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
   }
 
   public V get(K key) {
+    if (OAtomicOperationsManager.getCurrentOperation() == null) {
+      //optimistic read, it is valid only if no atomic operation changed the pages of the hash table meanwhile
+      final long version = componentVersion.get();
+      if ((version & 1) == 0) {
+        try {
+          final V result = doGet(key, null);
+          if (componentVersion.get() == version) {
+            return result;
+          }
+        } catch (final IOException | RuntimeException e) {
+          //pages were read while they were changed, read them again under lock
+        }
+      }
+    }
+
     atomicOperationsManager.acquireReadLock(this);
     try {
       acquireSharedLock();
       try {
-        final OAtomicOperation atomicOperation = OAtomicOperationsManager.getCurrentOperation();
-
-        checkNullSupport(key);
-        if (key == null) {
-          if (getFilledUpTo(atomicOperation, nullBucketFileId) == 0) {
-            return null;
-          }
+        return doGet(key, OAtomicOperationsManager.getCurrentOperation());
+      } finally {
+        releaseSharedLock();
+      }
+    } catch (final IOException e) {
+      throw OException.wrapException(new OIndexException("Exception during index value retrieval"), e);
+    } finally {
+      atomicOperationsManager.releaseReadLock(this);
+    }
+  }
 
-          V result;
-          final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, nullBucketFileId, 0, false);
-          try {
-            final ONullBucket<V> nullBucket = new ONullBucket<>(cacheEntry, valueSerializer, false);
-            result = nullBucket.getValue();
-          } finally {
-            releasePageFromRead(atomicOperation, cacheEntry);
-          }
+  private V doGet(K key, final OAtomicOperation atomicOperation) throws IOException {
+    checkNullSupport(key);
+    if (key == null) {
+      if (getFilledUpTo(atomicOperation, nullBucketFileId) == 0) {
+        return null;
+      }
 
-          return result;
-        } else {
-          key = keySerializer.preprocess(key, (Object[]) keyTypes);
+      V result;
+      final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, nullBucketFileId, 0, false);
+      try {
+        final ONullBucket<V> nullBucket = new ONullBucket<>(cacheEntry, valueSerializer, false);
+        result = nullBucket.getValue();
+      } finally {
+        releasePageFromRead(atomicOperation, cacheEntry);
+      }
 
-          final long hashCode = keyHashFunction.hashCode(key);
+      return result;
+    } else {
+      key = keySerializer.preprocess(key, (Object[]) keyTypes);
 
-          final BucketPath bucketPath = getBucket(hashCode, atomicOperation);
-          final long bucketPointer = directory
-              .getNodePointer(bucketPath.nodeIndex, bucketPath.itemIndex + bucketPath.hashMapOffset, atomicOperation);
+      final long hashCode = keyHashFunction.hashCode(key);
 
-          if (bucketPointer == 0) {
-            return null;
-          }
+      final BucketPath bucketPath = getBucket(hashCode, atomicOperation);
+      final long bucketPointer = directory
+          .getNodePointer(bucketPath.nodeIndex, bucketPath.itemIndex + bucketPath.hashMapOffset, atomicOperation);
 
-          final long pageIndex = getPageIndex(bucketPointer);
+      if (bucketPointer == 0) {
+        return null;
+      }
 
-          final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, pageIndex, false);
-          try {
-            final OHashIndexBucket<K, V> bucket = new OHashIndexBucket<>(cacheEntry, keySerializer, valueSerializer, keyTypes);
+      final long pageIndex = getPageIndex(bucketPointer);
 
-            final Entry<K, V> entry = bucket.find(key, hashCode);
-            if (entry == null) {
-              return null;
-            }
+      final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, pageIndex, false);
+      try {
+        final OHashIndexBucket<K, V> bucket = new OHashIndexBucket<>(cacheEntry, keySerializer, valueSerializer, keyTypes);
 
-            return entry.value;
-          } finally {
-            releasePageFromRead(atomicOperation, cacheEntry);
-          }
+        final Entry<K, V> entry = bucket.find(key, hashCode);
+        if (entry == null) {
+          return null;
         }
 
+        return entry.value;
       } finally {
-        releaseSharedLock();
+        releasePageFromRead(atomicOperation, cacheEntry);
       }
-    } catch (final IOException e) {
-      throw OException.wrapException(new OIndexException("Exception during index value retrieval"), e);
-    } finally {
-      atomicOperationsManager.releaseReadLock(this);
     }
   }
 
@@ -536,6 +563,8 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
           final long fileId = openFile(atomicOperation, getFullName());
           deleteFile(atomicOperation, fileId);
         }
+
+        removeComponentVersionOnCommit(atomicOperation);
       } finally {
         releaseExclusiveLock();
       }
@@ -1110,6 +1139,8 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
         if (nullKeyIsSupported) {
           deleteFile(atomicOperation, nullBucketFileId);
         }
+
+        removeComponentVersionOnCommit(atomicOperation);
       } finally {
         releaseExclusiveLock();
       }
@@ -1121,6 +1152,11 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
     }
   }
 
+  private void removeComponentVersionOnCommit(final OAtomicOperation atomicOperation) {
+    final AtomicLong version = componentVersion;
+    atomicOperation.addCommitAction(() -> atomicOperationsManager.removeComponentVersion(this, version));
+  }
+
   private void mergeNodeToParent(final BucketPath nodePath, final OAtomicOperation atomicOperation) throws IOException {
     final int startIndex = findParentNodeStartIndex(nodePath);
     final int localNodeDepth = nodePath.nodeLocalDepth;
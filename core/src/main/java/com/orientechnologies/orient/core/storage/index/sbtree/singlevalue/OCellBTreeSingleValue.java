@@ -1,12 +1,18 @@
 package com.orientechnologies.orient.core.storage.index.sbtree.singlevalue;
 
+import com.orientechnologies.common.comparator.ODefaultComparator;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.orient.core.encryption.OEncryption;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.index.engine.OBaseIndexEngine;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 public interface OCellBTreeSingleValue<K> {
@@ -14,11 +20,39 @@ public interface OCellBTreeSingleValue<K> {
 
   ORID get(K key);
 
+  /**
+   * Returns values of all passed in keys which are present in the tree. Keys may be passed in any order, <code>null</code> keys are
+   * ignored. Implementations may sort keys and find all of them during single walk over the tree.
+   *
+   * @return pairs of passed in keys and values which are sorted by key in ascending order.
+   */
+  default List<ORawPair<K, ORID>> getMany(final Collection<K> keys) {
+    final List<ORawPair<K, ORID>> result = new ArrayList<>(keys.size());
+    for (final K key : keys) {
+      if (key != null) {
+        final ORID value = get(key);
+        if (value != null) {
+          result.add(new ORawPair<>(key, value));
+        }
+      }
+    }
+
+    result.sort((first, second) -> ODefaultComparator.INSTANCE.compare(first.getFirst(), second.getFirst()));
+    return result;
+  }
+
   void put(K key, ORID value) throws IOException;
 
   boolean validatedPut(K key, ORID value, OBaseIndexEngine.Validator<K, ORID> validator)
           throws IOException;
 
+  /**
+   * Adds all passed in entries to the tree. Entries may be passed in any order and may contain equal keys, in such case the
+   * validator decides which value is kept. Implementations may build the tree bypassing of WAL, so caller should not have an active
+   * atomic operation and is responsible to make changes durable once the method returns.
+   */
+  void bulkLoad(Iterator<ORawPair<K, ORID>> entries, OBaseIndexEngine.Validator<K, ORID> validator) throws IOException;
+
   void close();
 
   void clear() throws IOException;
@@ -48,6 +82,12 @@ public interface OCellBTreeSingleValue<K> {
 
   void acquireAtomicExclusiveLock();
 
+  /**
+   * Acquires locks in the active atomic operation running on the current thread which are needed to put or remove the single key.
+   * Implementation may lock only part of the tree which contains the key, or the whole tree.
+   */
+  void acquireAtomicKeyLock(K key);
+
   interface OCellBTreeCursor<K2, V> {
     Map.Entry<K2, V> next(int prefetchSize);
   }
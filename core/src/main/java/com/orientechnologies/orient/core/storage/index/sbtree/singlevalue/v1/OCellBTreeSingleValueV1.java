@@ -26,6 +26,7 @@ import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.common.serialization.types.OShortSerializer;
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.encryption.OEncryption;
 import com.orientechnologies.orient.core.exception.OTooBigIndexKeyException;
@@ -213,6 +214,14 @@ public final class OCellBTreeSingleValueV1<K> extends ODurableComponent implemen
     return update(key, value, validator);
   }
 
+  public void bulkLoad(final Iterator<ORawPair<K, ORID>> entries, final OBaseIndexEngine.Validator<K, ORID> validator)
+      throws IOException {
+    while (entries.hasNext()) {
+      final ORawPair<K, ORID> entry = entries.next();
+      update(entry.getFirst(), entry.getSecond(), validator);
+    }
+  }
+
   private boolean update(K key, ORID value, final OBaseIndexEngine.Validator<K, ORID> validator) throws IOException {
     boolean rollback = false;
     final OAtomicOperation atomicOperation = startAtomicOperation(true);
@@ -747,6 +756,11 @@ public final class OCellBTreeSingleValueV1<K> extends ODurableComponent implemen
     atomicOperationsManager.acquireExclusiveLockTillOperationComplete(this);
   }
 
+  @Override
+  public void acquireAtomicKeyLock(final K key) {
+    acquireAtomicExclusiveLock();
+  }
+
   private void updateSize(final long diffSize, final OAtomicOperation atomicOperation) throws IOException {
     final OCacheEntry entryPointCacheEntry = loadPageForWrite(atomicOperation, fileId, ENTRY_POINT_INDEX, false, true);
     try {
@@ -0,0 +1,234 @@
+package com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.v3;
+
+import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts entries which are loaded into {@link OCellBTreeSingleValueV3} during bulk load. Entries are accumulated in heap, once
+ * amount of entries reaches size of the buffer they are sorted and written to the temporary file as sorted run. Sorted runs are
+ * merged during iteration. Entries with equal keys are returned in order of their addition.
+ */
+final class OBulkLoadSorter<K> implements AutoCloseable {
+  private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+  private final OBinarySerializer<K> keySerializer;
+  private final OType[]              keyTypes;
+  private final int                  bufferSize;
+
+  private final Comparator<? super K>             comparator      = ODefaultComparator.INSTANCE;
+  private final Comparator<ORawPair<K, ORID>>     entryComparator = (first, second) -> comparator
+      .compare(first.getFirst(), second.getFirst());
+  private final List<ORawPair<K, ORID>>           buffer          = new ArrayList<>();
+  private final List<File>                        runs            = new ArrayList<>();
+  private final List<Integer>                     runSizes        = new ArrayList<>();
+  private final List<DataInputStream>             openedRuns      = new ArrayList<>();
+
+  OBulkLoadSorter(final OBinarySerializer<K> keySerializer, final OType[] keyTypes, final int bufferSize) {
+    this.keySerializer = keySerializer;
+    this.keyTypes = keyTypes;
+    this.bufferSize = Math.max(1, bufferSize);
+  }
+
+  void add(final K key, final ORID value) throws IOException {
+    buffer.add(new ORawPair<>(key, value));
+
+    if (buffer.size() >= bufferSize) {
+      spill();
+    }
+  }
+
+  /**
+   * @return Iterator over all added entries sorted by key. Sorter can not be used to add new entries after this call.
+   */
+  Iterator<ORawPair<K, ORID>> sortedEntries() throws IOException {
+    buffer.sort(entryComparator);
+
+    if (runs.isEmpty()) {
+      return buffer.iterator();
+    }
+
+    final PriorityQueue<Source> queue = new PriorityQueue<>(runs.size() + 1, (first, second) -> {
+      final int result = comparator.compare(first.head.getFirst(), second.head.getFirst());
+      if (result != 0) {
+        return result;
+      }
+
+      return Integer.compare(first.order, second.order);
+    });
+
+    for (int i = 0; i < runs.size(); i++) {
+      final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(runs.get(i)), IO_BUFFER_SIZE));
+      openedRuns.add(in);
+
+      final Source source = new RunSource(i, in, runSizes.get(i));
+      if (source.advance()) {
+        queue.add(source);
+      }
+    }
+
+    // entries which are left in heap were added after all entries in runs
+    final Source bufferSource = new BufferSource(runs.size(), buffer.iterator());
+    if (bufferSource.advance()) {
+      queue.add(bufferSource);
+    }
+
+    return new Iterator<ORawPair<K, ORID>>() {
+      @Override
+      public boolean hasNext() {
+        return !queue.isEmpty();
+      }
+
+      @Override
+      public ORawPair<K, ORID> next() {
+        final Source source = queue.poll();
+        if (source == null) {
+          throw new NoSuchElementException();
+        }
+
+        final ORawPair<K, ORID> result = source.head;
+        try {
+          if (source.advance()) {
+            queue.add(source);
+          }
+        } catch (final IOException e) {
+          throw OException.wrapException(new OStorageException("Error during reading of sorted index entries"), e);
+        }
+
+        return result;
+      }
+    };
+  }
+
+  private void spill() throws IOException {
+    buffer.sort(entryComparator);
+
+    final File dir = new File(Orient.getTempPath());
+    if (!dir.exists() && !dir.mkdirs() && !dir.exists()) {
+      throw new IOException("Cannot create directory " + dir);
+    }
+
+    final File file = File.createTempFile("bulkload", ".run", dir);
+    runs.add(file);
+    runSizes.add(buffer.size());
+
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), IO_BUFFER_SIZE))) {
+      for (final ORawPair<K, ORID> entry : buffer) {
+        final byte[] serializedKey = keySerializer.serializeNativeAsWhole(entry.getFirst(), (Object[]) keyTypes);
+        out.writeInt(serializedKey.length);
+        out.write(serializedKey);
+
+        final ORID value = entry.getSecond();
+        out.writeShort(value.getClusterId());
+        out.writeLong(value.getClusterPosition());
+      }
+    }
+
+    buffer.clear();
+  }
+
+  @Override
+  public void close() {
+    for (final DataInputStream in : openedRuns) {
+      try {
+        in.close();
+      } catch (final IOException e) {
+        OLogManager.instance().error(this, "Error during closing of temporary file of index bulk load", e);
+      }
+    }
+    openedRuns.clear();
+
+    for (final File run : runs) {
+      if (!run.delete() && run.exists()) {
+        OLogManager.instance().warn(this, "Temporary file %s of index bulk load can not be deleted", run);
+      }
+    }
+    runs.clear();
+
+    buffer.clear();
+  }
+
+  private abstract class Source {
+    private final int order;
+
+    ORawPair<K, ORID> head;
+
+    Source(final int order) {
+      this.order = order;
+    }
+
+    abstract boolean advance() throws IOException;
+  }
+
+  private final class RunSource extends Source {
+    private final DataInputStream in;
+    private       int             left;
+
+    private RunSource(final int order, final DataInputStream in, final int size) {
+      super(order);
+      this.in = in;
+      this.left = size;
+    }
+
+    @Override
+    boolean advance() throws IOException {
+      if (left == 0) {
+        head = null;
+        return false;
+      }
+
+      final byte[] serializedKey = new byte[in.readInt()];
+      in.readFully(serializedKey);
+
+      final int clusterId = in.readShort();
+      final long clusterPosition = in.readLong();
+
+      head = new ORawPair<>(keySerializer.deserializeNativeObject(serializedKey, 0), new ORecordId(clusterId, clusterPosition));
+      left--;
+
+      return true;
+    }
+  }
+
+  private final class BufferSource extends Source {
+    private final Iterator<ORawPair<K, ORID>> iterator;
+
+    private BufferSource(final int order, final Iterator<ORawPair<K, ORID>> iterator) {
+      super(order);
+      this.iterator = iterator;
+    }
+
+    @Override
+    boolean advance() {
+      if (iterator.hasNext()) {
+        head = iterator.next();
+        return true;
+      }
+
+      head = null;
+      return false;
+    }
+  }
+}
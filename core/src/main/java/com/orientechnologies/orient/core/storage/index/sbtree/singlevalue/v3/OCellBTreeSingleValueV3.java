@@ -23,8 +23,10 @@ package com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.v3;
 import com.orientechnologies.common.comparator.ODefaultComparator;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.common.serialization.types.OShortSerializer;
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.encryption.OEncryption;
 import com.orientechnologies.orient.core.exception.OTooBigIndexKeyException;
@@ -80,18 +82,34 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
   private final        Comparator<? super K> comparator        = ODefaultComparator.INSTANCE;
 
   private final String               nullFileExtension;
+  private final boolean              keyCompression;
   private       long                 fileId;
   private       long                 nullBucketFileId = -1;
   private       int                  keySize;
   private       OBinarySerializer<K> keySerializer;
   private       OType[]              keyTypes;
+  /**
+   * Whether keys are stored in {@link OSBTreeCompressedBucketSingleValue} and separators of leaf pages are truncated. Keys of fixed
+   * length are always stored as is, because they gain nothing from compression.
+   */
+  private       boolean              compressKeys;
 
   public OCellBTreeSingleValueV3(final String name, final String dataFileExtension, final String nullFileExtension,
       final OAbstractPaginatedStorage storage) {
+    this(name, dataFileExtension, nullFileExtension, storage, false);
+  }
+
+  /**
+   * @param keyCompression Whether tree uses format with compressed keys. Format is not stored inside of the tree, so the same value
+   *                       should be passed each time tree is created or loaded.
+   */
+  public OCellBTreeSingleValueV3(final String name, final String dataFileExtension, final String nullFileExtension,
+      final OAbstractPaginatedStorage storage, final boolean keyCompression) {
     super(storage, name, dataFileExtension, name + dataFileExtension);
     acquireExclusiveLock();
     try {
       this.nullFileExtension = nullFileExtension;
+      this.keyCompression = keyCompression;
     } finally {
       releaseExclusiveLock();
     }
@@ -114,6 +132,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
         }
 
         this.keySerializer = keySerializer;
+        this.compressKeys = keyCompression && !keySerializer.isFixedLength();
 
         fileId = addFile(atomicOperation, getFullName());
         nullBucketFileId = addFile(atomicOperation, getName() + nullFileExtension);
@@ -129,8 +148,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
         final OCacheEntry rootCacheEntry = addPage(atomicOperation, fileId);
         try {
           @SuppressWarnings("unused")
-          final OSBTreeBucketSingleValue<K> rootBucket = new OSBTreeBucketSingleValue<>(rootCacheEntry, true, keySerializer,
-              keyTypes);
+          final OSBTreeBucketSingleValue<K> rootBucket = createBucket(rootCacheEntry, true);
         } finally {
           releasePageFromWrite(atomicOperation, rootCacheEntry);
         }
@@ -172,8 +190,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
           final long pageIndex = bucketSearchResult.pageIndex;
           final OCacheEntry keyBucketCacheEntry = loadPageForRead(atomicOperation, fileId, pageIndex, false);
           try {
-            final OSBTreeBucketSingleValue<K> keyBucket = new OSBTreeBucketSingleValue<>(keyBucketCacheEntry, keySerializer,
-                keyTypes);
+            final OSBTreeBucketSingleValue<K> keyBucket = loadBucket(keyBucketCacheEntry);
             return keyBucket.getValue(bucketSearchResult.itemIndex);
           } finally {
             releasePageFromRead(atomicOperation, keyBucketCacheEntry);
@@ -198,6 +215,115 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
     }
   }
 
+  /**
+   * Keys are sorted and looked up during single walk over the tree. Path from the root to the current leaf is kept together with
+   * upper boundaries of the subtrees of the path, so the next key is searched starting from the deepest subtree which may contain it
+   * and keys which belong to the same leaf are searched without leaving of the leaf page.
+   */
+  @Override
+  public List<ORawPair<K, ORID>> getMany(final Collection<K> keys) {
+    atomicOperationsManager.acquireReadLock(this);
+    try {
+      acquireSharedLock();
+      try {
+        final OAtomicOperation atomicOperation = OAtomicOperationsManager.getCurrentOperation();
+
+        final List<ORawPair<K, K>> sortedKeys = new ArrayList<>(keys.size());
+        for (final K key : keys) {
+          if (key != null) {
+            sortedKeys.add(new ORawPair<>(keySerializer.preprocess(key, (Object[]) keyTypes), key));
+          }
+        }
+        sortedKeys.sort((first, second) -> ODefaultComparator.INSTANCE.compare(first.getFirst(), second.getFirst()));
+
+        final List<ORawPair<K, ORID>> result = new ArrayList<>(sortedKeys.size());
+
+        final long[] pages = new long[MAX_PATH_LENGTH];
+        @SuppressWarnings("unchecked")
+        final K[] upperBounds = (K[]) new Object[MAX_PATH_LENGTH];
+        int depth = 0;
+
+        OCacheEntry leafCacheEntry = null;
+        OSBTreeBucketSingleValue<K> leafBucket = null;
+        try {
+          for (final ORawPair<K, K> sortedKey : sortedKeys) {
+            final K key = sortedKey.getFirst();
+
+            while (depth > 0 && upperBounds[depth - 1] != null
+                && ODefaultComparator.INSTANCE.compare(key, upperBounds[depth - 1]) >= 0) {
+              if (leafCacheEntry != null) {
+                releasePageFromRead(atomicOperation, leafCacheEntry);
+                leafCacheEntry = null;
+                leafBucket = null;
+              }
+              depth--;
+            }
+
+            if (depth == 0) {
+              pages[0] = ROOT_INDEX;
+              upperBounds[0] = null;
+              depth = 1;
+            }
+
+            while (leafBucket == null) {
+              final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, pages[depth - 1], false);
+              final OSBTreeBucketSingleValue<K> bucket = loadBucket(cacheEntry);
+              if (bucket.isLeaf()) {
+                leafCacheEntry = cacheEntry;
+                leafBucket = bucket;
+                break;
+              }
+
+              try {
+                if (depth >= MAX_PATH_LENGTH) {
+                  throw new OCellBTreeSingleValueException(
+                      "We reached max level of depth of SBTree but still found nothing, seems like tree is in corrupted state. You should rebuild index related to given query.",
+                      this);
+                }
+
+                final int index = bucket.find(key);
+                if (index >= 0) {
+                  pages[depth] = bucket.getRight(index);
+                  upperBounds[depth] = index + 1 < bucket.size() ? bucket.getKey(index + 1) : upperBounds[depth - 1];
+                } else {
+                  final int insertionIndex = -index - 1;
+                  if (insertionIndex >= bucket.size()) {
+                    pages[depth] = bucket.getRight(insertionIndex - 1);
+                    upperBounds[depth] = upperBounds[depth - 1];
+                  } else {
+                    pages[depth] = bucket.getLeft(insertionIndex);
+                    upperBounds[depth] = bucket.getKey(insertionIndex);
+                  }
+                }
+                depth++;
+              } finally {
+                releasePageFromRead(atomicOperation, cacheEntry);
+              }
+            }
+
+            final int index = leafBucket.find(key);
+            if (index >= 0) {
+              result.add(new ORawPair<>(sortedKey.getSecond(), leafBucket.getValue(index)));
+            }
+          }
+        } finally {
+          if (leafCacheEntry != null) {
+            releasePageFromRead(atomicOperation, leafCacheEntry);
+          }
+        }
+
+        return result;
+      } finally {
+        releaseSharedLock();
+      }
+    } catch (final IOException e) {
+      throw OException
+          .wrapException(new OCellBTreeSingleValueException("Error during retrieving  of sbtree with name " + getName(), this), e);
+    } finally {
+      atomicOperationsManager.releaseReadLock(this);
+    }
+  }
+
   public void put(final K key, final ORID value) throws IOException {
     update(key, value, null);
   }
@@ -207,11 +333,138 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
     return update(key, value, validator);
   }
 
+  /**
+   * Loads entries into the tree. If tree is empty, entries are sorted (with spilling to the temporary files if they do not fit into
+   * the buffer defined by {@link OGlobalConfiguration#INDEX_BULK_LOAD_SORT_BUFFER_SIZE}) and tree is built from bottom to top, so
+   * every page is written only once and filled up to the {@link OGlobalConfiguration#INDEX_BULK_LOAD_FILL_FACTOR}. Pages are
+   * changed directly in the disk cache without logging of changes into WAL. If tree is not empty entries are added one by one.
+   */
+  public void bulkLoad(final Iterator<ORawPair<K, ORID>> entries, final OBaseIndexEngine.Validator<K, ORID> validator)
+      throws IOException {
+    final List<ORID> nullKeyValues = new ArrayList<>();
+
+    try (OBulkLoadSorter<K> sorter = new OBulkLoadSorter<>(keySerializer, keyTypes,
+        OGlobalConfiguration.INDEX_BULK_LOAD_SORT_BUFFER_SIZE.getValueAsInteger())) {
+      while (entries.hasNext()) {
+        final ORawPair<K, ORID> entry = entries.next();
+
+        if (entry.getFirst() != null) {
+          sorter.add(keySerializer.preprocess(entry.getFirst(), (Object[]) keyTypes), entry.getSecond());
+        } else {
+          nullKeyValues.add(entry.getSecond());
+        }
+      }
+
+      final Iterator<ORawPair<K, ORID>> sortedEntries = sorter.sortedEntries();
+      boolean built = false;
+
+      atomicOperationsManager.acquireExclusiveLock(this);
+      try {
+        acquireExclusiveLock();
+        try {
+          if (isTreeEmpty()) {
+            buildTree(sortedEntries, validator);
+            built = true;
+          }
+        } finally {
+          releaseExclusiveLock();
+        }
+      } finally {
+        atomicOperationsManager.releaseExclusiveLock(this);
+      }
+
+      if (!built) {
+        while (sortedEntries.hasNext()) {
+          final ORawPair<K, ORID> entry = sortedEntries.next();
+          update(entry.getFirst(), entry.getSecond(), validator);
+        }
+      }
+    }
+
+    for (final ORID value : nullKeyValues) {
+      update(null, value, validator);
+    }
+  }
+
+  private boolean isTreeEmpty() throws IOException {
+    final OCacheEntry entryPointCacheEntry = loadPageForRead(null, fileId, ENTRY_POINT_INDEX, false);
+    try {
+      final OEntryPoint<K> entryPoint = new OEntryPoint<>(entryPointCacheEntry);
+      if (entryPoint.getTreeSize() > 0) {
+        return false;
+      }
+    } finally {
+      releasePageFromRead(null, entryPointCacheEntry);
+    }
+
+    final OCacheEntry rootCacheEntry = loadPageForRead(null, fileId, ROOT_INDEX, false);
+    try {
+      final OSBTreeBucketSingleValue<K> rootBucket = loadBucket(rootCacheEntry);
+      return rootBucket.isEmpty();
+    } finally {
+      releasePageFromRead(null, rootCacheEntry);
+    }
+  }
+
+  private void buildTree(final Iterator<ORawPair<K, ORID>> sortedEntries, final OBaseIndexEngine.Validator<K, ORID> validator)
+      throws IOException {
+    final BulkLoadBuilder builder = new BulkLoadBuilder();
+    try {
+      K currentKey = null;
+      ORID currentValue = null;
+
+      while (sortedEntries.hasNext()) {
+        final ORawPair<K, ORID> entry = sortedEntries.next();
+        final K key = entry.getFirst();
+
+        final boolean sameKey = currentKey != null && comparator.compare(currentKey, key) == 0;
+        if (!sameKey) {
+          if (currentValue != null) {
+            builder.addLeafEntry(currentKey, currentValue);
+          }
+
+          currentKey = key;
+          currentValue = null;
+        }
+
+        if (validator == null) {
+          currentValue = entry.getSecond();
+        } else {
+          final Object result = validator.validate(key, currentValue, entry.getSecond());
+          if (result != OBaseIndexEngine.Validator.IGNORE) {
+            currentValue = (ORID) result;
+          }
+        }
+      }
+
+      if (currentValue != null) {
+        builder.addLeafEntry(currentKey, currentValue);
+      }
+
+      builder.finish();
+    } catch (final IOException | RuntimeException | Error e) {
+      // pages are not logged into WAL, so partially built tree can not be rolled back and is dropped instead
+      try {
+        builder.abort();
+      } catch (final IOException | RuntimeException ae) {
+        e.addSuppressed(ae);
+      }
+      throw e;
+    }
+
+    builder.close();
+  }
+
   private boolean update(K key, ORID value, final OBaseIndexEngine.Validator<K, ORID> validator) throws IOException {
     boolean rollback = false;
     final OAtomicOperation atomicOperation = startAtomicOperation(true);
     try {
-      acquireExclusiveLock();
+      final boolean keyLocked = isKeyLocked(atomicOperation);
+      if (keyLocked) {
+        acquireSharedLock();
+      } else {
+        acquireExclusiveLock();
+      }
       try {
         if (key != null) {
 
@@ -225,10 +478,13 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
           }
 
           UpdateBucketSearchResult bucketSearchResult = findBucketForUpdate(key, atomicOperation);
+          if (keyLocked) {
+            checkPageLock(atomicOperation, bucketSearchResult.getLastPathItem());
+          }
 
           OCacheEntry keyBucketCacheEntry = loadPageForWrite(atomicOperation, fileId, bucketSearchResult.getLastPathItem(), false,
               true);
-          OSBTreeBucketSingleValue<K> keyBucket = new OSBTreeBucketSingleValue<>(keyBucketCacheEntry, keySerializer, keyTypes);
+          OSBTreeBucketSingleValue<K> keyBucket = loadBucket(keyBucketCacheEntry);
 
           final byte[] oldRawValue = bucketSearchResult.itemIndex > -1 ? keyBucket.getRawValue(bucketSearchResult.itemIndex) : null;
           final ORID oldValue;
@@ -286,6 +542,13 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
           }
 
           while (!keyBucket.addLeafEntry(insertionIndex, serializedKey, serializedValue)) {
+            if (keyLocked) {
+              releasePageFromWrite(atomicOperation, keyBucketCacheEntry);
+              throw new OCellBTreeSingleValueException(
+                  "Page " + keyBucketCacheEntry.getPageIndex() + " can not be split because only this page is locked by operation",
+                  this);
+            }
+
             bucketSearchResult = splitBucket(keyBucket, keyBucketCacheEntry, bucketSearchResult.path,
                 bucketSearchResult.insertionIndexes, insertionIndex, atomicOperation);
 
@@ -299,7 +562,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
               keyBucketCacheEntry = loadPageForWrite(atomicOperation, fileId, pageIndex, false, true);
             }
 
-            keyBucket = new OSBTreeBucketSingleValue<>(keyBucketCacheEntry, keySerializer, keyTypes);
+            keyBucket = loadBucket(keyBucketCacheEntry);
           }
 
           releasePageFromWrite(atomicOperation, keyBucketCacheEntry);
@@ -309,6 +572,11 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
           }
 
         } else {
+          if (keyLocked) {
+            throw new OCellBTreeSingleValueException("Null key can not be put because only single leaf page is locked by operation",
+                this);
+          }
+
           final OCacheEntry cacheEntry = loadPageForWrite(atomicOperation, nullBucketFileId, 0, false, true);
 
           int sizeDiff = 0;
@@ -339,7 +607,11 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
         }
         return true;
       } finally {
-        releaseExclusiveLock();
+        if (keyLocked) {
+          releaseSharedLock();
+        } else {
+          releaseExclusiveLock();
+        }
       }
     } catch (final Exception e) {
       rollback = true;
@@ -384,7 +656,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
         final OCacheEntry cacheEntry = loadPageForWrite(atomicOperation, fileId, ROOT_INDEX, false, true);
         try {
           @SuppressWarnings("unused")
-          final OSBTreeBucketSingleValue<K> rootBucket = new OSBTreeBucketSingleValue<>(cacheEntry, true, keySerializer, keyTypes);
+          final OSBTreeBucketSingleValue<K> rootBucket = createBucket(cacheEntry, true);
         } finally {
           releasePageFromWrite(atomicOperation, cacheEntry);
         }
@@ -458,6 +730,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
       this.keySize = keySize;
       this.keyTypes = keyTypes;
       this.keySerializer = keySerializer;
+      this.compressKeys = keyCompression && !keySerializer.isFixedLength();
     } catch (final IOException e) {
       throw OException.wrapException(new OCellBTreeSingleValueException("Exception during loading of sbtree " + name, this), e);
     } finally {
@@ -475,6 +748,11 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
         final OCacheEntry entryPointCacheEntry = loadPageForRead(atomicOperation, fileId, ENTRY_POINT_INDEX, false);
         try {
           final OEntryPoint<K> entryPoint = new OEntryPoint<>(entryPointCacheEntry);
+          if (atomicOperation != null) {
+            return entryPoint.getTreeSize() + atomicOperation
+                .getCounterDelta(fileId, ENTRY_POINT_INDEX, OEntryPoint.TREE_SIZE_OFFSET);
+          }
+
           return entryPoint.getTreeSize();
         } finally {
           releasePageFromRead(atomicOperation, entryPointCacheEntry);
@@ -494,7 +772,12 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
     boolean rollback = false;
     final OAtomicOperation atomicOperation = startAtomicOperation(true);
     try {
-      acquireExclusiveLock();
+      final boolean keyLocked = isKeyLocked(atomicOperation);
+      if (keyLocked) {
+        acquireSharedLock();
+      } else {
+        acquireExclusiveLock();
+      }
       try {
         final ORID removedValue;
 
@@ -502,12 +785,21 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
           key = keySerializer.preprocess(key, (Object[]) keyTypes);
 
           final BucketSearchResult bucketSearchResult = findBucket(key, atomicOperation);
+          if (keyLocked) {
+            checkPageLock(atomicOperation, bucketSearchResult.pageIndex);
+          }
+
           if (bucketSearchResult.itemIndex < 0) {
             return null;
           }
 
           removedValue = removeKey(atomicOperation, bucketSearchResult);
         } else {
+          if (keyLocked) {
+            throw new OCellBTreeSingleValueException(
+                "Null key can not be removed because only single leaf page is locked by operation", this);
+          }
+
           if (getFilledUpTo(atomicOperation, nullBucketFileId) == 0) {
             return null;
           }
@@ -516,7 +808,11 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
         }
         return removedValue;
       } finally {
-        releaseExclusiveLock();
+        if (keyLocked) {
+          releaseSharedLock();
+        } else {
+          releaseExclusiveLock();
+        }
       }
     } catch (final Exception e) {
       rollback = true;
@@ -551,7 +847,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
     final ORID removedValue;
     final OCacheEntry keyBucketCacheEntry = loadPageForWrite(atomicOperation, fileId, bucketSearchResult.pageIndex, false, true);
     try {
-      final OSBTreeBucketSingleValue<K> keyBucket = new OSBTreeBucketSingleValue<>(keyBucketCacheEntry, keySerializer, keyTypes);
+      final OSBTreeBucketSingleValue<K> keyBucket = loadBucket(keyBucketCacheEntry);
 
       removedValue = keyBucket.getValue(bucketSearchResult.itemIndex);
       keyBucket.remove(bucketSearchResult.itemIndex, null);
@@ -612,7 +908,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
 
         final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, searchResult.pageIndex, false);
         try {
-          final OSBTreeBucketSingleValue<K> bucket = new OSBTreeBucketSingleValue<>(cacheEntry, keySerializer, keyTypes);
+          final OSBTreeBucketSingleValue<K> bucket = loadBucket(cacheEntry);
           return bucket.getKey(searchResult.itemIndex);
         } finally {
           releasePageFromRead(atomicOperation, cacheEntry);
@@ -643,7 +939,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
 
         final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, searchResult.pageIndex, false);
         try {
-          final OSBTreeBucketSingleValue<K> bucket = new OSBTreeBucketSingleValue<>(cacheEntry, keySerializer, keyTypes);
+          final OSBTreeBucketSingleValue<K> bucket = loadBucket(cacheEntry);
           return bucket.getKey(searchResult.itemIndex);
         } finally {
           releasePageFromRead(atomicOperation, cacheEntry);
@@ -710,7 +1006,97 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
     atomicOperationsManager.acquireExclusiveLockTillOperationComplete(this);
   }
 
+  /**
+   * Acquires locks in the active atomic operation running on the current thread which are needed to put or remove the single key.
+   * If {@link OGlobalConfiguration#SBTREE_KEY_LOCKS} is enabled and the key can be put into the leaf page without split, tree is
+   * locked in shared mode and only the leaf page is locked exclusively till the end of atomic operation. So changes of keys which
+   * belong to different leaf pages do not wait for each other. Otherwise the whole tree is locked exclusively.
+   * <p>
+   * Tree may be locked only once in the atomic operation, lock of the single key can not be upgraded to the lock of the whole tree.
+   */
+  public void acquireAtomicKeyLock(K key) {
+    if (key == null || !OGlobalConfiguration.SBTREE_KEY_LOCKS.getValueAsBoolean()) {
+      acquireAtomicExclusiveLock();
+      return;
+    }
+
+    final OAtomicOperation atomicOperation = OAtomicOperationsManager.getCurrentOperation();
+    assert atomicOperation != null;
+
+    if (!atomicOperationsManager.acquireSharedLockTillOperationComplete(this)) {
+      acquireAtomicExclusiveLock();
+      return;
+    }
+
+    boolean keyLocked = false;
+    String pageLockName = null;
+    try {
+      key = keySerializer.preprocess(key, (Object[]) keyTypes);
+      final byte[] serializedKey = keySerializer.serializeNativeAsWhole(key, (Object[]) keyTypes);
+
+      final BucketSearchResult bucketSearchResult;
+      acquireSharedLock();
+      try {
+        bucketSearchResult = findBucket(key, atomicOperation);
+      } finally {
+        releaseSharedLock();
+      }
+
+      // structure of the tree is not changed while it is locked in shared mode, so the key stays in the same page
+      pageLockName = pageLockName(bucketSearchResult.pageIndex);
+      atomicOperationsManager.acquireExclusiveLockTillOperationComplete(atomicOperation, pageLockName);
+
+      final OCacheEntry bucketEntry = loadPageForRead(atomicOperation, fileId, bucketSearchResult.pageIndex, false);
+      try {
+        final OSBTreeBucketSingleValue<K> bucket = loadBucket(bucketEntry);
+        keyLocked = bucketSearchResult.itemIndex >= 0
+            || bucket.getFreeSpace() >= bucket.getLeafEntrySize(serializedKey) + OIntegerSerializer.INT_SIZE;
+      } finally {
+        releasePageFromRead(atomicOperation, bucketEntry);
+      }
+    } catch (final IOException e) {
+      throw OException
+          .wrapException(new OCellBTreeSingleValueException("Error during lock of key in sbtree with name " + getName(), this), e);
+    } finally {
+      if (!keyLocked) {
+        // nothing is changed yet, so locks may be released and tree may be locked exclusively to split the page
+        if (pageLockName != null) {
+          atomicOperationsManager.releaseLockBeforeOperationComplete(atomicOperation, pageLockName);
+        }
+        atomicOperationsManager.releaseLockBeforeOperationComplete(atomicOperation, getLockName());
+      }
+    }
+
+    if (!keyLocked) {
+      acquireAtomicExclusiveLock();
+    }
+  }
+
+  private boolean isKeyLocked(final OAtomicOperation atomicOperation) {
+    return atomicOperation.containsInSharedLockedObjects(getLockName());
+  }
+
+  private String pageLockName(final long pageIndex) {
+    return getLockName() + "#" + pageIndex;
+  }
+
+  /**
+   * Checks that page which is going to be changed is locked by atomic operation, if tree itself is locked by {@link
+   * #acquireAtomicKeyLock(Object)} only for the change of single key.
+   */
+  private void checkPageLock(final OAtomicOperation atomicOperation, final long pageIndex) {
+    if (!atomicOperation.containsInLockedObjects(pageLockName(pageIndex))) {
+      throw new OCellBTreeSingleValueException("Page " + pageIndex + " is not locked by operation which changes single key", this);
+    }
+  }
+
   private void updateSize(final long diffSize, final OAtomicOperation atomicOperation) throws IOException {
+    if (isKeyLocked(atomicOperation)) {
+      // entry point is shared by all leaf pages, so size is changed during commit of atomic operation
+      atomicOperation.addCounterDelta(fileId, ENTRY_POINT_INDEX, OEntryPoint.TREE_SIZE_OFFSET, diffSize);
+      return;
+    }
+
     final OCacheEntry entryPointCacheEntry = loadPageForWrite(atomicOperation, fileId, ENTRY_POINT_INDEX, false, true);
     try {
       final OEntryPoint<K> entryPoint = new OEntryPoint<>(entryPointCacheEntry);
@@ -811,7 +1197,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
     OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, bucketIndex, false);
     int itemIndex = 0;
     try {
-      OSBTreeBucketSingleValue<K> bucket = new OSBTreeBucketSingleValue<>(cacheEntry, keySerializer, keyTypes);
+      OSBTreeBucketSingleValue<K> bucket = loadBucket(cacheEntry);
 
       while (true) {
         if (!bucket.isLeaf()) {
@@ -854,7 +1240,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
 
         cacheEntry = loadPageForRead(atomicOperation, fileId, bucketIndex, false);
 
-        bucket = new OSBTreeBucketSingleValue<>(cacheEntry, keySerializer, keyTypes);
+        bucket = loadBucket(cacheEntry);
       }
     } finally {
       releasePageFromRead(atomicOperation, cacheEntry);
@@ -868,7 +1254,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
 
     OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, bucketIndex, false);
 
-    OSBTreeBucketSingleValue<K> bucket = new OSBTreeBucketSingleValue<>(cacheEntry, keySerializer, keyTypes);
+    OSBTreeBucketSingleValue<K> bucket = loadBucket(cacheEntry);
 
     int itemIndex = bucket.size() - 1;
     try {
@@ -913,7 +1299,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
 
         cacheEntry = loadPageForRead(atomicOperation, fileId, bucketIndex, false);
 
-        bucket = new OSBTreeBucketSingleValue<>(cacheEntry, keySerializer, keyTypes);
+        bucket = loadBucket(cacheEntry);
         if (itemIndex == OSBTreeBucketSingleValue.MAX_PAGE_SIZE_BYTES + 1) {
           itemIndex = bucket.size() - 1;
         }
@@ -1000,7 +1386,13 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
     final int bucketSize = bucketToSplit.size();
 
     final int indexToSplit = bucketSize >>> 1;
-    final K separationKey = bucketToSplit.getKey(indexToSplit);
+    final K separationKey;
+    if (splitLeaf && indexToSplit > 0 && keyIndex != indexToSplit) {
+      // key which is inserted at the split position is added to the left bucket, so it has to be less than separator
+      separationKey = separatorKey(bucketToSplit.getKey(indexToSplit - 1), bucketToSplit.getKey(indexToSplit));
+    } else {
+      separationKey = bucketToSplit.getKey(indexToSplit);
+    }
     final List<byte[]> rightEntries = new ArrayList<>(indexToSplit);
 
     final int startRightIndex = splitLeaf ? indexToSplit : indexToSplit + 1;
@@ -1042,9 +1434,8 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
     }
 
     try {
-      final OSBTreeBucketSingleValue<K> newRightBucket = new OSBTreeBucketSingleValue<>(rightBucketEntry, splitLeaf, keySerializer,
-          keyTypes);
-      newRightBucket.addAll(rightEntries);
+      final OSBTreeBucketSingleValue<K> newRightBucket = createBucket(rightBucketEntry, splitLeaf);
+      newRightBucket.addAll(rightEntries, bucketToSplit.getReferenceKey());
 
       bucketToSplit.shrink(indexToSplit);
 
@@ -1058,8 +1449,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
 
         if (rightSiblingPageIndex >= 0) {
           final OCacheEntry rightSiblingBucketEntry = loadPageForWrite(atomicOperation, fileId, rightSiblingPageIndex, false, true);
-          final OSBTreeBucketSingleValue<K> rightSiblingBucket = new OSBTreeBucketSingleValue<>(rightSiblingBucketEntry,
-              keySerializer, keyTypes);
+          final OSBTreeBucketSingleValue<K> rightSiblingBucket = loadBucket(rightSiblingBucketEntry);
           try {
             rightSiblingBucket.setLeftSibling(rightBucketEntry.getPageIndex());
           } finally {
@@ -1071,7 +1461,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
       long parentIndex = path.get(path.size() - 2);
       OCacheEntry parentCacheEntry = loadPageForWrite(atomicOperation, fileId, parentIndex, false, true);
       try {
-        OSBTreeBucketSingleValue<K> parentBucket = new OSBTreeBucketSingleValue<>(parentCacheEntry, keySerializer, keyTypes);
+        OSBTreeBucketSingleValue<K> parentBucket = loadBucket(parentCacheEntry);
         final OSBTreeBucketSingleValue.SBTreeEntry<K> parentEntry = new OSBTreeBucketSingleValue.SBTreeEntry<>((int) pageIndex,
             (int) rightBucketEntry.getPageIndex(), separationKey, null);
 
@@ -1089,7 +1479,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
             parentCacheEntry = loadPageForWrite(atomicOperation, fileId, parentIndex, false, true);
           }
 
-          parentBucket = new OSBTreeBucketSingleValue<>(parentCacheEntry, keySerializer, keyTypes);
+          parentBucket = loadBucket(parentCacheEntry);
         }
 
       } finally {
@@ -1132,6 +1522,8 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
       leftEntries.add(bucketToSplit.getRawEntry(i));
     }
 
+    final byte[] referenceKey = bucketToSplit.getReferenceKey();
+
     final OCacheEntry leftBucketEntry;
     final OCacheEntry rightBucketEntry;
 
@@ -1166,9 +1558,8 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
     }
 
     try {
-      final OSBTreeBucketSingleValue<K> newLeftBucket = new OSBTreeBucketSingleValue<>(leftBucketEntry, splitLeaf, keySerializer,
-          keyTypes);
-      newLeftBucket.addAll(leftEntries);
+      final OSBTreeBucketSingleValue<K> newLeftBucket = createBucket(leftBucketEntry, splitLeaf);
+      newLeftBucket.addAll(leftEntries, referenceKey);
 
       if (splitLeaf) {
         newLeftBucket.setRightSibling(rightBucketEntry.getPageIndex());
@@ -1179,9 +1570,8 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
     }
 
     try {
-      final OSBTreeBucketSingleValue<K> newRightBucket = new OSBTreeBucketSingleValue<>(rightBucketEntry, splitLeaf, keySerializer,
-          keyTypes);
-      newRightBucket.addAll(rightEntries);
+      final OSBTreeBucketSingleValue<K> newRightBucket = createBucket(rightBucketEntry, splitLeaf);
+      newRightBucket.addAll(rightEntries, referenceKey);
 
       if (splitLeaf) {
         newRightBucket.setLeftSibling(leftBucketEntry.getPageIndex());
@@ -1190,7 +1580,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
       releasePageFromWrite(atomicOperation, rightBucketEntry);
     }
 
-    bucketToSplit = new OSBTreeBucketSingleValue<>(bucketEntry, false, keySerializer, keyTypes);
+    bucketToSplit = createBucket(bucketEntry, false);
     bucketToSplit.addEntry(0,
         new OSBTreeBucketSingleValue.SBTreeEntry<>((int) leftBucketEntry.getPageIndex(), (int) rightBucketEntry.getPageIndex(),
             separationKey, null), true);
@@ -1220,6 +1610,82 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
     return new UpdateBucketSearchResult(itemPointers, resultPath, keyIndex - indexToSplit - 1);
   }
 
+  private OSBTreeBucketSingleValue<K> loadBucket(final OCacheEntry cacheEntry) {
+    if (compressKeys) {
+      return new OSBTreeCompressedBucketSingleValue<>(cacheEntry, keySerializer, keyTypes);
+    }
+
+    return new OSBTreeBucketSingleValue<>(cacheEntry, keySerializer, keyTypes);
+  }
+
+  private OSBTreeBucketSingleValue<K> createBucket(final OCacheEntry cacheEntry, final boolean isLeaf) {
+    if (compressKeys) {
+      return new OSBTreeCompressedBucketSingleValue<>(cacheEntry, isLeaf, keySerializer, keyTypes);
+    }
+
+    return new OSBTreeBucketSingleValue<>(cacheEntry, isLeaf, keySerializer, keyTypes);
+  }
+
+  /**
+   * Returns the shortest key which is more than the last key of the left leaf and is not more than the first key of the right leaf.
+   * Only string keys and string parts of composite keys are truncated, other parts of composite key are kept so keys of non-leaf
+   * pages stay comparable with each other.
+   */
+  @SuppressWarnings("unchecked")
+  private K separatorKey(final K leftKey, final K rightKey) {
+    if (!compressKeys) {
+      return rightKey;
+    }
+
+    if (leftKey instanceof String && rightKey instanceof String) {
+      return (K) separatorString((String) leftKey, (String) rightKey);
+    }
+
+    if (leftKey instanceof OCompositeKey && rightKey instanceof OCompositeKey) {
+      final List<Object> leftKeys = ((OCompositeKey) leftKey).getKeys();
+      final List<Object> rightKeys = ((OCompositeKey) rightKey).getKeys();
+
+      final int size = Math.min(leftKeys.size(), rightKeys.size());
+      for (int i = 0; i < size; i++) {
+        final Object left = leftKeys.get(i);
+        final Object right = rightKeys.get(i);
+
+        if (ODefaultComparator.INSTANCE.compare(left, right) != 0) {
+          if (!(left instanceof String) || !(right instanceof String)) {
+            return rightKey;
+          }
+
+          final List<Object> separatorKeys = new ArrayList<>(rightKeys);
+          separatorKeys.set(i, separatorString((String) left, (String) right));
+          return (K) new OCompositeKey(separatorKeys);
+        }
+      }
+    }
+
+    return rightKey;
+  }
+
+  private static String separatorString(final String left, final String right) {
+    final int size = Math.min(left.length(), right.length());
+
+    int prefixLength = 0;
+    while (prefixLength < size && left.charAt(prefixLength) == right.charAt(prefixLength)) {
+      prefixLength++;
+    }
+
+    if (prefixLength >= right.length()) {
+      return right;
+    }
+
+    int separatorLength = prefixLength + 1;
+    // surrogate pair is not split, otherwise it is lost during serialization
+    if (Character.isHighSurrogate(right.charAt(prefixLength)) && separatorLength < right.length()) {
+      separatorLength++;
+    }
+
+    return right.substring(0, separatorLength);
+  }
+
   private BucketSearchResult findBucket(final K key, final OAtomicOperation atomicOperation) throws IOException {
     long pageIndex = ROOT_INDEX;
 
@@ -1234,7 +1700,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
 
       final OCacheEntry bucketEntry = loadPageForRead(atomicOperation, fileId, pageIndex, false);
       try {
-        final OSBTreeBucketSingleValue<K> keyBucket = new OSBTreeBucketSingleValue<>(bucketEntry, keySerializer, keyTypes);
+        final OSBTreeBucketSingleValue<K> keyBucket = loadBucket(bucketEntry);
         final int index = keyBucket.find(key);
 
         if (keyBucket.isLeaf()) {
@@ -1273,7 +1739,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
       path.add(pageIndex);
       final OCacheEntry bucketEntry = loadPageForRead(atomicOperation, fileId, pageIndex, false);
       try {
-        final OSBTreeBucketSingleValue<K> keyBucket = new OSBTreeBucketSingleValue<>(bucketEntry, keySerializer, keyTypes);
+        final OSBTreeBucketSingleValue<K> keyBucket = loadBucket(bucketEntry);
         final int index = keyBucket.find(key);
 
         if (keyBucket.isLeaf()) {
@@ -1398,6 +1864,241 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
     }
   }
 
+  /**
+   * Builds tree from entries sorted by key. Pages of each level are filled from left to right, once page of the level is full it is
+   * closed and reference to it is added to the page of upper level, so only the last page of each level is kept in memory.
+   */
+  private final class BulkLoadBuilder {
+    private final int                  reservedSpace =
+        OSBTreeBucketSingleValue.MAX_PAGE_SIZE_BYTES * (100 - OGlobalConfiguration.INDEX_BULK_LOAD_FILL_FACTOR.getValueAsInteger())
+            / 100;
+    private final List<BulkLoadLevel> levels        = new ArrayList<>();
+    private       long                 treeSize;
+    private       K                    lastKey;
+
+    private void addLeafEntry(final K key, final ORID value) throws IOException {
+      final byte[] serializedKey = keySerializer.serializeNativeAsWhole(key, (Object[]) keyTypes);
+      final byte[] serializedValue = new byte[OShortSerializer.SHORT_SIZE + OLongSerializer.LONG_SIZE];
+      OShortSerializer.INSTANCE.serializeNative((short) value.getClusterId(), serializedValue, 0);
+      OLongSerializer.INSTANCE.serializeNative(value.getClusterPosition(), serializedValue, OShortSerializer.SHORT_SIZE);
+
+      final BulkLoadLevel leaves;
+      if (levels.isEmpty()) {
+        leaves = new BulkLoadLevel(true, key);
+        levels.add(leaves);
+      } else {
+        leaves = levels.get(0);
+
+        if (!hasSpace(leaves.bucket, leaves.bucket.getLeafEntrySize(serializedKey))) {
+          final long leftPageIndex = leaves.cacheEntry.getPageIndex();
+          final K leftSeparator = leaves.separator;
+
+          leaves.nextPage(separatorKey(lastKey, key));
+          leaves.bucket.setLeftSibling(leftPageIndex);
+
+          final OCacheEntry leftCacheEntry = leaves.prevCacheEntry;
+          try {
+            final OSBTreeBucketSingleValue<K> leftBucket = loadBucket(leftCacheEntry);
+            leftBucket.setRightSibling(leaves.cacheEntry.getPageIndex());
+          } finally {
+            leaves.prevCacheEntry = null;
+            releasePageFromWrite(null, leftCacheEntry);
+          }
+
+          addChild(1, (int) leftPageIndex, leftSeparator);
+        }
+      }
+
+      if (!leaves.bucket.addLeafEntry(leaves.bucket.size(), serializedKey, serializedValue)) {
+        throw new OTooBigIndexKeyException(
+            "Key does not fit into the page, operation was canceled. Current key size " + serializedKey.length + ", page size "
+                + OSBTreeBucketSingleValue.MAX_PAGE_SIZE_BYTES, getName());
+      }
+
+      lastKey = key;
+      treeSize++;
+    }
+
+    private void addChild(final int levelIndex, final int child, final K separator) throws IOException {
+      if (levels.size() == levelIndex) {
+        final BulkLoadLevel level = new BulkLoadLevel(false, separator);
+        level.lastChild = child;
+        levels.add(level);
+        return;
+      }
+
+      final BulkLoadLevel level = levels.get(levelIndex);
+      final int entrySize = keySerializer.getObjectSize(separator, (Object[]) keyTypes) + 2 * OIntegerSerializer.INT_SIZE;
+
+      if (!hasSpace(level.bucket, entrySize) || !level.bucket
+          .addEntry(level.bucket.size(), new OSBTreeBucketSingleValue.SBTreeEntry<>(level.lastChild, child, separator, null),
+              false)) {
+        if (level.bucket.isEmpty()) {
+          throw new OTooBigIndexKeyException(
+              "Key does not fit into the page, operation was canceled. Current key size " + entrySize + ", page size "
+                  + OSBTreeBucketSingleValue.MAX_PAGE_SIZE_BYTES, getName());
+        }
+
+        // separator is moved to the upper level, so new page contains only link to the child
+        final long leftPageIndex = level.cacheEntry.getPageIndex();
+        final K leftSeparator = level.separator;
+
+        level.nextPage(separator);
+        level.releasePrevPage();
+
+        addChild(levelIndex + 1, (int) leftPageIndex, leftSeparator);
+      }
+
+      level.lastChild = child;
+    }
+
+    private boolean hasSpace(final OSBTreeBucketSingleValue<K> bucket, final int entrySize) {
+      return bucket.isEmpty() || bucket.getFreeSpace() - entrySize - OIntegerSerializer.INT_SIZE >= reservedSpace;
+    }
+
+    /**
+     * Adds last pages of all levels to the upper levels and copies content of the top page into the root page.
+     */
+    private void finish() throws IOException {
+      for (int i = 0; i < levels.size(); i++) {
+        final BulkLoadLevel level = levels.get(i);
+
+        if (i == levels.size() - 1) {
+          final List<byte[]> rawEntries = new ArrayList<>(level.bucket.size());
+          for (int n = 0; n < level.bucket.size(); n++) {
+            rawEntries.add(level.bucket.getRawEntry(n));
+          }
+
+          final OCacheEntry rootCacheEntry = loadPageForWrite(null, fileId, ROOT_INDEX, false, true);
+          try {
+            final OSBTreeBucketSingleValue<K> rootBucket = createBucket(rootCacheEntry, level.bucket.isLeaf());
+            rootBucket.addAll(rawEntries, level.bucket.getReferenceKey());
+          } finally {
+            releasePageFromWrite(null, rootCacheEntry);
+          }
+
+          break;
+        }
+
+        if (level.bucket.isEmpty()) {
+          // last page of non-leaf level contains only link to the child, last entry of the previous page is moved into it
+          final OCacheEntry prevCacheEntry = loadPageForWrite(null, fileId, level.prevPageIndex, false, true);
+          final OSBTreeBucketSingleValue.SBTreeEntry<K> lastEntry;
+          try {
+            final OSBTreeBucketSingleValue<K> prevBucket = loadBucket(prevCacheEntry);
+            assert prevBucket.size() > 1;
+
+            lastEntry = prevBucket.getEntry(prevBucket.size() - 1);
+            prevBucket.shrink(prevBucket.size() - 1);
+          } finally {
+            releasePageFromWrite(null, prevCacheEntry);
+          }
+
+          level.bucket
+              .addEntry(0, new OSBTreeBucketSingleValue.SBTreeEntry<>(lastEntry.rightChild, level.lastChild, level.separator, null),
+                  false);
+          level.separator = lastEntry.key;
+        }
+
+        addChild(i + 1, (int) level.cacheEntry.getPageIndex(), level.separator);
+      }
+    }
+
+    private void close() throws IOException {
+      releasePages();
+
+      final OCacheEntry entryPointCacheEntry = loadPageForWrite(null, fileId, ENTRY_POINT_INDEX, false, true);
+      try {
+        final OEntryPoint<K> entryPoint = new OEntryPoint<>(entryPointCacheEntry);
+        entryPoint.setTreeSize(treeSize);
+        entryPoint.setPagesSize((int) getFilledUpTo(null, fileId) - 1);
+      } finally {
+        releasePageFromWrite(null, entryPointCacheEntry);
+      }
+    }
+
+    /**
+     * Drops the pages written so far: the file is truncated and entry point and empty root page are created again, as for the new
+     * tree.
+     */
+    private void abort() throws IOException {
+      releasePages();
+      truncateFile(null, fileId);
+
+      final OCacheEntry entryPointCacheEntry = addPage(null, fileId);
+      try {
+        final OEntryPoint<K> entryPoint = new OEntryPoint<>(entryPointCacheEntry);
+        entryPoint.init();
+      } finally {
+        releasePageFromWrite(null, entryPointCacheEntry);
+      }
+
+      final OCacheEntry rootCacheEntry = addPage(null, fileId);
+      try {
+        @SuppressWarnings("unused")
+        final OSBTreeBucketSingleValue<K> rootBucket = createBucket(rootCacheEntry, true);
+      } finally {
+        releasePageFromWrite(null, rootCacheEntry);
+      }
+    }
+
+    private void releasePages() {
+      for (final BulkLoadLevel level : levels) {
+        level.releasePrevPage();
+        if (level.cacheEntry != null) {
+          final OCacheEntry entry = level.cacheEntry;
+          level.cacheEntry = null;
+          releasePageFromWrite(null, entry);
+        }
+      }
+      levels.clear();
+    }
+  }
+
+  private final class BulkLoadLevel {
+    private final boolean                     isLeaf;
+    private       OCacheEntry                 cacheEntry;
+    private       OSBTreeBucketSingleValue<K> bucket;
+    /**
+     * Key which separates current page from the previous page of the same level.
+     */
+    private       K                           separator;
+    /**
+     * Right most link to the child of current non-leaf page.
+     */
+    private       int                         lastChild = -1;
+    private       OCacheEntry                 prevCacheEntry;
+    private       long                        prevPageIndex = -1;
+
+    private BulkLoadLevel(final boolean isLeaf, final K separator) throws IOException {
+      this.isLeaf = isLeaf;
+      this.separator = separator;
+
+      cacheEntry = addPage(null, fileId);
+      bucket = createBucket(cacheEntry, isLeaf);
+    }
+
+    private void nextPage(final K separator) throws IOException {
+      assert prevCacheEntry == null;
+      final OCacheEntry nextCacheEntry = addPage(null, fileId);
+
+      prevCacheEntry = cacheEntry;
+      prevPageIndex = cacheEntry.getPageIndex();
+
+      cacheEntry = nextCacheEntry;
+      bucket = createBucket(cacheEntry, isLeaf);
+      this.separator = separator;
+    }
+
+    private void releasePrevPage() {
+      if (prevCacheEntry != null) {
+        final OCacheEntry entry = prevCacheEntry;
+        prevCacheEntry = null;
+        releasePageFromWrite(null, entry);
+      }
+    }
+  }
+
   private static final class PagePathItemUnit {
     private final long pageIndex;
     private final int  itemIndex;
@@ -1464,7 +2165,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
 
             final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, pageIndex, false);
             try {
-              final OSBTreeBucketSingleValue<K> bucket = new OSBTreeBucketSingleValue<>(cacheEntry, keySerializer, keyTypes);
+              final OSBTreeBucketSingleValue<K> bucket = loadBucket(cacheEntry);
 
               final int bucketSize = bucket.size();
 
@@ -1585,7 +2286,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
 
             final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, pageIndex, false);
             try {
-              final OSBTreeBucketSingleValue<K> bucket = new OSBTreeBucketSingleValue<>(cacheEntry, keySerializer, keyTypes);
+              final OSBTreeBucketSingleValue<K> bucket = loadBucket(cacheEntry);
 
               final int bucketSize = bucket.size();
               if (itemIndex >= bucketSize) {
@@ -1720,7 +2421,7 @@ public final class OCellBTreeSingleValueV3<K> extends ODurableComponent implemen
 
             final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, pageIndex, false);
             try {
-              final OSBTreeBucketSingleValue<K> bucket = new OSBTreeBucketSingleValue<>(cacheEntry, keySerializer, keyTypes);
+              final OSBTreeBucketSingleValue<K> bucket = loadBucket(cacheEntry);
 
               if (itemIndex >= bucket.size()) {
                 itemIndex = bucket.size() - 1;
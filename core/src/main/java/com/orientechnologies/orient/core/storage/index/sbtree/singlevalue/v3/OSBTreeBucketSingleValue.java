@@ -37,22 +37,22 @@ import java.util.Objects;
  * @author Andrey Lomakin (a.lomakin-at-orientdb.com)
  * @since 8/7/13
  */
-final class OSBTreeBucketSingleValue<K> extends ODurablePage {
-  private static final int RID_SIZE = OShortSerializer.SHORT_SIZE + OLongSerializer.LONG_SIZE;
+class OSBTreeBucketSingleValue<K> extends ODurablePage {
+  static final int RID_SIZE = OShortSerializer.SHORT_SIZE + OLongSerializer.LONG_SIZE;
 
-  private static final int FREE_POINTER_OFFSET  = NEXT_FREE_POSITION;
-  private static final int SIZE_OFFSET          = FREE_POINTER_OFFSET + OIntegerSerializer.INT_SIZE;
-  private static final int IS_LEAF_OFFSET       = SIZE_OFFSET + OIntegerSerializer.INT_SIZE;
-  private static final int LEFT_SIBLING_OFFSET  = IS_LEAF_OFFSET + OByteSerializer.BYTE_SIZE;
-  private static final int RIGHT_SIBLING_OFFSET = LEFT_SIBLING_OFFSET + OLongSerializer.LONG_SIZE;
+  static final int FREE_POINTER_OFFSET  = NEXT_FREE_POSITION;
+  static final int SIZE_OFFSET          = FREE_POINTER_OFFSET + OIntegerSerializer.INT_SIZE;
+  static final int IS_LEAF_OFFSET       = SIZE_OFFSET + OIntegerSerializer.INT_SIZE;
+  static final int LEFT_SIBLING_OFFSET  = IS_LEAF_OFFSET + OByteSerializer.BYTE_SIZE;
+  static final int RIGHT_SIBLING_OFFSET = LEFT_SIBLING_OFFSET + OLongSerializer.LONG_SIZE;
 
-  private static final int POSITIONS_ARRAY_OFFSET = RIGHT_SIBLING_OFFSET + OLongSerializer.LONG_SIZE;
+  static final int POSITIONS_ARRAY_OFFSET = RIGHT_SIBLING_OFFSET + OLongSerializer.LONG_SIZE;
 
-  private final boolean isLeaf;
+  final boolean isLeaf;
 
-  private final OBinarySerializer<K> keySerializer;
+  final OBinarySerializer<K> keySerializer;
 
-  private final OType[] keyTypes;
+  final OType[] keyTypes;
 
   private final Comparator<? super K> comparator = ODefaultComparator.INSTANCE;
 
@@ -153,6 +153,27 @@ final class OSBTreeBucketSingleValue<K> extends ODurablePage {
     return getIntValue(SIZE_OFFSET);
   }
 
+  /**
+   * @return Amount of bytes which are left between array of entry offsets and entries itself.
+   */
+  int getFreeSpace() {
+    return getIntValue(FREE_POINTER_OFFSET) - (size() * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
+  }
+
+  /**
+   * @return Amount of bytes which are needed to store leaf entry with given key, not including its offset in array of offsets.
+   */
+  int getLeafEntrySize(final byte[] serializedKey) {
+    return serializedKey.length + RID_SIZE;
+  }
+
+  /**
+   * @return Serialized key against which keys of this bucket are compressed, or <code>null</code> if keys are stored as is.
+   */
+  byte[] getReferenceKey() {
+    return null;
+  }
+
   public SBTreeEntry<K> getEntry(final int entryIndex) {
     int entryPosition = getIntValue(entryIndex * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
 
@@ -267,6 +288,16 @@ final class OSBTreeBucketSingleValue<K> extends ODurablePage {
     setIntValue(SIZE_OFFSET, rawEntries.size());
   }
 
+  /**
+   * Adds entries of the bucket which is split into this empty bucket.
+   *
+   * @param rawEntries   Entries in the format returned by {@link #getRawEntry(int)}.
+   * @param referenceKey Reference key of the split bucket, see {@link #getReferenceKey()}.
+   */
+  void addAll(final List<byte[]> rawEntries, final byte[] referenceKey) {
+    addAll(rawEntries);
+  }
+
   public void shrink(final int newSize) {
     final List<byte[]> rawEntries = new ArrayList<>(newSize);
 
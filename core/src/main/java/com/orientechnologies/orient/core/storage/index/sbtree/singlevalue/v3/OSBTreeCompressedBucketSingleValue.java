@@ -0,0 +1,530 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.v3;
+
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.common.serialization.types.OShortSerializer;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.OVarIntSerializer;
+import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bucket which stores keys compressed against reference key of the page. Keys of the same page usually share long prefixes, like
+ * class name of composite key or scheme and host of URL, but serialized keys start from their sizes, so common prefix of serialized
+ * keys is usually empty. Because of that key is stored as sequence of tokens <code>[amount of bytes copied from reference
+ * key][amount of literal bytes][literal bytes]</code>, copied bytes are taken from the same positions of reference key. So size
+ * fields of serialized key are stored as short literals and only distinct suffix of the key is stored in full.
+ * <p>
+ * Reference key is stored at the end of the page, entries of leaf page have format <code>[rid][size of encoded key][encoded
+ * key]</code> and entries of non-leaf page have format <code>[left child][right child][size of encoded key][encoded key]</code>.
+ * Entries returned by {@link #getRawEntry(int)} and accepted by {@link #addAll(List, byte[])} have the same uncompressed format as
+ * entries of {@link OSBTreeBucketSingleValue}.
+ */
+final class OSBTreeCompressedBucketSingleValue<K> extends OSBTreeBucketSingleValue<K> {
+  private static final int REFERENCE_SIZE_OFFSET             = POSITIONS_ARRAY_OFFSET;
+  private static final int COMPRESSED_POSITIONS_ARRAY_OFFSET = REFERENCE_SIZE_OFFSET + OIntegerSerializer.INT_SIZE;
+
+  /**
+   * Minimal length of run of bytes equal to the bytes of reference key which is stored as separate token. Token adds two var ints to
+   * the entry, so shorter runs are stored as part of literal.
+   */
+  private static final int MIN_COPY_LENGTH   = 4;
+  private static final int MAX_VAR_INT_SIZE  = 5;
+  private static final int CHILDREN_SIZE     = 2 * OIntegerSerializer.INT_SIZE;
+  private static final int ENCODED_SIZE_SIZE = OShortSerializer.SHORT_SIZE;
+
+  private static final byte[] EMPTY_KEY = new byte[0];
+
+  private byte[] referenceKey;
+
+  OSBTreeCompressedBucketSingleValue(final OCacheEntry cacheEntry, final boolean isLeaf, final OBinarySerializer<K> keySerializer,
+      final OType[] keyTypes) {
+    super(cacheEntry, isLeaf, keySerializer, keyTypes);
+
+    setIntValue(REFERENCE_SIZE_OFFSET, 0);
+    referenceKey = EMPTY_KEY;
+  }
+
+  OSBTreeCompressedBucketSingleValue(final OCacheEntry cacheEntry, final OBinarySerializer<K> keySerializer,
+      final OType[] keyTypes) {
+    super(cacheEntry, keySerializer, keyTypes);
+  }
+
+  @Override
+  public void remove(final int entryIndex, final byte[] oldRawKey) {
+    if (!isLeaf) {
+      throw new IllegalStateException("Remove is applies to leaf buckets only");
+    }
+
+    final int entryPosition = entryPosition(entryIndex);
+    final int entrySize = storedEntrySize(entryPosition);
+
+    int size = size();
+    if (entryIndex < size - 1) {
+      moveData(COMPRESSED_POSITIONS_ARRAY_OFFSET + (entryIndex + 1) * OIntegerSerializer.INT_SIZE,
+          COMPRESSED_POSITIONS_ARRAY_OFFSET + entryIndex * OIntegerSerializer.INT_SIZE,
+          (size - entryIndex - 1) * OIntegerSerializer.INT_SIZE);
+    }
+
+    size--;
+    setIntValue(SIZE_OFFSET, size);
+
+    final int freePointer = getIntValue(FREE_POINTER_OFFSET);
+    if (size > 0 && entryPosition > freePointer) {
+      moveData(freePointer, freePointer + entrySize, entryPosition - freePointer);
+    }
+
+    setIntValue(FREE_POINTER_OFFSET, freePointer + entrySize);
+
+    int currentPositionOffset = COMPRESSED_POSITIONS_ARRAY_OFFSET;
+
+    for (int i = 0; i < size; i++) {
+      final int currentEntryPosition = getIntValue(currentPositionOffset);
+      if (currentEntryPosition < entryPosition) {
+        setIntValue(currentPositionOffset, currentEntryPosition + entrySize);
+      }
+      currentPositionOffset += OIntegerSerializer.INT_SIZE;
+    }
+  }
+
+  @Override
+  int getFreeSpace() {
+    return getIntValue(FREE_POINTER_OFFSET) - (size() * OIntegerSerializer.INT_SIZE + COMPRESSED_POSITIONS_ARRAY_OFFSET);
+  }
+
+  @Override
+  int getLeafEntrySize(final byte[] serializedKey) {
+    if (isReferenceKeyMissing()) {
+      // key becomes reference key of the page
+      return serializedKey.length + RID_SIZE + ENCODED_SIZE_SIZE + encode(serializedKey, serializedKey).length;
+    }
+
+    return RID_SIZE + ENCODED_SIZE_SIZE + encode(serializedKey, referenceKey()).length;
+  }
+
+  @Override
+  byte[] getReferenceKey() {
+    return referenceKey();
+  }
+
+  @Override
+  public SBTreeEntry<K> getEntry(final int entryIndex) {
+    final int entryPosition = entryPosition(entryIndex);
+
+    if (isLeaf) {
+      final int clusterId = getShortValue(entryPosition);
+      final long clusterPosition = getLongValue(entryPosition + OShortSerializer.SHORT_SIZE);
+
+      return new SBTreeEntry<>(-1, -1, deserializeKey(entryPosition), new ORecordId(clusterId, clusterPosition));
+    } else {
+      final int leftChild = getIntValue(entryPosition);
+      final int rightChild = getIntValue(entryPosition + OIntegerSerializer.INT_SIZE);
+
+      return new SBTreeEntry<>(leftChild, rightChild, deserializeKey(entryPosition), null);
+    }
+  }
+
+  @Override
+  int getLeft(final int entryIndex) {
+    assert !isLeaf;
+
+    return getIntValue(entryPosition(entryIndex));
+  }
+
+  @Override
+  int getRight(final int entryIndex) {
+    assert !isLeaf;
+
+    return getIntValue(entryPosition(entryIndex) + OIntegerSerializer.INT_SIZE);
+  }
+
+  @Override
+  byte[] getRawEntry(final int entryIndex) {
+    final int entryPosition = entryPosition(entryIndex);
+    final byte[] serializedKey = decode(encodedKey(entryPosition), referenceKey());
+
+    final byte[] rawEntry;
+    if (isLeaf) {
+      rawEntry = new byte[serializedKey.length + RID_SIZE];
+      System.arraycopy(serializedKey, 0, rawEntry, 0, serializedKey.length);
+      System.arraycopy(getBinaryValue(entryPosition, RID_SIZE), 0, rawEntry, serializedKey.length, RID_SIZE);
+    } else {
+      rawEntry = new byte[CHILDREN_SIZE + serializedKey.length];
+      System.arraycopy(getBinaryValue(entryPosition, CHILDREN_SIZE), 0, rawEntry, 0, CHILDREN_SIZE);
+      System.arraycopy(serializedKey, 0, rawEntry, CHILDREN_SIZE, serializedKey.length);
+    }
+
+    return rawEntry;
+  }
+
+  @Override
+  public ORID getValue(final int entryIndex) {
+    assert isLeaf;
+
+    final int entryPosition = entryPosition(entryIndex);
+
+    final int clusterId = getShortValue(entryPosition);
+    final long clusterPosition = getLongValue(entryPosition + OShortSerializer.SHORT_SIZE);
+
+    return new ORecordId(clusterId, clusterPosition);
+  }
+
+  @Override
+  byte[] getRawValue(final int entryIndex) {
+    assert isLeaf;
+
+    return getBinaryValue(entryPosition(entryIndex), RID_SIZE);
+  }
+
+  @Override
+  public K getKey(final int index) {
+    return deserializeKey(entryPosition(index));
+  }
+
+  @Override
+  public void addAll(final List<byte[]> rawEntries) {
+    addAll(rawEntries, null);
+  }
+
+  /**
+   * Middle key of the entries is used as reference key if it compresses entries better than reference key of the split bucket.
+   * Entries fit into the split bucket being compressed against its reference key, so they fit into this bucket too.
+   */
+  @Override
+  void addAll(final List<byte[]> rawEntries, final byte[] referenceKey) {
+    assert size() == 0;
+
+    if (rawEntries.isEmpty()) {
+      return;
+    }
+
+    final int headSize = isLeaf ? RID_SIZE : CHILDREN_SIZE;
+    final List<byte[]> serializedKeys = new ArrayList<>(rawEntries.size());
+    for (final byte[] rawEntry : rawEntries) {
+      final byte[] serializedKey = new byte[rawEntry.length - headSize];
+      System.arraycopy(rawEntry, isLeaf ? 0 : CHILDREN_SIZE, serializedKey, 0, serializedKey.length);
+      serializedKeys.add(serializedKey);
+    }
+
+    final byte[] middleKey = serializedKeys.get(serializedKeys.size() / 2);
+    List<byte[]> encodedKeys = encodeAll(serializedKeys, middleKey);
+    byte[] reference = middleKey;
+
+    if (referenceKey != null && referenceKey.length > 0) {
+      final List<byte[]> referenceEncodedKeys = encodeAll(serializedKeys, referenceKey);
+      if (encodedSize(referenceEncodedKeys, referenceKey) < encodedSize(encodedKeys, middleKey)) {
+        encodedKeys = referenceEncodedKeys;
+        reference = referenceKey;
+      }
+    }
+
+    setReferenceKey(reference);
+
+    for (int i = 0; i < rawEntries.size(); i++) {
+      final byte[] rawEntry = rawEntries.get(i);
+      final byte[] encodedKey = encodedKeys.get(i);
+
+      int freePointer = getIntValue(FREE_POINTER_OFFSET);
+      freePointer -= headSize + ENCODED_SIZE_SIZE + encodedKey.length;
+
+      setIntValue(FREE_POINTER_OFFSET, freePointer);
+      setIntValue(COMPRESSED_POSITIONS_ARRAY_OFFSET + i * OIntegerSerializer.INT_SIZE, freePointer);
+
+      if (isLeaf) {
+        freePointer += setBinaryValue(freePointer, getRawEntryPart(rawEntry, rawEntry.length - RID_SIZE, RID_SIZE));
+      } else {
+        freePointer += setBinaryValue(freePointer, getRawEntryPart(rawEntry, 0, CHILDREN_SIZE));
+      }
+
+      freePointer += setShortValue(freePointer, (short) encodedKey.length);
+      setBinaryValue(freePointer, encodedKey);
+    }
+
+    setIntValue(SIZE_OFFSET, rawEntries.size());
+  }
+
+  /**
+   * Reference key is kept, so entries are copied without re-encoding and always fit into the page.
+   */
+  @Override
+  public void shrink(final int newSize) {
+    final List<byte[]> storedEntries = new ArrayList<>(newSize);
+
+    for (int i = 0; i < newSize; i++) {
+      final int entryPosition = entryPosition(i);
+      storedEntries.add(getBinaryValue(entryPosition, storedEntrySize(entryPosition)));
+    }
+
+    int freePointer = MAX_PAGE_SIZE_BYTES - referenceKey().length;
+
+    int index = 0;
+    for (final byte[] entry : storedEntries) {
+      freePointer -= entry.length;
+
+      setIntValue(COMPRESSED_POSITIONS_ARRAY_OFFSET + index * OIntegerSerializer.INT_SIZE, freePointer);
+      setBinaryValue(freePointer, entry);
+
+      index++;
+    }
+
+    setIntValue(FREE_POINTER_OFFSET, freePointer);
+    setIntValue(SIZE_OFFSET, newSize);
+  }
+
+  @Override
+  boolean addLeafEntry(final int index, final byte[] serializedKey, final byte[] serializedValue) {
+    assert isLeaf;
+
+    return insertEntry(index, serializedValue, serializedKey);
+  }
+
+  @Override
+  public boolean addEntry(final int index, final SBTreeEntry<K> treeEntry, final boolean updateNeighbors) {
+    final byte[] serializedKey = keySerializer.serializeNativeAsWhole(treeEntry.key, (Object[]) keyTypes);
+
+    final byte[] head;
+    if (isLeaf) {
+      head = new byte[RID_SIZE];
+      OShortSerializer.INSTANCE.serializeNative((short) treeEntry.value.getClusterId(), head, 0);
+      OLongSerializer.INSTANCE.serializeNative(treeEntry.value.getClusterPosition(), head, OShortSerializer.SHORT_SIZE);
+    } else {
+      head = new byte[CHILDREN_SIZE];
+      OIntegerSerializer.INSTANCE.serializeNative(treeEntry.leftChild, head, 0);
+      OIntegerSerializer.INSTANCE.serializeNative(treeEntry.rightChild, head, OIntegerSerializer.INT_SIZE);
+    }
+
+    if (!insertEntry(index, head, serializedKey)) {
+      return false;
+    }
+
+    if (!isLeaf && updateNeighbors) {
+      final int size = size();
+
+      if (size > 1) {
+        if (index < size - 1) {
+          setIntValue(entryPosition(index + 1), treeEntry.rightChild);
+        }
+
+        if (index > 0) {
+          setIntValue(entryPosition(index - 1) + OIntegerSerializer.INT_SIZE, treeEntry.leftChild);
+        }
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  void updateValue(final int index, final byte[] value) {
+    setBinaryValue(entryPosition(index), value);
+  }
+
+  private boolean insertEntry(final int index, final byte[] head, final byte[] serializedKey) {
+    final boolean newReferenceKey = isReferenceKeyMissing();
+    final byte[] encodedKey = encode(serializedKey, newReferenceKey ? serializedKey : referenceKey());
+    final int entrySize = head.length + ENCODED_SIZE_SIZE + encodedKey.length;
+
+    final int size = size();
+    int freePointer = getIntValue(FREE_POINTER_OFFSET);
+    if (freePointer - entrySize - (newReferenceKey ? serializedKey.length : 0)
+        < (size + 1) * OIntegerSerializer.INT_SIZE + COMPRESSED_POSITIONS_ARRAY_OFFSET) {
+      return false;
+    }
+
+    if (newReferenceKey) {
+      setReferenceKey(serializedKey);
+      freePointer = getIntValue(FREE_POINTER_OFFSET);
+    }
+
+    if (index <= size - 1) {
+      moveData(COMPRESSED_POSITIONS_ARRAY_OFFSET + index * OIntegerSerializer.INT_SIZE,
+          COMPRESSED_POSITIONS_ARRAY_OFFSET + (index + 1) * OIntegerSerializer.INT_SIZE, (size - index) * OIntegerSerializer.INT_SIZE);
+    }
+
+    freePointer -= entrySize;
+
+    setIntValue(FREE_POINTER_OFFSET, freePointer);
+    setIntValue(COMPRESSED_POSITIONS_ARRAY_OFFSET + index * OIntegerSerializer.INT_SIZE, freePointer);
+    setIntValue(SIZE_OFFSET, size + 1);
+
+    freePointer += setBinaryValue(freePointer, head);
+    freePointer += setShortValue(freePointer, (short) encodedKey.length);
+    setBinaryValue(freePointer, encodedKey);
+
+    return true;
+  }
+
+  /**
+   * Reference key is set by the first entry added into the page, it is kept when page becomes empty, because removed keys are
+   * usually replaced by keys close to them.
+   */
+  private boolean isReferenceKeyMissing() {
+    return size() == 0 && referenceKey().length == 0;
+  }
+
+  private void setReferenceKey(final byte[] serializedKey) {
+    assert size() == 0;
+
+    setIntValue(REFERENCE_SIZE_OFFSET, serializedKey.length);
+    setBinaryValue(MAX_PAGE_SIZE_BYTES - serializedKey.length, serializedKey);
+    setIntValue(FREE_POINTER_OFFSET, MAX_PAGE_SIZE_BYTES - serializedKey.length);
+
+    referenceKey = serializedKey;
+  }
+
+  private byte[] referenceKey() {
+    if (referenceKey == null) {
+      final int referenceSize = getIntValue(REFERENCE_SIZE_OFFSET);
+      if (referenceSize == 0) {
+        referenceKey = EMPTY_KEY;
+      } else {
+        referenceKey = getBinaryValue(MAX_PAGE_SIZE_BYTES - referenceSize, referenceSize);
+      }
+    }
+
+    return referenceKey;
+  }
+
+  private int entryPosition(final int entryIndex) {
+    return getIntValue(COMPRESSED_POSITIONS_ARRAY_OFFSET + entryIndex * OIntegerSerializer.INT_SIZE);
+  }
+
+  private int encodedKeyPosition(final int entryPosition) {
+    return entryPosition + (isLeaf ? RID_SIZE : CHILDREN_SIZE);
+  }
+
+  private int storedEntrySize(final int entryPosition) {
+    final int encodedSize = getShortValue(encodedKeyPosition(entryPosition)) & 0xFFFF;
+    return (isLeaf ? RID_SIZE : CHILDREN_SIZE) + ENCODED_SIZE_SIZE + encodedSize;
+  }
+
+  private byte[] encodedKey(final int entryPosition) {
+    final int encodedKeyPosition = encodedKeyPosition(entryPosition);
+    final int encodedSize = getShortValue(encodedKeyPosition) & 0xFFFF;
+
+    return getBinaryValue(encodedKeyPosition + ENCODED_SIZE_SIZE, encodedSize);
+  }
+
+  private K deserializeKey(final int entryPosition) {
+    return keySerializer.deserializeNativeObject(decode(encodedKey(entryPosition), referenceKey()), 0);
+  }
+
+  private static byte[] getRawEntryPart(final byte[] rawEntry, final int offset, final int length) {
+    final byte[] part = new byte[length];
+    System.arraycopy(rawEntry, offset, part, 0, length);
+    return part;
+  }
+
+  private static List<byte[]> encodeAll(final List<byte[]> serializedKeys, final byte[] referenceKey) {
+    final List<byte[]> encodedKeys = new ArrayList<>(serializedKeys.size());
+    for (final byte[] serializedKey : serializedKeys) {
+      encodedKeys.add(encode(serializedKey, referenceKey));
+    }
+    return encodedKeys;
+  }
+
+  private static int encodedSize(final List<byte[]> encodedKeys, final byte[] referenceKey) {
+    int size = referenceKey.length;
+    for (final byte[] encodedKey : encodedKeys) {
+      size += encodedKey.length;
+    }
+    return size;
+  }
+
+  static byte[] encode(final byte[] serializedKey, final byte[] referenceKey) {
+    final BytesContainer container = new BytesContainer(new byte[serializedKey.length + 2 * MAX_VAR_INT_SIZE]);
+
+    int position = 0;
+    while (position < serializedKey.length) {
+      final int literalStart = position + copyLength(serializedKey, referenceKey, position, serializedKey.length);
+
+      int literalEnd = literalStart;
+      while (literalEnd < serializedKey.length
+          && copyLength(serializedKey, referenceKey, literalEnd, literalEnd + MIN_COPY_LENGTH) < MIN_COPY_LENGTH) {
+        literalEnd++;
+      }
+
+      OVarIntSerializer.writeUnsignedVarLong(literalStart - position, container);
+      OVarIntSerializer.writeUnsignedVarLong(literalEnd - literalStart, container);
+
+      final int literalPosition = container.alloc(literalEnd - literalStart);
+      System.arraycopy(serializedKey, literalStart, container.bytes, literalPosition, literalEnd - literalStart);
+
+      position = literalEnd;
+    }
+
+    return container.fitBytes();
+  }
+
+  static byte[] decode(final byte[] encodedKey, final byte[] referenceKey) {
+    final BytesContainer container = new BytesContainer(encodedKey);
+
+    int keySize = 0;
+    while (container.offset < encodedKey.length) {
+      final int copyLength = (int) OVarIntSerializer.readUnsignedVarLong(container);
+      final int literalLength = (int) OVarIntSerializer.readUnsignedVarLong(container);
+
+      container.skip(literalLength);
+      keySize += copyLength + literalLength;
+    }
+
+    final byte[] serializedKey = new byte[keySize];
+
+    container.offset = 0;
+    int position = 0;
+    while (container.offset < encodedKey.length) {
+      final int copyLength = (int) OVarIntSerializer.readUnsignedVarLong(container);
+      final int literalLength = (int) OVarIntSerializer.readUnsignedVarLong(container);
+
+      System.arraycopy(referenceKey, position, serializedKey, position, copyLength);
+      position += copyLength;
+
+      System.arraycopy(encodedKey, container.offset, serializedKey, position, literalLength);
+      container.skip(literalLength);
+      position += literalLength;
+    }
+
+    return serializedKey;
+  }
+
+  /**
+   * @return Amount of bytes starting from given position which are equal in serialized and reference keys, but not more than is
+   * needed to reach the limit.
+   */
+  private static int copyLength(final byte[] serializedKey, final byte[] referenceKey, final int position, final int limit) {
+    final int end = Math.min(Math.min(limit, serializedKey.length), referenceKey.length);
+
+    int length = 0;
+    while (position + length < end && serializedKey[position + length] == referenceKey[position + length]) {
+      length++;
+    }
+
+    return length;
+  }
+}
@@ -22,6 +22,7 @@ package com.orientechnologies.orient.enterprise.channel.binary;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OIOException;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.compression.OCompression;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.id.ORID;
@@ -40,12 +41,14 @@ import java.util.Arrays;
  * @author Luca Garulli (l.garulli--(at)--orientdb.com)
  */
 public abstract class OChannelBinary extends OChannel implements OChannelDataInput, OChannelDataOutput {
-  private static final int              MAX_LENGTH_DEBUG = 150;
-  protected final      boolean          debug;
-  private final        int              maxChunkSize;
-  public               DataInputStream  in;
-  public               DataOutputStream out;
-  private              int              responseTimeout;
+  private static final int                     MAX_LENGTH_DEBUG = 150;
+  protected final      boolean                 debug;
+  private final        int                     maxChunkSize;
+  public               DataInputStream         in;
+  public               DataOutputStream        out;
+  private              int                     responseTimeout;
+  private              OCompressedInputStream  compressedIn;
+  private              OCompressedOutputStream compressedOut;
 
   public OChannelBinary(final Socket iSocket, final OContextConfiguration iConfig) throws IOException {
     super(iSocket, iConfig);
@@ -365,6 +368,38 @@ public abstract class OChannelBinary extends OChannel implements OChannelDataInp
     return in;
   }
 
+  /**
+   * Compresses the data exchanged from now on in frames, sent as they are if smaller than the threshold. Both the peers must
+   * enable it at the same point of the stream, after all the data written before has been flushed.
+   */
+  public void enableCompression(final OCompression compression, final int threshold) {
+    compressedIn = new OCompressedInputStream(inStream, compression);
+    compressedOut = new OCompressedOutputStream(outStream, compression, threshold);
+    in = new DataInputStream(compressedIn);
+    out = new DataOutputStream(compressedOut);
+
+    if (debug)
+      OLogManager.instance().info(this, "%s - Enabled compression %s", socket.getRemoteSocketAddress(), compression.name());
+  }
+
+  public boolean isCompressed() {
+    return compressedIn != null;
+  }
+
+  /**
+   * Returns the bytes exchanged in both directions since the compression has been enabled, before compressing them.
+   */
+  public long getBytesBeforeCompression() {
+    return compressedIn != null ? compressedIn.getBytesBeforeCompression() + compressedOut.getBytesBeforeCompression() : 0;
+  }
+
+  /**
+   * Returns the bytes exchanged in both directions since the compression has been enabled, as they are sent on the network.
+   */
+  public long getBytesAfterCompression() {
+    return compressedIn != null ? compressedIn.getBytesAfterCompression() + compressedOut.getBytesAfterCompression() : 0;
+  }
+
   public void setWaitResponseTimeout() throws SocketException {
     final Socket s = socket;
     if (s != null)
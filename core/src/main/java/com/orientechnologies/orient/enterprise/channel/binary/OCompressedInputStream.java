@@ -0,0 +1,122 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.enterprise.channel.binary;
+
+import com.orientechnologies.orient.core.compression.OCompression;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that reads the frames written by {@link OCompressedOutputStream}, uncompressing them when needed.
+ */
+public class OCompressedInputStream extends InputStream {
+  private final DataInputStream in;
+  private final OCompression    compression;
+  private       byte[]          frame = new byte[0];
+  private       int             position;
+  private       long            bytesBeforeCompression;
+  private       long            bytesAfterCompression;
+
+  public OCompressedInputStream(final InputStream in, final OCompression compression) {
+    this.in = new DataInputStream(in);
+    this.compression = compression;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (position == frame.length && !readFrame())
+      return -1;
+    return frame[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0)
+      return 0;
+    if (position == frame.length && !readFrame())
+      return -1;
+
+    final int chunk = Math.min(len, frame.length - position);
+    System.arraycopy(frame, position, b, off, chunk);
+    position += chunk;
+    return chunk;
+  }
+
+  /**
+   * Returns the bytes left in the current frame, plus the bytes of the next frames already received.
+   */
+  @Override
+  public int available() throws IOException {
+    return frame.length - position + in.available();
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  public long getBytesBeforeCompression() {
+    return bytesBeforeCompression;
+  }
+
+  public long getBytesAfterCompression() {
+    return bytesAfterCompression;
+  }
+
+  private boolean readFrame() throws IOException {
+    do {
+      final int type = in.read();
+      if (type == -1)
+        return false;
+
+      final int length = in.readInt();
+      if (length < 0 || length > OCompressedOutputStream.MAX_FRAME_SIZE)
+        throw new IOException("Invalid length of a compressed frame: " + length);
+
+      final byte[] content = new byte[length];
+      in.readFully(content);
+
+      if (type == OCompressedOutputStream.FRAME_COMPRESSED)
+        frame = uncompress(content);
+      else if (type == OCompressedOutputStream.FRAME_RAW)
+        frame = content;
+      else
+        throw new IOException("Invalid type of a compressed frame: " + type);
+
+      position = 0;
+      bytesBeforeCompression += frame.length;
+      bytesAfterCompression += OCompressedOutputStream.FRAME_HEADER + length;
+    } while (frame.length == 0);
+    return true;
+  }
+
+  /**
+   * Frames are received before the peer is authenticated, so their uncompressed length is limited like the one of the raw frames.
+   */
+  private byte[] uncompress(final byte[] content) throws IOException {
+    try {
+      return compression.uncompress(content, 0, content.length, OCompressedOutputStream.MAX_FRAME_SIZE);
+    } catch (IllegalStateException e) {
+      throw new IOException("Invalid content of a compressed frame", e);
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.enterprise.channel.binary;
+
+import com.orientechnologies.orient.core.compression.OCompression;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Output stream that groups the written bytes in frames, sent on flush: the frames smaller than the threshold, or that the
+ * compression would not reduce, are sent as they are. Each frame starts with a byte that tells if it is compressed, followed by
+ * the length of its content.
+ *
+ * @see OCompressedInputStream
+ */
+public class OCompressedOutputStream extends OutputStream {
+  public static final byte FRAME_RAW        = 0;
+  public static final byte FRAME_COMPRESSED = 1;
+  public static final int  FRAME_HEADER     = 1 + 4;
+  // A LONG MESSAGE IS SPLIT IN MORE FRAMES, SO IT IS NOT KEPT ALL IN MEMORY
+  public static final int  MAX_FRAME_SIZE   = 256 * 1024;
+
+  private final DataOutputStream out;
+  private final OCompression     compression;
+  private final int              threshold;
+  private       byte[]           buffer = new byte[8192];
+  private       int              count;
+  private       long             bytesBeforeCompression;
+  private       long             bytesAfterCompression;
+
+  public OCompressedOutputStream(final OutputStream out, final OCompression compression, final int threshold) {
+    this.out = new DataOutputStream(out);
+    this.compression = compression;
+    this.threshold = threshold;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    if (count == buffer.length)
+      grow(1);
+    buffer[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(final byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (count == buffer.length)
+        grow(len);
+      final int chunk = Math.min(len, buffer.length - count);
+      System.arraycopy(b, off, buffer, count, chunk);
+      count += chunk;
+      off += chunk;
+      len -= chunk;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    writeFrame();
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      out.close();
+    }
+  }
+
+  public long getBytesBeforeCompression() {
+    return bytesBeforeCompression;
+  }
+
+  public long getBytesAfterCompression() {
+    return bytesAfterCompression;
+  }
+
+  private void grow(final int required) throws IOException {
+    if (buffer.length >= MAX_FRAME_SIZE)
+      writeFrame();
+    else
+      buffer = Arrays.copyOf(buffer, Math.min(Math.max(buffer.length << 1, count + required), MAX_FRAME_SIZE));
+  }
+
+  private void writeFrame() throws IOException {
+    if (count == 0)
+      return;
+
+    byte[] compressed = null;
+    if (count >= threshold) {
+      compressed = compression.compress(buffer, 0, count);
+      if (compressed.length >= count)
+        compressed = null;
+    }
+
+    if (compressed != null) {
+      out.writeByte(FRAME_COMPRESSED);
+      out.writeInt(compressed.length);
+      out.write(compressed);
+      bytesAfterCompression += FRAME_HEADER + compressed.length;
+    } else {
+      out.writeByte(FRAME_RAW);
+      out.writeInt(count);
+      out.write(buffer, 0, count);
+      bytesAfterCompression += FRAME_HEADER + count;
+    }
+    bytesBeforeCompression += count;
+    count = 0;
+  }
+}
@@ -0,0 +1,225 @@
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class IndexBulkLoadTest {
+  private static final int RECORDS = 20_000;
+
+  private String   dbDirectory;
+  private OrientDB orientDB;
+  private int      sortBufferSize;
+
+  @Before
+  public void before() {
+    final String buildDirectory = System.getProperty("buildDirectory", ".");
+    dbDirectory = buildDirectory + File.separator + IndexBulkLoadTest.class.getSimpleName();
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+
+    // force spilling of sorted runs to the disk
+    sortBufferSize = OGlobalConfiguration.INDEX_BULK_LOAD_SORT_BUFFER_SIZE.getValueAsInteger();
+    OGlobalConfiguration.INDEX_BULK_LOAD_SORT_BUFFER_SIZE.setValue(1_000);
+
+    orientDB = new OrientDB("embedded:" + dbDirectory,
+        OrientDBConfig.builder().addConfig(OGlobalConfiguration.INDEX_BULK_LOAD_THRESHOLD, 1).build());
+    orientDB.create("test", ODatabaseType.PLOCAL);
+  }
+
+  @After
+  public void after() {
+    orientDB.close();
+    OGlobalConfiguration.INDEX_BULK_LOAD_SORT_BUFFER_SIZE.setValue(sortBufferSize);
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+  }
+
+  @Test
+  public void testUniqueIndexIsBuiltFromSortedEntries() {
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      final OClass person = db.createClass("Person");
+      person.createProperty("id", OType.INTEGER);
+      person.createProperty("name", OType.STRING);
+
+      final List<Integer> ids = new ArrayList<>();
+      for (int i = 0; i < RECORDS; i++) {
+        ids.add(i);
+      }
+      Collections.shuffle(ids, new Random(42));
+
+      for (final int id : ids) {
+        final OElement element = db.newElement("Person");
+        element.setProperty("id", id);
+        element.setProperty("name", "person " + id);
+        element.save();
+      }
+
+      final OAbstractPaginatedStorage storage = (OAbstractPaginatedStorage) ((ODatabaseDocumentInternal) db).getStorage();
+      final long checkpoints = storage.getFullCheckpointCount();
+
+      person.createIndex("Person.id", OClass.INDEX_TYPE.UNIQUE, "id");
+      person.createIndex("Person.name", OClass.INDEX_TYPE.UNIQUE, "name");
+
+      // changes are made durable by full checkpoint once index is filled
+      Assert.assertTrue(storage.getFullCheckpointCount() > checkpoints);
+
+      final OIndex<?> idIndex = db.getMetadata().getIndexManager().getIndex("Person.id");
+      Assert.assertEquals(RECORDS, idIndex.getSize());
+      assertIndexContent(db, idIndex);
+
+      final OIndex<?> nameIndex = db.getMetadata().getIndexManager().getIndex("Person.name");
+      Assert.assertEquals(RECORDS, nameIndex.getSize());
+      Assert.assertEquals(5_000, db.<OElement>load(((OIdentifiable) nameIndex.get("person 5000")).getIdentity())
+          .<Integer>getProperty("id").intValue());
+
+      // tree which is built by bulk load is updated as usual
+      final OElement element = db.newElement("Person");
+      element.setProperty("id", RECORDS);
+      element.setProperty("name", "person " + RECORDS);
+      element.save();
+
+      final OElement duplicate = db.newElement("Person");
+      duplicate.setProperty("id", 10);
+      try {
+        duplicate.save();
+        Assert.fail();
+      } catch (ORecordDuplicatedException e) {
+        // expected
+      }
+
+      Assert.assertEquals(RECORDS + 1, idIndex.getSize());
+    }
+
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      final OIndex<?> idIndex = db.getMetadata().getIndexManager().getIndex("Person.id");
+      Assert.assertEquals(RECORDS + 1, idIndex.getSize());
+      Assert.assertNotNull(idIndex.get(RECORDS));
+    }
+  }
+
+  @Test
+  public void testRebuildIndexesItemsOfCollections() {
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      final OClass item = db.createClass("Item");
+      item.createProperty("tags", OType.EMBEDDEDLIST, OType.STRING);
+      item.createIndex("Item.tags", OClass.INDEX_TYPE.UNIQUE, "tags");
+
+      for (int i = 0; i < 1_000; i++) {
+        final OElement element = db.newElement("Item");
+        element.setProperty("tags", i % 10 == 0 ? Collections.emptyList() : Arrays.asList("a" + i, "b" + i));
+        element.save();
+      }
+
+      final OIndex<?> index = db.getMetadata().getIndexManager().getIndex("Item.tags");
+      Assert.assertEquals(1_800, index.getSize());
+
+      Assert.assertEquals(1_000, index.rebuild());
+      Assert.assertEquals(1_800, index.getSize());
+      Assert.assertNotNull(index.get("a11"));
+      Assert.assertNotNull(index.get("b999"));
+      Assert.assertNull(index.get("a10"));
+    }
+  }
+
+  @Test
+  public void testDeepTreeIsBuiltWithLowFillFactor() {
+    final int fillFactor = OGlobalConfiguration.INDEX_BULK_LOAD_FILL_FACTOR.getValueAsInteger();
+    // only few entries are placed on each page, so tree has many levels
+    OGlobalConfiguration.INDEX_BULK_LOAD_FILL_FACTOR.setValue(5);
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      final char[] padding = new char[1_000];
+      Arrays.fill(padding, 'x');
+
+      for (final int records : new int[] { 1, 50, 2_000 }) {
+        final OClass item = db.createClass("Item" + records);
+        item.createProperty("key", OType.STRING);
+
+        final List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < records; i++) {
+          ids.add(i);
+        }
+        Collections.shuffle(ids, new Random(records));
+
+        for (final int id : ids) {
+          final OElement element = db.newElement(item.getName());
+          element.setProperty("key", String.format("%05d", id) + new String(padding));
+          element.save();
+        }
+
+        item.createIndex(item.getName() + ".key", OClass.INDEX_TYPE.UNIQUE, "key");
+
+        final OIndex<?> index = db.getMetadata().getIndexManager().getIndex(item.getName() + ".key");
+        Assert.assertEquals(records, index.getSize());
+
+        final OIndexCursor cursor = index.cursor();
+        int expected = 0;
+        Map.Entry<Object, OIdentifiable> entry = cursor.nextEntry();
+        while (entry != null) {
+          Assert.assertEquals(String.format("%05d", expected) + new String(padding), entry.getKey());
+          Assert.assertEquals(entry.getValue(), index.get(entry.getKey()));
+
+          expected++;
+          entry = cursor.nextEntry();
+        }
+
+        Assert.assertEquals(records, expected);
+      }
+    } finally {
+      OGlobalConfiguration.INDEX_BULK_LOAD_FILL_FACTOR.setValue(fillFactor);
+    }
+  }
+
+  private static void assertIndexContent(final ODatabaseSession db, final OIndex<?> index) {
+    final OIndexCursor cursor = index.iterateEntriesMajor(-1, true, true);
+
+    int expected = 0;
+    Map.Entry<Object, OIdentifiable> entry = cursor.nextEntry();
+    while (entry != null) {
+      Assert.assertEquals(expected, entry.getKey());
+
+      final OElement element = db.load(entry.getValue().getIdentity());
+      Assert.assertEquals(expected, element.<Integer>getProperty("id").intValue());
+
+      expected++;
+      entry = cursor.nextEntry();
+    }
+
+    Assert.assertEquals(RECORDS, expected);
+
+    final OIndexCursor descCursor = index.iterateEntriesMinor(RECORDS, true, false);
+    int count = 0;
+    Object prevKey = null;
+    entry = descCursor.nextEntry();
+    while (entry != null) {
+      if (prevKey != null) {
+        Assert.assertTrue((Integer) entry.getKey() < (Integer) prevKey);
+      }
+      prevKey = entry.getKey();
+      count++;
+      entry = descCursor.nextEntry();
+    }
+
+    Assert.assertEquals(RECORDS, count);
+  }
+}
@@ -0,0 +1,129 @@
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IndexKeyLocksTest {
+  private static final int WRITERS            = 8;
+  private static final int RECORDS_PER_WRITER = 5_000;
+
+  private String   dbDirectory;
+  private OrientDB orientDB;
+  private boolean  keyLocks;
+
+  @Before
+  public void before() {
+    keyLocks = OGlobalConfiguration.SBTREE_KEY_LOCKS.getValueAsBoolean();
+    OGlobalConfiguration.SBTREE_KEY_LOCKS.setValue(true);
+
+    final String buildDirectory = System.getProperty("buildDirectory", ".");
+    dbDirectory = buildDirectory + File.separator + IndexKeyLocksTest.class.getSimpleName();
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+
+    orientDB = new OrientDB("embedded:" + dbDirectory, OrientDBConfig.defaultConfig());
+    orientDB.create("test", ODatabaseType.PLOCAL);
+  }
+
+  @After
+  public void after() {
+    orientDB.close();
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+
+    OGlobalConfiguration.SBTREE_KEY_LOCKS.setValue(keyLocks);
+  }
+
+  @Test
+  public void testConcurrentPutsIntoUniqueIndex() throws Exception {
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      final OClass person = db.createClass("Person");
+      person.createProperty("id", OType.INTEGER);
+      person.createIndex("Person.id", OClass.INDEX_TYPE.UNIQUE.toString(), null, null, "CELL_BTREE", new String[] { "id" });
+    }
+
+    final AtomicInteger duplicates = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+    try {
+      final List<Future<Void>> writers = new ArrayList<>();
+      for (int i = 0; i < WRITERS; i++) {
+        final int writer = i;
+        writers.add(executor.submit(() -> {
+          try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+            for (int n = 0; n < RECORDS_PER_WRITER; n++) {
+              final OElement element = db.newElement("Person");
+              element.setProperty("id", n * WRITERS + writer);
+              element.save();
+
+              if (n % 100 == 0) {
+                // writers of the same parity put the same key, only one of them succeeds
+                final OElement duplicate = db.newElement("Person");
+                duplicate.setProperty("id", -(n * WRITERS + writer % 2) - 1);
+                try {
+                  duplicate.save();
+                } catch (ORecordDuplicatedException e) {
+                  duplicates.incrementAndGet();
+                }
+              }
+            }
+          }
+          return null;
+        }));
+      }
+
+      for (final Future<Void> writer : writers) {
+        writer.get();
+      }
+    } finally {
+      executor.shutdown();
+      Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    Assert.assertEquals(RECORDS_PER_WRITER / 100 * (WRITERS - 2), duplicates.get());
+
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      assertIndexContent(db);
+    }
+
+    orientDB.close();
+    orientDB = new OrientDB("embedded:" + dbDirectory, OrientDBConfig.defaultConfig());
+
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      assertIndexContent(db);
+    }
+  }
+
+  private static void assertIndexContent(final ODatabaseSession db) {
+    final OIndex<?> index = db.getMetadata().getIndexManager().getIndex("Person.id");
+
+    long count = 0;
+    for (final ODocument document : db.browseClass("Person")) {
+      final Integer id = document.field("id");
+      Assert.assertEquals(document.getIdentity(), ((OIdentifiable) index.get(id)).getIdentity());
+      count++;
+    }
+
+    Assert.assertEquals(count, index.getSize());
+  }
+}
@@ -0,0 +1,356 @@
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.common.listener.OProgressListener;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IndexOnlineBuildTest {
+  private static final int RECORDS = 10_000;
+  private static final int WRITERS = 2;
+
+  private String   dbDirectory;
+  private OrientDB orientDB;
+
+  @Before
+  public void before() {
+    final String buildDirectory = System.getProperty("buildDirectory", ".");
+    dbDirectory = buildDirectory + File.separator + IndexOnlineBuildTest.class.getSimpleName();
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+
+    orientDB = new OrientDB("embedded:" + dbDirectory,
+        OrientDBConfig.builder().addConfig(OGlobalConfiguration.INDEX_ONLINE_BUILD, true)
+            .addConfig(OGlobalConfiguration.INDEX_ONLINE_BUILD_REPLAY_THRESHOLD, 10).build());
+    orientDB.create("test", ODatabaseType.PLOCAL);
+  }
+
+  @After
+  public void after() {
+    orientDB.close();
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+  }
+
+  @Test
+  public void testIndexIsBuiltWhileRecordsAreChanged() throws Exception {
+    final List<List<ORID>> ridsPerWriter = new ArrayList<>();
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      final OClass person = db.createClass("Person");
+      person.createProperty("id", OType.INTEGER);
+
+      for (int i = 0; i < WRITERS; i++) {
+        ridsPerWriter.add(new ArrayList<>());
+      }
+
+      for (int i = 0; i < RECORDS; i++) {
+        final OElement element = db.newElement("Person");
+        element.setProperty("id", i);
+        element.save();
+
+        ridsPerWriter.get(i % WRITERS).add(element.getIdentity());
+      }
+    }
+
+    final AtomicInteger idCounter = new AtomicInteger(RECORDS);
+    final AtomicInteger operations = new AtomicInteger();
+
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      final OClass person = db.getMetadata().getSchema().getClass("Person");
+
+      runWithWriters(ridsPerWriter, idCounter, operations, () -> person
+          .createIndex("Person.id", OClass.INDEX_TYPE.UNIQUE.toString(), new WaitForWritersListener(operations), null, null,
+              new String[] { "id" }));
+      assertIndexContent(db);
+
+      final OIndex<?> index = db.getMetadata().getIndexManager().getIndex("Person.id");
+      Assert.assertFalse(index.isRebuilding());
+
+      runWithWriters(ridsPerWriter, idCounter, operations,
+          () -> index.getInternal().rebuild(new WaitForWritersListener(operations)));
+      assertIndexContent(db);
+    }
+
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      assertIndexContent(db);
+    }
+  }
+
+  @Test
+  public void testDuplicatesAreRejectedWhileChangesAreCollectedInSideLog() {
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      final OClass person = db.createClass("Person");
+      person.createProperty("id", OType.INTEGER);
+
+      for (int i = 0; i < RECORDS; i++) {
+        final OElement element = db.newElement("Person");
+        element.setProperty("id", i);
+        element.save();
+      }
+
+      person.createIndex("Person.id", OClass.INDEX_TYPE.UNIQUE, "id");
+      final OIndexAbstract<?> index = (OIndexAbstract<?>) db.getMetadata().getIndexManager().getIndex("Person.id").getInternal();
+      Assert.assertTrue(index.startOnlineBuild());
+
+      // key which is already indexed
+      try {
+        final OElement element = db.newElement("Person");
+        element.setProperty("id", 0);
+        element.save();
+        Assert.fail();
+      } catch (ORecordDuplicatedException e) {
+        // expected
+      }
+
+      // key which is added after the start of the build
+      final OElement added = db.newElement("Person");
+      added.setProperty("id", RECORDS);
+      added.save();
+      try {
+        final OElement element = db.newElement("Person");
+        element.setProperty("id", RECORDS);
+        element.save();
+        Assert.fail();
+      } catch (ORecordDuplicatedException e) {
+        // expected
+      }
+
+      // key which is released after the start of the build
+      db.delete(added.getIdentity());
+      final OElement reused = db.newElement("Person");
+      reused.setProperty("id", RECORDS);
+      reused.save();
+
+      index.buildOnline(null);
+      Assert.assertFalse(index.isRebuilding());
+      assertIndexContent(db);
+    }
+  }
+
+  @Test
+  public void testChangesOfRolledBackTransactionAreNotReplayed() {
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      final OClass person = db.createClass("Person");
+      person.createProperty("id", OType.INTEGER);
+      person.createProperty("name", OType.STRING);
+
+      final List<ORID> rids = new ArrayList<>();
+      for (int i = 0; i < RECORDS; i++) {
+        final OElement element = db.newElement("Person");
+        element.setProperty("id", i);
+        element.setProperty("name", "name" + i);
+        element.save();
+        rids.add(element.getIdentity());
+      }
+
+      person.createIndex("Person.id", OClass.INDEX_TYPE.UNIQUE, "id");
+      // changes of this index are applied after the changes of the index which is being built
+      person.createIndex("Person.name", OClass.INDEX_TYPE.UNIQUE, "name");
+
+      final OIndexAbstract<?> index = (OIndexAbstract<?>) db.getMetadata().getIndexManager().getIndex("Person.id").getInternal();
+      Assert.assertTrue(index.startOnlineBuild());
+
+      // transaction is rolled back because of the other index, after its changes are checked by the index which is being built
+      try {
+        db.begin();
+        final OElement element = db.load(rids.get(0));
+        element.setProperty("id", RECORDS);
+        element.setProperty("name", "name1");
+        element.save();
+        db.commit();
+        Assert.fail();
+      } catch (ORecordDuplicatedException e) {
+        // expected
+      }
+
+      // key is not assigned by the rolled back transaction
+      final OElement added = db.newElement("Person");
+      added.setProperty("id", RECORDS);
+      added.setProperty("name", "name" + RECORDS);
+      added.save();
+
+      index.buildOnline(null);
+      Assert.assertFalse(index.isRebuilding());
+
+      final OElement first = db.load(rids.get(0));
+      Assert.assertEquals(0, (int) first.getProperty("id"));
+      Assert.assertEquals(added.getIdentity(), ((OIdentifiable) index.get(RECORDS)).getIdentity());
+      assertIndexContent(db);
+    }
+  }
+
+  @Test
+  public void testIndexIsNotUsedAfterFailedRebuild() {
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      final OClass person = db.createClass("Person");
+      person.createProperty("id", OType.INTEGER);
+
+      for (int i = 0; i < RECORDS; i++) {
+        final OElement element = db.newElement("Person");
+        element.setProperty("id", i);
+        element.save();
+      }
+
+      person.createIndex("Person.id", OClass.INDEX_TYPE.UNIQUE, "id");
+      final OIndexInternal<?> index = db.getMetadata().getIndexManager().getIndex("Person.id").getInternal();
+
+      try {
+        index.rebuild(new FailingListener());
+        Assert.fail();
+      } catch (OIndexException e) {
+        // expected
+      }
+      Assert.assertTrue(index.isRebuilding());
+
+      index.rebuild();
+      Assert.assertFalse(index.isRebuilding());
+      assertIndexContent(db);
+    }
+  }
+
+  private void runWithWriters(final List<List<ORID>> ridsPerWriter, final AtomicInteger idCounter,
+      final AtomicInteger operations, final Runnable build) throws Exception {
+    final AtomicBoolean stop = new AtomicBoolean();
+
+    final ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+    final List<Future<Void>> writers = new ArrayList<>();
+    for (int i = 0; i < WRITERS; i++) {
+      final List<ORID> rids = ridsPerWriter.get(i);
+      final Random random = new Random(i + operations.get());
+      writers.add(executor.submit(() -> {
+        try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+          while (!stop.get()) {
+            final int operation = random.nextInt(4);
+            if (operation == 0) {
+              final OElement element = db.newElement("Person");
+              element.setProperty("id", idCounter.getAndIncrement());
+              element.save();
+              rids.add(element.getIdentity());
+            } else if (operation == 1 && !rids.isEmpty()) {
+              final OElement element = db.load(rids.get(random.nextInt(rids.size())));
+              element.setProperty("id", idCounter.getAndIncrement());
+              element.save();
+            } else if (operation == 2 && !rids.isEmpty()) {
+              db.delete(rids.remove(random.nextInt(rids.size())));
+            } else if (rids.size() > 1) {
+              // keys are swapped, so uniqueness is violated till both changes are applied
+              db.begin();
+              final OElement first = db.load(rids.get(random.nextInt(rids.size())));
+              final OElement second = db.load(rids.get(random.nextInt(rids.size())));
+              final Integer firstId = first.getProperty("id");
+              first.setProperty("id", second.getProperty("id"));
+              second.setProperty("id", firstId);
+              first.save();
+              second.save();
+              db.commit();
+            }
+
+            operations.incrementAndGet();
+          }
+        }
+        return null;
+      }));
+    }
+
+    try {
+      build.run();
+    } finally {
+      stop.set(true);
+      for (final Future<Void> writer : writers) {
+        writer.get();
+      }
+
+      executor.shutdown();
+      Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+  }
+
+  private static void assertIndexContent(final ODatabaseSession db) {
+    final OIndex<?> index = db.getMetadata().getIndexManager().getIndex("Person.id");
+
+    long count = 0;
+    for (final ODocument document : db.browseClass("Person")) {
+      final Integer id = document.field("id");
+      Assert.assertEquals(document.getIdentity(), ((OIdentifiable) index.get(id)).getIdentity());
+      count++;
+    }
+
+    Assert.assertEquals(count, index.getSize());
+  }
+
+  /**
+   * Fails the build in the middle.
+   */
+  private static final class FailingListener implements OProgressListener {
+    @Override
+    public void onBegin(final Object iTask, final long iTotal, final Object metadata) {
+    }
+
+    @Override
+    public boolean onProgress(final Object iTask, final long iCounter, final float iPercent) {
+      if (iPercent >= 50)
+        throw new IllegalStateException("Build is interrupted");
+      return true;
+    }
+
+    @Override
+    public void onCompletition(final Object iTask, final boolean iSucceed) {
+    }
+  }
+
+  /**
+   * Suspends the build in the middle till writers change enough records, so changes are collected in the side log.
+   */
+  private static final class WaitForWritersListener implements OProgressListener {
+    private final AtomicInteger operations;
+    private       boolean       suspended;
+
+    private WaitForWritersListener(final AtomicInteger operations) {
+      this.operations = operations;
+    }
+
+    @Override
+    public void onBegin(final Object iTask, final long iTotal, final Object metadata) {
+    }
+
+    @Override
+    public boolean onProgress(final Object iTask, final long iCounter, final float iPercent) {
+      if (iPercent >= 50 && !suspended) {
+        suspended = true;
+
+        final int target = operations.get() + 500;
+        while (operations.get() < target) {
+          Thread.yield();
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void onCompletition(final Object iTask, final boolean iSucceed) {
+    }
+  }
+}
@@ -35,6 +35,24 @@ public class OCompositeIndexDefinitionTest {
     Assert.assertEquals(fields.get(1), "fTwo");
   }
 
+  @Test
+  public void testIncludedFields() {
+    compositeIndex.setIncludedFieldsCount(1);
+
+    Assert.assertEquals(compositeIndex.getFields(), Collections.singletonList("fOne"));
+    Assert.assertEquals(compositeIndex.getFieldsToIndex(), Collections.singletonList("fOne"));
+    Assert.assertEquals(compositeIndex.getIncludedFields(), Collections.singletonList("fTwo"));
+    Assert.assertEquals(compositeIndex.getKeyFields(), Arrays.asList("fOne", "fTwo"));
+
+    // null value of included field does not exclude record from the index
+    Assert.assertEquals(compositeIndex.createValue(Arrays.asList("12", null)), new OCompositeKey(12, null));
+    Assert.assertNull(compositeIndex.createValue(Arrays.asList(null, "test")));
+
+    final ODocument document = new ODocument();
+    document.field("fOne", 12);
+    Assert.assertEquals(compositeIndex.getDocumentValueToIndex(document), new OCompositeKey(12, null));
+  }
+
   @Test
   public void testCreateValueSuccessful() {
     final Object result = compositeIndex.createValue(Arrays.asList("12", "test"));
@@ -0,0 +1,64 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.OElement;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class AggregateProjectionCalculationStepTest extends TestUtilsFixture {
+
+  private OClass clazz;
+
+  @Before
+  public void before() {
+    clazz = createClassInstance();
+    for (int i = 0; i < 1000; i++) {
+      OElement element = database.newElement(clazz.getName());
+      element.setProperty("group", i % 100);
+      element.setProperty("val", i);
+      element.save();
+    }
+    database.getConfiguration().setValue(OGlobalConfiguration.QUERY_SPILL_THRESHOLD, 3);
+  }
+
+  @After
+  public void after() {
+    database.getConfiguration().setValue(OGlobalConfiguration.QUERY_SPILL_THRESHOLD, -1);
+  }
+
+  @Test
+  public void shouldAggregateGroupsSpilledToDisk() {
+    OResultSet result = database.query(
+        "select group, count(*) as cnt, sum(val) as total, min(val) as minVal, max(val) as maxVal, avg(val) as average from "
+            + clazz.getName() + " group by group");
+    Set<Integer> groups = new HashSet<>();
+    while (result.hasNext()) {
+      OResult item = result.next();
+      int group = item.getProperty("group");
+      Assert.assertTrue(groups.add(group));
+      Assert.assertEquals(10L, (long) item.<Long>getProperty("cnt"));
+      // group g contains g, g + 100, ..., g + 900
+      Assert.assertEquals(10 * group + 4500, ((Number) item.getProperty("total")).intValue());
+      Assert.assertEquals(group, (int) item.<Integer>getProperty("minVal"));
+      Assert.assertEquals(group + 900, (int) item.<Integer>getProperty("maxVal"));
+      Assert.assertEquals(group + 450, ((Number) item.getProperty("average")).intValue());
+    }
+    result.close();
+    Assert.assertEquals(100, groups.size());
+  }
+
+  @Test
+  public void shouldAggregateWithoutGroupBy() {
+    OResultSet result = database.query("select count(*) as cnt from " + clazz.getName());
+    Assert.assertTrue(result.hasNext());
+    Assert.assertEquals(1000L, (long) result.next().<Long>getProperty("cnt"));
+    Assert.assertFalse(result.hasNext());
+    result.close();
+  }
+}
@@ -3,9 +3,15 @@ package com.orientechnologies.orient.core.sql.executor;
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Created by luigidellaquila on 26/07/16.
  */
@@ -42,4 +48,43 @@ public class DistinctExecutionStepTest {
     Assert.assertFalse(res.hasNext());
 
   }
+
+  @Test public void testSpill() {
+    ODatabaseDocument db = new ODatabaseDocumentTx("memory:DistinctExecutionStepTest_testSpill");
+    db.create();
+    try {
+      db.getConfiguration().setValue(OGlobalConfiguration.QUERY_SPILL_THRESHOLD, 5);
+      OBasicCommandContext ctx = new OBasicCommandContext();
+      ctx.setDatabase(db);
+      DistinctExecutionStep step = new DistinctExecutionStep(true, ctx, false);
+
+      AbstractExecutionStep prev = new AbstractExecutionStep(ctx, false) {
+        int fetched = 0;
+
+        @Override public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+          OInternalResultSet result = new OInternalResultSet();
+          for (int i = 0; i < nRecords && fetched < 1000; i++, fetched++) {
+            OResultInternal item = new OResultInternal();
+            item.setProperty("name", "name" + (fetched % 100));
+            result.add(item);
+          }
+          return result;
+        }
+      };
+      step.setPrevious(prev);
+
+      Set<String> names = new HashSet<>();
+      OResultSet res = step.syncPull(ctx, 10);
+      while (res.hasNext()) {
+        while (res.hasNext()) {
+          Assert.assertTrue(names.add(res.next().getProperty("name")));
+        }
+        res = step.syncPull(ctx, 10);
+      }
+      step.close();
+      Assert.assertEquals(100, names.size());
+    } finally {
+      db.drop();
+    }
+  }
 }
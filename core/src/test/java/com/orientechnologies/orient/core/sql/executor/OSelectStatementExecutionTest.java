@@ -1,5 +1,7 @@
 package com.orientechnologies.orient.core.sql.executor;
 
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseSession;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
@@ -8,6 +10,7 @@ import com.orientechnologies.orient.core.db.viewmanager.ViewCreationListener;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OIndex;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OProperty;
 import com.orientechnologies.orient.core.metadata.schema.OSchema;
@@ -26,6 +29,7 @@ import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -2294,6 +2298,102 @@ public class OSelectStatementExecutionTest {
     result.close();
   }
 
+  @Test
+  public void testFetchFromSubclassIndexesParallel() {
+    String parent = "testFetchFromSubclassIndexesParallel_parent";
+    String child1 = "testFetchFromSubclassIndexesParallel_child1";
+    String child2 = "testFetchFromSubclassIndexesParallel_child2";
+    OClass parentClass = db.getMetadata().getSchema().createClass(parent);
+    OClass childClass1 = db.getMetadata().getSchema().createClass(child1, parentClass);
+    OClass childClass2 = db.getMetadata().getSchema().createClass(child2, parentClass);
+
+    parentClass.createProperty("name", OType.STRING);
+    childClass1.createIndex(child1 + ".name", OClass.INDEX_TYPE.NOTUNIQUE, "name");
+    childClass2.createIndex(child2 + ".name", OClass.INDEX_TYPE.NOTUNIQUE, "name");
+
+    for (int i = 0; i < 1000; i++) {
+      ODocument doc = db.newInstance(i % 2 == 0 ? child1 : child2);
+      doc.setProperty("name", "name" + (i % 10));
+      doc.save();
+    }
+
+    db.getConfiguration().setValue(OGlobalConfiguration.QUERY_PARALLEL_AUTO, true);
+    db.getConfiguration().setValue(OGlobalConfiguration.QUERY_PARALLEL_RESULT_QUEUE_SIZE, 10);
+    try {
+      OResultSet result = db.query("select from " + parent + " where name = 'name1'");
+      OInternalExecutionPlan plan = (OInternalExecutionPlan) result.getExecutionPlan().get();
+      Assert.assertTrue(plan.getSteps().get(0) instanceof ParallelExecStep);
+      Set<ORID> rids = new HashSet<>();
+      while (result.hasNext()) {
+        OResult item = result.next();
+        Assert.assertEquals("name1", item.getProperty("name"));
+        rids.add(item.getIdentity().get());
+      }
+      Assert.assertEquals(100, rids.size());
+      long[] branchCounts = ((ParallelExecStep) plan.getSteps().get(0)).getBranchResultCounts();
+      Assert.assertNotNull(branchCounts);
+      Assert.assertEquals(100, Arrays.stream(branchCounts).sum());
+      Assert.assertTrue(plan.prettyPrint(0, 2).contains("BRANCH 0: " + branchCounts[0] + " results"));
+      result.close();
+
+      result = db.query("select from " + parent + " where name = 'name2' limit 5");
+      for (int i = 0; i < 5; i++) {
+        Assert.assertTrue(result.hasNext());
+        Assert.assertEquals("name2", result.next().getProperty("name"));
+      }
+      Assert.assertFalse(result.hasNext());
+      result.close();
+    } finally {
+      db.getConfiguration().setValue(OGlobalConfiguration.QUERY_PARALLEL_AUTO, false);
+      db.getConfiguration()
+          .setValue(OGlobalConfiguration.QUERY_PARALLEL_RESULT_QUEUE_SIZE, OGlobalConfiguration.QUERY_PARALLEL_RESULT_QUEUE_SIZE.getDefValue());
+    }
+  }
+
+  @Test
+  public void testFetchFromSubclassIndexesParallelNested() {
+    String parent = "testFetchFromSubclassIndexesParallelNested_parent";
+    String child1 = "testFetchFromSubclassIndexesParallelNested_child1";
+    String child2 = "testFetchFromSubclassIndexesParallelNested_child2";
+    OClass parentClass = db.getMetadata().getSchema().createClass(parent);
+    OClass childClass1 = db.getMetadata().getSchema().createClass(child1, parentClass);
+    OClass childClass2 = db.getMetadata().getSchema().createClass(child2, parentClass);
+
+    parentClass.createProperty("name", OType.STRING);
+    childClass1.createIndex(child1 + ".name", OClass.INDEX_TYPE.NOTUNIQUE, "name");
+    childClass2.createIndex(child2 + ".name", OClass.INDEX_TYPE.NOTUNIQUE, "name");
+
+    for (int i = 0; i < 1000; i++) {
+      ODocument doc = db.newInstance(i % 2 == 0 ? child1 : child2);
+      doc.setProperty("name", "name" + (i % 10));
+      doc.save();
+    }
+
+    db.getConfiguration().setValue(OGlobalConfiguration.QUERY_PARALLEL_AUTO, true);
+    try {
+      // the sub-query is executed by the workers of the query, so it can not wait for free workers
+      OResultSet result = db.query(
+          "select from " + parent + " where name = 'name1' and name in (select name from " + parent + " where name = 'name1')");
+      OInternalExecutionPlan plan = (OInternalExecutionPlan) result.getExecutionPlan().get();
+      Assert.assertTrue(plan.getSteps().get(0) instanceof ParallelExecStep);
+      List<OResult> items = new ArrayList<>();
+      while (result.hasNext()) {
+        items.add(result.next());
+      }
+      result.close();
+
+      // records are bound to the database of the query, not to the ones of the workers which are closed
+      Assert.assertEquals(100, items.size());
+      for (OResult item : items) {
+        OElement element = item.getElement().get();
+        Assert.assertEquals("name1", element.getProperty("name"));
+        Assert.assertSame(element, ((ODatabaseDocumentInternal) db).getLocalCache().findRecord(element.getIdentity()));
+      }
+    } finally {
+      db.getConfiguration().setValue(OGlobalConfiguration.QUERY_PARALLEL_AUTO, false);
+    }
+  }
+
   @Test
   public void testFetchFromSubclassIndexes2() {
     String parent = "testFetchFromSubclassIndexes2_parent";
@@ -2558,6 +2658,226 @@ public class OSelectStatementExecutionTest {
     result.close();
   }
 
+  @Test
+  public void testCoveringIndex() {
+    String className = "testCoveringIndex";
+    OClass clazz = db.getMetadata().getSchema().createClass(className);
+    clazz.createProperty("type", OType.STRING);
+    clazz.createProperty("createdAt", OType.INTEGER);
+    clazz.createProperty("description", OType.STRING);
+    db.command(new OCommandSQL("create index " + className + ".type_createdAt on " + className + " (type, createdAt) NOTUNIQUE"))
+        .execute();
+
+    for (int i = 0; i < 10; i++) {
+      ODocument doc = db.newInstance(className);
+      doc.setProperty("type", "type" + i % 3);
+      doc.setProperty("createdAt", i);
+      doc.setProperty("description", "description" + i);
+      doc.save();
+    }
+
+    OResultSet result = db
+        .query("select type, createdAt from " + className + " where type = 'type1' and createdAt > 0 order by createdAt");
+    printExecutionPlan(result);
+    int lastCreatedAt = -1;
+    for (int i = 0; i < 3; i++) {
+      Assert.assertTrue(result.hasNext());
+      OResult item = result.next();
+      Assert.assertEquals("type1", item.getProperty("type"));
+      int createdAt = item.getProperty("createdAt");
+      Assert.assertTrue(createdAt > lastCreatedAt);
+      Assert.assertEquals(1, createdAt % 3);
+      Assert.assertFalse(item.isElement());
+      lastCreatedAt = createdAt;
+    }
+    Assert.assertFalse(result.hasNext());
+    OExecutionPlan plan = result.getExecutionPlan().get();
+    Assert.assertEquals(1, plan.getSteps().stream().filter(step -> step instanceof GetValuesFromIndexKeyStep).count());
+    Assert.assertEquals(0, plan.getSteps().stream().filter(step -> step instanceof GetValueFromIndexEntryStep).count());
+    result.close();
+
+    result = db.query("select type, description from " + className + " where type = 'type1'");
+    for (int i = 0; i < 3; i++) {
+      Assert.assertTrue(result.hasNext());
+      Assert.assertNotNull(result.next().getProperty("description"));
+    }
+    Assert.assertFalse(result.hasNext());
+    plan = result.getExecutionPlan().get();
+    Assert.assertEquals(0, plan.getSteps().stream().filter(step -> step instanceof GetValuesFromIndexKeyStep).count());
+    result.close();
+  }
+
+  @Test
+  public void testCoveringIndexWithIncludedFields() {
+    String className = "testCoveringIndexWithIncludedFields";
+    OClass clazz = db.getMetadata().getSchema().createClass(className);
+    clazz.createProperty("type", OType.STRING);
+    clazz.createProperty("title", OType.STRING);
+    clazz.createProperty("status", OType.STRING);
+    db.command(
+        "create index " + className + ".type on " + className + " (type) NOTUNIQUE METADATA {\"include\": [\"title\", \"status\"]}")
+        .close();
+
+    OIndex<?> index = db.getMetadata().getIndexManager().getIndex(className + ".type");
+    Assert.assertEquals(Collections.singletonList("type"), index.getDefinition().getFields());
+    Assert.assertEquals(Arrays.asList("title", "status"), index.getDefinition().getIncludedFields());
+    Assert.assertFalse(clazz.areIndexed("title"));
+
+    for (int i = 0; i < 10; i++) {
+      ODocument doc = db.newInstance(className);
+      doc.setProperty("type", "type" + i % 3);
+      doc.setProperty("title", "title" + i);
+      doc.setProperty("status", i % 2 == 0 ? "open" : "closed");
+      doc.save();
+    }
+    db.command("update " + className + " set status = 'open' where title = 'title1'").close();
+
+    // record without value of included field is indexed too
+    ODocument withoutStatus = db.newInstance(className);
+    withoutStatus.setProperty("type", "type1");
+    withoutStatus.setProperty("title", "title10");
+    withoutStatus.save();
+    Assert.assertEquals(11, index.getSize());
+
+    OResultSet result = db.query("select title from " + className + " where type = 'type1' and status = 'open'");
+    printExecutionPlan(result);
+    Set<String> titles = new HashSet<>();
+    while (result.hasNext()) {
+      titles.add(result.next().getProperty("title"));
+    }
+    Assert.assertEquals(new HashSet<>(Arrays.asList("title1", "title4")), titles);
+    OExecutionPlan plan = result.getExecutionPlan().get();
+    Assert.assertEquals(1, plan.getSteps().stream().filter(step -> step instanceof GetValuesFromIndexKeyStep).count());
+    result.close();
+
+    result = db.query("select title from " + className + " where type = 'type1'");
+    titles.clear();
+    while (result.hasNext()) {
+      titles.add(result.next().getProperty("title"));
+    }
+    Assert.assertEquals(new HashSet<>(Arrays.asList("title1", "title4", "title7", "title10")), titles);
+    result.close();
+  }
+
+  @Test
+  public void testIndexSelectionWithStatistics() {
+    String className = "testIndexSelectionWithStatistics";
+    OClass clazz = db.getMetadata().getSchema().createClass(className);
+    clazz.createProperty("category", OType.INTEGER);
+    clazz.createProperty("code", OType.INTEGER);
+    db.command(new OCommandSQL("create index " + className + ".category on " + className + " (category) NOTUNIQUE")).execute();
+    db.command(new OCommandSQL("create index " + className + ".code on " + className + " (code) NOTUNIQUE")).execute();
+
+    for (int i = 0; i < 1000; i++) {
+      ODocument doc = db.newInstance(className);
+      doc.setProperty("category", i % 2);
+      doc.setProperty("code", i);
+      doc.save();
+    }
+
+    OResultSet result = db.query("select from " + className + " where category = 1");
+    Assert.assertEquals(500, result.stream().count());
+    Assert.assertEquals(1, result.getExecutionPlan().get().getSteps().stream().filter(step -> step instanceof FetchFromIndexStep)
+        .count());
+    result.close();
+
+    Object analyzed = db.command(new OCommandSQL("analyze index " + className + ".category")).execute();
+    Assert.assertEquals(1000L, ((Number) analyzed).longValue());
+    analyzed = db.command(new OCommandSQL("analyze index " + className + ".code")).execute();
+    Assert.assertEquals(1000L, ((Number) analyzed).longValue());
+
+    //the index would return half of the records, the class is scanned
+    result = db.query("select from " + className + " where category = 1");
+    printExecutionPlan(result);
+    Assert.assertEquals(500, result.stream().count());
+    Assert.assertEquals(0, result.getExecutionPlan().get().getSteps().stream().filter(step -> step instanceof FetchFromIndexStep)
+        .count());
+    result.close();
+
+    //the most selective index is used
+    result = db.query("select from " + className + " where category = 1 and code = 5");
+    printExecutionPlan(result);
+    Assert.assertEquals(1, result.stream().count());
+    FetchFromIndexStep fetchStep = (FetchFromIndexStep) result.getExecutionPlan().get().getSteps().stream()
+        .filter(step -> step instanceof FetchFromIndexStep).findFirst().get();
+    Assert.assertTrue(fetchStep.prettyPrint(0, 2).contains("FETCH FROM INDEX " + className + ".code"));
+    Assert.assertTrue(fetchStep.getEstimatedEntries() > 0 && fetchStep.getEstimatedEntries() < 10);
+    Assert.assertTrue(result.getExecutionPlan().get().prettyPrint(0, 2).contains("estimated entries"));
+    result.close();
+
+    result = db.query("select from " + className + " where code < 10");
+    printExecutionPlan(result);
+    Assert.assertEquals(10, result.stream().count());
+    fetchStep = (FetchFromIndexStep) result.getExecutionPlan().get().getSteps().stream()
+        .filter(step -> step instanceof FetchFromIndexStep).findFirst().get();
+    Assert.assertTrue(fetchStep.getEstimatedEntries() < 100);
+    result.close();
+  }
+
+  @Test
+  public void testIndexStatisticsAreClearedOnRebuildAndDrop() {
+    String className = "testIndexStatisticsAreClearedOnRebuildAndDrop";
+    String indexName = className + ".code";
+    OClass clazz = db.getMetadata().getSchema().createClass(className);
+    clazz.createProperty("code", OType.INTEGER);
+    db.command(new OCommandSQL("create index " + indexName + " on " + className + " (code) NOTUNIQUE")).execute();
+
+    for (int i = 0; i < 100; i++) {
+      ODocument doc = db.newInstance(className);
+      doc.setProperty("code", i);
+      doc.save();
+    }
+
+    OQueryStats queryStats = OQueryStats.get((ODatabaseDocumentInternal) db);
+    db.command(new OCommandSQL("analyze index " + indexName)).execute();
+    Assert.assertNotNull(queryStats.getIndexStatistics(indexName));
+
+    db.command(new OCommandSQL("rebuild index " + indexName)).execute();
+    Assert.assertNull(queryStats.getIndexStatistics(indexName));
+
+    db.command(new OCommandSQL("analyze index " + indexName)).execute();
+    Assert.assertNotNull(queryStats.getIndexStatistics(indexName));
+
+    db.command(new OCommandSQL("drop index " + indexName)).execute();
+    Assert.assertNull(queryStats.getIndexStatistics(indexName));
+  }
+
+  @Test
+  public void testIndexIntersection() {
+    String className = "testIndexIntersection";
+    OClass clazz = db.getMetadata().getSchema().createClass(className);
+    clazz.createProperty("status", OType.INTEGER);
+    clazz.createProperty("region", OType.INTEGER);
+    db.command(new OCommandSQL("create index " + className + ".status on " + className + " (status) NOTUNIQUE")).execute();
+    db.command(new OCommandSQL("create index " + className + ".region on " + className + " (region) NOTUNIQUE")).execute();
+
+    for (int i = 0; i < 1000; i++) {
+      ODocument doc = db.newInstance(className);
+      doc.setProperty("status", i % 10);
+      doc.setProperty("region", (i / 10) % 10);
+      doc.save();
+    }
+    db.command(new OCommandSQL("analyze index " + className + ".status")).execute();
+    db.command(new OCommandSQL("analyze index " + className + ".region")).execute();
+
+    OResultSet result = db.query("select from " + className + " where status = 3 and region = 4");
+    printExecutionPlan(result);
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(result.hasNext());
+      OResult item = result.next();
+      Assert.assertEquals((Integer) 3, item.getProperty("status"));
+      Assert.assertEquals((Integer) 4, item.getProperty("region"));
+    }
+    Assert.assertFalse(result.hasNext());
+    Assert.assertEquals(1, result.getExecutionPlan().get().getSteps().stream()
+        .filter(step -> step instanceof FetchFromIndexIntersectionStep).count());
+    result.close();
+
+    result = db.query("select from " + className + " where status in [3, 5] and region = 4");
+    Assert.assertEquals(20, result.stream().count());
+    result.close();
+  }
+
   @Test
   public void testIndexPlusSort2() {
     String className = "testIndexPlusSort2";
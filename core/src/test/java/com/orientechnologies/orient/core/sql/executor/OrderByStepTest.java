@@ -0,0 +1,82 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.OElement;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderByStepTest extends TestUtilsFixture {
+
+  private OClass clazz;
+
+  @Before
+  public void before() {
+    clazz = createClassInstance();
+    for (int i = 0; i < 100; i++) {
+      OElement element = database.newElement(clazz.getName());
+      element.setProperty("name", "name" + i);
+      element.setProperty("val", (i * 37) % 50);
+      element.save();
+    }
+    database.getConfiguration().setValue(OGlobalConfiguration.QUERY_SPILL_THRESHOLD, 7);
+  }
+
+  @After
+  public void after() {
+    database.getConfiguration().setValue(OGlobalConfiguration.QUERY_SPILL_THRESHOLD, -1);
+  }
+
+  @Test
+  public void shouldSortRecordsSpilledToDisk() {
+    OResultSet result = database.query("select from " + clazz.getName() + " order by val, name");
+    List<OResult> items = collect(result);
+    Assert.assertEquals(100, items.size());
+    for (int i = 1; i < items.size(); i++) {
+      OResult previous = items.get(i - 1);
+      OResult current = items.get(i);
+      Assert.assertTrue(current.isElement());
+      int cmp = Integer.compare(previous.<Integer>getProperty("val"), current.<Integer>getProperty("val"));
+      if (cmp == 0) {
+        cmp = previous.<String>getProperty("name").compareTo(current.getProperty("name"));
+      }
+      Assert.assertTrue(cmp < 0);
+    }
+  }
+
+  @Test
+  public void shouldSortProjectionsSpilledToDisk() {
+    OResultSet result = database.query("select name, val from " + clazz.getName() + " order by val desc");
+    List<OResult> items = collect(result);
+    Assert.assertEquals(100, items.size());
+    for (int i = 1; i < items.size(); i++) {
+      Assert.assertFalse(items.get(i).isElement());
+      Assert.assertTrue(items.get(i - 1).<Integer>getProperty("val") >= items.get(i).<Integer>getProperty("val"));
+    }
+  }
+
+  @Test
+  public void shouldKeepOnlyTopResultsWithLimit() {
+    OResultSet result = database.query("select from " + clazz.getName() + " order by val, name skip 3 limit 5");
+    List<OResult> items = collect(result);
+    Assert.assertEquals(5, items.size());
+    // every val appears twice: 0, 0, 1, | 1, 2, 2, 3, 3 | ...
+    Assert.assertEquals(1, (int) items.get(0).<Integer>getProperty("val"));
+    Assert.assertEquals(2, (int) items.get(1).<Integer>getProperty("val"));
+    Assert.assertEquals(3, (int) items.get(4).<Integer>getProperty("val"));
+  }
+
+  private List<OResult> collect(OResultSet result) {
+    List<OResult> items = new ArrayList<>();
+    while (result.hasNext()) {
+      items.add(result.next());
+    }
+    result.close();
+    return items;
+  }
+}
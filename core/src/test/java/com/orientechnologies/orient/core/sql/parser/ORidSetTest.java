@@ -154,4 +154,82 @@ public class ORidSetTest extends OParserTestAbstract {
 
   }
 
+  @Test public void testDenseChunk() {
+    Set<ORID> control = new HashSet<>();
+    ORidSet set = new ORidSet();
+    // more than 4096 positions in the same chunk switch it to a bitmap
+    for (long id = 0; id < 10000; id += 2) {
+      ORecordId rid = new ORecordId(5, id);
+      Assert.assertTrue(set.add(rid));
+      Assert.assertFalse(set.add(rid));
+      control.add(rid);
+    }
+    Assert.assertEquals(control.size(), set.size());
+    Assert.assertTrue(set.contains(new ORecordId(5, 9998)));
+    Assert.assertFalse(set.contains(new ORecordId(5, 9999)));
+
+    long previous = -1;
+    for (ORID rid : set) {
+      Assert.assertTrue(rid.getClusterPosition() > previous);
+      previous = rid.getClusterPosition();
+      Assert.assertTrue(control.remove(rid));
+    }
+    Assert.assertTrue(control.isEmpty());
+
+    Assert.assertTrue(set.remove(new ORecordId(5, 0)));
+    Assert.assertFalse(set.remove(new ORecordId(5, 0)));
+    Assert.assertEquals(4999, set.size());
+  }
+
+  @Test public void testIteratorOrder() {
+    ORidSet set = new ORidSet();
+    set.add(new ORecordId(3, 70000));
+    set.add(new ORecordId(1, 65535));
+    set.add(new ORecordId(1, 65536));
+    set.add(new ORecordId(3, 1));
+
+    Iterator<ORID> iterator = set.iterator();
+    Assert.assertEquals(new ORecordId(1, 65535), iterator.next());
+    Assert.assertEquals(new ORecordId(1, 65536), iterator.next());
+    Assert.assertEquals(new ORecordId(3, 1), iterator.next());
+    Assert.assertEquals(new ORecordId(3, 70000), iterator.next());
+    Assert.assertFalse(iterator.hasNext());
+  }
+
+  @Test public void testRetainAll() {
+    ORidSet set = new ORidSet();
+    ORidSet other = new ORidSet();
+    Set<ORID> control = new HashSet<>();
+    // dense chunk in both sets (bitmap containers), sparse chunks (array containers) and a chunk only in the first set
+    for (long id = 0; id < 10000; id++) {
+      set.add(new ORecordId(1, id));
+      if (id % 3 == 0) {
+        other.add(new ORecordId(1, id));
+      }
+      if (id % 2 == 0) {
+        other.add(new ORecordId(1, id));
+      }
+      if (id % 2 == 0 || id % 3 == 0) {
+        control.add(new ORecordId(1, id));
+      }
+    }
+    for (long id = 0; id < 100; id++) {
+      set.add(new ORecordId(2, id * 7));
+      other.add(new ORecordId(2, id * 5));
+      if ((id * 7) % 5 == 0 && id * 7 < 500) {
+        control.add(new ORecordId(2, id * 7));
+      }
+      set.add(new ORecordId(3, id));
+    }
+
+    Assert.assertTrue(set.retainAll(other));
+    Assert.assertEquals(control.size(), set.size());
+    for (ORID rid : set) {
+      Assert.assertTrue(control.remove(rid));
+    }
+    Assert.assertTrue(control.isEmpty());
+    Assert.assertFalse(set.contains(new ORecordId(3, 1)));
+    Assert.assertFalse(set.retainAll(other));
+  }
+
 }
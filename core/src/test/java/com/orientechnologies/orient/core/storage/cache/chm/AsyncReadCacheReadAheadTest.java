@@ -0,0 +1,114 @@
+package com.orientechnologies.orient.core.storage.cache.chm;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.engine.local.OEngineLocalPaginated;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class AsyncReadCacheReadAheadTest {
+  private static final int RECORDS = 20_000;
+
+  private OrientDB orientDB;
+  private String   dbDirectory;
+
+  @Before
+  public void before() {
+    final String buildDirectory = System.getProperty("buildDirectory", ".");
+    dbDirectory = buildDirectory + File.separator + AsyncReadCacheReadAheadTest.class.getSimpleName();
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+
+    orientDB = new OrientDB("embedded:" + dbDirectory, OrientDBConfig.defaultConfig());
+    orientDB.create("test", ODatabaseType.PLOCAL);
+
+    final StringBuilder payload = new StringBuilder();
+    for (int i = 0; i < 1024; i++) {
+      payload.append('a');
+    }
+
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      db.createClass("Item");
+      for (int i = 0; i < RECORDS; i++) {
+        final OElement element = db.newElement("Item");
+        element.setProperty("id", i);
+        element.setProperty("payload", payload.toString());
+        element.setProperty("check", i);
+        element.save();
+      }
+    }
+
+    // reopen the storage so pages of the cluster are evicted from the read cache
+    orientDB.close();
+    orientDB = new OrientDB("embedded:" + dbDirectory, OrientDBConfig.defaultConfig());
+  }
+
+  @After
+  public void after() {
+    orientDB.close();
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+  }
+
+  @Test
+  public void testScanWithConcurrentUpdates() throws Exception {
+    final OReadCache readCache = ((OEngineLocalPaginated) Orient.instance().getEngine("plocal")).getReadCache();
+    Assume.assumeTrue(readCache instanceof AsyncReadCache);
+    final long pagesReadAheadBefore = ((AsyncReadCache) readCache).pagesReadAhead();
+
+    final AtomicBoolean stop = new AtomicBoolean();
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final Future<?> writer = executor.submit(() -> {
+      try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+        int i = 0;
+        while (!stop.get()) {
+          db.command("update Item set check = id + ? where id = ?", RECORDS, (i * 7919) % RECORDS).close();
+          i++;
+        }
+      }
+      return null;
+    });
+
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      int count = 0;
+      try (OResultSet result = db.query("select id, check from Item")) {
+        while (result.hasNext()) {
+          final OResult item = result.next();
+          final int id = item.getProperty("id");
+          final int check = item.getProperty("check");
+          Assert.assertTrue(check == id || check == id + RECORDS);
+          count++;
+        }
+      }
+
+      Assert.assertEquals(RECORDS, count);
+    } finally {
+      stop.set(true);
+      writer.get();
+      executor.shutdown();
+    }
+
+    Assert.assertTrue(((AsyncReadCache) readCache).pagesReadAhead() > pagesReadAheadBefore);
+
+    try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+      try (OResultSet result = db.query("select count(*) as count from Item where check = id or check = id + ?", RECORDS)) {
+        Assert.assertEquals(RECORDS, ((Number) result.next().getProperty("count")).intValue());
+      }
+    }
+  }
+}
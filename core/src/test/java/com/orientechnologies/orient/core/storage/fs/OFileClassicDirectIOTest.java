@@ -0,0 +1,173 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.orientechnologies.common.directmemory.ODirectMemoryAllocator;
+import com.orientechnologies.common.directmemory.OPointer;
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.OElement;
+import com.sun.jna.Platform;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class OFileClassicDirectIOTest {
+  private static final int PAGE_SIZE = 4096;
+
+  private Path buildDirectory;
+
+  @Before
+  public void before() throws Exception {
+    Assume.assumeTrue(Platform.isLinux());
+
+    buildDirectory = Paths.get(System.getProperty("buildDirectory", "."), OFileClassicDirectIOTest.class.getSimpleName());
+    OFileUtils.deleteRecursively(buildDirectory.toFile());
+    Files.createDirectories(buildDirectory);
+  }
+
+  @After
+  public void after() {
+    if (buildDirectory != null) {
+      OFileUtils.deleteRecursively(buildDirectory.toFile());
+    }
+  }
+
+  @Test
+  public void testReadWritePages() throws Exception {
+    final Path path = buildDirectory.resolve("pages.tst");
+    final Random random = new Random();
+
+    final OFileClassic file = new OFileClassic(path, true);
+    file.create();
+    Assume.assumeTrue(file.isDirectIOUsed());
+
+    file.allocateSpace(4 * PAGE_SIZE);
+
+    final byte[][] pages = new byte[4][PAGE_SIZE];
+    for (final byte[] page : pages) {
+      random.nextBytes(page);
+    }
+
+    final OPointer aligned = ODirectMemoryAllocator.instance().allocate(PAGE_SIZE, PAGE_SIZE);
+    final OPointer unaligned = ODirectMemoryAllocator.instance().allocate(PAGE_SIZE + 1, -1);
+    try {
+      // aligned direct memory is written without copy
+      final ByteBuffer alignedBuffer = aligned.getNativeByteBuffer();
+      alignedBuffer.position(0);
+      alignedBuffer.put(pages[0]);
+      file.write(0, alignedBuffer);
+
+      // heap and unaligned buffers are copied to aligned memory
+      file.write(PAGE_SIZE, ByteBuffer.wrap(pages[1]));
+
+      final ByteBuffer unalignedBuffer = unaligned.getNativeByteBuffer();
+      unalignedBuffer.position(1);
+      final ByteBuffer slice = unalignedBuffer.slice();
+      slice.put(pages[2]);
+      file.write(2 * PAGE_SIZE, slice);
+
+      // vectored write
+      file.write(3 * PAGE_SIZE, new ByteBuffer[] { ByteBuffer.wrap(pages[3]) });
+
+      // small writes are not aligned and go through buffered IO
+      file.writeInt(PAGE_SIZE + 8, 42);
+      pages[1][8] = 0;
+      pages[1][9] = 0;
+      pages[1][10] = 0;
+      pages[1][11] = 42;
+
+      file.synch();
+      file.close();
+
+      file.open();
+      Assert.assertTrue(file.isDirectIOUsed());
+      Assert.assertEquals(4 * PAGE_SIZE, file.getFileSize());
+
+      for (int i = 0; i < pages.length; i++) {
+        final ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        file.read(i * PAGE_SIZE, buffer, true);
+        Assert.assertArrayEquals(pages[i], buffer.array());
+      }
+
+      alignedBuffer.position(0);
+      file.read(0, alignedBuffer, true);
+      final byte[] content = new byte[PAGE_SIZE];
+      alignedBuffer.position(0);
+      alignedBuffer.get(content);
+      Assert.assertArrayEquals(pages[0], content);
+
+      final ByteBuffer[] buffers = new ByteBuffer[] { ByteBuffer.allocate(PAGE_SIZE), ByteBuffer.allocate(PAGE_SIZE),
+          ByteBuffer.allocate(PAGE_SIZE) };
+      file.read(2 * PAGE_SIZE, buffers, false);
+      Assert.assertArrayEquals(pages[2], buffers[0].array());
+      Assert.assertArrayEquals(pages[3], buffers[1].array());
+      // pages after the end of the file are filled by zeros
+      Assert.assertArrayEquals(new byte[PAGE_SIZE], buffers[2].array());
+
+      Assert.assertEquals(42, file.readInt(PAGE_SIZE + 8));
+    } finally {
+      ODirectMemoryAllocator.instance().deallocate(aligned);
+      ODirectMemoryAllocator.instance().deallocate(unaligned);
+      file.close();
+    }
+  }
+
+  @Test
+  public void testBufferedIOIsUsedByDefault() throws Exception {
+    final OFileClassic file = new OFileClassic(buildDirectory.resolve("buffered.tst"));
+    file.create();
+    try {
+      Assert.assertFalse(file.isDirectIOUsed());
+    } finally {
+      file.close();
+    }
+  }
+
+  @Test
+  public void testDatabaseWithDirectIO() {
+    final String dbDirectory = buildDirectory.resolve("databases").toString();
+    final OrientDBConfig config = OrientDBConfig.builder().addConfig(OGlobalConfiguration.STORAGE_DIRECT_IO, true).build();
+
+    try (OrientDB orientDB = new OrientDB("embedded:" + dbDirectory, config)) {
+      orientDB.create("test", ODatabaseType.PLOCAL);
+
+      try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+        final OClass person = db.createClass("Person");
+        person.createProperty("id", OType.INTEGER);
+        person.createIndex("Person.id", OClass.INDEX_TYPE.UNIQUE, "id");
+
+        for (int i = 0; i < 10_000; i++) {
+          final OElement element = db.newElement("Person");
+          element.setProperty("id", i);
+          element.setProperty("name", "name" + i);
+          element.save();
+        }
+
+        db.command("delete from Person where id >= 5000").close();
+      }
+    }
+
+    try (OrientDB orientDB = new OrientDB("embedded:" + dbDirectory, config)) {
+      try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+        Assert.assertEquals(5000, db.countClass("Person"));
+        Assert.assertEquals(5000, db.getMetadata().getIndexManager().getIndex("Person.id").getSize());
+        Assert.assertEquals("name4321",
+            db.query("select from Person where id = ?", 4321).next().getProperty("name"));
+      }
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.storage.disk.OLocalPaginatedStorage;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StorageFuzzyBackupTest {
+  private static final Map<String, Object> FUZZY = Collections.singletonMap(OLocalPaginatedStorage.BACKUP_OPTION_FUZZY, true);
+
+  private OrientDB orientDB;
+  private String   dbDirectory;
+
+  @Before
+  public void before() {
+    final String buildDirectory = System.getProperty("buildDirectory", ".");
+    dbDirectory = buildDirectory + File.separator + StorageFuzzyBackupTest.class.getSimpleName();
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+
+    orientDB = new OrientDB("embedded:" + dbDirectory, OrientDBConfig.defaultConfig());
+    orientDB.create("source", ODatabaseType.PLOCAL);
+
+    try (ODatabaseSession db = orientDB.open("source", "admin", "admin")) {
+      final OClass person = db.createClass("Person");
+      person.createProperty("id", OType.INTEGER);
+      person.createIndex("Person.id", OClass.INDEX_TYPE.UNIQUE, "id");
+
+      for (int i = 0; i < 1000; i++) {
+        final OElement element = db.newElement("Person");
+        element.setProperty("id", i);
+        element.save();
+      }
+    }
+  }
+
+  @After
+  public void after() {
+    orientDB.close();
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+  }
+
+  @Test
+  public void testBackupDuringWrites() throws Exception {
+    final AtomicInteger nextId = new AtomicInteger(1000);
+    final AtomicBoolean stop = new AtomicBoolean();
+    final CountDownLatch written = new CountDownLatch(100);
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final Future<?> writer = executor.submit(() -> {
+      try (ODatabaseSession db = orientDB.open("source", "admin", "admin")) {
+        while (!stop.get()) {
+          final OElement element = db.newElement("Person");
+          element.setProperty("id", nextId.getAndIncrement());
+          element.save();
+          written.countDown();
+        }
+      }
+      return null;
+    });
+
+    final ByteArrayOutputStream backup = new ByteArrayOutputStream();
+    final AtomicInteger idsBeforeBackup = new AtomicInteger();
+    try {
+      written.await();
+      try (ODatabaseSession db = orientDB.open("source", "admin", "admin")) {
+        db.backup(backup, FUZZY, () -> {
+          idsBeforeBackup.set(nextId.get() - 1);
+          return null;
+        }, null, 9, 1024);
+      }
+    } finally {
+      stop.set(true);
+      writer.get();
+      executor.shutdown();
+    }
+
+    orientDB.getInternal().restore("restored", new ByteArrayInputStream(backup.toByteArray()), null, null, null);
+
+    try (ODatabaseSession db = orientDB.open("restored", "admin", "admin")) {
+      final long count = db.countClass("Person");
+      Assert.assertTrue(count >= idsBeforeBackup.get());
+      Assert.assertEquals(count, db.getMetadata().getIndexManager().getIndex("Person.id").getSize());
+
+      for (int id = 0; id < count; id++) {
+        Assert.assertEquals(1, db.query("select from Person where id = ?", id).stream().count());
+      }
+
+      final OElement element = db.newElement("Person");
+      element.setProperty("id", -1);
+      element.save();
+      Assert.assertEquals(count + 1, db.countClass("Person"));
+    }
+  }
+
+  @Test
+  public void testRestoreIntoOpenDatabase() throws Exception {
+    try (ODatabaseSession db = orientDB.open("source", "admin", "admin")) {
+      final ByteArrayOutputStream backup = new ByteArrayOutputStream();
+      db.backup(backup, FUZZY, null, null, 9, 1024);
+
+      db.command("delete from Person where id < 500").close();
+      db.createClass("City");
+      Assert.assertEquals(500, db.countClass("Person"));
+
+      db.restore(new ByteArrayInputStream(backup.toByteArray()), null, null, null);
+
+      Assert.assertEquals(1000, db.countClass("Person"));
+      Assert.assertFalse(db.getMetadata().getSchema().existsClass("City"));
+      Assert.assertEquals(1, db.query("select from Person where id = ?", 10).stream().count());
+    }
+  }
+}
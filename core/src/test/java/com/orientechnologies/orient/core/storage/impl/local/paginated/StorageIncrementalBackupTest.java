@@ -0,0 +1,138 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+public class StorageIncrementalBackupTest {
+  private OrientDB orientDB;
+  private String   dbDirectory;
+  private File     backupDir;
+
+  @Before
+  public void before() {
+    final String buildDirectory = System.getProperty("buildDirectory", ".");
+    dbDirectory = buildDirectory + File.separator + StorageIncrementalBackupTest.class.getSimpleName();
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+
+    backupDir = new File(buildDirectory, StorageIncrementalBackupTest.class.getSimpleName() + "BackupDir");
+    OFileUtils.deleteRecursively(backupDir);
+
+    orientDB = new OrientDB("embedded:" + dbDirectory, OrientDBConfig.defaultConfig());
+    orientDB.create("source", ODatabaseType.PLOCAL);
+  }
+
+  @After
+  public void after() {
+    orientDB.close();
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+    OFileUtils.deleteRecursively(backupDir);
+  }
+
+  @Test
+  public void testRestoreChainOfBackups() {
+    try (ODatabaseSession db = orientDB.open("source", "admin", "admin")) {
+      final OClass person = db.createClass("Person");
+      person.createProperty("id", OType.INTEGER);
+      person.createIndex("Person.id", OClass.INDEX_TYPE.UNIQUE, "id");
+
+      for (int i = 0; i < 1000; i++) {
+        final OElement element = db.newElement("Person");
+        element.setProperty("id", i);
+        element.setProperty("name", "name" + i);
+        element.save();
+      }
+
+      Assert.assertTrue(db.incrementalBackup(backupDir.getAbsolutePath()).endsWith("-full.ibu"));
+
+      db.command("update Person set name = 'updated' where id < 100").close();
+      db.command("delete from Person where id >= 900").close();
+
+      db.createClass("City");
+      for (int i = 0; i < 10; i++) {
+        final OElement element = db.newElement("City");
+        element.setProperty("name", "city" + i);
+        element.save();
+      }
+
+      db.incrementalBackup(backupDir.getAbsolutePath());
+
+      for (int i = 1000; i < 1100; i++) {
+        final OElement element = db.newElement("Person");
+        element.setProperty("id", i);
+        element.setProperty("name", "name" + i);
+        element.save();
+      }
+
+      db.incrementalBackup(backupDir.getAbsolutePath());
+    }
+
+    final File[] backups = backupDir.listFiles();
+    Assert.assertNotNull(backups);
+    Assert.assertEquals(3, backups.length);
+
+    orientDB.getInternal()
+        .restore("restored", null, null, ODatabaseType.PLOCAL, backupDir.getAbsolutePath(), OrientDBConfig.defaultConfig());
+
+    try (ODatabaseSession db = orientDB.open("restored", "admin", "admin")) {
+      Assert.assertEquals(1000, db.countClass("Person"));
+      Assert.assertEquals(10, db.countClass("City"));
+
+      final Map<Integer, String> names = new HashMap<>();
+      try (OResultSet result = db.query("select id, name from Person")) {
+        while (result.hasNext()) {
+          final OResult item = result.next();
+          names.put(item.getProperty("id"), item.getProperty("name"));
+        }
+      }
+
+      Assert.assertEquals(1000, names.size());
+      Assert.assertEquals("updated", names.get(0));
+      Assert.assertEquals("name500", names.get(500));
+      Assert.assertNull(names.get(950));
+      Assert.assertEquals("name1050", names.get(1050));
+
+      try (OResultSet result = db.query("select from Person where id = ?", 1099)) {
+        Assert.assertTrue(result.hasNext());
+        Assert.assertEquals("name1099", result.next().getProperty("name"));
+      }
+
+      final OElement element = db.newElement("Person");
+      element.setProperty("id", 2000);
+      element.save();
+      Assert.assertEquals(1001, db.countClass("Person"));
+    }
+  }
+
+  @Test(expected = OStorageException.class)
+  public void testChainWithoutFullBackupIsNotRestored() {
+    try (ODatabaseSession db = orientDB.open("source", "admin", "admin")) {
+      db.createClass("Person");
+      final String fullBackup = db.incrementalBackup(backupDir.getAbsolutePath());
+
+      db.newElement("Person").save();
+      db.incrementalBackup(backupDir.getAbsolutePath());
+
+      Assert.assertTrue(new File(backupDir, fullBackup).delete());
+    }
+
+    orientDB.getInternal()
+        .restore("restored", null, null, ODatabaseType.PLOCAL, backupDir.getAbsolutePath(), OrientDBConfig.defaultConfig());
+  }
+}
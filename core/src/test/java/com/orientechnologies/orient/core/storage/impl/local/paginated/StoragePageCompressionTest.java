@@ -0,0 +1,187 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.storage.fs.OFileClassic;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+public class StoragePageCompressionTest {
+  /**
+   * Magic number of compressed pages, see OWOWCache.
+   */
+  private static final long MAGIC_NUMBER_COMPRESSED = 0x4C5A34C0L;
+
+  private String dbDirectory;
+
+  @Before
+  public void before() {
+    final String buildDirectory = System.getProperty("buildDirectory", ".");
+    dbDirectory = buildDirectory + File.separator + StoragePageCompressionTest.class.getSimpleName();
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+  }
+
+  @After
+  public void after() {
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+  }
+
+  @Test
+  public void testCompressedPagesAreReadWithoutCompression() throws Exception {
+    final OrientDBConfig compressed = OrientDBConfig.builder().addConfig(OGlobalConfiguration.STORAGE_PAGE_COMPRESSION, true)
+        .build();
+
+    try (OrientDB orientDB = new OrientDB("embedded:" + dbDirectory, compressed)) {
+      orientDB.create("test", ODatabaseType.PLOCAL);
+
+      try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+        final OClass person = db.createClass("Person");
+        person.createProperty("id", OType.INTEGER);
+        person.createIndex("Person.id", OClass.INDEX_TYPE.UNIQUE, "id");
+
+        for (int i = 0; i < 10_000; i++) {
+          final OElement element = db.newElement("Person");
+          element.setProperty("id", i);
+          element.setProperty("name", "name of the person number " + i);
+          element.save();
+        }
+
+        db.command("update Person set name = 'updated' where id < 100").close();
+      }
+    }
+
+    final File[] clusterFiles = new File(dbDirectory, "test").listFiles((dir, name) -> name.startsWith("person") && name.endsWith(".pcl"));
+    Assert.assertNotNull(clusterFiles);
+    Assert.assertTrue(clusterFiles.length > 0);
+
+    int compressedPages = 0;
+    for (final File clusterFile : clusterFiles) {
+      compressedPages += countCompressedPages(clusterFile);
+    }
+    Assert.assertTrue(compressedPages > 0);
+
+    // pages are decompressed independently of current settings
+    try (OrientDB orientDB = new OrientDB("embedded:" + dbDirectory, OrientDBConfig.defaultConfig())) {
+      try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+        Assert.assertEquals(10_000, db.countClass("Person"));
+        Assert.assertEquals(10_000, db.getMetadata().getIndexManager().getIndex("Person.id").getSize());
+        Assert.assertEquals("updated", db.query("select from Person where id = ?", 50).next().getProperty("name"));
+        Assert.assertEquals("name of the person number 5000",
+            db.query("select from Person where id = ?", 5000).next().getProperty("name"));
+
+        final OElement element = db.newElement("Person");
+        element.setProperty("id", -1);
+        element.save();
+      }
+    }
+
+    try (OrientDB orientDB = new OrientDB("embedded:" + dbDirectory, compressed)) {
+      try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+        Assert.assertEquals(10_001, db.countClass("Person"));
+        Assert.assertEquals(1, db.query("select from Person where id = ?", -1).stream().count());
+      }
+    }
+  }
+
+  @Test
+  public void testBrokenCompressedPageIsNotRead() throws Exception {
+    final OrientDBConfig compressed = OrientDBConfig.builder().addConfig(OGlobalConfiguration.STORAGE_PAGE_COMPRESSION, true)
+        .build();
+
+    try (OrientDB orientDB = new OrientDB("embedded:" + dbDirectory, compressed)) {
+      orientDB.create("test", ODatabaseType.PLOCAL);
+
+      try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+        db.createClass("Person");
+
+        for (int i = 0; i < 1_000; i++) {
+          final OElement element = db.newElement("Person");
+          element.setProperty("name", "name of the person number " + i);
+          element.save();
+        }
+      }
+    }
+
+    final File[] clusterFiles = new File(dbDirectory, "test").listFiles((dir, name) -> name.startsWith("person") && name.endsWith(".pcl"));
+    Assert.assertNotNull(clusterFiles);
+
+    boolean corrupted = false;
+    for (final File clusterFile : clusterFiles) {
+      corrupted |= corruptCompressedPage(clusterFile);
+    }
+    Assert.assertTrue(corrupted);
+
+    try (OrientDB orientDB = new OrientDB("embedded:" + dbDirectory, OrientDBConfig.defaultConfig())) {
+      try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+        db.query("select from Person").stream().count();
+        Assert.fail();
+      } catch (final RuntimeException e) {
+        Throwable cause = e;
+        while (cause != null && !(cause instanceof OStorageException)) {
+          cause = cause.getCause();
+        }
+        Assert.assertNotNull(e.toString(), cause);
+      }
+    }
+  }
+
+  /**
+   * Sets length of the compressed data of the first compressed page of the file bigger than the page itself.
+   */
+  private static boolean corruptCompressedPage(final File file) throws IOException {
+    final int pageSize = OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * 1024;
+    final ByteBuffer buffer = ByteBuffer.allocate(8).order(ByteOrder.nativeOrder());
+
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      final FileChannel channel = raf.getChannel();
+      for (long position = OFileClassic.HEADER_SIZE; position + pageSize <= channel.size(); position += pageSize) {
+        buffer.clear();
+        channel.read(buffer, position);
+        if (buffer.getLong(0) == MAGIC_NUMBER_COMPRESSED) {
+          buffer.clear();
+          buffer.putInt(0, pageSize).limit(4);
+          channel.write(buffer, position + 8);
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  private static int countCompressedPages(final File file) throws IOException {
+    final int pageSize = OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * 1024;
+    final ByteBuffer buffer = ByteBuffer.allocate(8).order(ByteOrder.nativeOrder());
+
+    int compressedPages = 0;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      final FileChannel channel = raf.getChannel();
+      for (long position = OFileClassic.HEADER_SIZE; position + pageSize <= channel.size(); position += pageSize) {
+        buffer.clear();
+        channel.read(buffer, position);
+        if (buffer.getLong(0) == MAGIC_NUMBER_COMPRESSED) {
+          compressedPages++;
+        }
+      }
+    }
+
+    return compressedPages;
+  }
+}
@@ -0,0 +1,129 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated.wal.cas;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class OCASDiskWriteAheadLogGroupCommitTest {
+  private static final int THREADS      = 8;
+  private static final int TRANSACTIONS = 200;
+
+  private String dbDirectory;
+
+  @Before
+  public void before() {
+    final String buildDirectory = System.getProperty("buildDirectory", ".");
+    dbDirectory = buildDirectory + File.separator + OCASDiskWriteAheadLogGroupCommitTest.class.getSimpleName();
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+  }
+
+  @After
+  public void after() {
+    OFileUtils.deleteRecursively(new File(dbDirectory));
+  }
+
+  @Test
+  public void testConcurrentCommitsAreDurable() throws Exception {
+    final OrientDBConfig config = OrientDBConfig.builder().addConfig(OGlobalConfiguration.WAL_GROUP_COMMIT, true)
+        .addConfig(OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_LATENCY, 2000).build();
+
+    try (OrientDB orientDB = new OrientDB("embedded:" + dbDirectory, config)) {
+      orientDB.create("test", ODatabaseType.PLOCAL);
+
+      final OCASDiskWriteAheadLog wal;
+      try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+        db.createClass("Item");
+        wal = (OCASDiskWriteAheadLog) ((OAbstractPaginatedStorage) ((ODatabaseDocumentInternal) db).getStorage())
+            .getWALInstance();
+      }
+
+      final long[] commitsBefore = wal.getCommitsPerSyncHistogram().getCounts();
+
+      final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      try {
+        final List<Future<Void>> futures = new ArrayList<>();
+        for (int n = 0; n < THREADS; n++) {
+          final int thread = n;
+          futures.add(executor.submit(() -> {
+            try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+              for (int i = 0; i < TRANSACTIONS; i++) {
+                final OLogSequenceNumber lsnBeforeCommit = wal.end();
+
+                db.begin();
+                final OElement element = db.newElement("Item");
+                element.setProperty("thread", thread);
+                element.setProperty("id", i);
+                element.save();
+                db.commit();
+
+                // record of committed transaction is logged after the last record which we observed before the commit
+                Assert.assertTrue(wal.getFlushedLsn().compareTo(lsnBeforeCommit) > 0);
+              }
+            }
+
+            return null;
+          }));
+        }
+
+        for (final Future<Void> future : futures) {
+          future.get();
+        }
+      } finally {
+        executor.shutdown();
+      }
+
+      Assert.assertTrue(sum(wal.getCommitsPerSyncHistogram().getCounts()) > sum(commitsBefore));
+      Assert.assertTrue(sum(wal.getCommitWaitTimeHistogram().getCounts()) > 0);
+
+      try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+        Assert.assertEquals(THREADS * TRANSACTIONS, db.countClass("Item"));
+      }
+    }
+  }
+
+  @Test
+  public void testGroupCommitIsDisabledByDefault() {
+    try (OrientDB orientDB = new OrientDB("embedded:" + dbDirectory, OrientDBConfig.defaultConfig())) {
+      orientDB.create("test", ODatabaseType.PLOCAL);
+
+      try (ODatabaseSession db = orientDB.open("test", "admin", "admin")) {
+        db.createClass("Item");
+
+        db.begin();
+        db.newElement("Item").save();
+        db.commit();
+
+        final OWriteAheadLog wal = ((OAbstractPaginatedStorage) ((ODatabaseDocumentInternal) db).getStorage()).getWALInstance();
+        Assert.assertEquals(0, sum(((OCASDiskWriteAheadLog) wal).getCommitWaitTimeHistogram().getCounts()));
+      }
+    }
+  }
+
+  private static long sum(final long[] counts) {
+    long sum = 0;
+    for (final long count : counts) {
+      sum += count;
+    }
+
+    return sum;
+  }
+}
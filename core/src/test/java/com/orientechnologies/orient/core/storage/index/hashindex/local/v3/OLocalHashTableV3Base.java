@@ -4,9 +4,17 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Created by frank on 24/04/2016.
@@ -194,4 +202,144 @@ public abstract class OLocalHashTableV3Base {
       }
     }
   }
+
+  @Test
+  public void testConcurrentGet() throws Exception {
+    final int keysCount = KEYS_COUNT / 5;
+    final AtomicInteger lastPut = new AtomicInteger(-1);
+    final AtomicInteger lastRemoved = new AtomicInteger(-1);
+    final AtomicBoolean writerDone = new AtomicBoolean();
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    final List<Future<Void>> readers = new ArrayList<>();
+    for (int n = 0; n < 4; n++) {
+      readers.add(executor.submit(() -> {
+        final Random random = new Random();
+        while (!writerDone.get()) {
+          final int removed = lastRemoved.get();
+          final int put = lastPut.get();
+          if (put < 0) {
+            continue;
+          }
+
+          final int key = random.nextInt(put + 1);
+          final String value = localHashTable.get(key);
+          if (key % 2 == 0 && key <= removed) {
+            Assert.assertNull(value);
+          } else if (key % 2 != 0) {
+            Assert.assertEquals(key + "", value);
+          }
+        }
+        return null;
+      }));
+    }
+
+    try {
+      for (int i = 0; i < keysCount; i++) {
+        localHashTable.put(i, i + "");
+        lastPut.set(i);
+      }
+
+      for (int i = 0; i < keysCount; i += 2) {
+        localHashTable.remove(i);
+        lastRemoved.set(i);
+      }
+    } finally {
+      writerDone.set(true);
+    }
+
+    for (Future<Void> reader : readers) {
+      reader.get();
+    }
+    executor.shutdown();
+  }
+
+  /**
+   * Readers and writers work on the same keys, so the optimistic reads often see an odd version or a version changed during the
+   * read and have to repeat it under lock. Values of different length are written, a value read from partially updated pages
+   * would not match its key, and a value older than the last committed one would be stale.
+   */
+  @Test
+  public void testConcurrentGetOfUpdatedKeys() throws Exception {
+    final int keysCount = 10000;
+    final int rounds = 20;
+    final AtomicLongArray committed = new AtomicLongArray(keysCount);
+    final AtomicBoolean writersDone = new AtomicBoolean();
+
+    final ExecutorService executor = Executors.newFixedThreadPool(6);
+    final List<Future<Void>> writers = new ArrayList<>();
+    // EVEN KEYS ARE ONLY UPDATED, ODD KEYS ARE ALSO REMOVED
+    for (int n = 0; n < 2; n++) {
+      final int parity = n;
+      writers.add(executor.submit(() -> {
+        for (int round = 1; round <= rounds; round++) {
+          for (int key = parity; key < keysCount; key += 2) {
+            if (parity == 1 && round % 2 == 0) {
+              localHashTable.remove(key);
+            } else {
+              localHashTable.put(key, value(key, round));
+            }
+            committed.set(key, round);
+          }
+        }
+        return null;
+      }));
+    }
+
+    final List<Future<Void>> readers = new ArrayList<>();
+    for (int n = 0; n < 4; n++) {
+      readers.add(executor.submit(() -> {
+        final Random random = new Random();
+        while (!writersDone.get()) {
+          final int key = random.nextInt(keysCount);
+          final long round = committed.get(key);
+          final String value = localHashTable.get(key);
+
+          if (value == null) {
+            Assert.assertTrue("Key " + key + " committed in round " + round + " is absent", key % 2 == 1 || round == 0);
+            continue;
+          }
+
+          final int separator = value.indexOf(':');
+          Assert.assertTrue(value, separator > 0);
+          Assert.assertEquals(value, key, Integer.parseInt(value.substring(0, separator)));
+          final int valueRound = Integer.parseInt(value.substring(separator + 1).trim());
+          Assert.assertEquals(value, value(key, valueRound), value);
+          if (key % 2 == 0) {
+            Assert.assertTrue("Stale value " + value + " of round " + round, valueRound >= round);
+          }
+        }
+        return null;
+      }));
+    }
+
+    try {
+      for (Future<Void> writer : writers) {
+        writer.get();
+      }
+    } finally {
+      writersDone.set(true);
+    }
+
+    for (Future<Void> reader : readers) {
+      reader.get();
+    }
+    executor.shutdown();
+
+    for (int key = 0; key < keysCount; key++) {
+      if (key % 2 == 0) {
+        Assert.assertEquals(value(key, rounds), localHashTable.get(key));
+      } else {
+        Assert.assertNull(localHashTable.get(key));
+      }
+    }
+  }
+
+  private static String value(final int key, final int round) {
+    final StringBuilder value = new StringBuilder().append(key).append(':').append(round);
+    for (int i = 0; i < (key + round) % 17; i++) {
+      value.append(' ');
+    }
+    return value.toString();
+  }
 }
@@ -0,0 +1,114 @@
+package com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.v3;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.common.serialization.types.OUTF8Serializer;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.db.*;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.engine.OBaseIndexEngine;
+import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.OCellBTreeSingleValue;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class OCellBTreeSingleValueV3BulkLoadTest {
+  private static final int KEYS = 50_000;
+
+  private OrientDB                  orientDB;
+  private OAbstractPaginatedStorage storage;
+
+  private String dbName;
+
+  @Before
+  public void before() {
+    final String buildDirectory =
+        System.getProperty("buildDirectory", ".") + File.separator + OCellBTreeSingleValueV3BulkLoadTest.class.getSimpleName();
+
+    dbName = "bulkLoadBTreeTest";
+    final File dbDirectory = new File(buildDirectory, dbName);
+    OFileUtils.deleteRecursively(dbDirectory);
+
+    orientDB = new OrientDB("plocal:" + buildDirectory, OrientDBConfig.defaultConfig());
+    orientDB.create(dbName, ODatabaseType.PLOCAL);
+
+    final ODatabaseSession databaseDocumentTx = orientDB.open(dbName, "admin", "admin");
+    storage = (OAbstractPaginatedStorage) ((ODatabaseInternal) databaseDocumentTx).getStorage();
+  }
+
+  @After
+  public void afterMethod() {
+    orientDB.drop(dbName);
+    orientDB.close();
+  }
+
+  @Test
+  public void testFailedBulkLoadLeavesEmptyTree() throws Exception {
+    final OCellBTreeSingleValueV3<String> tree = new OCellBTreeSingleValueV3<>("bulkLoadBTree", ".sbt", ".nbt", storage);
+    tree.create(OUTF8Serializer.INSTANCE, null, 1, null);
+
+    final OBaseIndexEngine.Validator<String, ORID> unique = (key, oldValue, newValue) -> {
+      if (oldValue != null) {
+        throw new ORecordDuplicatedException("Duplicate key " + key, "bulkLoadBTree", oldValue, key);
+      }
+      return newValue;
+    };
+
+    // duplicate of the last key, so the tree is built almost completely before the failure
+    final List<ORawPair<String, ORID>> entries = entries();
+    entries.add(new ORawPair<>(key(KEYS - 1), new ORecordId(1, KEYS)));
+    try {
+      tree.bulkLoad(entries.iterator(), unique);
+      Assert.fail();
+    } catch (ORecordDuplicatedException e) {
+      // expected
+    }
+
+    Assert.assertEquals(0, tree.size());
+    Assert.assertNull(tree.get(key(0)));
+    Assert.assertNull(tree.firstKey());
+
+    tree.put(key(KEYS), new ORecordId(1, KEYS));
+    Assert.assertEquals(1, tree.size());
+    Assert.assertEquals(new ORecordId(1, KEYS), tree.get(key(KEYS)));
+
+    tree.clear();
+
+    // tree can be built again once the entries are fixed
+    tree.bulkLoad(entries().iterator(), unique);
+    Assert.assertEquals(KEYS, tree.size());
+
+    final OCellBTreeSingleValue.OCellBTreeCursor<String, ORID> cursor = tree.iterateEntriesMajor(key(0), true, true);
+    int expected = 0;
+    Map.Entry<String, ORID> entry = cursor.next(-1);
+    while (entry != null) {
+      Assert.assertEquals(key(expected), entry.getKey());
+      Assert.assertEquals(new ORecordId(1, expected), entry.getValue());
+      Assert.assertEquals(entry.getValue(), tree.get(entry.getKey()));
+
+      expected++;
+      entry = cursor.next(-1);
+    }
+    Assert.assertEquals(KEYS, expected);
+  }
+
+  private static List<ORawPair<String, ORID>> entries() {
+    final List<ORawPair<String, ORID>> entries = new ArrayList<>();
+    for (int i = 0; i < KEYS; i++) {
+      entries.add(new ORawPair<>(key(i), new ORecordId(1, i)));
+    }
+    return entries;
+  }
+
+  private static String key(final int i) {
+    return String.format("key%08d", i);
+  }
+}
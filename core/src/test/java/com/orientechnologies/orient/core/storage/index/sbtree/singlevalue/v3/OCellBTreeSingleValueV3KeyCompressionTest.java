@@ -0,0 +1,152 @@
+package com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.v3;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.common.serialization.types.OUTF8Serializer;
+import com.orientechnologies.orient.core.db.*;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OCompositeKeySerializer;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.OCellBTreeSingleValue;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.*;
+
+public class OCellBTreeSingleValueV3KeyCompressionTest {
+  private OrientDB                  orientDB;
+  private OAbstractPaginatedStorage storage;
+
+  private String dbName;
+
+  @Before
+  public void before() {
+    final String buildDirectory =
+        System.getProperty("buildDirectory", ".") + File.separator + OCellBTreeSingleValueV3KeyCompressionTest.class
+            .getSimpleName();
+
+    dbName = "keyCompressionBTreeTest";
+    final File dbDirectory = new File(buildDirectory, dbName);
+    OFileUtils.deleteRecursively(dbDirectory);
+
+    orientDB = new OrientDB("plocal:" + buildDirectory, OrientDBConfig.defaultConfig());
+    orientDB.create(dbName, ODatabaseType.PLOCAL);
+
+    final ODatabaseSession databaseDocumentTx = orientDB.open(dbName, "admin", "admin");
+    storage = (OAbstractPaginatedStorage) ((ODatabaseInternal) databaseDocumentTx).getStorage();
+  }
+
+  @After
+  public void afterMethod() {
+    orientDB.drop(dbName);
+    orientDB.close();
+  }
+
+  @Test
+  public void testEncodeDecode() {
+    final long seed = System.nanoTime();
+    System.out.println("testEncodeDecode seed : " + seed);
+    final Random random = new Random(seed);
+
+    for (int i = 0; i < 10_000; i++) {
+      final byte[] referenceKey = new byte[random.nextInt(64)];
+      random.nextBytes(referenceKey);
+
+      final byte[] serializedKey = new byte[random.nextInt(64)];
+      random.nextBytes(serializedKey);
+
+      // keys usually share parts with the reference key
+      final int sharedLength = Math.min(referenceKey.length, serializedKey.length);
+      final int sharedStart = sharedLength > 0 ? random.nextInt(sharedLength) : 0;
+      System.arraycopy(referenceKey, sharedStart, serializedKey, sharedStart, random.nextInt(sharedLength - sharedStart + 1));
+
+      final byte[] encodedKey = OSBTreeCompressedBucketSingleValue.encode(serializedKey, referenceKey);
+      Assert.assertArrayEquals(serializedKey, OSBTreeCompressedBucketSingleValue.decode(encodedKey, referenceKey));
+    }
+  }
+
+  @Test
+  public void testUrlKeys() throws Exception {
+    final OCellBTreeSingleValueV3<String> tree = new OCellBTreeSingleValueV3<>("urlBTree", ".sbt", ".nbt", storage, true);
+    tree.create(OUTF8Serializer.INSTANCE, null, 1, null);
+
+    final NavigableMap<String, ORID> keyValues = new TreeMap<>();
+    final long seed = System.nanoTime();
+    System.out.println("testUrlKeys seed : " + seed);
+    final Random random = new Random(seed);
+
+    while (keyValues.size() < 100_000) {
+      final int val = random.nextInt(Integer.MAX_VALUE);
+      final String key = "https://www.example.com/users/" + val + "/profile?tab=" + (val % 7);
+
+      tree.put(key, new ORecordId(val % 32000, val));
+      keyValues.put(key, new ORecordId(val % 32000, val));
+    }
+
+    for (final Map.Entry<String, ORID> entry : keyValues.entrySet()) {
+      Assert.assertEquals(entry.getValue(), tree.get(entry.getKey()));
+    }
+
+    Assert.assertEquals(keyValues.firstKey(), tree.firstKey());
+    Assert.assertEquals(keyValues.lastKey(), tree.lastKey());
+
+    final OCellBTreeSingleValue.OCellBTreeKeyCursor<String> cursor = tree.keyCursor();
+    for (final String key : keyValues.keySet()) {
+      Assert.assertEquals(key, cursor.next(-1));
+    }
+    Assert.assertNull(cursor.next(-1));
+
+    final Iterator<String> keysIterator = keyValues.keySet().iterator();
+    while (keysIterator.hasNext()) {
+      final String key = keysIterator.next();
+      if (random.nextBoolean()) {
+        Assert.assertEquals(keyValues.get(key), tree.remove(key));
+        keysIterator.remove();
+      }
+    }
+
+    Assert.assertEquals(keyValues.size(), tree.size());
+    for (final Map.Entry<String, ORID> entry : keyValues.entrySet()) {
+      Assert.assertEquals(entry.getValue(), tree.get(entry.getKey()));
+    }
+  }
+
+  @Test
+  public void testCompositeKeys() throws Exception {
+    final OCellBTreeSingleValueV3<OCompositeKey> tree = new OCellBTreeSingleValueV3<>("compositeBTree", ".sbt", ".nbt", storage,
+        true);
+    tree.create(OCompositeKeySerializer.INSTANCE, new OType[] { OType.STRING, OType.STRING }, 2, null);
+
+    final NavigableMap<OCompositeKey, ORID> keyValues = new TreeMap<>();
+    final long seed = System.nanoTime();
+    System.out.println("testCompositeKeys seed : " + seed);
+    final Random random = new Random(seed);
+
+    while (keyValues.size() < 100_000) {
+      final int val = random.nextInt(Integer.MAX_VALUE);
+      final OCompositeKey key = new OCompositeKey("com.example.model.Customer" + (val % 10), "customer" + val + "@example.com");
+
+      tree.put(key, new ORecordId(val % 32000, val));
+      keyValues.put(key, new ORecordId(val % 32000, val));
+    }
+
+    for (final Map.Entry<OCompositeKey, ORID> entry : keyValues.entrySet()) {
+      Assert.assertEquals(entry.getValue(), tree.get(entry.getKey()));
+    }
+
+    final OCompositeKey fromKey = new OCompositeKey("com.example.model.Customer5");
+    final OCellBTreeSingleValue.OCellBTreeCursor<OCompositeKey, ORID> cursor = tree.iterateEntriesMajor(fromKey, true, true);
+
+    for (final Map.Entry<OCompositeKey, ORID> entry : keyValues.tailMap(fromKey, true).entrySet()) {
+      final Map.Entry<OCompositeKey, ORID> treeEntry = cursor.next(-1);
+      Assert.assertEquals(entry.getKey(), treeEntry.getKey());
+      Assert.assertEquals(entry.getValue(), treeEntry.getValue());
+    }
+    Assert.assertNull(cursor.next(-1));
+  }
+}
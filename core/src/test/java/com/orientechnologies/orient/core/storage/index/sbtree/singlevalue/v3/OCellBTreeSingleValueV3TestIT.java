@@ -2,6 +2,7 @@ package com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.v3;
 
 import com.orientechnologies.common.io.OFileUtils;
 import com.orientechnologies.common.serialization.types.OUTF8Serializer;
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.orient.core.db.*;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
@@ -107,6 +108,51 @@ public class OCellBTreeSingleValueV3TestIT {
     }
   }
 
+  @Test
+  public void testGetMany() throws Exception {
+    final NavigableSet<String> keys = new TreeSet<>();
+    final long seed = System.nanoTime();
+    System.out.println("testGetMany seed : " + seed);
+    final Random random = new Random(seed);
+    final int keysCount = 500_000;
+
+    while (keys.size() < keysCount) {
+      int val = random.nextInt(Integer.MAX_VALUE);
+      String key = Integer.toString(val);
+
+      singleValueTree.put(key, new ORecordId(val % 32000, val));
+      keys.add(key);
+    }
+
+    for (int n = 0; n < 100; n++) {
+      final List<String> probeKeys = new ArrayList<>();
+      final int probeCount = random.nextInt(10_000);
+      for (int i = 0; i < probeCount; i++) {
+        final String key = Integer.toString(random.nextInt(Integer.MAX_VALUE));
+        final String existingKey = keys.ceiling(key);
+        probeKeys.add(random.nextBoolean() && existingKey != null ? existingKey : key);
+      }
+
+      final List<String> expectedKeys = new ArrayList<>();
+      for (String key : probeKeys) {
+        if (keys.contains(key)) {
+          expectedKeys.add(key);
+        }
+      }
+      Collections.sort(expectedKeys);
+
+      final List<ORawPair<String, ORID>> entries = singleValueTree.getMany(probeKeys);
+      Assert.assertEquals(expectedKeys.size(), entries.size());
+      for (int i = 0; i < expectedKeys.size(); i++) {
+        final String key = expectedKeys.get(i);
+        final int val = Integer.parseInt(key);
+
+        Assert.assertEquals(key, entries.get(i).getFirst());
+        Assert.assertEquals(new ORecordId(val % 32000, val), entries.get(i).getSecond());
+      }
+    }
+  }
+
   @Test
   public void testKeyPutRandomGaussian() throws Exception {
     NavigableSet<String> keys = new TreeSet<>();
@@ -0,0 +1,108 @@
+package com.orientechnologies.orient.enterprise.channel.binary;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.compression.OCompression;
+import com.orientechnologies.orient.core.compression.impl.ODeflateCompression;
+import com.orientechnologies.orient.core.compression.impl.OLZ4Compression;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class OCompressedInputStreamTest {
+
+  @Test
+  public void testLZ4Frames() throws IOException {
+    assertFrames(OLZ4Compression.INSTANCE);
+  }
+
+  @Test
+  public void testDeflateFrames() throws IOException {
+    assertFrames(ODeflateCompression.INSTANCE);
+  }
+
+  @Test
+  public void testLZ4FrameWithOversizedLength() {
+    final byte[] content = OLZ4Compression.INSTANCE.compress(new byte[1024]);
+    OIntegerSerializer.INSTANCE.serializeNative(OCompressedOutputStream.MAX_FRAME_SIZE + 1, content, 0);
+    assertRejected(OLZ4Compression.INSTANCE, content);
+
+    OIntegerSerializer.INSTANCE.serializeNative(-1, content, 0);
+    assertRejected(OLZ4Compression.INSTANCE, content);
+  }
+
+  @Test
+  public void testLZ4FrameWithCorruptedContent() {
+    final byte[] content = OLZ4Compression.INSTANCE.compress(text(4096));
+    assertRejected(OLZ4Compression.INSTANCE, Arrays.copyOf(content, content.length - 8));
+
+    // length of the original content is bigger than the one which is stored
+    OIntegerSerializer.INSTANCE.serializeNative(8192, content, 0);
+    assertRejected(OLZ4Compression.INSTANCE, content);
+  }
+
+  @Test
+  public void testDeflateFrameWithOversizedContent() {
+    // few bytes which are inflated far beyond the maximum size of a frame
+    final byte[] content = ODeflateCompression.INSTANCE.compress(new byte[OCompressedOutputStream.MAX_FRAME_SIZE * 16]);
+    Assert.assertTrue(content.length < OCompressedOutputStream.MAX_FRAME_SIZE);
+    assertRejected(ODeflateCompression.INSTANCE, content);
+  }
+
+  @Test
+  public void testDeflateFrameWithCorruptedContent() {
+    final byte[] content = ODeflateCompression.INSTANCE.compress(text(4096));
+    assertRejected(ODeflateCompression.INSTANCE, Arrays.copyOf(content, content.length / 2));
+  }
+
+  private static void assertFrames(final OCompression compression) throws IOException {
+    final byte[] data = text(OCompressedOutputStream.MAX_FRAME_SIZE * 3 + 17);
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final OCompressedOutputStream out = new OCompressedOutputStream(bytes, compression, 64);
+    out.write(data);
+    out.flush();
+    Assert.assertTrue(out.getBytesAfterCompression() < out.getBytesBeforeCompression());
+
+    final DataInputStream in = new DataInputStream(
+        new OCompressedInputStream(new ByteArrayInputStream(bytes.toByteArray()), compression));
+    final byte[] read = new byte[data.length];
+    in.readFully(read);
+    Assert.assertArrayEquals(data, read);
+    Assert.assertEquals(-1, in.read());
+  }
+
+  private static void assertRejected(final OCompression compression, final byte[] content) {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      final DataOutputStream out = new DataOutputStream(bytes);
+      out.writeByte(OCompressedOutputStream.FRAME_COMPRESSED);
+      out.writeInt(content.length);
+      out.write(content);
+      out.flush();
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+
+    final OCompressedInputStream in = new OCompressedInputStream(new ByteArrayInputStream(bytes.toByteArray()), compression);
+    try {
+      in.read();
+      Assert.fail();
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  private static byte[] text(final int length) {
+    final byte[] text = new byte[length];
+    for (int i = 0; i < length; i++) {
+      text[i] = (byte) ('a' + (i * 7 + i / 13) % 26);
+    }
+    return text;
+  }
+}
@@ -89,6 +89,11 @@ public class OBackgroundBackup implements Runnable, OSyncSource {
             throw r;
           } finally {
             wal.removeCutTillLimit(lsn);
+            try {
+              dest.close();
+            } catch (IOException e2) {
+              OLogManager.instance().debug(this, "Error performing backup ", e2);
+            }
           }
           finished.countDown();
           OLogManager.instance().info(this, "Sending Enterprise backup (" + database.getName() + ") for node sync");
@@ -464,7 +464,7 @@ public class OClientConnectionManager {
                 .debug(this, "Error on closing connection of %s client during shutdown", e, entry.getValue().getRemoteAddress());
           }
         }
-        if (protocol.isAlive()) {
+        if (protocol.isConnectionAlive()) {
           if (protocol instanceof ONetworkProtocolBinary && ((ONetworkProtocolBinary) protocol).getRequestType() == -1) {
             try {
               OLogManager.instance().debug(this, "Closing socket of thread %s", protocol);
@@ -482,10 +482,10 @@ public class OClientConnectionManager {
 
     for (ONetworkProtocol protocol : toWait) {
       try {
-        protocol.join(server.getContextConfiguration().getValueAsInteger(OGlobalConfiguration.SERVER_CHANNEL_CLEAN_DELAY));
-        if (protocol.isAlive()) {
+        protocol.joinConnection(server.getContextConfiguration().getValueAsInteger(OGlobalConfiguration.SERVER_CHANNEL_CLEAN_DELAY));
+        if (protocol.isConnectionAlive()) {
           protocol.interrupt();
-          protocol.join();
+          protocol.joinConnection(0);
         }
       } catch (InterruptedException e) {
         Thread.currentThread().interrupt();
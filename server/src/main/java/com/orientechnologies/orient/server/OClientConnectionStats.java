@@ -15,6 +15,8 @@ public class OClientConnectionStats {
   public String              lastDatabase              = null;
   public String              lastUser                  = null;
   public long                totalCommandExecutionTime = 0;
+  public long                bytesBeforeCompression    = 0;
+  public long                bytesAfterCompression     = 0;
   public List<String> activeQueries;
 
 
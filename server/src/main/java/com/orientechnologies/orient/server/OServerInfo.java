@@ -100,6 +100,8 @@ public class OServerInfo {
       writeField(json, 2, "lastCommandDetail", stats.lastCommandDetail);
       writeField(json, 2, "lastExecutionTime", stats.lastCommandExecutionTime);
       writeField(json, 2, "totalWorkingTime", stats.totalCommandExecutionTime);
+      writeField(json, 2, "bytesBeforeCompression", stats.bytesBeforeCompression);
+      writeField(json, 2, "bytesAfterCompression", stats.bytesAfterCompression);
       writeField(json, 2, "activeQueries", stats.activeQueries);
       writeField(json, 2, "connectedOn", connectedOn);
       writeField(json, 2, "protocol", c.getProtocol().getType());
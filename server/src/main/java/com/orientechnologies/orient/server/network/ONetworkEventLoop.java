@@ -0,0 +1,335 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.network;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.util.OUncaughtExceptionHandler;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Event loop of the binary connections: the idle connections wait for the next request on a single selector, when a request
+ * arrives the connection is handed to a bounded pool of workers that reads and executes the request with the blocking channel of
+ * the connection. The number of threads does not depend anymore on the number of the open connections.
+ * <p>
+ * A socket cannot be in blocking mode while it is registered on a selector, so each connection is registered again after every
+ * request.
+ * <p>
+ * The binary requests are not prefixed by their length, so the end of a request is known only once it is decoded. A worker that
+ * waits for the rest of a request from a slow client gives its place in the pool to a new worker, see {@link #wrap(Socket,
+ * InputStream)}, so the other connections are still served. The number of such workers is bounded: past the limit the connection
+ * of the slow client is closed, instead of starting one more thread.
+ *
+ * @see ONetworkProtocolBinary#serveRequest()
+ */
+public class ONetworkEventLoop extends Thread {
+  private final    Selector                      selector;
+  private final    ForkJoinPool                  workers;
+  private final    int                           stallTimeout;
+  private final    int                           maxStalledWorkers;
+  private final    AtomicInteger                 stalledWorkers = new AtomicInteger();
+  private final    Queue<ONetworkProtocolBinary> toRegister = new ConcurrentLinkedQueue<ONetworkProtocolBinary>();
+  private final    Queue<ONetworkProtocolBinary> toClose    = new ConcurrentLinkedQueue<ONetworkProtocolBinary>();
+  private volatile boolean                       active     = true;
+
+  public ONetworkEventLoop(final ThreadGroup threadGroup, final String name, final int workerThreads, final int stallTimeout,
+      final int maxStalledWorkers) throws IOException {
+    super(threadGroup, name);
+    setDaemon(true);
+    setUncaughtExceptionHandler(new OUncaughtExceptionHandler());
+
+    selector = Selector.open();
+    this.stallTimeout = stallTimeout;
+    this.maxStalledWorkers = maxStalledWorkers;
+
+    // THE POOL STARTS A SPARE WORKER WHEN A WORKER IS BLOCKED BY A SLOW CLIENT, SEE ForkJoinPool.managedBlock()
+    final AtomicInteger workerId = new AtomicInteger();
+    workers = new ForkJoinPool(workerThreads, pool -> {
+      final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName(name + " worker " + workerId.incrementAndGet());
+      return thread;
+    }, new OUncaughtExceptionHandler(), true);
+
+    start();
+  }
+
+  /**
+   * @return true if the connection can be served by the event loop, that is if its socket has a selectable channel (it is not
+   * the case of SSL sockets)
+   */
+  public static boolean isSupported(final Socket socket) {
+    return socket.getChannel() != null;
+  }
+
+  /**
+   * Wraps the input stream of the socket of a connection served by the event loop. When a worker does not receive the rest of a
+   * request within the stall timeout, it keeps waiting as a managed blocker of the pool, that meanwhile runs another worker in its
+   * place. If too many workers are already waiting, the socket is closed.
+   */
+  public InputStream wrap(final Socket socket, final InputStream in) {
+    return new WorkerInputStream(socket, in);
+  }
+
+  /**
+   * @return number of the workers that are waiting for the rest of a request from a slow client
+   */
+  public int getStalledWorkers() {
+    return stalledWorkers.get();
+  }
+
+  /**
+   * Waits for the next request of the connection without holding a thread.
+   */
+  public void park(final ONetworkProtocolBinary protocol) {
+    toRegister.offer(protocol);
+    selector.wakeup();
+  }
+
+  /**
+   * Executes the next request of the connection on the workers, without waiting for the socket to be readable. Used when the
+   * request is already in the input buffer of the channel.
+   */
+  public void dispatch(final ONetworkProtocolBinary protocol) {
+    try {
+      workers.execute(protocol::serveRequest);
+    } catch (RejectedExecutionException e) {
+      // THE EVENT LOOP IS SHUTTING DOWN
+      protocol.shutdown();
+    }
+  }
+
+  /**
+   * Wakes up a parked connection that has been asked to shut down, so that its channel is closed by a worker.
+   */
+  public void wakeUp(final ONetworkProtocolBinary protocol) {
+    toClose.offer(protocol);
+    selector.wakeup();
+  }
+
+  public boolean isActive() {
+    return active;
+  }
+
+  public void shutdown() {
+    active = false;
+    selector.wakeup();
+    workers.shutdown();
+  }
+
+  @Override
+  public void run() {
+    final List<ONetworkProtocolBinary> ready = new ArrayList<ONetworkProtocolBinary>();
+    try {
+      while (active) {
+        selector.select();
+
+        registerParked();
+
+        // CANCEL THE KEYS OF THE CONNECTIONS THAT HAVE A REQUEST, THEY ARE NOT SELECTED UNTIL THE REQUEST IS SERVED
+        final Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+        while (selected.hasNext()) {
+          final SelectionKey key = selected.next();
+          selected.remove();
+          key.cancel();
+          ready.add((ONetworkProtocolBinary) key.attachment());
+        }
+
+        ONetworkProtocolBinary protocol;
+        while ((protocol = toClose.poll()) != null) {
+          final SocketChannel channel = channelOf(protocol);
+          final SelectionKey key = channel == null ? null : channel.keyFor(selector);
+          if (key != null && key.isValid()) {
+            key.cancel();
+            ready.add(protocol);
+          }
+        }
+
+        if (!ready.isEmpty()) {
+          // DEREGISTERS THE CANCELLED KEYS, SO THAT THE CHANNELS CAN BE SWITCHED BACK TO BLOCKING MODE
+          selector.selectNow();
+
+          for (ONetworkProtocolBinary p : ready) {
+            try {
+              final SocketChannel channel = channelOf(p);
+              if (channel != null)
+                channel.configureBlocking(true);
+            } catch (IOException e) {
+              OLogManager.instance().debug(this, "Error on restoring the blocking mode of the channel %s", e, p);
+              p.sendShutdown();
+            }
+            dispatch(p);
+          }
+          ready.clear();
+        }
+      }
+    } catch (IOException e) {
+      OLogManager.instance().error(this, "Error on waiting for binary requests, the idle connections are closed", e);
+    } finally {
+      closeAll();
+    }
+  }
+
+  private void registerParked() {
+    ONetworkProtocolBinary protocol;
+    while ((protocol = toRegister.poll()) != null) {
+      if (protocol.isShutdownFlag()) {
+        dispatch(protocol);
+        continue;
+      }
+
+      try {
+        final SocketChannel channel = channelOf(protocol);
+        if (channel == null)
+          throw new IOException("Channel closed");
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ, protocol);
+      } catch (Exception e) {
+        // THE CHANNEL HAS BEEN CLOSED IN THE MEANTIME
+        OLogManager.instance().debug(this, "Error on registering the channel %s", e, protocol);
+        protocol.sendShutdown();
+        dispatch(protocol);
+      }
+    }
+  }
+
+  private void closeAll() {
+    for (SelectionKey key : new ArrayList<SelectionKey>(selector.keys())) {
+      ((ONetworkProtocolBinary) key.attachment()).shutdown();
+    }
+    ONetworkProtocolBinary protocol;
+    while ((protocol = toRegister.poll()) != null) {
+      protocol.shutdown();
+    }
+    try {
+      selector.close();
+    } catch (IOException e) {
+      OLogManager.instance().debug(this, "Error on closing the selector", e);
+    }
+    workers.shutdown();
+  }
+
+  private static SocketChannel channelOf(final ONetworkProtocolBinary protocol) {
+    final Socket socket = protocol.getChannel().socket;
+    return socket != null ? socket.getChannel() : null;
+  }
+
+  private final class WorkerInputStream extends FilterInputStream {
+    private final Socket socket;
+
+    private WorkerInputStream(final Socket socket, final InputStream in) {
+      super(in);
+      this.socket = socket;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final byte[] b = new byte[1];
+      final int read = read(b, 0, 1);
+      return read < 0 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if (stallTimeout <= 0 || !(Thread.currentThread() instanceof ForkJoinWorkerThread))
+        return in.read(b, off, len);
+
+      final int timeout = socket.getSoTimeout();
+      if (timeout == 0 || timeout > stallTimeout) {
+        socket.setSoTimeout(stallTimeout);
+        try {
+          return in.read(b, off, len);
+        } catch (SocketTimeoutException e) {
+          // THE CLIENT IS SLOW: NOTHING HAS BEEN READ, THE READ IS REPEATED OUT OF THE POOL
+        } finally {
+          socket.setSoTimeout(timeout);
+        }
+      }
+
+      // EVERY STALLED WORKER IS COMPENSATED BY A NEW THREAD OF THE POOL, SO THEIR NUMBER IS BOUNDED
+      if (stalledWorkers.incrementAndGet() > maxStalledWorkers) {
+        stalledWorkers.decrementAndGet();
+        socket.close();
+        throw new IOException("Too many workers are waiting for slow clients, the connection " + socket + " is closed");
+      }
+
+      final BlockingRead read = new BlockingRead(b, off, len);
+      try {
+        ForkJoinPool.managedBlock(read);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the rest of the request");
+      } finally {
+        stalledWorkers.decrementAndGet();
+      }
+      if (read.error != null)
+        throw read.error;
+      return read.result;
+    }
+
+    private final class BlockingRead implements ForkJoinPool.ManagedBlocker {
+      private final byte[]      b;
+      private final int         off;
+      private final int         len;
+      private       boolean     done;
+      private       int         result;
+      private       IOException error;
+
+      private BlockingRead(final byte[] b, final int off, final int len) {
+        this.b = b;
+        this.off = off;
+        this.len = len;
+      }
+
+      @Override
+      public boolean block() {
+        try {
+          result = in.read(b, off, len);
+        } catch (IOException e) {
+          error = e;
+        }
+        done = true;
+        return true;
+      }
+
+      @Override
+      public boolean isReleasable() {
+        return done;
+      }
+    }
+  }
+}
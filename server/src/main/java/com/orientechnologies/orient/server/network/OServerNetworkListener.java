@@ -32,11 +32,13 @@ import com.orientechnologies.orient.server.config.OServerCommandConfiguration;
 import com.orientechnologies.orient.server.config.OServerParameterConfiguration;
 import com.orientechnologies.orient.server.network.protocol.OBeforeDatabaseOpenNetworkEventListener;
 import com.orientechnologies.orient.server.network.protocol.ONetworkProtocol;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
 import com.orientechnologies.orient.server.network.protocol.http.command.OServerCommand;
 
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.net.*;
+import java.nio.channels.ServerSocketChannel;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -53,6 +55,7 @@ public class OServerNetworkListener extends Thread {
   private OServer                                       server;
   private int                                           protocolVersion = -1;
   private List<OBeforeDatabaseOpenNetworkEventListener> beforeDatabaseOpenNetworkEventListener = new ArrayList<OBeforeDatabaseOpenNetworkEventListener>();
+  private ONetworkEventLoop                             eventLoop;
 
   public OServerNetworkListener(final OServer iServer, final OServerSocketFactory iSocketFactory, final String iHostName,
       final String iHostPortRange, final String iProtocolName, final Class<? extends ONetworkProtocol> iProtocol,
@@ -73,10 +76,25 @@ public class OServerNetworkListener extends Thread {
       throw OException.wrapException(new ONetworkProtocolException(message), e);
     }
 
+    readParameters(iServer.getContextConfiguration(), iParameters);
+
     listen(iHostName, iHostPortRange, iProtocolName, iProtocol);
     protocolType = iProtocol;
 
-    readParameters(iServer.getContextConfiguration(), iParameters);
+    if (isEventLoopEnabled(iProtocol)) {
+      try {
+        eventLoop = new ONetworkEventLoop(iServer.getThreadGroup(),
+            "OrientDB " + iProtocol.getSimpleName() + " event loop at " + iHostName + ":" + inboundAddr.getPort(),
+            configuration.getValueAsInteger(OGlobalConfiguration.NETWORK_BINARY_EVENT_LOOP_WORKERS),
+            configuration.getValueAsInteger(OGlobalConfiguration.NETWORK_BINARY_EVENT_LOOP_STALL_TIMEOUT),
+            configuration.getValueAsInteger(OGlobalConfiguration.NETWORK_BINARY_EVENT_LOOP_MAX_STALLED_WORKERS));
+      } catch (IOException e) {
+        final String message = "Error on creating the event loop for " + iProtocol;
+        OLogManager.instance().error(this, message, e);
+
+        throw OException.wrapException(new ONetworkProtocolException(message), e);
+      }
+    }
 
     if (iCommands != null) {
       for (int i = 0; i < iCommands.length; ++i) {
@@ -167,6 +185,9 @@ public class OServerNetworkListener extends Thread {
   public void shutdown() {
     this.active = false;
 
+    if (eventLoop != null)
+      eventLoop.shutdown();
+
     if (serverSocket != null)
       try {
         serverSocket.close();
@@ -178,6 +199,13 @@ public class OServerNetworkListener extends Thread {
     return active;
   }
 
+  /**
+   * @return the event loop that serves the connections of this listener, or null if each connection is served by its own thread
+   */
+  public ONetworkEventLoop getEventLoop() {
+    return eventLoop;
+  }
+
   @Override
   public void run() {
     try {
@@ -331,7 +359,10 @@ public class OServerNetworkListener extends Thread {
     for (int port : getPorts(iHostPortRange)) {
       inboundAddr = new InetSocketAddress(iHostName, port);
       try {
-        serverSocket = socketFactory.createServerSocket(port, 0, InetAddress.getByName(iHostName));
+        if (isEventLoopEnabled(protocolClass))
+          serverSocket = createSelectableServerSocket(port, InetAddress.getByName(iHostName));
+        else
+          serverSocket = socketFactory.createServerSocket(port, 0, InetAddress.getByName(iHostName));
 
         if (serverSocket.isBound()) {
           OLogManager.instance().info(this,
@@ -358,6 +389,28 @@ public class OServerNetworkListener extends Thread {
     throw new OSystemException("Unable to listen for connections using the configured ports '%s' on host '%s'");
   }
 
+  /**
+   * The event loop needs sockets with a selectable channel, so it is used only with the default socket factory.
+   */
+  private boolean isEventLoopEnabled(final Class<? extends ONetworkProtocol> protocolClass) {
+    return configuration.getValueAsBoolean(OGlobalConfiguration.NETWORK_BINARY_EVENT_LOOP_ENABLED)
+        && ONetworkProtocolBinary.class.isAssignableFrom(protocolClass) && socketFactory instanceof ODefaultServerSocketFactory;
+  }
+
+  /**
+   * Creates a server socket that accepts sockets with a channel, that can be registered on the selector of the event loop.
+   */
+  private static ServerSocket createSelectableServerSocket(final int port, final InetAddress address) throws IOException {
+    final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+    try {
+      serverChannel.socket().bind(new InetSocketAddress(address, port));
+    } catch (IOException e) {
+      serverChannel.close();
+      throw e;
+    }
+    return serverChannel.socket();
+  }
+
   /**
    * Initializes connection parameters by the reading XML configuration. If not specified, get the parameters defined as global
    * configuration.
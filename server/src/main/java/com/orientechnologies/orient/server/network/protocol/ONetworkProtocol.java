@@ -58,5 +58,19 @@ public abstract class ONetworkProtocol extends OSoftThread {
     return server;
   }
 
+  /**
+   * @return <code>true</code> while the connection is served, by default while the thread of the protocol is alive.
+   */
+  public boolean isConnectionAlive() {
+    return isAlive();
+  }
+
+  /**
+   * Waits for the end of the connection, as {@link #join(long)}: 0 means to wait forever.
+   */
+  public void joinConnection(final long millis) throws InterruptedException {
+    join(millis);
+  }
+
   public abstract OBinaryRequestExecutor executor(OClientConnection connection);
 }
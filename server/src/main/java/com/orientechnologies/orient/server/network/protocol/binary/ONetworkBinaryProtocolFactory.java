@@ -41,6 +41,7 @@ public class ONetworkBinaryProtocolFactory {
   public static Function<Integer, OBinaryRequest<? extends OBinaryResponse>> matchProtocol(short protocolVersion) {
     switch (protocolVersion) {
     case 37:
+    case 38:
       return ONetworkBinaryProtocolFactory::createRequest37;
     default:
       return ONetworkBinaryProtocolFactory::createRequest;
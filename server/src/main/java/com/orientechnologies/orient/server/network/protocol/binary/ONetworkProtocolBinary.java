@@ -31,6 +31,9 @@ import com.orientechnologies.orient.client.remote.OBinaryRequest;
 import com.orientechnologies.orient.client.remote.OBinaryResponse;
 import com.orientechnologies.orient.client.remote.message.*;
 import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.compression.OCompressionFactory;
+import com.orientechnologies.orient.core.compression.impl.ODeflateCompression;
+import com.orientechnologies.orient.core.compression.impl.OLZ4Compression;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
@@ -58,12 +61,16 @@ import com.orientechnologies.orient.server.OConnectionBinaryExecutor;
 import com.orientechnologies.orient.server.OServer;
 import com.orientechnologies.orient.server.OServerAware;
 import com.orientechnologies.orient.server.distributed.*;
+import com.orientechnologies.orient.server.network.ONetworkEventLoop;
 import com.orientechnologies.orient.server.network.OServerNetworkListener;
 import com.orientechnologies.orient.server.network.protocol.ONetworkProtocol;
 import com.orientechnologies.orient.server.plugin.OServerPluginHelper;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectOutputStream;
 import java.io.PrintStream;
 import java.net.InetSocketAddress;
@@ -72,7 +79,9 @@ import java.net.SocketException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.logging.Level;
 
@@ -88,6 +97,11 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
   private            HandshakeInfo                      handshakeInfo;
   private volatile   OBinaryPushResponse                expectedPushResponse;
   private            BlockingQueue<OBinaryPushResponse> pushResponse    = new SynchronousQueue<OBinaryPushResponse>();
+  private            ONetworkEventLoop                  eventLoop;
+  private volatile   Thread                             worker;
+  private final      CountDownLatch                     terminated      = new CountDownLatch(1);
+  private            long                               lastBytesBeforeCompression;
+  private            long                               lastBytesAfterCompression;
 
   private Function<Integer, OBinaryRequest<? extends OBinaryResponse>> factory = ONetworkBinaryProtocolFactory.defaultProtocol();
 
@@ -125,8 +139,116 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
 
     OServerPluginHelper.invokeHandlerCallbackOnSocketAccepted(server, this);
 
-    start();
     setName("OrientDB (" + iSocket.getLocalSocketAddress() + ") <- BinaryClient (" + iSocket.getRemoteSocketAddress() + ")");
+    if (iListener.getEventLoop() != null && ONetworkEventLoop.isSupported(iSocket)) {
+      // THE REQUESTS ARE SERVED BY THE WORKERS OF THE EVENT LOOP, THIS THREAD IS NEVER STARTED
+      eventLoop = iListener.getEventLoop();
+
+      // NOTHING HAS BEEN READ YET, SO THE INPUT STREAM CAN BE REPLACED
+      final InputStream in = eventLoop.wrap(iSocket, iSocket.getInputStream());
+      channel.inStream = channel.socketBufferSize > 0 ?
+          new BufferedInputStream(in, channel.socketBufferSize) :
+          new BufferedInputStream(in);
+      channel.in = new DataInputStream(channel.inStream);
+
+      startup();
+      eventLoop.park(this);
+    } else
+      start();
+  }
+
+  /**
+   * Reads and executes the next request of the connection, it is the equivalent of an iteration of the thread loop when the
+   * connection is served by an event loop. Then the connection waits for the next request on the event loop, or it is closed if it
+   * has been shut down.
+   */
+  public void serveRequest() {
+    worker = Thread.currentThread();
+    try {
+      if (!isShutdownFlag()) {
+        beforeExecution();
+        execute();
+        afterExecution();
+      }
+    } catch (Exception e) {
+      OLogManager.instance().debug(this, "Error during execution of binary request", e);
+    } catch (Error e) {
+      OLogManager.instance().error(this, "Error during execution of binary request", e);
+      softShutdown();
+      shutdown();
+      throw e;
+    } finally {
+      worker = null;
+      // THE INTERRUPTION WAS MEANT FOR THIS REQUEST, NOT FOR THE NEXT ONE SERVED BY THE WORKER
+      Thread.interrupted();
+    }
+
+    if (isShutdownFlag() || !eventLoop.isActive()) {
+      shutdown();
+      return;
+    }
+
+    boolean buffered = false;
+    try {
+      // THE DATA STREAM, THAT WITH THE COMPRESSION HOLDS THE REST OF THE FRAME ALREADY UNCOMPRESSED
+      final InputStream in = channel.in;
+      buffered = in != null && in.available() > 0;
+    } catch (IOException e) {
+      OLogManager.instance().debug(this, "Error on checking the input buffer of the channel", e);
+    }
+    if (buffered)
+      // THE NEXT REQUEST HAS BEEN ALREADY READ FROM THE SOCKET, THE SELECTOR WOULD NOT SIGNAL IT
+      eventLoop.dispatch(this);
+    else
+      eventLoop.park(this);
+  }
+
+  @Override
+  public void sendShutdown() {
+    super.sendShutdown();
+    if (eventLoop != null)
+      eventLoop.wakeUp(this);
+  }
+
+  /**
+   * Interrupts the thread that serves the current request: the thread of the connection, or the worker of the event loop.
+   */
+  @Override
+  public void interrupt() {
+    if (eventLoop == null) {
+      super.interrupt();
+      return;
+    }
+
+    final Thread worker = this.worker;
+    if (worker != null)
+      worker.interrupt();
+  }
+
+  /**
+   * {@inheritDoc} A connection served by the event loop has no thread of its own, it is alive until it is shut down.
+   */
+  @Override
+  public boolean isConnectionAlive() {
+    if (eventLoop == null)
+      return super.isConnectionAlive();
+    return terminated.getCount() > 0;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void joinConnection(final long millis) throws InterruptedException {
+    if (eventLoop == null) {
+      super.joinConnection(millis);
+      return;
+    }
+
+    if (millis == 0)
+      terminated.await();
+    else
+      terminated.await(millis, TimeUnit.MILLISECONDS);
   }
 
   @Override
@@ -136,10 +258,14 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
 
   @Override
   public void shutdown() {
-    sendShutdown();
-    channel.close();
+    try {
+      sendShutdown();
+      channel.close();
 
-    OServerPluginHelper.invokeHandlerCallbackOnSocketDestroyed(server, this);
+      OServerPluginHelper.invokeHandlerCallbackOnSocketDestroyed(server, this);
+    } finally {
+      terminated.countDown();
+    }
   }
 
   private boolean isHandshaking(int requestType) {
@@ -222,9 +348,34 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
     String driverVersion = channel.readString();
     byte encoding = channel.readByte();
     byte errorEncoding = channel.readByte();
+    final String compression = protocolVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_38 ? channel.readString() : null;
     OBinaryProtocolHelper.checkProtocolVersion(this, protocolVersion);
     this.handshakeInfo = new HandshakeInfo(protocolVersion, driverName, driverVersion, encoding, errorEncoding);
     this.factory = ONetworkBinaryProtocolFactory.matchProtocol(protocolVersion);
+
+    if (protocolVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_38)
+      negotiateCompression(compression);
+  }
+
+  /**
+   * Answers with the compression requested by the client if supported, otherwise with an empty name, then enables it on the
+   * channel: the following requests and responses are compressed when bigger than the threshold. Only the compressions which check
+   * the length of the uncompressed content before they allocate it are supported, because frames are received before the client
+   * is authenticated.
+   */
+  private void negotiateCompression(final String requested) throws IOException {
+    final String accepted = OLZ4Compression.NAME.equals(requested) || ODeflateCompression.NAME.equals(requested) ? requested : "";
+
+    beginResponse();
+    try {
+      channel.writeString(accepted);
+    } finally {
+      endResponse();
+    }
+
+    if (!accepted.isEmpty())
+      channel.enableCompression(OCompressionFactory.INSTANCE.getCompression(accepted, null),
+          server.getContextConfiguration().getValueAsInteger(OGlobalConfiguration.NETWORK_BINARY_COMPRESSION_THRESHOLD));
   }
 
   public void setHandshakeInfo(HandshakeInfo handshakeInfo) {
@@ -529,6 +680,16 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
     requests++;
     OServerPluginHelper.invokeHandlerCallbackOnAfterClientRequest(server, connection, (byte) requestType);
 
+    // THE BYTES OF THE CHANNEL FROM THE END OF THE PREVIOUS REQUEST: THIS REQUEST AND ITS RESPONSE
+    final long bytesBeforeCompression = channel.getBytesBeforeCompression();
+    final long bytesAfterCompression = channel.getBytesAfterCompression();
+    if (connection != null) {
+      connection.getStats().bytesBeforeCompression += bytesBeforeCompression - lastBytesBeforeCompression;
+      connection.getStats().bytesAfterCompression += bytesAfterCompression - lastBytesAfterCompression;
+    }
+    lastBytesBeforeCompression = bytesBeforeCompression;
+    lastBytesAfterCompression = bytesAfterCompression;
+
     if (connection != null) {
       setDataCommandInfo(connection, "Listening");
       connection.endOperation();
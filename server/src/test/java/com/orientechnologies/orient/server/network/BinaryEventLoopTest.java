@@ -0,0 +1,197 @@
+package com.orientechnologies.orient.server.network;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.client.remote.OServerAdmin;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.server.OServer;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryEventLoopTest {
+
+  private static final String SERVER_DIRECTORY = "./target/eventloop";
+  private static final int    CLIENTS          = 8;
+  private static final int    RECORDS          = 50;
+
+  private OServer server;
+
+  @Before
+  public void before() throws Exception {
+    OGlobalConfiguration.NETWORK_BINARY_EVENT_LOOP_ENABLED.setValue(true);
+    // LESS WORKERS THAN CONNECTIONS
+    OGlobalConfiguration.NETWORK_BINARY_EVENT_LOOP_WORKERS.setValue(2);
+    OGlobalConfiguration.NETWORK_BINARY_EVENT_LOOP_MAX_STALLED_WORKERS.setValue(2);
+
+    server = new OServer(false);
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    OServerAdmin admin = new OServerAdmin("remote:localhost");
+    admin.connect("root", "root");
+    admin.createDatabase(BinaryEventLoopTest.class.getSimpleName(), "document", "memory");
+    admin.close();
+  }
+
+  @Test
+  public void testConcurrentClients() throws Exception {
+    OServerNetworkListener listener = server.getListenerByProtocol(ONetworkProtocolBinary.class);
+    assertNotNull(listener.getEventLoop());
+
+    ODatabaseDocument db = new ODatabaseDocumentTx("remote:localhost/" + BinaryEventLoopTest.class.getSimpleName());
+    db.open("admin", "admin");
+    db.getMetadata().getSchema().createClass("EventLoop");
+    db.close();
+
+    ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+    try {
+      List<Future<Long>> results = new ArrayList<>();
+      for (int i = 0; i < CLIENTS; i++) {
+        final int client = i;
+        results.add(executor.submit(() -> {
+          ODatabaseDocument clientDb = new ODatabaseDocumentTx("remote:localhost/" + BinaryEventLoopTest.class.getSimpleName());
+          clientDb.open("admin", "admin");
+          try {
+            for (int j = 0; j < RECORDS; j++) {
+              ODocument doc = new ODocument("EventLoop");
+              doc.field("client", client);
+              doc.field("value", j);
+              clientDb.save(doc);
+            }
+            return clientDb.countClass("EventLoop");
+          } finally {
+            clientDb.close();
+          }
+        }));
+      }
+      for (Future<Long> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    db = new ODatabaseDocumentTx("remote:localhost/" + BinaryEventLoopTest.class.getSimpleName());
+    db.open("admin", "admin");
+    try {
+      assertEquals(CLIENTS * RECORDS, db.countClass("EventLoop"));
+    } finally {
+      db.close();
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testStalledClientsDoNotHoldWorkers() throws Exception {
+    int port = server.getListenerByProtocol(ONetworkProtocolBinary.class).getInboundAddr().getPort();
+
+    // AS MANY STALLED CLIENTS AS WORKERS, EACH ONE SENDS ONLY THE FIRST BYTE OF A REQUEST
+    List<Socket> stalled = new ArrayList<>();
+    try {
+      for (int i = 0; i < 2; i++) {
+        Socket socket = new Socket("localhost", port);
+        OutputStream out = socket.getOutputStream();
+        out.write(2);
+        out.flush();
+        stalled.add(socket);
+      }
+      Thread.sleep(500);
+
+      ODatabaseDocument db = new ODatabaseDocumentTx("remote:localhost/" + BinaryEventLoopTest.class.getSimpleName());
+      db.open("admin", "admin");
+      try {
+        db.getMetadata().getSchema().createClass("Stalled");
+        db.save(new ODocument("Stalled"));
+        assertEquals(1, db.countClass("Stalled"));
+      } finally {
+        db.close();
+      }
+    } finally {
+      for (Socket socket : stalled) {
+        socket.close();
+      }
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testStalledWorkersAreBounded() throws Exception {
+    OServerNetworkListener listener = server.getListenerByProtocol(ONetworkProtocolBinary.class);
+    int port = listener.getInboundAddr().getPort();
+
+    // TWICE AS MANY STALLED CLIENTS AS THE STALLED WORKERS ALLOWED
+    List<Socket> stalled = new ArrayList<>();
+    try {
+      for (int i = 0; i < 4; i++) {
+        Socket socket = new Socket("localhost", port);
+        socket.setSoTimeout(500);
+        OutputStream out = socket.getOutputStream();
+        out.write(2);
+        out.flush();
+        stalled.add(socket);
+      }
+      Thread.sleep(1000);
+
+      assertTrue(listener.getEventLoop().getStalledWorkers() <= 2);
+
+      int closed = 0;
+      for (Socket socket : stalled) {
+        try {
+          if (socket.getInputStream().read() < 0)
+            closed++;
+        } catch (SocketTimeoutException e) {
+          // THE CONNECTION IS STILL WAITING FOR THE REST OF THE REQUEST
+        } catch (IOException e) {
+          closed++;
+        }
+      }
+      assertEquals(2, closed);
+
+      ODatabaseDocument db = new ODatabaseDocumentTx("remote:localhost/" + BinaryEventLoopTest.class.getSimpleName());
+      db.open("admin", "admin");
+      try {
+        assertNotNull(db.getMetadata().getSchema().createClass("Bounded"));
+      } finally {
+        db.close();
+      }
+    } finally {
+      for (Socket socket : stalled) {
+        socket.close();
+      }
+    }
+  }
+
+  @After
+  public void after() {
+    server.shutdown();
+
+    OGlobalConfiguration.NETWORK_BINARY_EVENT_LOOP_ENABLED.setValue(false);
+    OGlobalConfiguration.NETWORK_BINARY_EVENT_LOOP_WORKERS.setValue(
+        OGlobalConfiguration.NETWORK_BINARY_EVENT_LOOP_WORKERS.getDefValue());
+    OGlobalConfiguration.NETWORK_BINARY_EVENT_LOOP_MAX_STALLED_WORKERS.setValue(
+        OGlobalConfiguration.NETWORK_BINARY_EVENT_LOOP_MAX_STALLED_WORKERS.getDefValue());
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(SERVER_DIRECTORY));
+    Orient.instance().startup();
+  }
+}
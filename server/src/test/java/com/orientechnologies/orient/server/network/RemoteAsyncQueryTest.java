@@ -0,0 +1,108 @@
+package com.orientechnologies.orient.server.network;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.client.remote.OServerAdmin;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentRemote;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTxInternal;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.server.OServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class RemoteAsyncQueryTest {
+
+  private static final String SERVER_DIRECTORY = "./target/asyncquery";
+  private static final int    QUERIES          = 16;
+  private static final int    RECORDS          = 100;
+
+  private OServer             server;
+  private Object              oldMaxPool;
+  private ODatabaseDocumentTx db;
+
+  @Before
+  public void before() throws Exception {
+    oldMaxPool = OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL.getValue();
+    // ALL THE QUERIES SHARE THE SAME CHANNEL
+    OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL.setValue(1);
+    OGlobalConfiguration.CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS.setValue(QUERIES);
+
+    server = new OServer(false);
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    OServerAdmin admin = new OServerAdmin("remote:localhost");
+    admin.connect("root", "root");
+    admin.createDatabase(RemoteAsyncQueryTest.class.getSimpleName(), "document", "memory");
+    admin.close();
+
+    db = new ODatabaseDocumentTx("remote:localhost/" + RemoteAsyncQueryTest.class.getSimpleName());
+    db.open("admin", "admin");
+    db.getMetadata().getSchema().createClass("Async");
+    for (int i = 0; i < RECORDS; i++) {
+      ODocument doc = new ODocument("Async");
+      doc.field("value", i);
+      db.save(doc);
+    }
+  }
+
+  @Test
+  public void testConcurrentQueries() throws Exception {
+    ODatabaseDocumentRemote remote = (ODatabaseDocumentRemote) ODatabaseDocumentTxInternal.getInternal(db);
+
+    List<CompletableFuture<List<OResult>>> futures = new ArrayList<>();
+    for (int i = 0; i < QUERIES; i++) {
+      futures.add(remote.queryAsync("select from Async where value < ?", i * RECORDS / QUERIES));
+    }
+    // A SYNCHRONOUS REQUEST WHILE THE RESPONSES ARE PENDING
+    assertEquals(RECORDS, db.countClass("Async"));
+
+    for (int i = 0; i < QUERIES; i++) {
+      assertEquals(i * RECORDS / QUERIES, futures.get(i).get().size());
+    }
+  }
+
+  @Test
+  public void testQueryError() throws Exception {
+    ODatabaseDocumentRemote remote = (ODatabaseDocumentRemote) ODatabaseDocumentTxInternal.getInternal(db);
+
+    CompletableFuture<List<OResult>> wrong = remote.queryAsync("select from NotExistent");
+    CompletableFuture<List<OResult>> right = remote.queryAsync("select from Async");
+    try {
+      wrong.get();
+      fail();
+    } catch (ExecutionException e) {
+      // EXPECTED
+    }
+    assertEquals(RECORDS, right.get().size());
+  }
+
+  @After
+  public void after() {
+    db.activateOnCurrentThread();
+    db.close();
+    server.shutdown();
+
+    OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL.setValue(oldMaxPool);
+    OGlobalConfiguration.CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS.setValue(
+        OGlobalConfiguration.CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS.getDefValue());
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(SERVER_DIRECTORY));
+    Orient.instance().startup();
+  }
+}
@@ -0,0 +1,100 @@
+package com.orientechnologies.orient.server.network;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.client.remote.OServerAdmin;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.server.OClientConnection;
+import com.orientechnologies.orient.server.OServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RemoteCompressionTest {
+
+  private static final String SERVER_DIRECTORY = "./target/compression";
+  private static final int    RECORDS          = 100;
+
+  private OServer             server;
+  private ODatabaseDocumentTx db;
+
+  @Before
+  public void before() throws Exception {
+    // SET BEFORE THE FIRST CHANNEL IS OPENED
+    OGlobalConfiguration.NETWORK_BINARY_COMPRESSION.setValue("lz4");
+    OGlobalConfiguration.NETWORK_BINARY_COMPRESSION_THRESHOLD.setValue(64);
+
+    server = new OServer(false);
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    OServerAdmin admin = new OServerAdmin("remote:localhost");
+    admin.connect("root", "root");
+    admin.createDatabase(RemoteCompressionTest.class.getSimpleName(), "document", "memory");
+    admin.close();
+
+    db = new ODatabaseDocumentTx("remote:localhost/" + RemoteCompressionTest.class.getSimpleName());
+    db.open("admin", "admin");
+    db.getMetadata().getSchema().createClass("Compressed");
+  }
+
+  @Test
+  public void testCompressedRecords() {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      text.append("compressible text ");
+    }
+
+    List<ORID> rids = new ArrayList<>();
+    for (int i = 0; i < RECORDS; i++) {
+      ODocument doc = new ODocument("Compressed");
+      doc.field("value", i);
+      doc.field("text", text.toString());
+      db.save(doc);
+      rids.add(doc.getIdentity());
+    }
+    db.getLocalCache().clear();
+
+    for (int i = 0; i < RECORDS; i++) {
+      ODocument doc = db.load(rids.get(i));
+      assertEquals(i, (int) doc.field("value"));
+      assertEquals(text.toString(), doc.field("text"));
+    }
+    assertEquals(RECORDS, db.countClass("Compressed"));
+
+    long bytesBeforeCompression = 0;
+    long bytesAfterCompression = 0;
+    for (OClientConnection connection : server.getClientConnectionManager().getConnections()) {
+      bytesBeforeCompression += connection.getStats().bytesBeforeCompression;
+      bytesAfterCompression += connection.getStats().bytesAfterCompression;
+    }
+    assertTrue(bytesBeforeCompression > 0);
+    assertTrue(bytesAfterCompression < bytesBeforeCompression);
+  }
+
+  @After
+  public void after() {
+    db.activateOnCurrentThread();
+    db.close();
+    server.shutdown();
+
+    OGlobalConfiguration.NETWORK_BINARY_COMPRESSION.setValue(OGlobalConfiguration.NETWORK_BINARY_COMPRESSION.getDefValue());
+    OGlobalConfiguration.NETWORK_BINARY_COMPRESSION_THRESHOLD.setValue(
+        OGlobalConfiguration.NETWORK_BINARY_COMPRESSION_THRESHOLD.getDefValue());
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(SERVER_DIRECTORY));
+    Orient.instance().startup();
+  }
+}
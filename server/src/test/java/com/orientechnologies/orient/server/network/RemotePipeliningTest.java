@@ -0,0 +1,117 @@
+package com.orientechnologies.orient.server.network;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.client.remote.OServerAdmin;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.server.OServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+public class RemotePipeliningTest {
+
+  private static final String SERVER_DIRECTORY = "./target/pipelining";
+  private static final int    CLIENTS          = 8;
+  private static final int    RECORDS          = 100;
+
+  private OServer server;
+  private Object  oldMaxPool;
+
+  @Before
+  public void before() throws Exception {
+    oldMaxPool = OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL.getValue();
+    // ALL THE CLIENTS SHARE THE SAME CHANNEL
+    OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL.setValue(1);
+    OGlobalConfiguration.CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS.setValue(CLIENTS);
+
+    server = new OServer(false);
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    OServerAdmin admin = new OServerAdmin("remote:localhost");
+    admin.connect("root", "root");
+    admin.createDatabase(RemotePipeliningTest.class.getSimpleName(), "document", "memory");
+    admin.close();
+  }
+
+  @Test
+  public void testConcurrentRequestsOnOneChannel() throws Exception {
+    final String url = "remote:localhost/" + RemotePipeliningTest.class.getSimpleName();
+    final List<ORID> rids = new ArrayList<>();
+
+    ODatabaseDocument db = new ODatabaseDocumentTx(url);
+    db.open("admin", "admin");
+    db.getMetadata().getSchema().createClass("Pipelined");
+    for (int i = 0; i < RECORDS; i++) {
+      ODocument doc = new ODocument("Pipelined");
+      doc.field("value", i);
+      db.save(doc);
+      rids.add(doc.getIdentity());
+    }
+    db.close();
+
+    // THE DATABASES ARE OPENED BEFORE, THE CONCURRENT REQUESTS ARE ALL PIPELINED
+    final List<ODatabaseDocument> clients = new ArrayList<>();
+    for (int i = 0; i < CLIENTS; i++) {
+      ODatabaseDocument clientDb = new ODatabaseDocumentTx(url);
+      clientDb.open("admin", "admin");
+      clients.add(clientDb);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (ODatabaseDocument clientDb : clients) {
+        results.add(executor.submit(() -> {
+          clientDb.activateOnCurrentThread();
+          int matching = 0;
+          for (int i = 0; i < RECORDS; i++) {
+            ODocument doc = clientDb.load(rids.get(i));
+            if (Integer.valueOf(i).equals(doc.field("value")))
+              matching++;
+            assertEquals(RECORDS, clientDb.countClass("Pipelined"));
+            clientDb.getLocalCache().clear();
+          }
+          return matching;
+        }));
+      }
+      for (Future<Integer> result : results) {
+        assertEquals(RECORDS, (int) result.get());
+      }
+    } finally {
+      executor.shutdown();
+      for (ODatabaseDocument clientDb : clients) {
+        clientDb.activateOnCurrentThread();
+        clientDb.close();
+      }
+    }
+  }
+
+  @After
+  public void after() {
+    server.shutdown();
+
+    OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL.setValue(oldMaxPool);
+    OGlobalConfiguration.CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS.setValue(
+        OGlobalConfiguration.CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS.getDefValue());
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(SERVER_DIRECTORY));
+    Orient.instance().startup();
+  }
+}
@@ -0,0 +1,145 @@
+package com.orientechnologies.orient.server.network;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.client.remote.ORemoteConnectionManager;
+import com.orientechnologies.orient.client.remote.OServerAdmin;
+import com.orientechnologies.orient.client.remote.OStorageRemote;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.server.OServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RemoteQueryStreamTest {
+
+  private static final String SERVER_DIRECTORY = "./target/querystream";
+  private static final int    RECORDS          = 1000;
+
+  private OServer             server;
+  private Object              oldPageSize;
+  private ODatabaseDocumentTx db;
+
+  @Before
+  public void before() throws Exception {
+    oldPageSize = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.getValue();
+    OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.setValue(10);
+    OGlobalConfiguration.QUERY_REMOTE_RESULTSET_STREAM_PAGES.setValue(4);
+
+    server = new OServer(false);
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    OServerAdmin admin = new OServerAdmin("remote:localhost");
+    admin.connect("root", "root");
+    admin.createDatabase(RemoteQueryStreamTest.class.getSimpleName(), "graph", "memory");
+    admin.close();
+
+    db = new ODatabaseDocumentTx("remote:localhost/" + RemoteQueryStreamTest.class.getSimpleName());
+    db.open("admin", "admin");
+    db.getMetadata().getSchema().createClass("Streamed", db.getMetadata().getSchema().getClass("V"));
+    for (int i = 0; i < RECORDS; i++) {
+      ODocument doc = new ODocument("Streamed");
+      doc.field("value", i);
+      db.save(doc);
+    }
+  }
+
+  @Test
+  public void testStreamAllPages() {
+    Set<Integer> values = new HashSet<>();
+    try (OResultSet rs = db.query("select from Streamed")) {
+      while (rs.hasNext()) {
+        OResult result = rs.next();
+        assertTrue(result.isVertex());
+        values.add(result.getProperty("value"));
+        // OTHER REQUESTS OF THE SAME SESSION WHILE THE PAGES ARE STREAMED
+        if (values.size() % 100 == 0) {
+          assertEquals(RECORDS, db.countClass("Streamed"));
+        }
+      }
+    }
+    assertEquals(RECORDS, values.size());
+  }
+
+  @Test
+  public void testStopEarly() {
+    try (OResultSet rs = db.query("select from Streamed")) {
+      for (int i = 0; i < 25; i++) {
+        assertTrue(rs.hasNext());
+        rs.next();
+      }
+    }
+
+    try (OResultSet rs = db.query("select count(*) as count from Streamed")) {
+      assertEquals(RECORDS, ((Number) rs.next().getProperty("count")).intValue());
+      assertFalse(rs.hasNext());
+    }
+  }
+
+  @Test
+  public void testUnclosedStreamsDoNotExhaustPool() {
+    ORemoteConnectionManager connectionManager = ((OStorageRemote) db.getStorage()).connectionManager;
+    assertEquals(1, connectionManager.getURLs().size());
+    String url = connectionManager.getURLs().iterator().next();
+    int available = connectionManager.getAvailableConnections(url);
+
+    // MORE RESULT SETS THAN CHANNELS IN THE POOL, NEVER CLOSED
+    ODatabaseDocumentTx other = new ODatabaseDocumentTx("remote:localhost/" + RemoteQueryStreamTest.class.getSimpleName());
+    other.open("admin", "admin");
+    List<OResultSet> resultSets = new ArrayList<>();
+    for (int i = 0; i < connectionManager.getMaxResources(url) + 2; i++) {
+      OResultSet rs = other.query("select from Streamed");
+      assertTrue(rs.hasNext());
+      rs.next();
+      resultSets.add(rs);
+    }
+    assertTrue(connectionManager.getAvailableConnections(url) > 0);
+
+    // THE RESULT SETS WITHOUT A FREE CHANNEL FETCH THEIR PAGES ONE AT A TIME
+    OResultSet last = resultSets.get(resultSets.size() - 1);
+    int count = 1;
+    while (last.hasNext()) {
+      last.next();
+      count++;
+    }
+    assertEquals(RECORDS, count);
+    assertEquals(RECORDS, other.countClass("Streamed"));
+
+    // THE STREAMS ARE CLOSED WITH THEIR DATABASE
+    other.close();
+    db.activateOnCurrentThread();
+    assertEquals(available, connectionManager.getAvailableConnections(url));
+    assertEquals(RECORDS, db.countClass("Streamed"));
+  }
+
+  @After
+  public void after() {
+    db.activateOnCurrentThread();
+    db.close();
+    server.shutdown();
+
+    OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.setValue(oldPageSize);
+    OGlobalConfiguration.QUERY_REMOTE_RESULTSET_STREAM_PAGES.setValue(
+        OGlobalConfiguration.QUERY_REMOTE_RESULTSET_STREAM_PAGES.getDefValue());
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(SERVER_DIRECTORY));
+    Orient.instance().startup();
+  }
+}